@@ -0,0 +1,259 @@
+package com.sanctionco.opconnect;
+
+import okio.Timeout;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Sends each request that Retrofit builds against the primary endpoint to the endpoint chosen
+ * by a {@link LoadBalancer} instead. A request that cannot connect to its endpoint was never
+ * sent, so it fails over to another endpoint, whatever its method.
+ */
+final class BalancingCallFactory implements Call.Factory {
+  private final Call.Factory delegate;
+  private final HttpUrl primary;
+  private final LoadBalancer balancer;
+
+  BalancingCallFactory(Call.Factory delegate, HttpUrl primary, LoadBalancer balancer) {
+    this.delegate = delegate;
+    this.primary = primary;
+    this.balancer = balancer;
+  }
+
+  @Override
+  public Call newCall(Request request) {
+    return new BalancedCall(request);
+  }
+
+  /**
+   * Send a {@code heartbeat} request to an endpoint.
+   *
+   * @param factory the factory that sends the request
+   * @param endpoint the endpoint to probe
+   * @return a future that is completed when the endpoint answers with a successful response,
+   *         or completed exceptionally otherwise
+   */
+  static CompletableFuture<Void> heartbeat(Call.Factory factory, HttpUrl endpoint) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+
+    factory.newCall(new Request.Builder().url(endpoint.resolve("heartbeat")).build())
+        .enqueue(new Callback() {
+          @Override
+          public void onResponse(Call call, Response response) {
+            response.close();
+
+            if (response.isSuccessful()) {
+              future.complete(null);
+            } else {
+              future.completeExceptionally(
+                  new IOException("The heartbeat failed with status " + response.code() + "."));
+            }
+          }
+
+          @Override
+          public void onFailure(Call call, IOException e) {
+            future.completeExceptionally(e);
+          }
+        });
+
+    return future;
+  }
+
+  /**
+   * Rewrite a URL built against the primary endpoint so that it points to another endpoint.
+   * Paths under the primary endpoint's path move under the other endpoint's path; absolute
+   * paths are kept as they are.
+   *
+   * @param url the URL built against the primary endpoint
+   * @param endpoint the endpoint that the request is sent to
+   * @return the rewritten URL
+   */
+  HttpUrl rewrite(HttpUrl url, HttpUrl endpoint) {
+    HttpUrl.Builder rewritten = url.newBuilder()
+        .scheme(endpoint.scheme())
+        .host(endpoint.host())
+        .port(endpoint.port());
+
+    String path = url.encodedPath();
+
+    if (path.startsWith(primary.encodedPath())) {
+      rewritten.encodedPath(endpoint.encodedPath()
+          + path.substring(primary.encodedPath().length()));
+    }
+
+    return rewritten.build();
+  }
+
+  private static boolean failed(Response response) {
+    return response.code() >= 500;
+  }
+
+  private final class BalancedCall implements Call {
+    private final Request request;
+    private final Set<LoadBalancer.Endpoint> unreachable = new HashSet<>();
+    private volatile Call current;
+    private volatile boolean executed;
+    private volatile boolean canceled;
+
+    BalancedCall(Request request) {
+      this.request = request;
+    }
+
+    @Override
+    public Request request() {
+      return request;
+    }
+
+    @Override
+    public Response execute() throws IOException {
+      start();
+
+      while (true) {
+        LoadBalancer.Endpoint endpoint = balancer.select(unreachable);
+        Call call = attempt(endpoint);
+
+        try {
+          Response response = call.execute();
+          balancer.record(endpoint, failed(response));
+
+          return response;
+        } catch (IOException e) {
+          recordFailure(endpoint);
+
+          if (!failOver(endpoint, e)) {
+            throw e;
+          }
+        }
+      }
+    }
+
+    @Override
+    public void enqueue(Callback callback) {
+      try {
+        start();
+      } catch (IOException e) {
+        callback.onFailure(this, e);
+        return;
+      }
+
+      send(callback);
+    }
+
+    @Override
+    public void cancel() {
+      canceled = true;
+
+      Call call = current;
+
+      if (call != null) {
+        call.cancel();
+      }
+    }
+
+    @Override
+    public boolean isExecuted() {
+      return executed;
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return canceled;
+    }
+
+    @Override
+    public Timeout timeout() {
+      return Timeout.NONE;
+    }
+
+    @Override
+    public Call clone() {
+      return new BalancedCall(request);
+    }
+
+    private synchronized void start() throws IOException {
+      if (executed) {
+        throw new IllegalStateException("The call was already executed.");
+      }
+
+      executed = true;
+
+      if (canceled) {
+        throw new IOException("Canceled");
+      }
+    }
+
+    private void send(Callback callback) {
+      LoadBalancer.Endpoint endpoint = balancer.select(unreachable);
+      Call call = attempt(endpoint);
+
+      call.enqueue(new Callback() {
+        @Override
+        public void onResponse(Call call, Response response) throws IOException {
+          balancer.record(endpoint, failed(response));
+          callback.onResponse(BalancedCall.this, response);
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+          recordFailure(endpoint);
+
+          if (failOver(endpoint, e)) {
+            send(callback);
+          } else {
+            callback.onFailure(BalancedCall.this, e);
+          }
+        }
+      });
+    }
+
+    private Call attempt(LoadBalancer.Endpoint endpoint) {
+      Call call = delegate.newCall(request.newBuilder()
+          .url(rewrite(request.url(), endpoint.getUrl()))
+          .build());
+      current = call;
+
+      // A cancel that raced with choosing the endpoint must still reach the new call
+      if (canceled) {
+        call.cancel();
+      }
+
+      return call;
+    }
+
+    /**
+     * Record a failed attempt on an endpoint. An attempt that failed because the call was
+     * canceled, such as a hedge that lost or a call that ran out of time, only gives back its
+     * slot so that it cannot eject a healthy endpoint.
+     */
+    private void recordFailure(LoadBalancer.Endpoint endpoint) {
+      if (canceled) {
+        balancer.release(endpoint);
+      } else {
+        balancer.record(endpoint, true);
+      }
+    }
+
+    /**
+     * Decide whether the request should be sent to another endpoint after a failure.
+     */
+    private boolean failOver(LoadBalancer.Endpoint endpoint, IOException failure) {
+      if (canceled || !(failure instanceof ConnectException)) {
+        return false;
+      }
+
+      unreachable.add(endpoint);
+
+      return unreachable.size() < balancer.getEndpoints().size();
+    }
+  }
+}
@@ -0,0 +1,286 @@
+package com.sanctionco.opconnect;
+
+import java.util.StringJoiner;
+
+/**
+ * Configures the client-side cache used by an {@link OPConnectClient}. Build an instance
+ * with {@link #builder()} and pass it to {@link OPConnectClientBuilder#withCache(CacheConfig)}.
+ */
+public class CacheConfig {
+  private final long ttlInMilliseconds;
+  private final long staleWhileRevalidateInMilliseconds;
+  private final long maximumSize;
+  private final long maximumWeightInBytes;
+  private final long fileContentCacheSizeInBytes;
+  private final long fileContentTtlInMilliseconds;
+  private final long negativeTtlInMilliseconds;
+  private final long vaultPollingIntervalInMilliseconds;
+
+  private CacheConfig(Builder builder) {
+    this.ttlInMilliseconds = builder.ttlInMilliseconds;
+    this.staleWhileRevalidateInMilliseconds = builder.staleWhileRevalidateInMilliseconds;
+    this.maximumSize = builder.maximumSize;
+    this.maximumWeightInBytes = builder.maximumWeightInBytes;
+    this.fileContentCacheSizeInBytes = builder.fileContentCacheSizeInBytes;
+    this.fileContentTtlInMilliseconds = builder.fileContentTtlInMilliseconds == null
+        ? builder.ttlInMilliseconds
+        : builder.fileContentTtlInMilliseconds;
+    this.negativeTtlInMilliseconds = builder.negativeTtlInMilliseconds;
+    this.vaultPollingIntervalInMilliseconds = builder.vaultPollingIntervalInMilliseconds;
+  }
+
+  /**
+   * Get the amount of time in milliseconds that a cached entry is considered fresh.
+   *
+   * @return the time-to-live of cached entries in milliseconds
+   */
+  public long getTtlInMilliseconds() {
+    return ttlInMilliseconds;
+  }
+
+  /**
+   * Get the amount of time in milliseconds after the TTL during which a stale entry is still
+   * served while it is refreshed in the background, or zero if stale entries are never served.
+   *
+   * @return the stale-while-revalidate window in milliseconds
+   */
+  public long getStaleWhileRevalidateInMilliseconds() {
+    return staleWhileRevalidateInMilliseconds;
+  }
+
+  /**
+   * Get the maximum number of entries that the cache will hold.
+   *
+   * @return the maximum number of cached entries
+   */
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Get the maximum estimated size in bytes of the cached items and item listings, or zero if
+   * they are bounded by the maximum number of entries instead.
+   *
+   * @return the maximum weight of cached items in bytes
+   */
+  public long getMaximumWeightInBytes() {
+    return maximumWeightInBytes;
+  }
+
+  /**
+   * Get the maximum total size in bytes of cached file content, or zero if file content is not
+   * cached.
+   *
+   * @return the size of the file content cache in bytes
+   */
+  public long getFileContentCacheSizeInBytes() {
+    return fileContentCacheSizeInBytes;
+  }
+
+  /**
+   * Get the amount of time in milliseconds that cached file content is kept.
+   *
+   * @return the time-to-live of cached file content in milliseconds
+   */
+  public long getFileContentTtlInMilliseconds() {
+    return fileContentTtlInMilliseconds;
+  }
+
+  /**
+   * Get the amount of time in milliseconds that a {@code 404 Not Found} response is remembered,
+   * or zero if negative caching is disabled.
+   *
+   * @return the time-to-live of cached not found responses in milliseconds
+   */
+  public long getNegativeTtlInMilliseconds() {
+    return negativeTtlInMilliseconds;
+  }
+
+  /**
+   * Get the interval in milliseconds at which vault content versions are checked in the
+   * background, or zero if background checking is disabled.
+   *
+   * @return the vault polling interval in milliseconds
+   */
+  public long getVaultPollingIntervalInMilliseconds() {
+    return vaultPollingIntervalInMilliseconds;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", CacheConfig.class.getSimpleName() + "[", "]")
+        .add("ttlInMilliseconds=" + ttlInMilliseconds)
+        .add("staleWhileRevalidateInMilliseconds=" + staleWhileRevalidateInMilliseconds)
+        .add("maximumSize=" + maximumSize)
+        .add("maximumWeightInBytes=" + maximumWeightInBytes)
+        .add("fileContentCacheSizeInBytes=" + fileContentCacheSizeInBytes)
+        .add("fileContentTtlInMilliseconds=" + fileContentTtlInMilliseconds)
+        .add("negativeTtlInMilliseconds=" + negativeTtlInMilliseconds)
+        .add("vaultPollingIntervalInMilliseconds=" + vaultPollingIntervalInMilliseconds)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private long ttlInMilliseconds = 60000L;
+    private long staleWhileRevalidateInMilliseconds = 0L;
+    private long maximumSize = 1000L;
+    private long maximumWeightInBytes = 0L;
+    private long fileContentCacheSizeInBytes = 0L;
+    private Long fileContentTtlInMilliseconds = null;
+    private long negativeTtlInMilliseconds = 0L;
+    private long vaultPollingIntervalInMilliseconds = 0L;
+
+    /**
+     * Set how long a cached entry is fresh, after which it is fetched again from 1Password
+     * Connect. Default is 60000 milliseconds (1 minute).
+     *
+     * @param ttlInMilliseconds the time-to-live in milliseconds
+     * @return this
+     */
+    public Builder withTtlInMilliseconds(long ttlInMilliseconds) {
+      if (ttlInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The cache TTL must be greater than zero.");
+      }
+
+      this.ttlInMilliseconds = ttlInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Enable stale-while-revalidate. Once an entry is older than the TTL, it continues to be
+     * returned immediately for this additional amount of time while a single request refreshes
+     * it in the background. An entry older than the TTL plus this window is no longer served,
+     * and callers wait for a fresh response. Disabled by default.
+     *
+     * @param staleWhileRevalidateInMilliseconds the stale-while-revalidate window in milliseconds
+     * @return this
+     */
+    public Builder withStaleWhileRevalidateInMilliseconds(long staleWhileRevalidateInMilliseconds) {
+      if (staleWhileRevalidateInMilliseconds <= 0) {
+        throw new IllegalArgumentException(
+            "The stale-while-revalidate window must be greater than zero.");
+      }
+
+      this.staleWhileRevalidateInMilliseconds = staleWhileRevalidateInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of entries to keep in the cache. Default is 1000.
+     *
+     * @param maximumSize the maximum number of entries
+     * @return this
+     */
+    public Builder withMaximumSize(long maximumSize) {
+      if (maximumSize <= 0) {
+        throw new IllegalArgumentException("The cache maximum size must be greater than zero.");
+      }
+
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Bound the cached items and item listings by their estimated size in memory instead of by
+     * the number of entries, so that a few large items (such as items with inline file content)
+     * cannot use more than the given budget. The size of an item is estimated with
+     * {@link com.sanctionco.opconnect.model.Item#estimateWeight()}. Other cached data is still
+     * bounded by {@link #withMaximumSize(long)}. Disabled by default.
+     *
+     * @param maximumWeightInBytes the maximum estimated size of cached items in bytes
+     * @return this
+     */
+    public Builder withMaximumWeightInBytes(long maximumWeightInBytes) {
+      if (maximumWeightInBytes <= 0) {
+        throw new IllegalArgumentException("The cache maximum weight must be greater than zero.");
+      }
+
+      this.maximumWeightInBytes = maximumWeightInBytes;
+      return this;
+    }
+
+    /**
+     * Enable caching of file content from {@code getFileContent} and the binary file content
+     * downloads. Content is cached by file UUID and the version of the item that owns the file,
+     * so it is downloaded again only once the cached item shows a new version. The content is
+     * kept as the raw bytes of the response, so binary files are not altered, and the least
+     * valuable content is evicted once the total exceeds the given size. A single file larger
+     * than the given size is never cached. Disabled by default.
+     *
+     * @param fileContentCacheSizeInBytes the maximum total size of cached file content in bytes
+     * @return this
+     */
+    public Builder withFileContentCacheSizeInBytes(long fileContentCacheSizeInBytes) {
+      if (fileContentCacheSizeInBytes <= 0) {
+        throw new IllegalArgumentException(
+            "The file content cache size must be greater than zero.");
+      }
+
+      this.fileContentCacheSizeInBytes = fileContentCacheSizeInBytes;
+      return this;
+    }
+
+    /**
+     * Set how long cached file content is kept. Since content is cached by the version of its
+     * item, it never goes stale, and a TTL longer than the cache TTL avoids downloading
+     * unchanged files again. Only applies when file content caching is enabled. Default is the
+     * TTL of the cache.
+     *
+     * @param fileContentTtlInMilliseconds the time-to-live of file content in milliseconds
+     * @return this
+     */
+    public Builder withFileContentTtlInMilliseconds(long fileContentTtlInMilliseconds) {
+      if (fileContentTtlInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The file content TTL must be greater than zero.");
+      }
+
+      this.fileContentTtlInMilliseconds = fileContentTtlInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Enable negative caching. A {@code 404 Not Found} response from {@code getVault},
+     * {@code getItem}, or {@code getFile} is remembered for the given amount of time, and calls
+     * for the same resource fail immediately with the same {@code retrofit2.HttpException} until
+     * it expires. Creating an item through the client forgets the not found responses for its
+     * vault. Negative entries share the maximum size of the cache. Disabled by default.
+     *
+     * @param negativeTtlInMilliseconds the time-to-live of not found responses in milliseconds
+     * @return this
+     */
+    public Builder withNegativeTtlInMilliseconds(long negativeTtlInMilliseconds) {
+      if (negativeTtlInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The negative cache TTL must be greater than zero.");
+      }
+
+      this.negativeTtlInMilliseconds = negativeTtlInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Enable background invalidation. At the given interval the client lists all vaults with a
+     * single request and evicts cached items and item listings only for the vaults whose
+     * {@link com.sanctionco.opconnect.model.Vault#getContentVersion() content version} changed.
+     * Disabled by default.
+     *
+     * @param vaultPollingIntervalInMilliseconds the polling interval in milliseconds
+     * @return this
+     */
+    public Builder withVaultPollingIntervalInMilliseconds(long vaultPollingIntervalInMilliseconds) {
+      if (vaultPollingIntervalInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The vault polling interval must be greater than zero.");
+      }
+
+      this.vaultPollingIntervalInMilliseconds = vaultPollingIntervalInMilliseconds;
+      return this;
+    }
+
+    public CacheConfig build() {
+      return new CacheConfig(this);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.sanctionco.opconnect;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Identifies a cached value that lives in a specific vault, such as an item.
+ */
+final class CacheKey {
+  private final String vaultUUID;
+  private final String id;
+
+  CacheKey(String vaultUUID, String id) {
+    this.vaultUUID = vaultUUID;
+    this.id = id;
+  }
+
+  String getVaultUUID() {
+    return vaultUUID;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  boolean belongsTo(String vaultUUID) {
+    return this.vaultUUID.equals(vaultUUID);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    CacheKey cacheKey = (CacheKey) o;
+    return vaultUUID.equals(cacheKey.vaultUUID) && Objects.equals(id, cacheKey.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(vaultUUID, id);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", CacheKey.class.getSimpleName() + "[", "]")
+        .add("vaultUUID='" + vaultUUID + "'")
+        .add("id='" + id + "'")
+        .toString();
+  }
+}
@@ -0,0 +1,507 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Patch;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import retrofit2.HttpException;
+
+/**
+ * A {@link RetrofitOPConnectClient} that serves {@code listVaults}, {@code getVault},
+ * {@code listItems}, and {@code getItem} calls from an in-memory cache. Items are keyed by vault
+ * and item UUID, and {@link Item#getVersion()} is used to make sure that an older copy of an item
+ * never replaces a newer one. Writes made through this client update or invalidate the matching
+ * cache entries, and item listings evict any cached item whose version has since moved on.
+ *
+ * <p>Vault listings are compared against the previously seen {@link Vault#getContentVersion()}
+ * of each vault, and only the vaults whose contents changed are evicted.
+ *
+ * <p>When stale-while-revalidate is configured, stale entries are served immediately while a
+ * single background request refreshes them. When negative caching is configured, {@code 404}
+ * responses for vaults, items, and files are remembered for a short time. When a maximum weight
+ * is configured, items and item listings are bounded by their estimated size in memory.
+ *
+ * <p>When a file content cache is configured, file content is kept as its raw bytes, keyed by
+ * the file and the version of its item, and {@code getFileContent} and the binary downloads
+ * share one cached copy together with its media type. The item version comes from
+ * {@link #getItem(String, String)}, so content is downloaded again only once the cached item
+ * shows a new version, and concurrent requests for content that is not cached share one
+ * download. Content larger than the cache is streamed without being cached; only one of the
+ * callers that shared its download receives that response, and the others download it again.
+ */
+final class CachingConnectClient extends ForwardingConnectClient {
+  private static final String ALL_VAULTS = "";
+  private static final long CONTENT_OVERHEAD_IN_BYTES = 16L;
+
+  private final LocalCache<String, List<Vault>> vaultListings;
+  private final LocalCache<String, Vault> vaults;
+  private final LocalCache<CacheKey, List<Item>> listings;
+  private final LocalCache<CacheKey, Item> items;
+  private final LocalCache<CacheKey, HttpException> notFound;
+  private final LocalCache<CacheKey, Content> contents;
+  private final SingleFlight<CacheKey> downloads = new SingleFlight<>();
+  // The largest content whose weight, including the entry overhead, fits in the content cache
+  private final long maximumContentBytes;
+  private final VaultVersions vaultVersions = new VaultVersions();
+
+  CachingConnectClient(RetrofitOPConnectClient delegate, CacheConfig config, LongSupplier ticker) {
+    super(delegate);
+
+    this.vaultListings = new LocalCache<>(config, ticker);
+    this.vaults = new LocalCache<>(config, ticker);
+    this.listings = LocalCache.weighted(config, CachingConnectClient::weigh, ticker);
+    this.items = LocalCache.weighted(config, Item::estimateWeight, ticker);
+    this.notFound = config.getNegativeTtlInMilliseconds() > 0
+        ? new LocalCache<>(config.getNegativeTtlInMilliseconds(), config.getMaximumSize(), ticker)
+        : null;
+    this.contents = config.getFileContentCacheSizeInBytes() > 0
+        ? new LocalCache<>(config.getFileContentTtlInMilliseconds(), 0L,
+            config.getFileContentCacheSizeInBytes(), CachingConnectClient::weigh, ticker)
+        : null;
+    this.maximumContentBytes =
+        config.getFileContentCacheSizeInBytes() - CONTENT_OVERHEAD_IN_BYTES;
+  }
+
+  CachingConnectClient(RetrofitOPConnectClient delegate, CacheConfig config) {
+    this(delegate, config, System::nanoTime);
+  }
+
+  /**
+   * Serve expired vaults, vault listings, items, and item listings when a request to refresh them
+   * fails with a matching failure.
+   *
+   * @param condition the condition that a failure must match
+   */
+  void serveExpiredOn(Predicate<? super Throwable> condition) {
+    vaultListings.serveExpiredOn(condition);
+    vaults.serveExpiredOn(condition);
+    listings.serveExpiredOn(condition);
+    items.serveExpiredOn(condition);
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return Futures.thenApply(vaultListings.get(ALL_VAULTS, this::fetchVaults), ArrayList::new);
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return Futures.thenApply(vaultListings.get(filter,
+        () -> Futures.thenApply(delegate().listVaults(filter), listed -> {
+          listed.forEach(vault -> vaults.put(vault.getId(), vault));
+          vaultListings.put(filter, new ArrayList<>(listed));
+
+          return listed;
+        })), ArrayList::new);
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return rememberNotFound(new CacheKey(vaultUUID, null),
+        () -> vaults.get(vaultUUID,
+            () -> Futures.thenApply(delegate().getVault(vaultUUID), vault -> {
+              vaults.put(vaultUUID, vault);
+
+              return vault;
+            })));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return listItems(vaultUUID, null);
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    CacheKey key = new CacheKey(vaultUUID, filter);
+
+    return Futures.thenApply(listings.get(key, () -> {
+      CompletableFuture<List<Item>> response = filter == null
+          ? delegate().listItems(vaultUUID)
+          : delegate().listItems(vaultUUID, filter);
+
+      return Futures.thenApply(response, summaries -> {
+        reconcile(vaultUUID, summaries, filter == null);
+        listings.put(key, new ArrayList<>(summaries));
+
+        return summaries;
+      });
+    }), ArrayList::new);
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    CacheKey key = new CacheKey(vaultUUID, itemUUID);
+
+    return rememberNotFound(key, () -> items.get(key,
+        () -> Futures.thenApply(delegate().getItem(vaultUUID, itemUUID),
+            item -> store(vaultUUID, itemUUID, item))));
+  }
+
+  @Override
+  public CompletableFuture<Item> createItem(String vaultUUID, Item item) {
+    invalidateListings(vaultUUID);
+
+    if (notFound != null) {
+      notFound.invalidateIf(key -> key.belongsTo(vaultUUID));
+    }
+
+    return Futures.thenApply(delegate().createItem(vaultUUID, item),
+        created -> store(vaultUUID, created.getId(), created));
+  }
+
+  @Override
+  public CompletableFuture<Item> replaceItem(String vaultUUID, String itemUUID, Item item) {
+    items.invalidate(new CacheKey(vaultUUID, itemUUID));
+    invalidateListings(vaultUUID);
+
+    return Futures.thenApply(delegate().replaceItem(vaultUUID, itemUUID, item),
+        replaced -> store(vaultUUID, itemUUID, replaced));
+  }
+
+  @Override
+  public CompletableFuture<Item> patchItem(String vaultUUID, String itemUUID, List<Patch> patches) {
+    items.invalidate(new CacheKey(vaultUUID, itemUUID));
+    invalidateListings(vaultUUID);
+
+    return Futures.thenApply(delegate().patchItem(vaultUUID, itemUUID, patches),
+        patched -> store(vaultUUID, itemUUID, patched));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteItem(String vaultUUID, String itemUUID) {
+    CacheKey key = new CacheKey(vaultUUID, itemUUID);
+    items.invalidate(key);
+    invalidateListings(vaultUUID);
+
+    CompletableFuture<Void> deleted = delegate().deleteItem(vaultUUID, itemUUID);
+
+    return Futures.cancelling(deleted.whenComplete((unused, throwable) -> {
+      items.invalidate(key);
+      invalidateListings(vaultUUID);
+    }), deleted);
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return rememberNotFound(fileKey(vaultUUID, itemUUID, fileUUID),
+        () -> delegate().getFile(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return rememberNotFound(fileKey(vaultUUID, itemUUID, fileUUID),
+        () -> delegate().getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<String> getFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID) {
+    if (contents == null) {
+      return delegate().getFileContent(vaultUUID, itemUUID, fileUUID);
+    }
+
+    // The raw bytes are cached rather than the decoded text, so that binary content survives
+    return Futures.thenApply(streamFileContent(vaultUUID, itemUUID, fileUUID), body -> {
+      MediaType type = body.contentType();
+
+      return new String(FileContents.bytes(body),
+          type == null ? StandardCharsets.UTF_8 : type.charset(StandardCharsets.UTF_8));
+    });
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamFileContent(String vaultUUID,
+                                                           String itemUUID,
+                                                           String fileUUID) {
+    if (contents == null) {
+      return delegate().streamFileContent(vaultUUID, itemUUID, fileUUID);
+    }
+
+    return Futures.thenCompose(getItem(vaultUUID, itemUUID), item -> {
+      if (item.getVersion() == null) {
+        return delegate().streamFileContent(vaultUUID, itemUUID, fileUUID);
+      }
+
+      CacheKey key = new CacheKey(vaultUUID,
+          fileKey(vaultUUID, itemUUID, fileUUID).getId() + "@" + item.getVersion());
+      Supplier<CompletableFuture<ResponseBody>> download =
+          () -> delegate().streamFileContent(vaultUUID, itemUUID, fileUUID);
+
+      return Futures.thenCompose(contents.get(key, () -> downloads.execute(key,
+          () -> Futures.thenApply(download.get(), body -> cacheContent(key, body)))),
+          content -> content.open(download));
+    });
+  }
+
+  /**
+   * Lists all vaults and evicts the cached data of every vault whose content version changed
+   * since the last listing. This makes one request no matter how many vaults are cached.
+   *
+   * @return a future that completes when the check is done
+   */
+  CompletableFuture<Void> checkVaultVersions() {
+    return fetchVaults().thenApply(listed -> null);
+  }
+
+  /**
+   * Check the vault versions now, and again every interval after the previous check completes.
+   * A check never starts while the previous one is still waiting for a slow server, so checks
+   * never overlap and the version changes are applied in order.
+   *
+   * @param scheduler the scheduler that runs the checks
+   * @param intervalInMilliseconds the time between the end of a check and the start of the next
+   */
+  void pollVaultVersions(ScheduledExecutorService scheduler, long intervalInMilliseconds) {
+    checkVaultVersions().whenComplete((ignored, throwable) -> {
+      try {
+        scheduler.schedule(() -> pollVaultVersions(scheduler, intervalInMilliseconds),
+            intervalInMilliseconds, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // The client is closed
+      }
+    });
+  }
+
+  /**
+   * Seed the cache with the vaults and items of a snapshot. The snapshot's vault content
+   * versions become the baseline for the next vault check, so that a following
+   * {@link #checkVaultVersions()} evicts exactly the vaults that changed since the snapshot
+   * was taken. Items of a vault without a content version could never be checked, so they are
+   * not restored.
+   *
+   * @param snapshot the snapshot to restore
+   */
+  void restore(Snapshot snapshot) {
+    Map<String, Integer> versions = snapshot.getContentVersions();
+
+    vaultVersions.restore(versions);
+    snapshot.getVaults().forEach(vault -> vaults.put(vault.getId(), vault));
+    snapshot.getItems().stream()
+        .filter(item -> item.getVaultId() != null)
+        .filter(item -> versions.containsKey(item.getVaultId().getId()))
+        .forEach(item -> store(item.getVaultId().getId(), item.getId(), item));
+  }
+
+  /**
+   * Capture the cached vaults and items so that they can be persisted. The content versions
+   * come from the last vault listing, or from the cached vault details for vaults that have not
+   * been listed, so they do not depend on the vault entries still being cached. Items of a
+   * vault without either are left out.
+   *
+   * @return a new snapshot of the cache
+   */
+  Snapshot snapshot() {
+    List<Vault> cachedVaults = new ArrayList<>(vaults.asMap().values());
+    Map<String, Integer> versions = vaultVersions.asMap();
+
+    cachedVaults.forEach(vault -> versions.putIfAbsent(vault.getId(), vault.getContentVersion()));
+
+    return new Snapshot(cachedVaults,
+        items.asMap().values().stream()
+            .filter(item -> item.getVaultId() != null)
+            .filter(item -> versions.containsKey(item.getVaultId().getId()))
+            .collect(Collectors.toList()),
+        versions);
+  }
+
+  /**
+   * Evict all cached items and item listings that belong to the given vault.
+   *
+   * @param vaultUUID the id of the vault
+   */
+  void invalidateVault(String vaultUUID) {
+    items.invalidateIf(key -> key.belongsTo(vaultUUID));
+    invalidateListings(vaultUUID);
+  }
+
+  /**
+   * Lists all vaults, refreshing the cached vault details from the listing and evicting the data
+   * of any vault whose content changed.
+   */
+  private CompletableFuture<List<Vault>> fetchVaults() {
+    return Futures.thenApply(delegate().listVaults(), listed -> {
+      Set<String> changed = vaultVersions.update(listed);
+      changed.forEach(this::invalidateVault);
+
+      listed.forEach(vault -> vaults.put(vault.getId(), vault));
+      vaultListings.invalidateAll();
+      vaultListings.put(ALL_VAULTS, new ArrayList<>(listed));
+
+      return listed;
+    });
+  }
+
+  /**
+   * Evicts the item listings of a vault, along with the vault details and vault listings,
+   * which carry the vault's content version.
+   */
+  private void invalidateListings(String vaultUUID) {
+    listings.invalidateIf(key -> key.belongsTo(vaultUUID));
+    vaults.invalidate(vaultUUID);
+    vaultListings.invalidateAll();
+  }
+
+  /**
+   * Fails immediately if the resource was recently not found. Otherwise makes the call and
+   * remembers the response if it is a {@code 404 Not Found}.
+   */
+  private <T> CompletableFuture<T> rememberNotFound(CacheKey key,
+                                                    Supplier<CompletableFuture<T>> call) {
+    if (notFound == null) {
+      return call.get();
+    }
+
+    HttpException cached = notFound.getIfPresent(key);
+
+    if (cached != null) {
+      CompletableFuture<T> failed = new CompletableFuture<>();
+      failed.completeExceptionally(cached);
+
+      return failed;
+    }
+
+    CompletableFuture<T> response = call.get();
+
+    return Futures.cancelling(response.whenComplete((result, throwable) -> {
+      if (Responses.isNotFound(throwable)) {
+        notFound.put(key, (HttpException) Responses.unwrap(throwable));
+      }
+    }), response);
+  }
+
+  /**
+   * Cache the content in a response body if it fits in the file content cache. Larger content is
+   * left in the response so that it can still be streamed without being held in memory.
+   */
+  private Content cacheContent(CacheKey key, ResponseBody body) {
+    long length = body.contentLength();
+
+    try {
+      // The length is unknown for chunked or compressed responses, so at most one byte more than
+      // the limit is buffered to find out whether the content fits
+      if (maximumContentBytes < 0
+          || length > maximumContentBytes
+          || body.source().request(maximumContentBytes + 1L)) {
+        return new Content(body);
+      }
+    } catch (IOException e) {
+      body.close();
+      throw new UncheckedIOException("Unable to read the file content.", e);
+    }
+
+    Content content = new Content(FileContents.bytes(body), body.contentType());
+    contents.put(key, content);
+
+    return content;
+  }
+
+  private static CacheKey fileKey(String vaultUUID, String itemUUID, String fileUUID) {
+    return new CacheKey(vaultUUID, itemUUID + "/files/" + fileUUID);
+  }
+
+  private Item store(String vaultUUID, String itemUUID, Item item) {
+    if (item != null && itemUUID != null) {
+      items.merge(new CacheKey(vaultUUID, itemUUID), item, CachingConnectClient::newest);
+    }
+
+    return item;
+  }
+
+  /**
+   * Evicts cached items that are older than the versions reported by an item listing. When the
+   * listing is complete (unfiltered), cached items that no longer appear in it are evicted too.
+   */
+  private void reconcile(String vaultUUID, List<Item> summaries, boolean complete) {
+    for (Item summary : summaries) {
+      items.invalidate(new CacheKey(vaultUUID, summary.getId()),
+          cached -> isOlder(cached, summary));
+    }
+
+    if (complete) {
+      Set<String> listed = summaries.stream().map(Item::getId).collect(Collectors.toSet());
+
+      items.invalidateIf(key -> key.belongsTo(vaultUUID) && !listed.contains(key.getId()));
+    }
+  }
+
+  private static long weigh(List<Item> summaries) {
+    return summaries.stream().mapToLong(Item::estimateWeight).sum();
+  }
+
+  private static long weigh(Content content) {
+    return content.bytes.length + CONTENT_OVERHEAD_IN_BYTES;
+  }
+
+  /**
+   * Picks the item with the highest version, preferring the candidate when the versions are equal
+   * or unknown.
+   */
+  static Item newest(Item existing, Item candidate) {
+    return isOlder(candidate, existing) ? existing : candidate;
+  }
+
+  static boolean isOlder(Item item, Item other) {
+    return item.getVersion() != null
+        && other.getVersion() != null
+        && item.getVersion() < other.getVersion();
+  }
+
+  /**
+   * Downloaded file content. Content that fits in the cache is kept as its bytes and media type,
+   * and can be opened any number of times. Larger content stays in its response, which only the
+   * first caller to open it receives.
+   */
+  private static final class Content {
+    private final byte[] bytes;
+    private final MediaType type;
+    private final AtomicReference<ResponseBody> response;
+
+    Content(byte[] bytes, MediaType type) {
+      this.bytes = bytes;
+      this.type = type;
+      this.response = new AtomicReference<>();
+    }
+
+    Content(ResponseBody response) {
+      this.bytes = null;
+      this.type = null;
+      this.response = new AtomicReference<>(response);
+    }
+
+    CompletableFuture<ResponseBody> open(Supplier<CompletableFuture<ResponseBody>> download) {
+      if (bytes != null) {
+        return CompletableFuture.completedFuture(ResponseBody.create(bytes, type));
+      }
+
+      ResponseBody body = response.getAndSet(null);
+
+      return body != null ? CompletableFuture.completedFuture(body) : download.get();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.sanctionco.opconnect;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+import okhttp3.Dns;
+
+/**
+ * Resolves host names for OkHttp with the {@link DnsResolver} of a {@link DnsConfig}, caching
+ * the addresses for the configured TTL. Stale addresses are served while they are looked up
+ * again on the given executor, and expired addresses are served when the lookup fails.
+ */
+final class CachingDns implements Dns {
+  private final DnsResolver resolver;
+  private final LocalCache<String, List<InetAddress>> cache;
+  private final Executor executor;
+
+  CachingDns(DnsConfig config, Executor executor, LongSupplier ticker) {
+    this.resolver = config.getResolver();
+    this.executor = executor;
+
+    if (config.getCacheTtlInMilliseconds() > 0) {
+      this.cache = new LocalCache<>(config.getCacheTtlInMilliseconds(),
+          config.getStaleWhileRevalidateInMilliseconds(), config.getMaximumCacheSize(), ticker);
+      this.cache.serveExpiredOn(throwable -> throwable instanceof UnknownHostException);
+    } else {
+      this.cache = null;
+    }
+  }
+
+  CachingDns(DnsConfig config, Executor executor) {
+    this(config, executor, System::nanoTime);
+  }
+
+  @Override
+  public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+    if (cache == null) {
+      return resolve(hostname);
+    }
+
+    try {
+      return cache.get(hostname, () -> load(hostname)).join();
+    } catch (CompletionException e) {
+      Throwable cause = Responses.unwrap(e);
+
+      if (cause instanceof UnknownHostException) {
+        throw (UnknownHostException) cause;
+      }
+
+      throw e;
+    }
+  }
+
+  /**
+   * Look up the addresses of a host on the executor and store them in the cache.
+   */
+  private CompletableFuture<List<InetAddress>> load(String hostname) {
+    CompletableFuture<List<InetAddress>> load = new CompletableFuture<>();
+
+    executor.execute(() -> {
+      try {
+        List<InetAddress> addresses = resolve(hostname);
+
+        cache.put(hostname, addresses);
+        load.complete(addresses);
+      } catch (UnknownHostException | RuntimeException e) {
+        load.completeExceptionally(e);
+      }
+    });
+
+    return load;
+  }
+
+  private List<InetAddress> resolve(String hostname) throws UnknownHostException {
+    List<InetAddress> addresses = resolver.lookup(hostname);
+
+    if (addresses == null || addresses.isEmpty()) {
+      throw new UnknownHostException(resolver + " returned no addresses for " + hostname);
+    }
+
+    return Collections.unmodifiableList(addresses);
+  }
+}
@@ -0,0 +1,99 @@
+package com.sanctionco.opconnect;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Options that apply to individual calls made through an {@link OPConnectClient}. Build an
+ * instance with {@link #builder()} and pass it to
+ * {@link OPConnectClient#withCallOptions(CallOptions)} to get a client that makes every call
+ * with these options.
+ *
+ * <p>A deadline bounds the whole call, including the time spent waiting in the concurrency or
+ * rate limiter queue, resolving names, backing off between retries, and transferring the
+ * response. When the deadline passes, the returned future is completed exceptionally with a
+ * {@link DeadlineExceededException}, and the work still in progress is cancelled so that its
+ * connection and dispatcher slot are freed. Calls that return a stream or the raw content of a
+ * file complete as soon as the response starts; the time left then bounds reading the response,
+ * and a read that is still in progress when it passes fails with an I/O exception instead. A
+ * timeout is relative to the start of each call, while an absolute deadline is shared by every
+ * call, which suits a deadline inherited from an upstream request. If both are set, whichever
+ * passes first applies.
+ */
+public class CallOptions {
+  private final long timeoutInMilliseconds;
+  private final Instant deadline;
+
+  private CallOptions(Builder builder) {
+    this.timeoutInMilliseconds = builder.timeoutInMilliseconds;
+    this.deadline = builder.deadline;
+  }
+
+  /**
+   * Get the time that each call may take, measured from the start of the call.
+   *
+   * @return the timeout in milliseconds, or 0 if calls have no timeout
+   */
+  public long getTimeoutInMilliseconds() {
+    return timeoutInMilliseconds;
+  }
+
+  /**
+   * Get the instant by which every call must complete.
+   *
+   * @return the deadline, or null if calls have no absolute deadline
+   */
+  public Instant getDeadline() {
+    return deadline;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", CallOptions.class.getSimpleName() + "[", "]")
+        .add("timeoutInMilliseconds=" + timeoutInMilliseconds)
+        .add("deadline=" + deadline)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private long timeoutInMilliseconds = 0;
+    private Instant deadline = null;
+
+    /**
+     * Set the time that each call may take, measured from the start of the call. Set to 0 for
+     * no timeout. Default is 0.
+     *
+     * @param timeoutInMilliseconds the timeout in milliseconds
+     * @return this
+     */
+    public Builder withTimeoutInMilliseconds(long timeoutInMilliseconds) {
+      if (timeoutInMilliseconds < 0) {
+        throw new IllegalArgumentException("The timeout must not be negative.");
+      }
+
+      this.timeoutInMilliseconds = timeoutInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the instant by which every call must complete. Calls started after the deadline
+     * fail immediately without sending a request. Not set by default.
+     *
+     * @param deadline the deadline
+     * @return this
+     */
+    public Builder withDeadline(Instant deadline) {
+      this.deadline = Objects.requireNonNull(deadline, "The deadline must not be null.");
+      return this;
+    }
+
+    public CallOptions build() {
+      return new CallOptions(this);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A circuit breaker configured by a {@link CircuitBreakerConfig}. Outcomes are recorded in a
+ * ring buffer of the most recent calls. When the breaker opens, a probe is scheduled after the
+ * open duration; the breaker is half-open while the probe runs, and closes only if it succeeds.
+ */
+final class CircuitBreaker {
+  private static final byte SUCCESS = 0;
+  private static final byte FAILURE = 1;
+  private static final byte SLOW = 2;
+
+  private final CircuitBreakerConfig config;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier ticker;
+  private final Supplier<CompletableFuture<Void>> probe;
+  private final byte[] outcomes;
+
+  private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+  private int recorded;
+  private int next;
+  private int failures;
+  private int slowCalls;
+
+  CircuitBreaker(CircuitBreakerConfig config,
+                 ScheduledExecutorService scheduler,
+                 Supplier<CompletableFuture<Void>> probe,
+                 LongSupplier ticker) {
+    this.config = config;
+    this.scheduler = scheduler;
+    this.probe = probe;
+    this.ticker = ticker;
+    this.outcomes = new byte[config.getSlidingWindowSize()];
+  }
+
+  CircuitBreaker(CircuitBreakerConfig config,
+                 ScheduledExecutorService scheduler,
+                 Supplier<CompletableFuture<Void>> probe) {
+    this(config, scheduler, probe, System::nanoTime);
+  }
+
+  /**
+   * Make a call if the breaker is closed, and record its outcome.
+   *
+   * @param call the call to make
+   * @param <T> the type of the call result
+   * @return the future returned by the call, or a future that is completed exceptionally with a
+   *         {@link CircuitBreakerOpenException} if the breaker is not closed
+   */
+  <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    CircuitBreakerState current = getState();
+
+    if (current != CircuitBreakerState.CLOSED) {
+      CompletableFuture<T> rejected = new CompletableFuture<>();
+      rejected.completeExceptionally(new CircuitBreakerOpenException(
+          "The request was not sent because the circuit breaker is " + current + "."));
+
+      return rejected;
+    }
+
+    long start = ticker.getAsLong();
+    CompletableFuture<T> future = call.get();
+
+    future.whenComplete((result, throwable) -> record(ticker.getAsLong() - start, throwable));
+
+    return future;
+  }
+
+  /**
+   * Get the current state of the breaker.
+   *
+   * @return the current state
+   */
+  synchronized CircuitBreakerState getState() {
+    return state;
+  }
+
+  private void record(long duration, Throwable throwable) {
+    boolean failed = throwable != null && Responses.isTransient(throwable);
+
+    // Failures that say nothing about the server, such as a 404, are not recorded
+    if (throwable != null && !failed) {
+      return;
+    }
+
+    boolean opened;
+
+    synchronized (this) {
+      if (state != CircuitBreakerState.CLOSED) {
+        return;
+      }
+
+      byte outcome = failed
+          ? FAILURE
+          : duration >= TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationInMilliseconds())
+              ? SLOW
+              : SUCCESS;
+
+      if (recorded == outcomes.length) {
+        forget(outcomes[next]);
+      } else {
+        recorded++;
+      }
+
+      outcomes[next] = outcome;
+      next = (next + 1) % outcomes.length;
+      failures += outcome == FAILURE ? 1 : 0;
+      slowCalls += outcome == SLOW ? 1 : 0;
+
+      opened = recorded >= config.getMinimumNumberOfCalls()
+          && (failures >= config.getFailureRateThreshold() * recorded
+              || slowCalls >= config.getSlowCallRateThreshold() * recorded);
+    }
+
+    if (opened) {
+      open(CircuitBreakerState.CLOSED);
+    }
+  }
+
+  private void forget(byte outcome) {
+    failures -= outcome == FAILURE ? 1 : 0;
+    slowCalls -= outcome == SLOW ? 1 : 0;
+  }
+
+  private void open(CircuitBreakerState from) {
+    if (!transition(from, CircuitBreakerState.OPEN)) {
+      return;
+    }
+
+    try {
+      scheduler.schedule(this::probe, config.getOpenDurationInMilliseconds(),
+          TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // The client was closed, so there is nothing left to probe for
+    }
+  }
+
+  private void probe() {
+    if (!transition(CircuitBreakerState.OPEN, CircuitBreakerState.HALF_OPEN)) {
+      return;
+    }
+
+    CompletableFuture<Void> heartbeat;
+
+    try {
+      heartbeat = probe.get();
+    } catch (RuntimeException e) {
+      open(CircuitBreakerState.HALF_OPEN);
+      return;
+    }
+
+    heartbeat.whenComplete((result, throwable) -> {
+      if (throwable == null) {
+        transition(CircuitBreakerState.HALF_OPEN, CircuitBreakerState.CLOSED);
+      } else {
+        open(CircuitBreakerState.HALF_OPEN);
+      }
+    });
+  }
+
+  private boolean transition(CircuitBreakerState from, CircuitBreakerState to) {
+    synchronized (this) {
+      if (state != from) {
+        return false;
+      }
+
+      state = to;
+      recorded = 0;
+      next = 0;
+      failures = 0;
+      slowCalls = 0;
+    }
+
+    try {
+      config.getStateListener().accept(from, to);
+    } catch (RuntimeException e) {
+      // A failing listener must not affect the breaker
+    }
+
+    return true;
+  }
+}
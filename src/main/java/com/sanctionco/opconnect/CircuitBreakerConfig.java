@@ -0,0 +1,267 @@
+package com.sanctionco.opconnect;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+/**
+ * Configures the circuit breaker of an {@link OPConnectClient}. Build an instance with
+ * {@link #builder()} and pass it to
+ * {@link OPConnectClientBuilder#withCircuitBreaker(CircuitBreakerConfig)}.
+ *
+ * <p>The circuit breaker records the outcome of the most recent requests. Once at least the
+ * minimum number of requests is recorded and either the share of failed requests or the share
+ * of slow requests reaches its threshold, the breaker opens and requests fail immediately with
+ * a {@link CircuitBreakerOpenException}. After the open duration, a single {@code heartbeat}
+ * request probes the server: if it succeeds the breaker closes, otherwise it stays open for
+ * another open duration.
+ *
+ * <p>A request counts as failed if it fails with a connection error or timeout, a
+ * {@code 429 Too Many Requests} response, or a {@code 5xx} response. A request counts as slow if
+ * it takes at least the slow call duration, whether or not it succeeds.
+ */
+public class CircuitBreakerConfig {
+  private static final BiConsumer<CircuitBreakerState, CircuitBreakerState> NO_LISTENER =
+      (from, to) -> { };
+
+  private final double failureRateThreshold;
+  private final double slowCallRateThreshold;
+  private final long slowCallDurationInMilliseconds;
+  private final int slidingWindowSize;
+  private final int minimumNumberOfCalls;
+  private final long openDurationInMilliseconds;
+  private final boolean serveFromCacheWhenOpen;
+  private final BiConsumer<CircuitBreakerState, CircuitBreakerState> stateListener;
+
+  private CircuitBreakerConfig(Builder builder) {
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slowCallRateThreshold = builder.slowCallRateThreshold;
+    this.slowCallDurationInMilliseconds = builder.slowCallDurationInMilliseconds;
+    this.slidingWindowSize = builder.slidingWindowSize;
+    this.minimumNumberOfCalls = builder.minimumNumberOfCalls;
+    this.openDurationInMilliseconds = builder.openDurationInMilliseconds;
+    this.serveFromCacheWhenOpen = builder.serveFromCacheWhenOpen;
+    this.stateListener = builder.stateListener;
+  }
+
+  /**
+   * Get the share of failed requests, between 0 and 1, at which the breaker opens.
+   *
+   * @return the failure rate threshold
+   */
+  public double getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  /**
+   * Get the share of slow requests, between 0 and 1, at which the breaker opens.
+   *
+   * @return the slow call rate threshold
+   */
+  public double getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  /**
+   * Get the duration in milliseconds from which a request counts as slow.
+   *
+   * @return the slow call duration in milliseconds
+   */
+  public long getSlowCallDurationInMilliseconds() {
+    return slowCallDurationInMilliseconds;
+  }
+
+  /**
+   * Get the number of most recent requests whose outcomes are recorded.
+   *
+   * @return the sliding window size
+   */
+  public int getSlidingWindowSize() {
+    return slidingWindowSize;
+  }
+
+  /**
+   * Get the number of requests that must be recorded before the breaker can open.
+   *
+   * @return the minimum number of calls
+   */
+  public int getMinimumNumberOfCalls() {
+    return minimumNumberOfCalls;
+  }
+
+  /**
+   * Get the amount of time in milliseconds that the breaker stays open before probing the
+   * server.
+   *
+   * @return the open duration in milliseconds
+   */
+  public long getOpenDurationInMilliseconds() {
+    return openDurationInMilliseconds;
+  }
+
+  /**
+   * Get whether expired cache entries are served while the breaker is open.
+   *
+   * @return true if expired cache entries are served while open, false otherwise
+   */
+  public boolean isServeFromCacheWhenOpen() {
+    return serveFromCacheWhenOpen;
+  }
+
+  /**
+   * Get the listener that is notified of state transitions.
+   *
+   * @return the state listener
+   */
+  public BiConsumer<CircuitBreakerState, CircuitBreakerState> getStateListener() {
+    return stateListener;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", CircuitBreakerConfig.class.getSimpleName() + "[", "]")
+        .add("failureRateThreshold=" + failureRateThreshold)
+        .add("slowCallRateThreshold=" + slowCallRateThreshold)
+        .add("slowCallDurationInMilliseconds=" + slowCallDurationInMilliseconds)
+        .add("slidingWindowSize=" + slidingWindowSize)
+        .add("minimumNumberOfCalls=" + minimumNumberOfCalls)
+        .add("openDurationInMilliseconds=" + openDurationInMilliseconds)
+        .add("serveFromCacheWhenOpen=" + serveFromCacheWhenOpen)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private double failureRateThreshold = 0.5;
+    private double slowCallRateThreshold = 1.0;
+    private long slowCallDurationInMilliseconds = 5000L;
+    private int slidingWindowSize = 50;
+    private int minimumNumberOfCalls = 20;
+    private long openDurationInMilliseconds = 10000L;
+    private boolean serveFromCacheWhenOpen = false;
+    private BiConsumer<CircuitBreakerState, CircuitBreakerState> stateListener = NO_LISTENER;
+
+    /**
+     * Set the share of failed requests at which the breaker opens. Default is 0.5 (50%).
+     *
+     * @param failureRateThreshold the failure rate threshold, greater than 0 and at most 1
+     * @return this
+     */
+    public Builder withFailureRateThreshold(double failureRateThreshold) {
+      this.failureRateThreshold = rate(failureRateThreshold, "failure rate threshold");
+      return this;
+    }
+
+    /**
+     * Set the share of slow requests at which the breaker opens. Default is 1.0, which opens
+     * the breaker only when every recorded request was slow.
+     *
+     * @param slowCallRateThreshold the slow call rate threshold, greater than 0 and at most 1
+     * @return this
+     */
+    public Builder withSlowCallRateThreshold(double slowCallRateThreshold) {
+      this.slowCallRateThreshold = rate(slowCallRateThreshold, "slow call rate threshold");
+      return this;
+    }
+
+    /**
+     * Set the duration from which a request counts as slow. Default is 5000 milliseconds
+     * (5 seconds).
+     *
+     * @param slowCallDurationInMilliseconds the slow call duration in milliseconds
+     * @return this
+     */
+    public Builder withSlowCallDurationInMilliseconds(long slowCallDurationInMilliseconds) {
+      if (slowCallDurationInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The slow call duration must be greater than zero.");
+      }
+
+      this.slowCallDurationInMilliseconds = slowCallDurationInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the number of most recent requests whose outcomes are recorded, and the number of
+     * requests that must be recorded before the breaker can open. Default is a window of 50
+     * requests and a minimum of 20 requests.
+     *
+     * @param slidingWindowSize the sliding window size
+     * @param minimumNumberOfCalls the minimum number of calls
+     * @return this
+     */
+    public Builder withSlidingWindow(int slidingWindowSize, int minimumNumberOfCalls) {
+      if (slidingWindowSize <= 0) {
+        throw new IllegalArgumentException("The sliding window size must be greater than zero.");
+      }
+
+      if (minimumNumberOfCalls <= 0 || minimumNumberOfCalls > slidingWindowSize) {
+        throw new IllegalArgumentException(
+            "The minimum number of calls must be between 1 and the sliding window size.");
+      }
+
+      this.slidingWindowSize = slidingWindowSize;
+      this.minimumNumberOfCalls = minimumNumberOfCalls;
+      return this;
+    }
+
+    /**
+     * Set the amount of time that the breaker stays open before probing the server with a
+     * {@code heartbeat} request. Default is 10000 milliseconds (10 seconds).
+     *
+     * @param openDurationInMilliseconds the open duration in milliseconds
+     * @return this
+     */
+    public Builder withOpenDurationInMilliseconds(long openDurationInMilliseconds) {
+      if (openDurationInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The open duration must be greater than zero.");
+      }
+
+      this.openDurationInMilliseconds = openDurationInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set whether reads that miss the cache while the breaker is open are answered with the
+     * expired cache entry for the same request, if it is still held, instead of failing. Has
+     * no effect unless the cache is enabled. Disabled by default.
+     *
+     * @param serveFromCacheWhenOpen true to serve expired cache entries while open
+     * @return this
+     */
+    public Builder withServeFromCacheWhenOpen(boolean serveFromCacheWhenOpen) {
+      this.serveFromCacheWhenOpen = serveFromCacheWhenOpen;
+      return this;
+    }
+
+    /**
+     * Set a listener that is notified of every state transition with the previous and the new
+     * state. The listener is called on the thread that caused the transition, so it should
+     * return quickly.
+     *
+     * @param stateListener the listener
+     * @return this
+     */
+    public Builder withStateListener(
+        BiConsumer<CircuitBreakerState, CircuitBreakerState> stateListener) {
+      this.stateListener = Objects.requireNonNull(stateListener,
+          "The state listener must not be null.");
+      return this;
+    }
+
+    public CircuitBreakerConfig build() {
+      return new CircuitBreakerConfig(this);
+    }
+
+    private static double rate(double rate, String name) {
+      if (rate <= 0 || rate > 1) {
+        throw new IllegalArgumentException(
+            "The " + name + " must be greater than 0 and at most 1.");
+      }
+
+      return rate;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a request is not sent because the circuit breaker is open. See
+ * {@link OPConnectClientBuilder#withCircuitBreaker(CircuitBreakerConfig)}.
+ */
+public class CircuitBreakerOpenException extends RejectedExecutionException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Create a new {@code CircuitBreakerOpenException}.
+   *
+   * @param message the detail message
+   */
+  public CircuitBreakerOpenException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,24 @@
+package com.sanctionco.opconnect;
+
+/**
+ * The states of the circuit breaker configured with
+ * {@link OPConnectClientBuilder#withCircuitBreaker(CircuitBreakerConfig)}.
+ */
+public enum CircuitBreakerState {
+  /**
+   * Requests are sent normally, and their outcomes are recorded.
+   */
+  CLOSED,
+
+  /**
+   * Too many recent requests failed or were slow. Requests fail immediately with a
+   * {@link CircuitBreakerOpenException}.
+   */
+  OPEN,
+
+  /**
+   * A single {@code heartbeat} probe is checking whether the Connect server has recovered.
+   * Requests still fail immediately until the probe succeeds.
+   */
+  HALF_OPEN
+}
@@ -0,0 +1,160 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Patch;
+import com.sanctionco.opconnect.model.Vault;
+import com.sanctionco.opconnect.model.apiactivity.APIRequest;
+import com.sanctionco.opconnect.model.health.ConnectServer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import okhttp3.ResponseBody;
+
+/**
+ * A {@link RetrofitOPConnectClient} that sends every call through a {@link CircuitBreaker}, so
+ * that calls fail immediately while the Connect server is known to be unhealthy.
+ */
+final class CircuitBreakingConnectClient extends ForwardingConnectClient {
+  private final CircuitBreaker breaker;
+
+  CircuitBreakingConnectClient(RetrofitOPConnectClient delegate, CircuitBreaker breaker) {
+    super(delegate);
+    this.breaker = breaker;
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return breaker.execute(() -> delegate().listVaults());
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return breaker.execute(() -> delegate().listVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return breaker.execute(() -> delegate().getVault(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return breaker.execute(() -> delegate().listItems(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    return breaker.execute(() -> delegate().listItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    return breaker.execute(() -> delegate().getItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<Item> createItem(String vaultUUID, Item item) {
+    return breaker.execute(() -> delegate().createItem(vaultUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> replaceItem(String vaultUUID, String itemUUID, Item item) {
+    return breaker.execute(() -> delegate().replaceItem(vaultUUID, itemUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> patchItem(String vaultUUID, String itemUUID, List<Patch> patches) {
+    return breaker.execute(() -> delegate().patchItem(vaultUUID, itemUUID, patches));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteItem(String vaultUUID, String itemUUID) {
+    return breaker.execute(() -> delegate().deleteItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID,
+                                                 String itemUUID,
+                                                 boolean inlineContent) {
+    return breaker.execute(() -> delegate().listFiles(vaultUUID, itemUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID, String itemUUID) {
+    return breaker.execute(() -> delegate().listFiles(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return breaker.execute(() -> delegate().getFile(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return breaker.execute(() -> delegate().getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<String> getFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID) {
+    return breaker.execute(() -> delegate().getFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity() {
+    return breaker.execute(() -> delegate().listAPIActivity());
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit) {
+    return breaker.execute(() -> delegate().listAPIActivity(limit));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit, Integer offset) {
+    return breaker.execute(() -> delegate().listAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ConnectServer> health() {
+    return breaker.execute(() -> delegate().health());
+  }
+
+  @Override
+  public CompletableFuture<Void> heartbeat() {
+    return breaker.execute(() -> delegate().heartbeat());
+  }
+
+  @Override
+  public CompletableFuture<String> metrics() {
+    return breaker.execute(() -> delegate().metrics());
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamVaults(String filter) {
+    return breaker.execute(() -> delegate().streamVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamItems(String vaultUUID, String filter) {
+    return breaker.execute(() -> delegate().streamItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamAPIActivity(Integer limit, Integer offset) {
+    return breaker.execute(() -> delegate().streamAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamFileContent(String vaultUUID,
+                                                           String itemUUID,
+                                                           String fileUUID) {
+    return breaker.execute(() -> delegate().streamFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+}
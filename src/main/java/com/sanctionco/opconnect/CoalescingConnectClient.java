@@ -0,0 +1,74 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link RetrofitOPConnectClient} that coalesces concurrent identical read requests, so that
+ * a burst of callers asking for the same vault, item, item listing, or file results in a single
+ * HTTP request.
+ */
+final class CoalescingConnectClient extends ForwardingConnectClient {
+  private final SingleFlight<List<Object>> singleFlight = new SingleFlight<>();
+
+  CoalescingConnectClient(RetrofitOPConnectClient delegate) {
+    super(delegate);
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return singleFlight.execute(key("listVaults"), () -> delegate().listVaults());
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return singleFlight.execute(key("listVaults", filter), () -> delegate().listVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return singleFlight.execute(key("getVault", vaultUUID), () -> delegate().getVault(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return singleFlight.execute(key("listItems", vaultUUID),
+        () -> delegate().listItems(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    return singleFlight.execute(key("listItems", vaultUUID, filter),
+        () -> delegate().listItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    return singleFlight.execute(key("getItem", vaultUUID, itemUUID),
+        () -> delegate().getItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return singleFlight.execute(key("getFile", vaultUUID, itemUUID, fileUUID),
+        () -> delegate().getFile(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return singleFlight.execute(key("getFile", vaultUUID, itemUUID, fileUUID, inlineContent),
+        () -> delegate().getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
+  }
+
+  private static List<Object> key(Object... parts) {
+    return Arrays.asList(parts);
+  }
+}
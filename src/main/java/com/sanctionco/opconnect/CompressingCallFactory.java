@@ -0,0 +1,319 @@
+package com.sanctionco.opconnect;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSource;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.InflaterSource;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Inflater;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import retrofit2.Invocation;
+
+/**
+ * Negotiates compressed responses, compresses large request bodies, and counts payload bytes
+ * per endpoint, according to a {@link CompressionConfig}. The {@code Accept-Encoding} header is
+ * always set explicitly, which also stops OkHttp from decompressing responses transparently,
+ * so that both transports decompress here and the compressed size can be counted.
+ */
+final class CompressingCallFactory implements Call.Factory {
+  private static final int UNSUPPORTED_MEDIA_TYPE = 415;
+
+  private final Call.Factory delegate;
+  private final CompressionConfig config;
+  private final PayloadMeter meter;
+  private final String acceptEncoding;
+  private volatile boolean requestCompression;
+
+  CompressingCallFactory(Call.Factory delegate, CompressionConfig config, PayloadMeter meter) {
+    this.delegate = delegate;
+    this.config = config;
+    this.meter = meter;
+    this.acceptEncoding = String.join(", ", config.getAcceptedEncodings());
+    this.requestCompression = config.isRequestCompression();
+  }
+
+  @Override
+  public Call newCall(Request request) {
+    return new CompressedCall(request);
+  }
+
+  /**
+   * Get the name that payload bytes of a request are counted under: the name of the client
+   * method that made the request, or its method and path if it was not made by Retrofit.
+   *
+   * @param request the request
+   * @return the endpoint name
+   */
+  static String endpointName(Request request) {
+    Invocation invocation = request.tag(Invocation.class);
+
+    return invocation != null
+        ? invocation.method().getName()
+        : request.method() + " " + request.url().encodedPath();
+  }
+
+  /**
+   * Build the request to send, compressing its body if it is large enough.
+   */
+  private Request prepare(Request request, boolean compress) throws IOException {
+    Request.Builder prepared = request.newBuilder().header("Accept-Encoding", acceptEncoding);
+    RequestBody body = request.body();
+
+    if (body == null) {
+      return prepared.build();
+    }
+
+    long length = body.contentLength();
+
+    if (!compress || length < 0 || length < config.getRequestCompressionThresholdInBytes()) {
+      return prepared.build();
+    }
+
+    Buffer compressed = new Buffer();
+
+    try (BufferedSink gzip = Okio.buffer(new GzipSink(compressed))) {
+      body.writeTo(gzip);
+    }
+
+    return prepared
+        .header("Content-Encoding", "gzip")
+        .method(request.method(),
+            RequestBody.create(compressed.readByteString(), body.contentType()))
+        .build();
+  }
+
+  /**
+   * Wrap a response so that its body is decompressed and counted as it is read.
+   */
+  private static Response decode(Response response, PayloadMeter.Counters counters) {
+    ResponseBody body = response.body();
+
+    if (body == null) {
+      return response;
+    }
+
+    String encoding = response.header("Content-Encoding");
+    Source received = counting(body.source(), counters.compressedResponseBytes);
+    Source decoded;
+
+    if ("gzip".equalsIgnoreCase(encoding)) {
+      decoded = new GzipSource(received);
+    } else if ("deflate".equalsIgnoreCase(encoding)) {
+      decoded = new InflaterSource(received, new Inflater());
+    } else {
+      return response.newBuilder()
+          .body(ResponseBody.create(
+              Okio.buffer(counting(received, counters.uncompressedResponseBytes)),
+              body.contentType(), body.contentLength()))
+          .build();
+    }
+
+    return response.newBuilder()
+        .removeHeader("Content-Encoding")
+        .removeHeader("Content-Length")
+        .body(ResponseBody.create(
+            Okio.buffer(counting(decoded, counters.uncompressedResponseBytes)),
+            body.contentType(), -1L))
+        .build();
+  }
+
+  private static Source counting(Source source, LongAdder counter) {
+    return new ForwardingSource(source) {
+      @Override
+      public long read(Buffer sink, long byteCount) throws IOException {
+        long read = super.read(sink, byteCount);
+
+        if (read > 0) {
+          counter.add(read);
+        }
+
+        return read;
+      }
+    };
+  }
+
+  private final class CompressedCall implements Call {
+    private final Request request;
+    private final PayloadMeter.Counters counters;
+    private volatile Call current;
+    private volatile boolean executed;
+    private volatile boolean canceled;
+
+    CompressedCall(Request request) {
+      this.request = request;
+      this.counters = meter.forEndpoint(endpointName(request));
+    }
+
+    @Override
+    public Request request() {
+      return request;
+    }
+
+    @Override
+    public Response execute() throws IOException {
+      start();
+
+      Call call = attempt(requestCompression);
+
+      try {
+        Response response = call.execute();
+
+        if (rejectedCompression(response)) {
+          call = attempt(false);
+          response = call.execute();
+        }
+
+        return decode(response, counters);
+      } finally {
+        count(call.request());
+      }
+    }
+
+    @Override
+    public void enqueue(Callback callback) {
+      try {
+        start();
+      } catch (IOException e) {
+        callback.onFailure(this, e);
+        return;
+      }
+
+      send(requestCompression, callback);
+    }
+
+    @Override
+    public void cancel() {
+      canceled = true;
+
+      Call call = current;
+
+      if (call != null) {
+        call.cancel();
+      }
+    }
+
+    @Override
+    public boolean isExecuted() {
+      return executed;
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return canceled;
+    }
+
+    @Override
+    public Timeout timeout() {
+      return Timeout.NONE;
+    }
+
+    @Override
+    public Call clone() {
+      return new CompressedCall(request);
+    }
+
+    private synchronized void start() throws IOException {
+      if (executed) {
+        throw new IllegalStateException("The call was already executed.");
+      }
+
+      executed = true;
+
+      if (canceled) {
+        throw new IOException("Canceled");
+      }
+    }
+
+    private void send(boolean compress, Callback callback) {
+      Call call;
+
+      try {
+        call = attempt(compress);
+      } catch (IOException e) {
+        callback.onFailure(this, e);
+        return;
+      }
+
+      call.enqueue(new Callback() {
+        @Override
+        public void onResponse(Call call, Response response) throws IOException {
+          if (rejectedCompression(response)) {
+            send(false, callback);
+            return;
+          }
+
+          count(call.request());
+          callback.onResponse(CompressedCall.this, decode(response, counters));
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+          count(call.request());
+          callback.onFailure(CompressedCall.this, e);
+        }
+      });
+    }
+
+    private Call attempt(boolean compress) throws IOException {
+      Call call = delegate.newCall(prepare(request, compress));
+      current = call;
+
+      // A cancel that raced with preparing the request must still reach the new call
+      if (canceled) {
+        call.cancel();
+      }
+
+      return call;
+    }
+
+    /**
+     * Count the request that was finally sent, so that a request which is resent after the
+     * server refused its compressed body is counted only once.
+     */
+    private void count(Request sent) {
+      counters.requests.increment();
+
+      if (request.body() == null) {
+        return;
+      }
+
+      try {
+        counters.uncompressedRequestBytes.add(Math.max(0L, request.body().contentLength()));
+        counters.compressedRequestBytes.add(Math.max(0L, sent.body().contentLength()));
+      } catch (IOException e) {
+        // The body bytes are only counted when its length is known
+      }
+    }
+
+    /**
+     * Check whether the server refused a compressed request body. If it did, request
+     * compression is turned off and the response is discarded so the request can be resent.
+     */
+    private boolean rejectedCompression(Response response) {
+      if (response.code() != UNSUPPORTED_MEDIA_TYPE
+          || !"gzip".equals(response.request().header("Content-Encoding"))
+          || canceled) {
+        return false;
+      }
+
+      requestCompression = false;
+      response.close();
+
+      return true;
+    }
+  }
+}
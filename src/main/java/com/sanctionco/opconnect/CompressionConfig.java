@@ -0,0 +1,149 @@
+package com.sanctionco.opconnect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Configures HTTP compression for an {@link OPConnectClient}. Build an instance with
+ * {@link #builder()} and pass it to
+ * {@link OPConnectClientBuilder#withCompression(CompressionConfig)}.
+ *
+ * <p>The client asks for compressed responses with the accepted encodings, and decompresses
+ * responses itself so that it can count the bytes received before and after decompression.
+ * Request bodies of at least the threshold size, such as large {@code createItem} and
+ * {@code replaceItem} payloads, can also be sent with {@code gzip} compression. If the server
+ * answers a compressed request with {@code 415 Unsupported Media Type}, the request is sent
+ * again uncompressed and request compression is turned off for the rest of the client's life.
+ */
+public class CompressionConfig {
+  static final List<String> SUPPORTED_ENCODINGS = Collections.unmodifiableList(
+      Arrays.asList("gzip", "deflate"));
+
+  private final List<String> acceptedEncodings;
+  private final boolean requestCompression;
+  private final int requestCompressionThresholdInBytes;
+
+  private CompressionConfig(Builder builder) {
+    this.acceptedEncodings = Collections.unmodifiableList(
+        new ArrayList<>(builder.acceptedEncodings));
+    this.requestCompression = builder.requestCompression;
+    this.requestCompressionThresholdInBytes = builder.requestCompressionThresholdInBytes;
+  }
+
+  /**
+   * Get the encodings that the client accepts for responses, in order of preference.
+   *
+   * @return the accepted encodings
+   */
+  public List<String> getAcceptedEncodings() {
+    return acceptedEncodings;
+  }
+
+  /**
+   * Get whether large request bodies are sent compressed.
+   *
+   * @return true if request compression is enabled, false otherwise
+   */
+  public boolean isRequestCompression() {
+    return requestCompression;
+  }
+
+  /**
+   * Get the size in bytes from which request bodies are sent compressed.
+   *
+   * @return the request compression threshold in bytes
+   */
+  public int getRequestCompressionThresholdInBytes() {
+    return requestCompressionThresholdInBytes;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", CompressionConfig.class.getSimpleName() + "[", "]")
+        .add("acceptedEncodings=" + acceptedEncodings)
+        .add("requestCompression=" + requestCompression)
+        .add("requestCompressionThresholdInBytes=" + requestCompressionThresholdInBytes)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private List<String> acceptedEncodings = Collections.singletonList("gzip");
+    private boolean requestCompression = false;
+    private int requestCompressionThresholdInBytes = 16384;
+
+    /**
+     * Set the encodings that the client accepts for responses, in order of preference. The
+     * supported encodings are {@code gzip} and {@code deflate}. Default is {@code gzip}.
+     *
+     * @param encodings the accepted encodings
+     * @return this
+     */
+    public Builder withAcceptedEncodings(String... encodings) {
+      Objects.requireNonNull(encodings, "The encodings must not be null.");
+
+      if (encodings.length == 0) {
+        throw new IllegalArgumentException("At least one encoding must be accepted.");
+      }
+
+      List<String> accepted = new ArrayList<>();
+
+      for (String encoding : encodings) {
+        String normalized = Objects.requireNonNull(encoding, "The encodings must not be null.")
+            .trim().toLowerCase(Locale.ROOT);
+
+        if (!SUPPORTED_ENCODINGS.contains(normalized)) {
+          throw new IllegalArgumentException("The encoding " + encoding + " is not supported."
+              + " Supported encodings are " + SUPPORTED_ENCODINGS + ".");
+        }
+
+        accepted.add(normalized);
+      }
+
+      this.acceptedEncodings = accepted;
+      return this;
+    }
+
+    /**
+     * Set whether request bodies of at least the threshold size are sent with {@code gzip}
+     * compression. Only enable this when the Connect server, or a proxy in front of it, accepts
+     * compressed requests. Disabled by default.
+     *
+     * @param requestCompression true to compress large request bodies
+     * @return this
+     */
+    public Builder withRequestCompression(boolean requestCompression) {
+      this.requestCompression = requestCompression;
+      return this;
+    }
+
+    /**
+     * Set the size from which request bodies are sent compressed. Smaller bodies are sent as
+     * they are, since compressing them saves little. Default is 16384 bytes (16 KiB).
+     *
+     * @param requestCompressionThresholdInBytes the request compression threshold in bytes
+     * @return this
+     */
+    public Builder withRequestCompressionThresholdInBytes(int requestCompressionThresholdInBytes) {
+      if (requestCompressionThresholdInBytes < 0) {
+        throw new IllegalArgumentException(
+            "The request compression threshold must not be negative.");
+      }
+
+      this.requestCompressionThresholdInBytes = requestCompressionThresholdInBytes;
+      return this;
+    }
+
+    public CompressionConfig build() {
+      return new CompressionConfig(this);
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.sanctionco.opconnect;
+
+import java.util.StringJoiner;
+
+/**
+ * Configures the adaptive concurrency limit of an {@link OPConnectClient}. Build an instance
+ * with {@link #builder()} and pass it to
+ * {@link OPConnectClientBuilder#withConcurrencyLimit(ConcurrencyLimitConfig)}.
+ *
+ * <p>The client starts with the initial limit on the number of requests that may be in flight
+ * at once. As long as response times stay close to their long-term average, the limit grows;
+ * when response times rise, or the server answers with {@code 429 Too Many Requests} or
+ * {@code 503 Service Unavailable}, or a request times out, the limit shrinks. Requests over the
+ * limit wait in a bounded queue.
+ */
+public class ConcurrencyLimitConfig {
+  private final int initialLimit;
+  private final int minimumLimit;
+  private final int maximumLimit;
+  private final int maximumQueueSize;
+  private final long maximumQueueWaitInMilliseconds;
+
+  private ConcurrencyLimitConfig(Builder builder) {
+    this.initialLimit = builder.initialLimit;
+    this.minimumLimit = builder.minimumLimit;
+    this.maximumLimit = builder.maximumLimit;
+    this.maximumQueueSize = builder.maximumQueueSize;
+    this.maximumQueueWaitInMilliseconds = builder.maximumQueueWaitInMilliseconds;
+  }
+
+  /**
+   * Get the number of requests that may be in flight at once before any response is observed.
+   *
+   * @return the initial concurrency limit
+   */
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  /**
+   * Get the lowest value that the concurrency limit can shrink to.
+   *
+   * @return the minimum concurrency limit
+   */
+  public int getMinimumLimit() {
+    return minimumLimit;
+  }
+
+  /**
+   * Get the highest value that the concurrency limit can grow to.
+   *
+   * @return the maximum concurrency limit
+   */
+  public int getMaximumLimit() {
+    return maximumLimit;
+  }
+
+  /**
+   * Get the maximum number of requests that can wait for a free slot. Requests beyond this are
+   * rejected immediately.
+   *
+   * @return the maximum queue size
+   */
+  public int getMaximumQueueSize() {
+    return maximumQueueSize;
+  }
+
+  /**
+   * Get the maximum amount of time in milliseconds that a request waits for a free slot before
+   * it is rejected.
+   *
+   * @return the maximum queue wait in milliseconds
+   */
+  public long getMaximumQueueWaitInMilliseconds() {
+    return maximumQueueWaitInMilliseconds;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", ConcurrencyLimitConfig.class.getSimpleName() + "[", "]")
+        .add("initialLimit=" + initialLimit)
+        .add("minimumLimit=" + minimumLimit)
+        .add("maximumLimit=" + maximumLimit)
+        .add("maximumQueueSize=" + maximumQueueSize)
+        .add("maximumQueueWaitInMilliseconds=" + maximumQueueWaitInMilliseconds)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private int initialLimit = 20;
+    private int minimumLimit = 1;
+    private int maximumLimit = 200;
+    private int maximumQueueSize = 1000;
+    private long maximumQueueWaitInMilliseconds = 5000L;
+
+    /**
+     * Set the number of requests that may be in flight at once before any response is
+     * observed. Default is 20.
+     *
+     * @param initialLimit the initial concurrency limit
+     * @return this
+     */
+    public Builder withInitialLimit(int initialLimit) {
+      if (initialLimit <= 0) {
+        throw new IllegalArgumentException("The initial limit must be greater than zero.");
+      }
+
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    /**
+     * Set the lowest value that the concurrency limit can shrink to. Default is 1.
+     *
+     * @param minimumLimit the minimum concurrency limit
+     * @return this
+     */
+    public Builder withMinimumLimit(int minimumLimit) {
+      if (minimumLimit <= 0) {
+        throw new IllegalArgumentException("The minimum limit must be greater than zero.");
+      }
+
+      this.minimumLimit = minimumLimit;
+      return this;
+    }
+
+    /**
+     * Set the highest value that the concurrency limit can grow to. The default OkHttp
+     * transport is configured to allow this many concurrent requests. Default is 200.
+     *
+     * @param maximumLimit the maximum concurrency limit
+     * @return this
+     */
+    public Builder withMaximumLimit(int maximumLimit) {
+      if (maximumLimit <= 0) {
+        throw new IllegalArgumentException("The maximum limit must be greater than zero.");
+      }
+
+      this.maximumLimit = maximumLimit;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of requests that can wait for a free slot. Default is 1000.
+     *
+     * @param maximumQueueSize the maximum queue size, or zero to reject requests over the limit
+     *                         immediately
+     * @return this
+     */
+    public Builder withMaximumQueueSize(int maximumQueueSize) {
+      if (maximumQueueSize < 0) {
+        throw new IllegalArgumentException("The maximum queue size must not be negative.");
+      }
+
+      this.maximumQueueSize = maximumQueueSize;
+      return this;
+    }
+
+    /**
+     * Set the maximum amount of time that a request waits for a free slot. A request that
+     * waits longer fails with a {@link java.util.concurrent.RejectedExecutionException}.
+     * Default is 5000 milliseconds (5 seconds).
+     *
+     * @param maximumQueueWaitInMilliseconds the maximum queue wait in milliseconds
+     * @return this
+     */
+    public Builder withMaximumQueueWaitInMilliseconds(long maximumQueueWaitInMilliseconds) {
+      if (maximumQueueWaitInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The maximum queue wait must be greater than zero.");
+      }
+
+      this.maximumQueueWaitInMilliseconds = maximumQueueWaitInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Build the configuration.
+     *
+     * @return the configuration
+     * @throws IllegalArgumentException if the limits are not ordered as minimum, initial,
+     *                                  maximum
+     */
+    public ConcurrencyLimitConfig build() {
+      if (minimumLimit > initialLimit || initialLimit > maximumLimit) {
+        throw new IllegalArgumentException(
+            "The concurrency limits must satisfy minimum <= initial <= maximum.");
+      }
+
+      return new ConcurrencyLimitConfig(this);
+    }
+  }
+}
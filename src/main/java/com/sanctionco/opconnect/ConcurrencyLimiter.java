@@ -0,0 +1,338 @@
+package com.sanctionco.opconnect;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import retrofit2.HttpException;
+
+/**
+ * Limits the number of requests in flight with a limit that adapts to the observed latency,
+ * using a gradient algorithm. Two moving averages of the response time are kept: a short one
+ * that follows the current latency, and a long one that serves as the baseline. While the short
+ * average stays within a tolerance of the baseline the limit grows by about the square root of
+ * itself per sample; once it rises above the baseline the limit shrinks in proportion. Overload
+ * responses ({@code 429} and {@code 503}) and timeouts cut the limit multiplicatively.
+ *
+ * <p>Calls over the limit wait in a bounded FIFO queue, and fail with a
+ * {@link RejectedExecutionException} if the queue is full or they wait too long.
+ */
+final class ConcurrencyLimiter {
+  private static final double TOLERANCE = 1.5;
+  private static final double SMOOTHING = 0.2;
+  private static final double BACKOFF_RATIO = 0.9;
+  private static final double SHORT_WINDOW = 10;
+  private static final double LONG_WINDOW = 600;
+
+  private final ConcurrencyLimitConfig config;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier ticker;
+  private final Deque<Pending<?>> queue = new ArrayDeque<>();
+
+  private double limit;
+  private double shortRtt;
+  private double longRtt;
+  private int inFlight;
+
+  ConcurrencyLimiter(ConcurrencyLimitConfig config,
+                     ScheduledExecutorService scheduler,
+                     LongSupplier ticker) {
+    this.config = config;
+    this.scheduler = scheduler;
+    this.ticker = ticker;
+    this.limit = config.getInitialLimit();
+  }
+
+  ConcurrencyLimiter(ConcurrencyLimitConfig config, ScheduledExecutorService scheduler) {
+    this(config, scheduler, System::nanoTime);
+  }
+
+  /**
+   * Make a call once the number of calls in flight is below the limit.
+   *
+   * @param call the call to make
+   * @param <T> the type of the call result
+   * @return a future that is completed with the result of the call, or completed exceptionally
+   *         with a {@link RejectedExecutionException} if the call could not be started in time
+   */
+  <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    return submit(release -> call.get(), false);
+  }
+
+  /**
+   * Make a call whose result holds a connection open after the call completes, such as a
+   * streamed response body, once the number of calls in flight is below the limit. The call
+   * keeps its slot until it runs the release action that it is given, but its latency is
+   * measured only until it completes. A call that fails releases its slot right away.
+   *
+   * @param call the call to make, given the action that releases its slot
+   * @param <T> the type of the call result
+   * @return a future that is completed with the result of the call, or completed exceptionally
+   *         with a {@link RejectedExecutionException} if the call could not be started in time
+   */
+  <T> CompletableFuture<T> executeHeld(Function<Runnable, CompletableFuture<T>> call) {
+    return submit(call, true);
+  }
+
+  private <T> CompletableFuture<T> submit(Function<Runnable, CompletableFuture<T>> call,
+                                          boolean held) {
+    Pending<T> pending;
+
+    synchronized (this) {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        pending = null;
+      } else if (queue.size() >= config.getMaximumQueueSize()) {
+        CompletableFuture<T> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(new RejectedExecutionException(
+            "The request was rejected because " + queue.size() + " requests are already"
+                + " waiting for the concurrency limit of " + (int) limit + "."));
+
+        return rejected;
+      } else {
+        pending = new Pending<>(call, held);
+        queue.addLast(pending);
+      }
+    }
+
+    if (pending == null) {
+      return start(call, held);
+    }
+
+    pending.timeout = scheduler.schedule(() -> expire(pending),
+        config.getMaximumQueueWaitInMilliseconds(), TimeUnit.MILLISECONDS);
+
+    return pending;
+  }
+
+  /**
+   * Get the current concurrency limit.
+   *
+   * @return the current limit
+   */
+  synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Get the number of calls in flight.
+   *
+   * @return the number of calls in flight
+   */
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Get the number of calls waiting for a free slot.
+   *
+   * @return the number of waiting calls
+   */
+  synchronized int getQueueSize() {
+    return queue.size();
+  }
+
+  private <T> CompletableFuture<T> start(Function<Runnable, CompletableFuture<T>> call,
+                                         boolean held) {
+    long start = ticker.getAsLong();
+    int startInFlight = getInFlight();
+    AtomicBoolean released = new AtomicBoolean();
+    CompletableFuture<T> future;
+
+    try {
+      future = call.apply(() -> {
+        if (released.compareAndSet(false, true)) {
+          release(() -> { });
+        }
+      });
+    } catch (RuntimeException e) {
+      release(() -> { });
+      throw e;
+    }
+
+    future.whenComplete((result, throwable) -> {
+      long rtt = Math.max(1L, ticker.getAsLong() - start);
+
+      if (held && throwable == null) {
+        synchronized (this) {
+          update(rtt, startInFlight, null);
+        }
+      } else if (released.compareAndSet(false, true)) {
+        release(() -> update(rtt, startInFlight, throwable));
+      }
+    });
+
+    return future;
+  }
+
+  private void release(Runnable update) {
+    Pending<?> next;
+
+    synchronized (this) {
+      inFlight--;
+      update.run();
+
+      next = inFlight < (int) limit ? queue.pollFirst() : null;
+
+      if (next != null) {
+        inFlight++;
+      }
+    }
+
+    if (next != null) {
+      next.start();
+    }
+  }
+
+  /**
+   * Adjust the limit after a call completed. Must be called while holding the lock.
+   */
+  private void update(long rtt, int startInFlight, Throwable throwable) {
+    if (throwable != null) {
+      if (isOverload(throwable)) {
+        limit = Math.max(config.getMinimumLimit(), limit * BACKOFF_RATIO);
+      }
+
+      return;
+    }
+
+    if (shortRtt == 0) {
+      shortRtt = rtt;
+      longRtt = rtt;
+    } else {
+      shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+      longRtt += (rtt - longRtt) / LONG_WINDOW;
+    }
+
+    // Let the baseline recover quickly after a period of high latency
+    if (longRtt / shortRtt > 2) {
+      longRtt *= 0.95;
+    }
+
+    // Only grow the limit when it is actually being used
+    if (startInFlight < limit / 2) {
+      return;
+    }
+
+    double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+    double newLimit = limit * gradient + Math.sqrt(limit);
+
+    limit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    limit = Math.max(config.getMinimumLimit(), Math.min(config.getMaximumLimit(), limit));
+  }
+
+  private void expire(Pending<?> pending) {
+    boolean removed;
+
+    synchronized (this) {
+      removed = queue.remove(pending);
+    }
+
+    if (removed) {
+      pending.completeExceptionally(new RejectedExecutionException(
+          "The request waited more than " + config.getMaximumQueueWaitInMilliseconds()
+              + " milliseconds for the concurrency limit."));
+    }
+  }
+
+  private static boolean isOverload(Throwable throwable) {
+    Throwable cause = Responses.unwrap(throwable);
+
+    if (cause instanceof HttpException) {
+      int code = ((HttpException) cause).code();
+
+      return code == 429 || code == 503;
+    }
+
+    return cause instanceof InterruptedIOException;
+  }
+
+  /**
+   * A call waiting in the queue. Cancelling it before it starts removes it from the queue, and
+   * cancelling it afterwards cancels the call.
+   */
+  private final class Pending<T> extends CompletableFuture<T> {
+    private final Function<Runnable, CompletableFuture<T>> call;
+    private final boolean held;
+    private volatile ScheduledFuture<?> timeout;
+    private volatile CompletableFuture<T> started;
+
+    Pending(Function<Runnable, CompletableFuture<T>> call, boolean held) {
+      this.call = call;
+      this.held = held;
+    }
+
+    void start() {
+      ScheduledFuture<?> scheduled = timeout;
+
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+
+      if (isDone()) {
+        release(() -> { });
+        return;
+      }
+
+      try {
+        started = ConcurrencyLimiter.this.start(call, held);
+      } catch (RuntimeException e) {
+        completeExceptionally(e);
+        return;
+      }
+
+      started.whenComplete((result, throwable) -> {
+        if (throwable == null) {
+          if (!complete(result) && held && result instanceof AutoCloseable) {
+            // Nobody receives the result of a call that was cancelled while it was starting,
+            // so close it here to give back the slot that it holds
+            closeQuietly((AutoCloseable) result);
+          }
+        } else {
+          completeExceptionally(throwable instanceof CancellationException
+              ? throwable
+              : Responses.unwrap(throwable));
+        }
+      });
+    }
+
+    private void closeQuietly(AutoCloseable closeable) {
+      try {
+        closeable.close();
+      } catch (Exception e) {
+        // The result is discarded anyway
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean removed;
+
+      synchronized (ConcurrencyLimiter.this) {
+        removed = queue.remove(this);
+      }
+
+      if (removed && timeout != null) {
+        timeout.cancel(false);
+      }
+
+      CompletableFuture<T> call = started;
+
+      if (call != null) {
+        call.cancel(mayInterruptIfRunning);
+      }
+
+      return super.cancel(mayInterruptIfRunning);
+    }
+  }
+}
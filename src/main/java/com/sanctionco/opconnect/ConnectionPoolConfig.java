@@ -0,0 +1,171 @@
+package com.sanctionco.opconnect;
+
+import java.util.StringJoiner;
+
+/**
+ * Configures the connection pool of an {@link OPConnectClient}. Build an instance with
+ * {@link #builder()} and pass it to
+ * {@link OPConnectClientBuilder#withConnectionPool(ConnectionPoolConfig)}.
+ *
+ * <p>The pool keeps up to the maximum number of idle connections open for the keep-alive
+ * duration, so that requests do not pay for DNS, TCP and TLS setup each time. When warm
+ * connections are configured, that many connections are opened to each endpoint with
+ * {@code heartbeat} requests as soon as the client is built, so that the first requests do not
+ * pay for the setup either. When connections are kept warm, the client also sends the same
+ * number of {@code heartbeat} requests every half keep-alive duration, so that the warm
+ * connections are not evicted between bursts of requests.
+ *
+ * <p>The pool size and keep-alive duration only apply to the default OkHttp transport; a
+ * transport given to {@link OPConnectClientBuilder#withTransport(HttpTransport)} manages its
+ * own connections, but is still warmed.
+ */
+public class ConnectionPoolConfig {
+  private final int maximumIdleConnections;
+  private final long keepAliveDurationInMilliseconds;
+  private final int warmConnections;
+  private final boolean keepWarm;
+
+  private ConnectionPoolConfig(Builder builder) {
+    this.maximumIdleConnections = builder.maximumIdleConnections;
+    this.keepAliveDurationInMilliseconds = builder.keepAliveDurationInMilliseconds;
+    this.warmConnections = builder.warmConnections;
+    this.keepWarm = builder.keepWarm;
+  }
+
+  /**
+   * Get the maximum number of idle connections that the pool keeps open.
+   *
+   * @return the maximum number of idle connections
+   */
+  public int getMaximumIdleConnections() {
+    return maximumIdleConnections;
+  }
+
+  /**
+   * Get the time that an idle connection is kept open before it is evicted.
+   *
+   * @return the keep-alive duration in milliseconds
+   */
+  public long getKeepAliveDurationInMilliseconds() {
+    return keepAliveDurationInMilliseconds;
+  }
+
+  /**
+   * Get the number of connections opened to each endpoint when the client is built.
+   *
+   * @return the number of warm connections
+   */
+  public int getWarmConnections() {
+    return warmConnections;
+  }
+
+  /**
+   * Get whether the warm connections are kept alive with periodic {@code heartbeat} requests.
+   *
+   * @return true if warm connections are kept alive, false otherwise
+   */
+  public boolean isKeepWarm() {
+    return keepWarm;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", ConnectionPoolConfig.class.getSimpleName() + "[", "]")
+        .add("maximumIdleConnections=" + maximumIdleConnections)
+        .add("keepAliveDurationInMilliseconds=" + keepAliveDurationInMilliseconds)
+        .add("warmConnections=" + warmConnections)
+        .add("keepWarm=" + keepWarm)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private int maximumIdleConnections = 5;
+    private long keepAliveDurationInMilliseconds = 300000L;
+    private int warmConnections = 0;
+    private boolean keepWarm = false;
+
+    /**
+     * Set the maximum number of idle connections that the pool keeps open. Default is 5.
+     *
+     * @param maximumIdleConnections the maximum number of idle connections
+     * @return this
+     */
+    public Builder withMaximumIdleConnections(int maximumIdleConnections) {
+      if (maximumIdleConnections < 0) {
+        throw new IllegalArgumentException(
+            "The maximum number of idle connections must not be negative.");
+      }
+
+      this.maximumIdleConnections = maximumIdleConnections;
+      return this;
+    }
+
+    /**
+     * Set the time that an idle connection is kept open before it is evicted. Set it below
+     * the idle timeout of the Connect server and of any proxy in between, so that the client
+     * does not reuse connections that the other side already closed. Default is 300000
+     * milliseconds (5 minutes).
+     *
+     * @param keepAliveDurationInMilliseconds the keep-alive duration in milliseconds
+     * @return this
+     */
+    public Builder withKeepAliveDurationInMilliseconds(long keepAliveDurationInMilliseconds) {
+      if (keepAliveDurationInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The keep-alive duration must be positive.");
+      }
+
+      this.keepAliveDurationInMilliseconds = keepAliveDurationInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the number of connections opened to each endpoint when the client is built. The
+     * connections are opened in the background, so building the client does not wait for
+     * them. Must not exceed the maximum number of idle connections. Default is 0.
+     *
+     * @param warmConnections the number of warm connections
+     * @return this
+     */
+    public Builder withWarmConnections(int warmConnections) {
+      if (warmConnections < 0) {
+        throw new IllegalArgumentException(
+            "The number of warm connections must not be negative.");
+      }
+
+      this.warmConnections = warmConnections;
+      return this;
+    }
+
+    /**
+     * Set whether the warm connections are kept alive by sending {@code heartbeat} requests
+     * every half keep-alive duration. Disabled by default.
+     *
+     * @param keepWarm true to keep the warm connections alive
+     * @return this
+     */
+    public Builder withKeepWarm(boolean keepWarm) {
+      this.keepWarm = keepWarm;
+      return this;
+    }
+
+    /**
+     * Build the configuration.
+     *
+     * @return the configuration
+     * @throws IllegalArgumentException if there are more warm connections than the pool keeps
+     */
+    public ConnectionPoolConfig build() {
+      if (warmConnections > maximumIdleConnections) {
+        throw new IllegalArgumentException("The number of warm connections (" + warmConnections
+            + ") must not exceed the maximum number of idle connections ("
+            + maximumIdleConnections + ").");
+      }
+
+      return new ConnectionPoolConfig(this);
+    }
+  }
+}
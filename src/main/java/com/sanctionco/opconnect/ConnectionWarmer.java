@@ -0,0 +1,75 @@
+package com.sanctionco.opconnect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+
+/**
+ * Opens warm connections to every endpoint with concurrent {@code heartbeat} requests, and
+ * optionally repeats them every half keep-alive duration so that the pool does not evict the
+ * connections while the client is idle. The requests are sent straight through the HTTP client,
+ * so they do not count against rate limits or trip the circuit breaker.
+ */
+final class ConnectionWarmer {
+  private final ConnectionPoolConfig config;
+  private final Call.Factory factory;
+  private final List<HttpUrl> endpoints;
+  private final ScheduledExecutorService scheduler;
+
+  ConnectionWarmer(ConnectionPoolConfig config,
+                   Call.Factory factory,
+                   List<HttpUrl> endpoints,
+                   ScheduledExecutorService scheduler) {
+    this.config = config;
+    this.factory = factory;
+    this.endpoints = endpoints;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Open the warm connections, and schedule the keep-alive heartbeats if they are enabled.
+   */
+  void start() {
+    if (config.getWarmConnections() == 0) {
+      return;
+    }
+
+    warm();
+
+    if (config.isKeepWarm()) {
+      long interval = Math.max(1L, config.getKeepAliveDurationInMilliseconds() / 2);
+
+      try {
+        scheduler.scheduleWithFixedDelay(this::warm, interval, interval, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // The client is already closed
+      }
+    }
+  }
+
+  /**
+   * Send as many concurrent {@code heartbeat} requests to each endpoint as there are warm
+   * connections. Since none of them can reuse a connection that another one holds, each uses
+   * its own pooled connection, or opens a new one.
+   *
+   * @return a future that is completed when every request finished, successfully or not
+   */
+  CompletableFuture<Void> warm() {
+    List<CompletableFuture<Void>> heartbeats = new ArrayList<>();
+
+    for (HttpUrl endpoint : endpoints) {
+      for (int i = 0; i < config.getWarmConnections(); i++) {
+        heartbeats.add(BalancingCallFactory.heartbeat(factory, endpoint)
+            .exceptionally(throwable -> null));
+      }
+    }
+
+    return CompletableFuture.allOf(heartbeats.toArray(new CompletableFuture<?>[0]));
+  }
+}
@@ -0,0 +1,183 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Bounds calls by the timeout and deadline of their {@link CallOptions}. When the time is up,
+ * the call is cancelled, which cancels every layer below it down to the HTTP call. Timers are
+ * scheduled on the client's scheduler.
+ */
+final class Deadline {
+  private final CallOptions options;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier clock;
+
+  Deadline(CallOptions options, ScheduledExecutorService scheduler, LongSupplier clock) {
+    this.options = options;
+    this.scheduler = scheduler;
+    this.clock = clock;
+  }
+
+  Deadline(CallOptions options, ScheduledExecutorService scheduler) {
+    this(options, scheduler, System::currentTimeMillis);
+  }
+
+  /**
+   * Make a call that is cancelled if it does not complete in time.
+   *
+   * @param call starts the call
+   * @param <T> the type of the call result
+   * @return a future that is completed with the result of the call, or completed exceptionally
+   *         with a {@link DeadlineExceededException} if the call does not complete in time.
+   *         Cancelling it cancels the call.
+   */
+  <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    long remaining = remaining();
+
+    if (remaining == Long.MAX_VALUE) {
+      return call.get();
+    }
+
+    if (remaining <= 0) {
+      CompletableFuture<T> expired = new CompletableFuture<>();
+      expired.completeExceptionally(new DeadlineExceededException(
+          "The call was not started because its deadline " + options.getDeadline()
+              + " has passed."));
+
+      return expired;
+    }
+
+    Bounded<T> bounded = new Bounded<>();
+
+    try {
+      bounded.timer = scheduler.schedule(() -> bounded.expire(remaining),
+          remaining, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // The client is closed, so the call fails on its own
+      return call.get();
+    }
+
+    CompletableFuture<T> started;
+
+    try {
+      started = call.get();
+    } catch (RuntimeException e) {
+      bounded.timer.cancel(false);
+      throw e;
+    }
+
+    bounded.follow(started);
+
+    return bounded;
+  }
+
+  /**
+   * Make a call for a response body that is read after the call completes, such as a stream or
+   * a download. The call is bounded as in {@link #execute(Supplier)}, and whatever time is left
+   * when the response arrives becomes the deadline of the body's source, so that a read still
+   * in progress when the time is up fails with an {@link java.io.InterruptedIOException}.
+   *
+   * @param call starts the call
+   * @return a future that is completed with the response body, or completed exceptionally with
+   *         a {@link DeadlineExceededException} if the response does not arrive in time.
+   *         Cancelling it cancels the call.
+   */
+  CompletableFuture<ResponseBody> executeReading(Supplier<CompletableFuture<ResponseBody>> call) {
+    long remaining = remaining();
+
+    if (remaining == Long.MAX_VALUE) {
+      return call.get();
+    }
+
+    long end = clock.getAsLong() + remaining;
+
+    return Futures.thenApply(execute(call), body -> {
+      body.source().timeout()
+          .deadline(Math.max(1L, end - clock.getAsLong()), TimeUnit.MILLISECONDS);
+
+      return body;
+    });
+  }
+
+  /**
+   * Get the time left for a call that starts now, or {@link Long#MAX_VALUE} if it is unbounded.
+   */
+  private long remaining() {
+    long remaining = options.getTimeoutInMilliseconds() > 0
+        ? options.getTimeoutInMilliseconds()
+        : Long.MAX_VALUE;
+
+    if (options.getDeadline() != null) {
+      remaining = Math.min(remaining,
+          options.getDeadline().toEpochMilli() - clock.getAsLong());
+    }
+
+    return remaining;
+  }
+
+  private static final class Bounded<T> extends CompletableFuture<T> {
+    private volatile ScheduledFuture<?> timer;
+    private volatile CompletableFuture<T> call;
+
+    void follow(CompletableFuture<T> started) {
+      call = started;
+
+      // The deadline may have passed, or the caller cancelled, while the call was starting
+      if (isDone()) {
+        started.cancel(true);
+      }
+
+      started.whenComplete((result, throwable) -> {
+        timer.cancel(false);
+
+        if (throwable != null) {
+          completeExceptionally(Responses.unwrap(throwable));
+        } else if (!complete(result) && result instanceof AutoCloseable) {
+          // Nobody receives a result that arrives after the deadline, such as a stream that
+          // holds a response open, so release it here
+          closeQuietly((AutoCloseable) result);
+        }
+      });
+    }
+
+    void expire(long timeout) {
+      if (completeExceptionally(new DeadlineExceededException(
+          "The call did not complete within " + timeout + " milliseconds."))) {
+        cancelCall();
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      timer.cancel(false);
+      cancelCall();
+
+      return cancelled;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+      try {
+        closeable.close();
+      } catch (Exception e) {
+        // The result is discarded anyway
+      }
+    }
+
+    private void cancelCall() {
+      CompletableFuture<T> started = call;
+
+      if (started != null) {
+        started.cancel(true);
+      }
+    }
+  }
+}
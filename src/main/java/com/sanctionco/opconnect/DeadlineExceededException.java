@@ -0,0 +1,20 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Thrown when a call does not complete before its deadline. See
+ * {@link OPConnectClient#withCallOptions(CallOptions)}.
+ */
+public class DeadlineExceededException extends TimeoutException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Create a new {@code DeadlineExceededException}.
+   *
+   * @param message the detail message
+   */
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,163 @@
+package com.sanctionco.opconnect;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Configures how an {@link OPConnectClient} resolves the host names of the Connect server. Build
+ * an instance with {@link #builder()} and pass it to
+ * {@link OPConnectClientBuilder#withDns(DnsConfig)}.
+ *
+ * <p>Host names are resolved with the configured {@link DnsResolver}. When a cache TTL is set,
+ * the addresses are also cached in the client for that long, so that new connections do not
+ * wait for a lookup each time. When a stale-while-revalidate window is also set, addresses that
+ * are older than the TTL are still used for that long while they are looked up again in the
+ * background, so that lookups are never on the path of a request once a host is cached. If a
+ * lookup fails after the addresses have expired, the last addresses that were resolved are used
+ * instead of failing the connection.
+ *
+ * <p>The JVM does not expose the TTL of DNS records, so set the cache TTL no higher than the
+ * TTL of the records of the Connect server. DNS settings only apply to the default OkHttp
+ * transport, and do not apply to Unix domain socket endpoints.
+ */
+public class DnsConfig {
+  private final DnsResolver resolver;
+  private final long cacheTtlInMilliseconds;
+  private final long staleWhileRevalidateInMilliseconds;
+  private final long maximumCacheSize;
+
+  private DnsConfig(Builder builder) {
+    this.resolver = builder.resolver;
+    this.cacheTtlInMilliseconds = builder.cacheTtlInMilliseconds;
+    this.staleWhileRevalidateInMilliseconds = builder.staleWhileRevalidateInMilliseconds;
+    this.maximumCacheSize = builder.maximumCacheSize;
+  }
+
+  /**
+   * Get the resolver that looks up the addresses of host names.
+   *
+   * @return the resolver
+   */
+  public DnsResolver getResolver() {
+    return resolver;
+  }
+
+  /**
+   * Get the amount of time in milliseconds that resolved addresses are cached, or 0 if they are
+   * not cached.
+   *
+   * @return the cache TTL in milliseconds
+   */
+  public long getCacheTtlInMilliseconds() {
+    return cacheTtlInMilliseconds;
+  }
+
+  /**
+   * Get the amount of time in milliseconds after the cache TTL during which cached addresses
+   * are still used while they are looked up again in the background.
+   *
+   * @return the stale-while-revalidate window in milliseconds
+   */
+  public long getStaleWhileRevalidateInMilliseconds() {
+    return staleWhileRevalidateInMilliseconds;
+  }
+
+  /**
+   * Get the maximum number of host names whose addresses are cached.
+   *
+   * @return the maximum number of cached host names
+   */
+  public long getMaximumCacheSize() {
+    return maximumCacheSize;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", DnsConfig.class.getSimpleName() + "[", "]")
+        .add("resolver=" + resolver)
+        .add("cacheTtlInMilliseconds=" + cacheTtlInMilliseconds)
+        .add("staleWhileRevalidateInMilliseconds=" + staleWhileRevalidateInMilliseconds)
+        .add("maximumCacheSize=" + maximumCacheSize)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private DnsResolver resolver = DnsResolver.SYSTEM;
+    private long cacheTtlInMilliseconds = 0L;
+    private long staleWhileRevalidateInMilliseconds = 0L;
+    private long maximumCacheSize = 100L;
+
+    /**
+     * Set the resolver that looks up the addresses of host names. Default is
+     * {@link DnsResolver#SYSTEM}.
+     *
+     * @param resolver the resolver
+     * @return this
+     */
+    public Builder withResolver(DnsResolver resolver) {
+      this.resolver = Objects.requireNonNull(resolver, "The DNS resolver must not be null.");
+      return this;
+    }
+
+    /**
+     * Set the amount of time in milliseconds that resolved addresses are cached. Set it no
+     * higher than the TTL of the DNS records of the Connect server. Default is 0, which
+     * disables the cache so that every new connection looks up its host.
+     *
+     * @param cacheTtlInMilliseconds the cache TTL in milliseconds
+     * @return this
+     */
+    public Builder withCacheTtlInMilliseconds(long cacheTtlInMilliseconds) {
+      if (cacheTtlInMilliseconds < 0) {
+        throw new IllegalArgumentException("The DNS cache TTL must not be negative.");
+      }
+
+      this.cacheTtlInMilliseconds = cacheTtlInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the amount of time in milliseconds after the cache TTL during which cached addresses
+     * are still used while they are looked up again in the background. Only applies when a
+     * cache TTL is set. Default is 0, which makes connections wait for the lookup once the
+     * addresses are older than the TTL.
+     *
+     * @param staleWhileRevalidateInMilliseconds the stale-while-revalidate window in
+     *                                           milliseconds
+     * @return this
+     */
+    public Builder withStaleWhileRevalidateInMilliseconds(
+        long staleWhileRevalidateInMilliseconds) {
+      if (staleWhileRevalidateInMilliseconds < 0) {
+        throw new IllegalArgumentException(
+            "The stale-while-revalidate window must not be negative.");
+      }
+
+      this.staleWhileRevalidateInMilliseconds = staleWhileRevalidateInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of host names whose addresses are cached. Default is 100.
+     *
+     * @param maximumCacheSize the maximum number of cached host names
+     * @return this
+     */
+    public Builder withMaximumCacheSize(long maximumCacheSize) {
+      if (maximumCacheSize <= 0) {
+        throw new IllegalArgumentException("The maximum DNS cache size must be positive.");
+      }
+
+      this.maximumCacheSize = maximumCacheSize;
+      return this;
+    }
+
+    public DnsConfig build() {
+      return new DnsConfig(this);
+    }
+  }
+}
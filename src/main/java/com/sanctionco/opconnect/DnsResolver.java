@@ -0,0 +1,30 @@
+package com.sanctionco.opconnect;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolves the host names of the Connect server to IP addresses. Provide an implementation to
+ * {@link DnsConfig.Builder#withResolver(DnsResolver)} to look up addresses with a different
+ * resolver than the system one, for example a DNS-over-HTTPS client or a fixed set of addresses.
+ */
+@FunctionalInterface
+public interface DnsResolver {
+
+  /**
+   * Resolves host names with {@link InetAddress#getAllByName(String)}, which uses the resolver
+   * of the operating system and the address cache of the JVM.
+   */
+  DnsResolver SYSTEM = hostname -> Arrays.asList(InetAddress.getAllByName(hostname));
+
+  /**
+   * Look up the IP addresses of a host name. Connections are attempted in the returned order.
+   *
+   * @param hostname the host name to resolve
+   * @return the addresses of the host, which must not be empty
+   * @throws UnknownHostException if the host name cannot be resolved
+   */
+  List<InetAddress> lookup(String hostname) throws UnknownHostException;
+}
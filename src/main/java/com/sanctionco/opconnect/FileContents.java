@@ -0,0 +1,93 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Reads the raw content of a file from a response body. The content is copied through a small
+ * buffer, so writing it to a stream or a path takes the same amount of memory no matter how
+ * large the file is. Every method closes the response body.
+ */
+final class FileContents {
+  private static final int BUFFER_SIZE = 8192;
+
+  private FileContents() {
+  }
+
+  /**
+   * Read the whole content into memory.
+   *
+   * @param body the unread response body
+   * @return the content
+   */
+  static byte[] bytes(ResponseBody body) {
+    try (ResponseBody content = body) {
+      return content.bytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read the file content.", e);
+    }
+  }
+
+  /**
+   * Copy the content to a stream. The stream is not closed.
+   *
+   * @param body the unread response body
+   * @param out the stream to write the content to
+   * @return the number of bytes written
+   */
+  static long copy(ResponseBody body, OutputStream out) {
+    try (ResponseBody content = body; InputStream in = content.byteStream()) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long written = 0L;
+      int read;
+
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+        written += read;
+      }
+
+      return written;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to copy the file content.", e);
+    }
+  }
+
+  /**
+   * Write the content to a file, replacing it if it exists. The content is written to a
+   * temporary file next to the target first, so the target is never left partially written.
+   *
+   * @param body the unread response body
+   * @param path the file to write the content to
+   * @return the number of bytes written
+   */
+  static long write(ResponseBody body, Path path) {
+    try (ResponseBody content = body) {
+      Path parent = path.toAbsolutePath().getParent();
+      Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+      try {
+        long written;
+
+        try (OutputStream out = Files.newOutputStream(temp)) {
+          written = copy(content, out);
+        }
+
+        Files.move(temp, path,
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return written;
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to write the file content to " + path, e);
+    }
+  }
+}
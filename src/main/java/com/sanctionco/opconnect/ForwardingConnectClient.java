@@ -0,0 +1,163 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Patch;
+import com.sanctionco.opconnect.model.Vault;
+import com.sanctionco.opconnect.model.apiactivity.APIRequest;
+import com.sanctionco.opconnect.model.health.ConnectServer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import okhttp3.ResponseBody;
+
+/**
+ * A {@link RetrofitOPConnectClient} that forwards every call to a delegate. Subclasses
+ * override only the calls they want to decorate.
+ */
+abstract class ForwardingConnectClient implements RetrofitOPConnectClient {
+  private final RetrofitOPConnectClient delegate;
+
+  ForwardingConnectClient(RetrofitOPConnectClient delegate) {
+    this.delegate = delegate;
+  }
+
+  RetrofitOPConnectClient delegate() {
+    return delegate;
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return delegate.listVaults();
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return delegate.listVaults(filter);
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return delegate.getVault(vaultUUID);
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return delegate.listItems(vaultUUID);
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    return delegate.listItems(vaultUUID, filter);
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    return delegate.getItem(vaultUUID, itemUUID);
+  }
+
+  @Override
+  public CompletableFuture<Item> createItem(String vaultUUID, Item item) {
+    return delegate.createItem(vaultUUID, item);
+  }
+
+  @Override
+  public CompletableFuture<Item> replaceItem(String vaultUUID, String itemUUID, Item item) {
+    return delegate.replaceItem(vaultUUID, itemUUID, item);
+  }
+
+  @Override
+  public CompletableFuture<Item> patchItem(String vaultUUID, String itemUUID, List<Patch> patches) {
+    return delegate.patchItem(vaultUUID, itemUUID, patches);
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteItem(String vaultUUID, String itemUUID) {
+    return delegate.deleteItem(vaultUUID, itemUUID);
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID,
+                                                 String itemUUID,
+                                                 boolean inlineContent) {
+    return delegate.listFiles(vaultUUID, itemUUID, inlineContent);
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID, String itemUUID) {
+    return delegate.listFiles(vaultUUID, itemUUID);
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return delegate.getFile(vaultUUID, itemUUID, fileUUID);
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return delegate.getFile(vaultUUID, itemUUID, fileUUID, inlineContent);
+  }
+
+  @Override
+  public CompletableFuture<String> getFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID) {
+    return delegate.getFileContent(vaultUUID, itemUUID, fileUUID);
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity() {
+    return delegate.listAPIActivity();
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit) {
+    return delegate.listAPIActivity(limit);
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit, Integer offset) {
+    return delegate.listAPIActivity(limit, offset);
+  }
+
+  @Override
+  public CompletableFuture<ConnectServer> health() {
+    return delegate.health();
+  }
+
+  @Override
+  public CompletableFuture<Void> heartbeat() {
+    return delegate.heartbeat();
+  }
+
+  @Override
+  public CompletableFuture<String> metrics() {
+    return delegate.metrics();
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamVaults(String filter) {
+    return delegate.streamVaults(filter);
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamItems(String vaultUUID, String filter) {
+    return delegate.streamItems(vaultUUID, filter);
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamAPIActivity(Integer limit, Integer offset) {
+    return delegate.streamAPIActivity(limit, offset);
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamFileContent(String vaultUUID,
+                                                           String itemUUID,
+                                                           String fileUUID) {
+    return delegate.streamFileContent(vaultUUID, itemUUID, fileUUID);
+  }
+}
@@ -0,0 +1,103 @@
+package com.sanctionco.opconnect;
+
+/**
+ * A probabilistic estimate of how often each key has been seen recently, used by
+ * {@link LocalCache} to decide whether a new entry is worth keeping over an existing one.
+ *
+ * <p>This is a count-min sketch of 4-bit counters, four counters per key. Once the number of
+ * recorded accesses reaches ten times the table size, every counter is halved so that the
+ * estimates favor recent activity.
+ */
+final class FrequencySketch {
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAXIMUM_LENGTH = 1 << 20;
+
+  private long[] table = new long[16];
+  private int additions;
+
+  /**
+   * Grow the sketch so that it can track about {@code expectedKeys} keys accurately. Growing the
+   * sketch forgets the recorded frequencies.
+   *
+   * @param expectedKeys the number of keys expected to be tracked
+   */
+  void ensureCapacity(long expectedKeys) {
+    int length = (int) Math.min(MAXIMUM_LENGTH, Math.max(16L, expectedKeys));
+    length = Integer.highestOneBit(length - 1) << 1;
+
+    if (table.length < length) {
+      table = new long[length];
+      additions = 0;
+    }
+  }
+
+  /**
+   * Get the estimated number of times the key was seen recently, from 0 to 15.
+   *
+   * @param key the key
+   * @return the estimated frequency of the key
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+
+    return frequency;
+  }
+
+  /**
+   * Record that the key was seen.
+   *
+   * @param key the key
+   */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int offset = (start + i) << 2;
+      long mask = 0xfL << offset;
+
+      if ((table[index] & mask) != mask) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+
+    if (added && ++additions >= 10 * table.length) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+
+    additions /= 2;
+  }
+
+  private int indexOf(int hash, int depth) {
+    long result = (hash + SEEDS[depth]) * SEEDS[depth];
+    result += result >>> 32;
+
+    return ((int) result) & (table.length - 1);
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+
+    return (x >>> 16) ^ x;
+  }
+}
@@ -0,0 +1,106 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Helpers that keep cancellation working across chained futures. A future returned by
+ * {@code thenApply} or {@code thenCompose} does not cancel the future it was derived from, so
+ * without these a caller that cancels a result would leave the underlying request running.
+ */
+final class Futures {
+
+  private Futures() {
+  }
+
+  /**
+   * Cancel the given sources when the derived future is cancelled.
+   *
+   * @param derived the future returned to the caller
+   * @param sources the futures that the derived future depends on
+   * @param <T> the type of the result
+   * @return the derived future
+   */
+  static <T> CompletableFuture<T> cancelling(CompletableFuture<T> derived,
+                                             Future<?>... sources) {
+    derived.whenComplete((result, throwable) -> {
+      if (derived.isCancelled()) {
+        for (Future<?> source : sources) {
+          source.cancel(true);
+        }
+      }
+    });
+
+    return derived;
+  }
+
+  /**
+   * Like {@link CompletableFuture#thenApply(Function)}, but cancelling the result cancels the
+   * source.
+   *
+   * @param source the future to transform
+   * @param function transforms the result of the source
+   * @param <T> the type of the result of the source
+   * @param <U> the type of the result
+   * @return a future that is completed with the transformed result
+   */
+  static <T, U> CompletableFuture<U> thenApply(CompletableFuture<T> source,
+                                               Function<? super T, ? extends U> function) {
+    return cancelling(source.thenApply(function), source);
+  }
+
+  /**
+   * Like {@link CompletableFuture#thenCompose(Function)}, but cancelling the result cancels
+   * whichever of the two stages is running.
+   *
+   * @param first the first stage
+   * @param next starts the second stage with the result of the first
+   * @param <T> the type of the result of the first stage
+   * @param <U> the type of the result
+   * @return a future that is completed with the result of the second stage
+   */
+  static <T, U> CompletableFuture<U> thenCompose(
+      CompletableFuture<T> first,
+      Function<? super T, ? extends CompletableFuture<U>> next) {
+    Composed<U> composed = new Composed<>(first);
+
+    first.thenCompose(value -> composed.follow(next.apply(value)))
+        .whenComplete((result, throwable) -> {
+          if (throwable != null) {
+            composed.completeExceptionally(Responses.unwrap(throwable));
+          } else {
+            composed.complete(result);
+          }
+        });
+
+    return composed;
+  }
+
+  private static final class Composed<U> extends CompletableFuture<U> {
+    private volatile Future<?> stage;
+
+    Composed(Future<?> first) {
+      this.stage = first;
+    }
+
+    CompletableFuture<U> follow(CompletableFuture<U> next) {
+      stage = next;
+
+      // A cancel that raced with starting the second stage must still reach it
+      if (isCancelled()) {
+        next.cancel(true);
+      }
+
+      return next;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      stage.cancel(mayInterruptIfRunning);
+
+      return cancelled;
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.sanctionco.opconnect;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second request when the first one is slower than a percentile of recent response
+ * times, according to a {@link HedgingPolicy}. Response times are tracked per operation in a
+ * ring of the most recent samples, and the percentile is recomputed every few samples. A
+ * response time is how long the caller waited, from the first request, so that a hedge that
+ * beats a slow first request does not hide the slow request from the percentile.
+ */
+final class Hedger {
+  private static final int SAMPLES = 256;
+  private static final int MINIMUM_SAMPLES = 20;
+  private static final int RECOMPUTE_INTERVAL = 16;
+
+  private final HedgingPolicy policy;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier ticker;
+  private final TokenBudget budget;
+  private final ConcurrentMap<String, Latencies> latencies = new ConcurrentHashMap<>();
+
+  Hedger(HedgingPolicy policy, ScheduledExecutorService scheduler, LongSupplier ticker) {
+    this.policy = policy;
+    this.scheduler = scheduler;
+    this.ticker = ticker;
+    this.budget = new TokenBudget(policy.getHedgingBudgetCapacity(),
+        policy.getHedgingBudgetRatio());
+  }
+
+  Hedger(HedgingPolicy policy, ScheduledExecutorService scheduler) {
+    this(policy, scheduler, System::nanoTime);
+  }
+
+  /**
+   * Make a call, and make it a second time if it has not completed after the hedging delay.
+   *
+   * @param operation the name of the operation, used to track its response times
+   * @param call the call to make; it must be safe to make more than once
+   * @param <T> the type of the call result
+   * @return a future that is completed with the first successful result, or with a failure once
+   *         every request that was sent has failed
+   */
+  <T> CompletableFuture<T> execute(String operation, Supplier<CompletableFuture<T>> call) {
+    budget.deposit();
+
+    Latencies recent = latencies.computeIfAbsent(operation, unused -> new Latencies());
+    Hedged<T> hedged = new Hedged<>(recent, call);
+    hedged.start();
+
+    if (!hedged.isDone()) {
+      try {
+        hedged.timer = scheduler.schedule(hedged::hedge,
+            recent.delayInNanos(), TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        // The client was closed, so the first request is the only one
+      }
+    }
+
+    return hedged;
+  }
+
+  /**
+   * Get the current hedging delay of an operation.
+   *
+   * @param operation the name of the operation
+   * @return the hedging delay in nanoseconds
+   */
+  long delayInNanos(String operation) {
+    return latencies.computeIfAbsent(operation, unused -> new Latencies()).delayInNanos();
+  }
+
+  /**
+   * The result of a hedged call. Cancelling it cancels every request that was sent.
+   */
+  private final class Hedged<T> extends CompletableFuture<T> {
+    private final Latencies recent;
+    private final Supplier<CompletableFuture<T>> call;
+    private final CompletableFuture<?>[] requests = new CompletableFuture<?>[2];
+    private final long startedAt;
+    private volatile ScheduledFuture<?> timer;
+    private int sent;
+    private int outstanding;
+
+    Hedged(Latencies recent, Supplier<CompletableFuture<T>> call) {
+      this.recent = recent;
+      this.call = call;
+      this.startedAt = ticker.getAsLong();
+    }
+
+    void start() {
+      int index;
+
+      synchronized (this) {
+        index = sent++;
+        outstanding++;
+      }
+
+      send(index);
+    }
+
+    void hedge() {
+      int index;
+
+      synchronized (this) {
+        if (isDone() || sent > 1 || outstanding == 0 || !budget.withdraw()) {
+          return;
+        }
+
+        index = sent++;
+        outstanding++;
+      }
+
+      send(index);
+    }
+
+    private void send(int index) {
+      CompletableFuture<T> request;
+
+      try {
+        request = call.get();
+      } catch (RuntimeException e) {
+        fail(e);
+        return;
+      }
+
+      synchronized (this) {
+        requests[index] = request;
+      }
+
+      if (isDone()) {
+        request.cancel(true);
+      }
+
+      request.whenComplete((result, throwable) -> {
+        if (throwable == null) {
+          if (complete(result)) {
+            recent.record(ticker.getAsLong() - startedAt);
+            cancelOthers();
+          }
+        } else {
+          fail(Responses.unwrap(throwable));
+        }
+      });
+    }
+
+    private void fail(Throwable failure) {
+      boolean last;
+
+      synchronized (this) {
+        last = --outstanding == 0;
+      }
+
+      if (last && completeExceptionally(failure)) {
+        cancelOthers();
+      }
+    }
+
+    private void cancelOthers() {
+      ScheduledFuture<?> scheduled = timer;
+
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+
+      CompletableFuture<?>[] sentRequests;
+
+      synchronized (this) {
+        sentRequests = requests.clone();
+      }
+
+      for (CompletableFuture<?> request : sentRequests) {
+        if (request != null && !request.isDone()) {
+          request.cancel(true);
+        }
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      cancelOthers();
+
+      return cancelled;
+    }
+  }
+
+  /**
+   * The most recent response times of an operation.
+   */
+  private final class Latencies {
+    private final long[] samples = new long[SAMPLES];
+    private int count;
+    private int next;
+    private int sinceRecompute;
+    private long percentile;
+
+    synchronized void record(long nanos) {
+      samples[next] = nanos;
+      next = (next + 1) % SAMPLES;
+      count = Math.min(SAMPLES, count + 1);
+
+      if (++sinceRecompute >= RECOMPUTE_INTERVAL || count == MINIMUM_SAMPLES) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+
+        percentile = sorted[Math.max(0, (int) Math.ceil(policy.getPercentile() * count) - 1)];
+        sinceRecompute = 0;
+      }
+    }
+
+    synchronized long delayInNanos() {
+      if (count < MINIMUM_SAMPLES) {
+        return TimeUnit.MILLISECONDS.toNanos(policy.getInitialDelayInMilliseconds());
+      }
+
+      return Math.max(TimeUnit.MILLISECONDS.toNanos(policy.getMinimumDelayInMilliseconds()),
+          percentile);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link RetrofitOPConnectClient} that hedges vault, item, and file reads with a
+ * {@link Hedger}. Writes, streamed listings, and the server endpoints ({@code health},
+ * {@code heartbeat}, {@code metrics}, and {@code listAPIActivity}) are never hedged, since the
+ * response of a streamed listing that loses the race would never be closed.
+ */
+final class HedgingConnectClient extends ForwardingConnectClient {
+  private final Hedger hedger;
+
+  HedgingConnectClient(RetrofitOPConnectClient delegate, Hedger hedger) {
+    super(delegate);
+    this.hedger = hedger;
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return hedger.execute("listVaults", () -> delegate().listVaults());
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return hedger.execute("listVaults", () -> delegate().listVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return hedger.execute("getVault", () -> delegate().getVault(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return hedger.execute("listItems", () -> delegate().listItems(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    return hedger.execute("listItems", () -> delegate().listItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    return hedger.execute("getItem", () -> delegate().getItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID,
+                                                 String itemUUID,
+                                                 boolean inlineContent) {
+    return hedger.execute("listFiles",
+        () -> delegate().listFiles(vaultUUID, itemUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID, String itemUUID) {
+    return hedger.execute("listFiles", () -> delegate().listFiles(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return hedger.execute("getFile", () -> delegate().getFile(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return hedger.execute("getFile",
+        () -> delegate().getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<String> getFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID) {
+    return hedger.execute("getFileContent",
+        () -> delegate().getFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+}
@@ -0,0 +1,174 @@
+package com.sanctionco.opconnect;
+
+import java.util.StringJoiner;
+
+/**
+ * Configures request hedging for an {@link OPConnectClient}. Build an instance with
+ * {@link #builder()} and pass it to {@link OPConnectClientBuilder#withHedging(HedgingPolicy)}.
+ *
+ * <p>When a read request has not completed after a delay, a second identical request is sent,
+ * and whichever response arrives first is used while the other request is cancelled. The delay
+ * is the configured percentile of the recent response times of the same operation, so only
+ * the slowest requests are hedged. Hedged requests are limited by a hedging budget that works
+ * like the retry budget of a {@link RetryPolicy}.
+ */
+public class HedgingPolicy {
+  private final double percentile;
+  private final long initialDelayInMilliseconds;
+  private final long minimumDelayInMilliseconds;
+  private final int hedgingBudgetCapacity;
+  private final double hedgingBudgetRatio;
+
+  private HedgingPolicy(Builder builder) {
+    this.percentile = builder.percentile;
+    this.initialDelayInMilliseconds = builder.initialDelayInMilliseconds;
+    this.minimumDelayInMilliseconds = builder.minimumDelayInMilliseconds;
+    this.hedgingBudgetCapacity = builder.hedgingBudgetCapacity;
+    this.hedgingBudgetRatio = builder.hedgingBudgetRatio;
+  }
+
+  /**
+   * Get the percentile of recent response times, between 0 and 1, after which a request is
+   * hedged.
+   *
+   * @return the hedging percentile
+   */
+  public double getPercentile() {
+    return percentile;
+  }
+
+  /**
+   * Get the delay in milliseconds used until enough response times have been observed.
+   *
+   * @return the initial hedging delay in milliseconds
+   */
+  public long getInitialDelayInMilliseconds() {
+    return initialDelayInMilliseconds;
+  }
+
+  /**
+   * Get the shortest delay in milliseconds before a request is hedged.
+   *
+   * @return the minimum hedging delay in milliseconds
+   */
+  public long getMinimumDelayInMilliseconds() {
+    return minimumDelayInMilliseconds;
+  }
+
+  /**
+   * Get the maximum number of tokens in the hedging budget.
+   *
+   * @return the hedging budget capacity
+   */
+  public int getHedgingBudgetCapacity() {
+    return hedgingBudgetCapacity;
+  }
+
+  /**
+   * Get the number of tokens that each request adds to the hedging budget.
+   *
+   * @return the hedging budget ratio
+   */
+  public double getHedgingBudgetRatio() {
+    return hedgingBudgetRatio;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", HedgingPolicy.class.getSimpleName() + "[", "]")
+        .add("percentile=" + percentile)
+        .add("initialDelayInMilliseconds=" + initialDelayInMilliseconds)
+        .add("minimumDelayInMilliseconds=" + minimumDelayInMilliseconds)
+        .add("hedgingBudgetCapacity=" + hedgingBudgetCapacity)
+        .add("hedgingBudgetRatio=" + hedgingBudgetRatio)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private double percentile = 0.95;
+    private long initialDelayInMilliseconds = 100L;
+    private long minimumDelayInMilliseconds = 5L;
+    private int hedgingBudgetCapacity = 10;
+    private double hedgingBudgetRatio = 0.05;
+
+    /**
+     * Set the percentile of recent response times after which a request is hedged. Default is
+     * 0.95, so that about the slowest 5% of requests are hedged.
+     *
+     * @param percentile the hedging percentile, greater than 0 and less than 1
+     * @return this
+     */
+    public Builder withPercentile(double percentile) {
+      if (percentile <= 0 || percentile >= 1) {
+        throw new IllegalArgumentException("The percentile must be between 0 and 1.");
+      }
+
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * Set the delay used until enough response times of an operation have been observed.
+     * Default is 100 milliseconds.
+     *
+     * @param initialDelayInMilliseconds the initial hedging delay in milliseconds
+     * @return this
+     */
+    public Builder withInitialDelayInMilliseconds(long initialDelayInMilliseconds) {
+      if (initialDelayInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The initial delay must be greater than zero.");
+      }
+
+      this.initialDelayInMilliseconds = initialDelayInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the shortest delay before a request is hedged, however fast recent responses were.
+     * Default is 5 milliseconds.
+     *
+     * @param minimumDelayInMilliseconds the minimum hedging delay in milliseconds
+     * @return this
+     */
+    public Builder withMinimumDelayInMilliseconds(long minimumDelayInMilliseconds) {
+      if (minimumDelayInMilliseconds < 0) {
+        throw new IllegalArgumentException("The minimum delay must not be negative.");
+      }
+
+      this.minimumDelayInMilliseconds = minimumDelayInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the hedging budget. Each request adds {@code ratio} tokens to the budget, up to
+     * {@code capacity} tokens, and each hedged request takes one token. Default is a capacity
+     * of 10 tokens and a ratio of 0.05, which limits hedged requests to 5% extra load after an
+     * initial burst of 10.
+     *
+     * @param capacity the maximum number of tokens in the budget
+     * @param ratio the number of tokens that each request adds
+     * @return this
+     */
+    public Builder withHedgingBudget(int capacity, double ratio) {
+      if (capacity < 0) {
+        throw new IllegalArgumentException("The hedging budget capacity must not be negative.");
+      }
+
+      if (ratio < 0) {
+        throw new IllegalArgumentException("The hedging budget ratio must not be negative.");
+      }
+
+      this.hedgingBudgetCapacity = capacity;
+      this.hedgingBudgetRatio = ratio;
+      return this;
+    }
+
+    public HedgingPolicy build() {
+      return new HedgingPolicy(this);
+    }
+  }
+}
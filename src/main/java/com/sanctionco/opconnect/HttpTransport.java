@@ -0,0 +1,33 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the HTTP requests made by an {@link OPConnectClient}. By default the client sends
+ * requests with OkHttp; provide a different transport with
+ * {@link OPConnectClientBuilder#withTransport(HttpTransport)} to use another HTTP engine, such as
+ * the JDK {@code java.net.http.HttpClient} through {@code JdkHttpTransport} on Java 11+.
+ *
+ * <p>The request passed to {@link #send(TransportRequest)} is complete, including the
+ * {@code Authorization} header. Implementations only need to send it and report the response;
+ * any status code, including errors, should complete the returned future normally. The future
+ * should complete exceptionally only when no response was received.
+ */
+public interface HttpTransport {
+
+  /**
+   * Send an HTTP request.
+   *
+   * @param request the request to send
+   * @return a {@link CompletableFuture} that is completed with the response. Cancelling the
+   *         future should abort the request.
+   */
+  CompletableFuture<TransportResponse> send(TransportRequest request);
+
+  /**
+   * Release the resources held by this transport. Called when the {@link OPConnectClient} is
+   * closed. Does nothing by default.
+   */
+  default void close() {
+  }
+}
@@ -0,0 +1,188 @@
+package com.sanctionco.opconnect;
+
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Patch;
+import com.sanctionco.opconnect.model.Vault;
+import com.sanctionco.opconnect.model.apiactivity.APIRequest;
+import com.sanctionco.opconnect.model.health.ConnectServer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import okhttp3.ResponseBody;
+
+/**
+ * A {@link RetrofitOPConnectClient} that sends every call through a {@link ConcurrencyLimiter},
+ * so that the number of requests in flight follows what the Connect server can sustain. A
+ * streaming call holds its slot until its response body is closed.
+ */
+final class LimitingConnectClient extends ForwardingConnectClient {
+  private final ConcurrencyLimiter limiter;
+
+  LimitingConnectClient(RetrofitOPConnectClient delegate, ConcurrencyLimiter limiter) {
+    super(delegate);
+    this.limiter = limiter;
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return limiter.execute(() -> delegate().listVaults());
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return limiter.execute(() -> delegate().listVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return limiter.execute(() -> delegate().getVault(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return limiter.execute(() -> delegate().listItems(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    return limiter.execute(() -> delegate().listItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    return limiter.execute(() -> delegate().getItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<Item> createItem(String vaultUUID, Item item) {
+    return limiter.execute(() -> delegate().createItem(vaultUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> replaceItem(String vaultUUID, String itemUUID, Item item) {
+    return limiter.execute(() -> delegate().replaceItem(vaultUUID, itemUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> patchItem(String vaultUUID, String itemUUID, List<Patch> patches) {
+    return limiter.execute(() -> delegate().patchItem(vaultUUID, itemUUID, patches));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteItem(String vaultUUID, String itemUUID) {
+    return limiter.execute(() -> delegate().deleteItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID,
+                                                 String itemUUID,
+                                                 boolean inlineContent) {
+    return limiter.execute(() -> delegate().listFiles(vaultUUID, itemUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID, String itemUUID) {
+    return limiter.execute(() -> delegate().listFiles(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return limiter.execute(() -> delegate().getFile(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return limiter.execute(() -> delegate().getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<String> getFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID) {
+    return limiter.execute(() -> delegate().getFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity() {
+    return limiter.execute(() -> delegate().listAPIActivity());
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit) {
+    return limiter.execute(() -> delegate().listAPIActivity(limit));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit, Integer offset) {
+    return limiter.execute(() -> delegate().listAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ConnectServer> health() {
+    return limiter.execute(() -> delegate().health());
+  }
+
+  @Override
+  public CompletableFuture<Void> heartbeat() {
+    return limiter.execute(() -> delegate().heartbeat());
+  }
+
+  @Override
+  public CompletableFuture<String> metrics() {
+    return limiter.execute(() -> delegate().metrics());
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamVaults(String filter) {
+    return stream(() -> delegate().streamVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamItems(String vaultUUID, String filter) {
+    return stream(() -> delegate().streamItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamAPIActivity(Integer limit, Integer offset) {
+    return stream(() -> delegate().streamAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamFileContent(String vaultUUID,
+                                                           String itemUUID,
+                                                           String fileUUID) {
+    return stream(() -> delegate().streamFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  /**
+   * Make a streaming call that keeps its limiter slot until the response body is closed, so
+   * that the limit also covers the transfer of the body.
+   */
+  private CompletableFuture<ResponseBody> stream(Supplier<CompletableFuture<ResponseBody>> call) {
+    return limiter.executeHeld(release -> Futures.thenApply(call.get(), body -> {
+      Source released = new ForwardingSource(body.source()) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            release.run();
+          }
+        }
+      };
+
+      return ResponseBody.create(Okio.buffer(released), body.contentType(), body.contentLength());
+    }));
+  }
+}
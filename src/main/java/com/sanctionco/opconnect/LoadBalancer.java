@@ -0,0 +1,246 @@
+package com.sanctionco.opconnect;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Chooses an endpoint for each request according to a {@link LoadBalancerConfig}, and ejects
+ * and re-admits endpoints based on the outcome of requests and of {@code heartbeat} probes.
+ */
+final class LoadBalancer {
+  private final LoadBalancerConfig config;
+  private final List<Endpoint> endpoints;
+  private final ScheduledExecutorService scheduler;
+  private final Function<HttpUrl, CompletableFuture<Void>> probe;
+  private final Random random;
+
+  LoadBalancer(LoadBalancerConfig config,
+               List<HttpUrl> urls,
+               ScheduledExecutorService scheduler,
+               Function<HttpUrl, CompletableFuture<Void>> probe,
+               Random random) {
+    this.config = config;
+    this.endpoints = Collections.unmodifiableList(urls.stream()
+        .map(Endpoint::new)
+        .collect(Collectors.toList()));
+    this.scheduler = scheduler;
+    this.probe = probe;
+    this.random = random;
+  }
+
+  LoadBalancer(LoadBalancerConfig config,
+               List<HttpUrl> urls,
+               ScheduledExecutorService scheduler,
+               Function<HttpUrl, CompletableFuture<Void>> probe) {
+    this(config, urls, scheduler, probe, new Random());
+  }
+
+  /**
+   * Start the periodic health checks, if the configuration enables them.
+   */
+  void start() {
+    long interval = config.getHealthCheckIntervalInMilliseconds();
+
+    if (interval > 0) {
+      scheduler.scheduleWithFixedDelay(this::checkHealth, interval, interval,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Choose an endpoint for a request and count the request as in flight on it. The request
+   * must be finished with {@link #record(Endpoint, boolean)}.
+   *
+   * @param excluded endpoints that must not be chosen, such as those the request already
+   *                 failed to connect to
+   * @return the chosen endpoint, or null if every endpoint is excluded
+   */
+  Endpoint select(Set<Endpoint> excluded) {
+    List<Endpoint> candidates = endpoints.stream()
+        .filter(endpoint -> !endpoint.ejected && !excluded.contains(endpoint))
+        .collect(Collectors.toList());
+
+    // When every endpoint is ejected, sending the request anyway beats failing it unsent
+    if (candidates.isEmpty()) {
+      candidates = endpoints.stream()
+          .filter(endpoint -> !excluded.contains(endpoint))
+          .collect(Collectors.toList());
+    }
+
+    if (candidates.isEmpty()) {
+      return null;
+    }
+
+    Endpoint chosen = config.getStrategy() == LoadBalancingStrategy.POWER_OF_TWO_CHOICES
+        ? powerOfTwoChoices(candidates)
+        : leastOutstanding(candidates);
+
+    chosen.outstanding.incrementAndGet();
+
+    return chosen;
+  }
+
+  /**
+   * Record the outcome of a request that was sent to an endpoint.
+   *
+   * @param endpoint the endpoint returned by {@link #select(Set)}
+   * @param failed true if the request failed with a connection error, a timeout, or a
+   *               {@code 5xx} response
+   */
+  void record(Endpoint endpoint, boolean failed) {
+    endpoint.outstanding.decrementAndGet();
+
+    if (!failed) {
+      endpoint.failures.set(0);
+    } else if (endpoint.failures.incrementAndGet() >= config.getConsecutiveFailuresToEject()) {
+      eject(endpoint);
+    }
+  }
+
+  /**
+   * Release an endpoint that was chosen for a request which was canceled before it completed.
+   * The request says nothing about the health of the endpoint, so its failures are not counted.
+   *
+   * @param endpoint the endpoint returned by {@link #select(Set)}
+   */
+  void release(Endpoint endpoint) {
+    endpoint.outstanding.decrementAndGet();
+  }
+
+  List<Endpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  private Endpoint powerOfTwoChoices(List<Endpoint> candidates) {
+    if (candidates.size() == 1) {
+      return candidates.get(0);
+    }
+
+    int first = random.nextInt(candidates.size());
+    int second = random.nextInt(candidates.size() - 1);
+
+    // Skip over the first choice so that the two choices are distinct
+    if (second >= first) {
+      second++;
+    }
+
+    Endpoint a = candidates.get(first);
+    Endpoint b = candidates.get(second);
+
+    return b.outstanding.get() < a.outstanding.get() ? b : a;
+  }
+
+  private Endpoint leastOutstanding(List<Endpoint> candidates) {
+    // Start at a random position so that ties do not all go to the first endpoint
+    int offset = random.nextInt(candidates.size());
+    Endpoint chosen = null;
+
+    for (int i = 0; i < candidates.size(); i++) {
+      Endpoint candidate = candidates.get((offset + i) % candidates.size());
+
+      if (chosen == null || candidate.outstanding.get() < chosen.outstanding.get()) {
+        chosen = candidate;
+      }
+    }
+
+    return chosen;
+  }
+
+  private void eject(Endpoint endpoint) {
+    synchronized (endpoint) {
+      if (endpoint.ejected) {
+        return;
+      }
+
+      endpoint.ejected = true;
+    }
+
+    scheduleProbe(endpoint);
+  }
+
+  private void scheduleProbe(Endpoint endpoint) {
+    try {
+      scheduler.schedule(() -> probe(endpoint), config.getEjectionDurationInMilliseconds(),
+          TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // The client was closed, so the endpoint will not be used again
+    }
+  }
+
+  private void probe(Endpoint endpoint) {
+    heartbeat(endpoint).whenComplete((result, throwable) -> {
+      if (throwable != null) {
+        scheduleProbe(endpoint);
+        return;
+      }
+
+      synchronized (endpoint) {
+        endpoint.failures.set(0);
+        endpoint.ejected = false;
+      }
+    });
+  }
+
+  private void checkHealth() {
+    endpoints.stream()
+        .filter(endpoint -> !endpoint.ejected)
+        .forEach(endpoint -> heartbeat(endpoint).whenComplete((result, throwable) -> {
+          if (throwable != null) {
+            eject(endpoint);
+          }
+        }));
+  }
+
+  private CompletableFuture<Void> heartbeat(Endpoint endpoint) {
+    try {
+      return probe.apply(endpoint.url);
+    } catch (RuntimeException e) {
+      CompletableFuture<Void> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+
+      return failed;
+    }
+  }
+
+  /**
+   * One of the endpoints that requests are balanced across.
+   */
+  static final class Endpoint {
+    private final HttpUrl url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile boolean ejected;
+
+    Endpoint(HttpUrl url) {
+      this.url = url;
+    }
+
+    HttpUrl getUrl() {
+      return url;
+    }
+
+    int getOutstanding() {
+      return outstanding.get();
+    }
+
+    boolean isEjected() {
+      return ejected;
+    }
+
+    @Override
+    public String toString() {
+      return url.toString();
+    }
+  }
+}
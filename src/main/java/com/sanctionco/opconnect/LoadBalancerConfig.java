@@ -0,0 +1,154 @@
+package com.sanctionco.opconnect;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Configures how an {@link OPConnectClient} with several endpoints balances requests between
+ * them. Build an instance with {@link #builder()} and pass it to
+ * {@link OPConnectClientBuilder#withLoadBalancer(LoadBalancerConfig)}.
+ *
+ * <p>An endpoint is ejected once it fails the configured number of requests in a row, where a
+ * failure is a connection error, a timeout, or a {@code 5xx} response. An ejected endpoint
+ * receives no requests; after the ejection duration, a {@code heartbeat} request probes it, and
+ * it is re-admitted once a probe succeeds. When the health check interval is set, every
+ * available endpoint is also probed on that interval, and an endpoint whose probe fails is
+ * ejected right away. If every endpoint is ejected, requests are still balanced across all of
+ * them rather than failing without being sent.
+ */
+public class LoadBalancerConfig {
+  private final LoadBalancingStrategy strategy;
+  private final int consecutiveFailuresToEject;
+  private final long ejectionDurationInMilliseconds;
+  private final long healthCheckIntervalInMilliseconds;
+
+  private LoadBalancerConfig(Builder builder) {
+    this.strategy = builder.strategy;
+    this.consecutiveFailuresToEject = builder.consecutiveFailuresToEject;
+    this.ejectionDurationInMilliseconds = builder.ejectionDurationInMilliseconds;
+    this.healthCheckIntervalInMilliseconds = builder.healthCheckIntervalInMilliseconds;
+  }
+
+  /**
+   * Get the strategy used to choose an endpoint for each request.
+   *
+   * @return the load balancing strategy
+   */
+  public LoadBalancingStrategy getStrategy() {
+    return strategy;
+  }
+
+  /**
+   * Get the number of requests in a row that an endpoint must fail to be ejected.
+   *
+   * @return the number of consecutive failures that eject an endpoint
+   */
+  public int getConsecutiveFailuresToEject() {
+    return consecutiveFailuresToEject;
+  }
+
+  /**
+   * Get the amount of time in milliseconds between the probes of an ejected endpoint.
+   *
+   * @return the ejection duration in milliseconds
+   */
+  public long getEjectionDurationInMilliseconds() {
+    return ejectionDurationInMilliseconds;
+  }
+
+  /**
+   * Get the interval in milliseconds at which available endpoints are probed, or 0 if they are
+   * only checked through the outcome of requests.
+   *
+   * @return the health check interval in milliseconds
+   */
+  public long getHealthCheckIntervalInMilliseconds() {
+    return healthCheckIntervalInMilliseconds;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", LoadBalancerConfig.class.getSimpleName() + "[", "]")
+        .add("strategy=" + strategy)
+        .add("consecutiveFailuresToEject=" + consecutiveFailuresToEject)
+        .add("ejectionDurationInMilliseconds=" + ejectionDurationInMilliseconds)
+        .add("healthCheckIntervalInMilliseconds=" + healthCheckIntervalInMilliseconds)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private LoadBalancingStrategy strategy = LoadBalancingStrategy.POWER_OF_TWO_CHOICES;
+    private int consecutiveFailuresToEject = 5;
+    private long ejectionDurationInMilliseconds = 10000L;
+    private long healthCheckIntervalInMilliseconds = 0L;
+
+    /**
+     * Set the strategy used to choose an endpoint for each request. Default is
+     * {@link LoadBalancingStrategy#POWER_OF_TWO_CHOICES}.
+     *
+     * @param strategy the load balancing strategy
+     * @return this
+     */
+    public Builder withStrategy(LoadBalancingStrategy strategy) {
+      this.strategy = Objects.requireNonNull(strategy, "The strategy must not be null.");
+      return this;
+    }
+
+    /**
+     * Set the number of requests in a row that an endpoint must fail to be ejected. Default
+     * is 5.
+     *
+     * @param consecutiveFailuresToEject the number of consecutive failures
+     * @return this
+     */
+    public Builder withConsecutiveFailuresToEject(int consecutiveFailuresToEject) {
+      if (consecutiveFailuresToEject <= 0) {
+        throw new IllegalArgumentException(
+            "The number of consecutive failures must be greater than zero.");
+      }
+
+      this.consecutiveFailuresToEject = consecutiveFailuresToEject;
+      return this;
+    }
+
+    /**
+     * Set the amount of time between the probes of an ejected endpoint. Default is 10000
+     * milliseconds (10 seconds).
+     *
+     * @param ejectionDurationInMilliseconds the ejection duration in milliseconds
+     * @return this
+     */
+    public Builder withEjectionDurationInMilliseconds(long ejectionDurationInMilliseconds) {
+      if (ejectionDurationInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The ejection duration must be greater than zero.");
+      }
+
+      this.ejectionDurationInMilliseconds = ejectionDurationInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the interval at which available endpoints are probed with a {@code heartbeat}
+     * request. Set to 0 to check endpoints only through the outcome of requests. Default is 0.
+     *
+     * @param healthCheckIntervalInMilliseconds the health check interval in milliseconds
+     * @return this
+     */
+    public Builder withHealthCheckIntervalInMilliseconds(long healthCheckIntervalInMilliseconds) {
+      if (healthCheckIntervalInMilliseconds < 0) {
+        throw new IllegalArgumentException("The health check interval must not be negative.");
+      }
+
+      this.healthCheckIntervalInMilliseconds = healthCheckIntervalInMilliseconds;
+      return this;
+    }
+
+    public LoadBalancerConfig build() {
+      return new LoadBalancerConfig(this);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.sanctionco.opconnect;
+
+/**
+ * The ways that the client can choose between the endpoints given to
+ * {@link OPConnectClientBuilder#withEndpoints(java.util.List)}.
+ */
+public enum LoadBalancingStrategy {
+  /**
+   * Each request goes to the available endpoint with the fewest requests in flight.
+   */
+  LEAST_OUTSTANDING_REQUESTS,
+
+  /**
+   * Two available endpoints are picked at random, and the request goes to the one with fewer
+   * requests in flight. This spreads load almost as well as
+   * {@link #LEAST_OUTSTANDING_REQUESTS} while avoiding sending every request to the same
+   * endpoint when several clients see the same counts.
+   */
+  POWER_OF_TWO_CHOICES
+}
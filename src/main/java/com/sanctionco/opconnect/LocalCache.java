@@ -0,0 +1,490 @@
+package com.sanctionco.opconnect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A small thread-safe in-memory cache with a fixed time-to-live and a maximum weight. By default
+ * every entry weighs one, so the maximum weight is the maximum number of entries.
+ *
+ * <p>Eviction follows the W-TinyLFU policy. New entries are admitted to a small LRU window. When
+ * the window overflows, its oldest entry becomes a candidate for the main space, and is only kept
+ * if it has been used more often recently than the entry that it would replace, as estimated by a
+ * {@link FrequencySketch}. Entries in the main space that are used again are promoted to a
+ * protected segment. This keeps frequently used entries in the cache even when many entries are
+ * read only once, such as during a scan of a large vault.
+ *
+ * <p>An entry is fresh for the time-to-live after it is stored. If a stale-while-revalidate
+ * window is configured, an entry that is past its time-to-live but still inside the window is
+ * stale: it is still served by {@link #get(Object, Supplier)}, which starts a single background
+ * refresh for it. Entries past both the time-to-live and the window are expired.
+ *
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cached values
+ */
+final class LocalCache<K, V> {
+  private final long ttlNanos;
+  private final long staleNanos;
+  private final long maximumWeight;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final ToLongFunction<? super V> weigher;
+  private final LongSupplier ticker;
+  private final Map<K, Entry<V>> entries = new HashMap<>();
+  private final Map<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+  private final FrequencySketch sketch = new FrequencySketch();
+
+  private Predicate<? super Throwable> serveExpiredOn = null;
+
+  private long windowWeight;
+  private long probationWeight;
+  private long protectedWeight;
+
+  LocalCache(long ttlInMilliseconds,
+             long staleWhileRevalidateInMilliseconds,
+             long maximumWeight,
+             ToLongFunction<? super V> weigher,
+             LongSupplier ticker) {
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlInMilliseconds);
+    this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleWhileRevalidateInMilliseconds);
+    this.maximumWeight = maximumWeight;
+    this.windowMaximum = Math.max(1L, maximumWeight / 100L);
+    this.protectedMaximum = (maximumWeight - windowMaximum) * 4L / 5L;
+    this.weigher = weigher;
+    this.ticker = ticker;
+  }
+
+  LocalCache(long ttlInMilliseconds,
+             long staleWhileRevalidateInMilliseconds,
+             long maximumSize,
+             LongSupplier ticker) {
+    this(ttlInMilliseconds, staleWhileRevalidateInMilliseconds, maximumSize, value -> 1L, ticker);
+
+    // The number of entries is known up front, so the sketch never needs to grow and forget
+    sketch.ensureCapacity(maximumSize);
+  }
+
+  LocalCache(long ttlInMilliseconds, long maximumSize, LongSupplier ticker) {
+    this(ttlInMilliseconds, 0L, maximumSize, ticker);
+  }
+
+  LocalCache(CacheConfig config, LongSupplier ticker) {
+    this(config.getTtlInMilliseconds(),
+        config.getStaleWhileRevalidateInMilliseconds(),
+        config.getMaximumSize(),
+        ticker);
+  }
+
+  /**
+   * Create a cache that is bounded by the weight configured with
+   * {@link CacheConfig.Builder#withMaximumWeightInBytes(long)}, or by the maximum size if no
+   * maximum weight is configured.
+   *
+   * @param config the cache configuration
+   * @param weigher estimates the size of a value in bytes
+   * @param ticker the time source
+   * @return a new cache
+   */
+  static <K, V> LocalCache<K, V> weighted(CacheConfig config,
+                                          ToLongFunction<? super V> weigher,
+                                          LongSupplier ticker) {
+    return config.getMaximumWeightInBytes() > 0
+        ? new LocalCache<>(config.getTtlInMilliseconds(),
+            config.getStaleWhileRevalidateInMilliseconds(),
+            config.getMaximumWeightInBytes(),
+            weigher,
+            ticker)
+        : new LocalCache<>(config, ticker);
+  }
+
+  /**
+   * Get the value for the given key, loading it if necessary. A fresh value is returned
+   * immediately. A stale value is also returned immediately, and the first caller to see it
+   * stale invokes the {@code loader} in the background. Otherwise the returned future waits for
+   * the {@code loader}. The loader is responsible for storing the loaded value in the cache.
+   *
+   * @param key the key to look up
+   * @param loader loads the value from its source and stores it in this cache
+   * @return a future that is completed with the value
+   */
+  CompletableFuture<V> get(K key, Supplier<CompletableFuture<V>> loader) {
+    Entry<V> entry;
+    Entry<V> expired = null;
+    Predicate<? super Throwable> fallback;
+    boolean refresh = false;
+
+    synchronized (this) {
+      final long now = ticker.getAsLong();
+      entry = entries.get(key);
+      sketch.increment(key);
+      fallback = serveExpiredOn;
+
+      if (entry != null && entry.isExpired(now)) {
+        removeExpired(key);
+        expired = entry;
+        entry = null;
+      }
+
+      if (entry != null) {
+        onAccess(key, entry);
+      }
+
+      if (entry != null && entry.isStale(now) && !entry.refreshing) {
+        entry.refreshing = true;
+        refresh = true;
+      }
+    }
+
+    if (entry == null && expired != null && fallback != null) {
+      V value = expired.value;
+
+      CompletableFuture<V> load = loader.get();
+
+      return Futures.thenCompose(Futures.cancelling(load.handle((loaded, throwable) -> {
+        if (throwable == null) {
+          return CompletableFuture.completedFuture(loaded);
+        }
+
+        if (fallback.test(Responses.unwrap(throwable))) {
+          return CompletableFuture.completedFuture(value);
+        }
+
+        CompletableFuture<V> failed = new CompletableFuture<>();
+        failed.completeExceptionally(Responses.unwrap(throwable));
+
+        return failed;
+      }), load), Function.identity());
+    }
+
+    if (entry == null) {
+      return loader.get();
+    }
+
+    if (refresh) {
+      Entry<V> stale = entry;
+
+      loader.get().whenComplete((value, throwable) -> {
+        if (throwable != null) {
+          synchronized (this) {
+            stale.refreshing = false;
+          }
+        }
+      });
+    }
+
+    return CompletableFuture.completedFuture(entry.value);
+  }
+
+  /**
+   * Serve the expired value of a key from {@link #get(Object, Supplier)} when its loader fails
+   * with a matching failure, for example while the Connect server is known to be unavailable.
+   * Once a condition is set, expired values are kept until they are replaced, invalidated, or
+   * evicted to make room, so that every lookup during an outage can fall back to them.
+   *
+   * @param condition the condition that a loader failure must match
+   */
+  synchronized void serveExpiredOn(Predicate<? super Throwable> condition) {
+    this.serveExpiredOn = condition;
+  }
+
+  /**
+   * Get the value for the given key if it is present and has not expired. The value may be
+   * stale.
+   *
+   * @param key the key to look up
+   * @return the cached value, or null if there is no value for the key
+   */
+  synchronized V getIfPresent(K key) {
+    Entry<V> entry = entries.get(key);
+    sketch.increment(key);
+
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.isExpired(ticker.getAsLong())) {
+      removeExpired(key);
+      return null;
+    }
+
+    onAccess(key, entry);
+    return entry.value;
+  }
+
+  /**
+   * Store the value for the given key, replacing any existing value.
+   *
+   * @param key the key to store the value under
+   * @param value the value to store
+   */
+  synchronized void put(K key, V value) {
+    long now = ticker.getAsLong();
+    Entry<V> entry = new Entry<>(value, weigher.applyAsLong(value),
+        now + ttlNanos, now + ttlNanos + staleNanos);
+    final Entry<V> existing = remove(key);
+
+    entries.put(key, entry);
+    sketch.ensureCapacity(entries.size());
+    sketch.increment(key);
+
+    // An updated entry keeps its place in the main space, a new entry starts in the window
+    if (existing == null || existing.region == Region.WINDOW) {
+      add(window, key, entry, Region.WINDOW);
+    } else {
+      add(existing.region == Region.PROTECTED ? protectedSegment : probation,
+          key, entry, existing.region);
+    }
+
+    evictIfNecessary();
+  }
+
+  /**
+   * Store the value for the given key. If a value already exists, the {@code remapping}
+   * function decides which of the two values to keep.
+   *
+   * @param key the key to store the value under
+   * @param value the new value
+   * @param remapping a function that receives the existing and new values and returns the
+   *                  value to keep
+   */
+  synchronized void merge(K key, V value, BinaryOperator<V> remapping) {
+    V existing = getIfPresent(key);
+
+    put(key, existing == null ? value : remapping.apply(existing, value));
+  }
+
+  /**
+   * Remove the value for the given key.
+   *
+   * @param key the key to remove
+   */
+  synchronized void invalidate(K key) {
+    remove(key);
+  }
+
+  /**
+   * Remove the value for the given key if it matches the condition.
+   *
+   * @param key the key to remove
+   * @param condition the condition that the cached value must match in order to be removed
+   */
+  synchronized void invalidate(K key, Predicate<? super V> condition) {
+    Entry<V> entry = entries.get(key);
+
+    if (entry != null && condition.test(entry.value)) {
+      remove(key);
+    }
+  }
+
+  /**
+   * Remove all values whose keys match the condition.
+   *
+   * @param condition the condition that a key must match in order to be removed
+   */
+  synchronized void invalidateIf(Predicate<? super K> condition) {
+    List<K> matching = new ArrayList<>();
+
+    entries.keySet().forEach(key -> {
+      if (condition.test(key)) {
+        matching.add(key);
+      }
+    });
+
+    matching.forEach(this::remove);
+  }
+
+  /**
+   * Remove all values from the cache.
+   */
+  synchronized void invalidateAll() {
+    entries.clear();
+    window.clear();
+    probation.clear();
+    protectedSegment.clear();
+    windowWeight = 0L;
+    probationWeight = 0L;
+    protectedWeight = 0L;
+  }
+
+  /**
+   * Get a copy of all values in the cache that have not expired.
+   *
+   * @return a new map from key to value
+   */
+  synchronized Map<K, V> asMap() {
+    long now = ticker.getAsLong();
+    Map<K, V> copy = new HashMap<>();
+
+    entries.forEach((key, entry) -> {
+      if (!entry.isExpired(now)) {
+        copy.put(key, entry.value);
+      }
+    });
+
+    return copy;
+  }
+
+  /**
+   * Remove an expired entry, unless expired values may still be served when loading fails.
+   * Must be called while holding the lock.
+   */
+  private void removeExpired(K key) {
+    if (serveExpiredOn == null) {
+      remove(key);
+    }
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  synchronized long weightedSize() {
+    return windowWeight + probationWeight + protectedWeight;
+  }
+
+  /**
+   * Moves an entry that was used again towards the protected segment. An entry on probation is
+   * promoted, and if the protected segment becomes too heavy its oldest entries are demoted.
+   */
+  private void onAccess(K key, Entry<V> entry) {
+    switch (entry.region) {
+      case WINDOW:
+        window.get(key);
+        break;
+      case PROTECTED:
+        protectedSegment.get(key);
+        break;
+      default:
+        probation.remove(key);
+        probationWeight -= entry.weight;
+        add(protectedSegment, key, entry, Region.PROTECTED);
+
+        while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+          K oldest = protectedSegment.keySet().iterator().next();
+          Entry<V> demoted = protectedSegment.remove(oldest);
+          protectedWeight -= demoted.weight;
+          add(probation, oldest, demoted, Region.PROBATION);
+        }
+    }
+  }
+
+  private void add(Map<K, Entry<V>> segment, K key, Entry<V> entry, Region region) {
+    entry.region = region;
+    segment.put(key, entry);
+
+    switch (region) {
+      case WINDOW:
+        windowWeight += entry.weight;
+        break;
+      case PROTECTED:
+        protectedWeight += entry.weight;
+        break;
+      default:
+        probationWeight += entry.weight;
+    }
+  }
+
+  private Entry<V> remove(K key) {
+    Entry<V> entry = entries.remove(key);
+
+    if (entry != null) {
+      switch (entry.region) {
+        case WINDOW:
+          window.remove(key);
+          windowWeight -= entry.weight;
+          break;
+        case PROTECTED:
+          protectedSegment.remove(key);
+          protectedWeight -= entry.weight;
+          break;
+        default:
+          probation.remove(key);
+          probationWeight -= entry.weight;
+      }
+    }
+
+    return entry;
+  }
+
+  /**
+   * Moves the oldest window entries to probation, then evicts until the cache is within its
+   * maximum weight. The last entry moved out of the window is the candidate, and it competes with
+   * the oldest entry on probation (the victim): the one used less often recently is evicted,
+   * and the candidate loses a tie.
+   */
+  private void evictIfNecessary() {
+    K candidate = null;
+
+    while (windowWeight > windowMaximum && !window.isEmpty()) {
+      candidate = window.keySet().iterator().next();
+      Entry<V> moved = window.remove(candidate);
+      windowWeight -= moved.weight;
+      add(probation, candidate, moved, Region.PROBATION);
+    }
+
+    while (weightedSize() > maximumWeight && !entries.isEmpty()) {
+      K victim = oldest();
+
+      if (candidate != null && !candidate.equals(victim) && probation.containsKey(candidate)
+          && sketch.frequency(candidate) <= sketch.frequency(victim)) {
+        victim = candidate;
+      }
+
+      if (victim.equals(candidate)) {
+        candidate = null;
+      }
+
+      remove(victim);
+    }
+  }
+
+  private K oldest() {
+    for (Map<K, Entry<V>> segment : Arrays.asList(probation, protectedSegment, window)) {
+      if (!segment.isEmpty()) {
+        return segment.keySet().iterator().next();
+      }
+    }
+
+    throw new IllegalStateException("The cache is empty.");
+  }
+
+  private enum Region { WINDOW, PROBATION, PROTECTED }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long weight;
+    private final long staleAt;
+    private final long expiresAt;
+    private Region region;
+    private boolean refreshing;
+
+    Entry(V value, long weight, long staleAt, long expiresAt) {
+      this.value = value;
+      this.weight = weight;
+      this.staleAt = staleAt;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isStale(long now) {
+      return now - staleAt >= 0;
+    }
+
+    boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+  }
+}
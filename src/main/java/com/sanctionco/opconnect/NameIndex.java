@@ -0,0 +1,311 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Filter;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Maps vault names and item titles to their UUIDs. Misses in a batch are resolved in bulk: one
+ * {@code listVaults} call resolves every vault name, and one {@code listItems} call per vault
+ * resolves every item title in that vault. A single miss is resolved with a filtered listing
+ * instead, so that the index is refreshed one entry at a time. Item writes made through the
+ * client update the index. The mappings are cached for a limited time.
+ */
+final class NameIndex {
+  private static final Pattern UUID = Pattern.compile("[a-z0-9]{26}");
+
+  private final RetrofitOPConnectClient client;
+  private final LocalCache<String, String> vaultIds;
+  private final LocalCache<CacheKey, String> itemIds;
+
+  NameIndex(RetrofitOPConnectClient client,
+            long ttlInMilliseconds,
+            long maximumSize,
+            LongSupplier ticker) {
+    this.client = client;
+    this.vaultIds = new LocalCache<>(ttlInMilliseconds, maximumSize, ticker);
+    this.itemIds = new LocalCache<>(ttlInMilliseconds, maximumSize, ticker);
+  }
+
+  NameIndex(RetrofitOPConnectClient client, long ttlInMilliseconds, long maximumSize) {
+    this(client, ttlInMilliseconds, maximumSize, System::nanoTime);
+  }
+
+  /**
+   * Resolve vault names to vault UUIDs. Values that already look like a UUID are returned
+   * unchanged.
+   *
+   * @param names the vault names or UUIDs
+   * @return a future that is completed with a map from each given name to its vault UUID, or
+   *         completed exceptionally if a name does not match exactly one vault
+   */
+  CompletableFuture<Map<String, String>> vaultIds(Collection<String> names) {
+    Map<String, String> resolved = new HashMap<>();
+    Set<String> missing = lookup(names, vaultIds::getIfPresent, resolved);
+
+    if (missing.isEmpty()) {
+      return CompletableFuture.completedFuture(resolved);
+    }
+
+    return Futures.thenApply(client.listVaults(), vaults -> {
+      Map<String, List<String>> byName = group(vaults, Vault::getName, Vault::getId);
+      byName.forEach((name, ids) -> {
+        if (ids.size() == 1) {
+          vaultIds.put(name, ids.get(0));
+        }
+      });
+
+      missing.forEach(name -> resolved.put(name, single("vault", name, byName.get(name))));
+      return resolved;
+    });
+  }
+
+  /**
+   * Resolve item titles to item UUIDs within a vault. Values that already look like a UUID are
+   * returned unchanged.
+   *
+   * @param vaultUUID the id of the vault that contains the items
+   * @param titles the item titles or UUIDs
+   * @return a future that is completed with a map from each given title to its item UUID, or
+   *         completed exceptionally if a title does not match exactly one item
+   */
+  CompletableFuture<Map<String, String>> itemIds(String vaultUUID, Collection<String> titles) {
+    Map<String, String> resolved = new HashMap<>();
+    Set<String> missing = lookup(titles,
+        title -> itemIds.getIfPresent(new CacheKey(vaultUUID, title)), resolved);
+
+    if (missing.isEmpty()) {
+      return CompletableFuture.completedFuture(resolved);
+    }
+
+    return Futures.thenApply(client.listItems(vaultUUID), items -> {
+      Map<String, List<String>> byTitle = group(items, Item::getTitle, Item::getId);
+      byTitle.forEach((title, ids) -> {
+        if (ids.size() == 1) {
+          itemIds.put(new CacheKey(vaultUUID, title), ids.get(0));
+        }
+      });
+
+      missing.forEach(title -> resolved.put(title, single("item", title, byTitle.get(title))));
+      return resolved;
+    });
+  }
+
+  /**
+   * Resolve a single vault name to its UUID, with a filtered {@code listVaults} call if the name
+   * is not cached. Unlike {@link #vaultIds(Collection)}, the name is never treated as a UUID.
+   *
+   * @param name the name of the vault
+   * @return a future that is completed with the vault UUID, or completed exceptionally if the
+   *         name does not match exactly one vault
+   */
+  CompletableFuture<String> vaultId(String name) {
+    String cached = vaultIds.getIfPresent(name);
+
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    String filter = Filter.name().equals(name).getFilter();
+
+    return Futures.thenApply(client.listVaults(filter), vaults -> {
+      String id = single("vault", name, group(vaults, Vault::getName, Vault::getId).get(name));
+      vaultIds.put(name, id);
+
+      return id;
+    });
+  }
+
+  /**
+   * Resolve a single item title to its UUID, with a filtered {@code listItems} call if the title
+   * is not cached. Unlike {@link #itemIds(String, Collection)}, the title is never treated as a
+   * UUID.
+   *
+   * @param vaultUUID the id of the vault that contains the item
+   * @param title the title of the item
+   * @return a future that is completed with the item UUID, or completed exceptionally if the
+   *         title does not match exactly one item
+   */
+  CompletableFuture<String> itemId(String vaultUUID, String title) {
+    CacheKey key = new CacheKey(vaultUUID, title);
+    String cached = itemIds.getIfPresent(key);
+
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    String filter = Filter.title().equals(title).getFilter();
+
+    return Futures.thenApply(client.listItems(vaultUUID, filter), items -> {
+      String id = single("item", title, group(items, Item::getTitle, Item::getId).get(title));
+      itemIds.put(key, id);
+
+      return id;
+    });
+  }
+
+  /**
+   * Resolve a vault name and make a call with the vault UUID. If the call fails with
+   * {@code 404 Not Found}, the name is resolved again and the call is retried once, in case
+   * the cached UUID belongs to a vault that was since replaced.
+   *
+   * @param name the name of the vault
+   * @param call the call to make with the vault UUID
+   * @param <T> the type of the call result
+   * @return a future that is completed with the result of the call
+   */
+  <T> CompletableFuture<T> withVaultId(String name, Function<String, CompletableFuture<T>> call) {
+    return retryNotFound(() -> Futures.thenCompose(vaultId(name), call),
+        () -> vaultIds.invalidate(name));
+  }
+
+  /**
+   * Resolve an item title and make a call with the item UUID. If the call fails with
+   * {@code 404 Not Found}, the title is resolved again and the call is retried once, in case
+   * the cached UUID belongs to an item that was since deleted or replaced.
+   *
+   * @param vaultUUID the id of the vault that contains the item
+   * @param title the title of the item
+   * @param call the call to make with the item UUID
+   * @param <T> the type of the call result
+   * @return a future that is completed with the result of the call
+   */
+  <T> CompletableFuture<T> withItemId(String vaultUUID,
+                                      String title,
+                                      Function<String, CompletableFuture<T>> call) {
+    return retryNotFound(() -> Futures.thenCompose(itemId(vaultUUID, title), call),
+        () -> invalidateItem(vaultUUID, title));
+  }
+
+  /**
+   * Record the title of an item that was created or updated through the client. If another item
+   * in the vault already has the same title, the title is forgotten because it is ambiguous.
+   *
+   * @param vaultUUID the id of the vault that contains the item
+   * @param item the item
+   */
+  void recordItem(String vaultUUID, Item item) {
+    if (item == null || item.getId() == null) {
+      return;
+    }
+
+    forgetItem(vaultUUID, item.getId());
+
+    if (item.getTitle() == null) {
+      return;
+    }
+
+    CacheKey key = new CacheKey(vaultUUID, item.getTitle());
+    String existing = itemIds.getIfPresent(key);
+
+    if (existing == null) {
+      itemIds.put(key, item.getId());
+    } else if (!existing.equals(item.getId())) {
+      itemIds.invalidate(key);
+    }
+  }
+
+  /**
+   * Forget every title that maps to the given item, for example because it was deleted or
+   * renamed.
+   *
+   * @param vaultUUID the id of the vault that contains the item
+   * @param itemUUID the id of the item
+   */
+  void forgetItem(String vaultUUID, String itemUUID) {
+    itemIds.asMap().forEach((key, id) -> {
+      if (key.belongsTo(vaultUUID) && id.equals(itemUUID)) {
+        itemIds.invalidate(key, itemUUID::equals);
+      }
+    });
+  }
+
+  /**
+   * Forget the cached UUID of an item title, for example because the item no longer exists.
+   *
+   * @param vaultUUID the id of the vault that contains the item
+   * @param title the title of the item
+   */
+  void invalidateItem(String vaultUUID, String title) {
+    itemIds.invalidate(new CacheKey(vaultUUID, title));
+  }
+
+  private static <T> CompletableFuture<T> retryNotFound(Supplier<CompletableFuture<T>> call,
+                                                       Runnable invalidate) {
+    CompletableFuture<T> first = call.get();
+    CompletableFuture<CompletableFuture<T>> handled = first.handle((result, throwable) -> {
+      if (throwable == null) {
+        return CompletableFuture.completedFuture(result);
+      }
+
+      if (Responses.isNotFound(throwable)) {
+        invalidate.run();
+        return call.get();
+      }
+
+      CompletableFuture<T> failed = new CompletableFuture<>();
+      failed.completeExceptionally(Responses.unwrap(throwable));
+
+      return failed;
+    });
+
+    return Futures.thenCompose(Futures.cancelling(handled, first), Function.identity());
+  }
+
+  static boolean isUUID(String value) {
+    return UUID.matcher(value).matches();
+  }
+
+  private static Set<String> lookup(Collection<String> names,
+                                    Function<String, String> cached,
+                                    Map<String, String> resolved) {
+    Set<String> missing = new HashSet<>();
+
+    for (String name : names) {
+      String id = isUUID(name) ? name : cached.apply(name);
+
+      if (id == null) {
+        missing.add(name);
+      } else {
+        resolved.put(name, id);
+      }
+    }
+
+    return missing;
+  }
+
+  private static <T> Map<String, List<String>> group(List<T> values,
+                                                     Function<T, String> name,
+                                                     Function<T, String> id) {
+    return values.stream()
+        .filter(value -> name.apply(value) != null)
+        .collect(Collectors.groupingBy(name, Collectors.mapping(id, Collectors.toList())));
+  }
+
+  private static String single(String type, String name, List<String> ids) {
+    if (ids == null) {
+      throw new NoSuchElementException("No " + type + " named '" + name + "' was found.");
+    }
+
+    if (ids.size() > 1) {
+      throw new IllegalStateException(
+          "More than one " + type + " named '" + name + "' was found: " + ids);
+    }
+
+    return ids.get(0);
+  }
+}
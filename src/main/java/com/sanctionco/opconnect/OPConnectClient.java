@@ -8,22 +8,83 @@ import com.sanctionco.opconnect.model.Vault;
 import com.sanctionco.opconnect.model.apiactivity.APIRequest;
 import com.sanctionco.opconnect.model.health.ConnectServer;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
 
 /**
  * The {@code OPConnectClient} provides access to the 1Password Connect API methods.
  */
 public class OPConnectClient {
   private final RetrofitOPConnectClient client;
-  private final OkHttpClient httpClient;
-
-  OPConnectClient(RetrofitOPConnectClient client, OkHttpClient httpClient) {
+  private final HttpTransport transport;
+  private final ScheduledExecutorService scheduler;
+  private final List<Runnable> closeHooks;
+  private final NameIndex names;
+  private final SecretResolver resolver;
+  private final WarmUp warmUp;
+  private final PayloadMeter payloadMeter;
+  private final Deadline deadline;
+  private final ResponseStreams streams;
+
+  OPConnectClient(RetrofitOPConnectClient client,
+                  HttpTransport transport,
+                  ScheduledExecutorService scheduler,
+                  List<Runnable> closeHooks,
+                  NameIndex names,
+                  WarmUp warmUp,
+                  PayloadMeter payloadMeter,
+                  ResponseStreams streams) {
     this.client = client;
-    this.httpClient = httpClient;
+    this.transport = transport;
+    this.scheduler = scheduler;
+    this.closeHooks = closeHooks;
+    this.names = names;
+    this.resolver = new SecretResolver(client, names);
+    this.warmUp = warmUp;
+    this.payloadMeter = payloadMeter;
+    this.deadline = null;
+    this.streams = streams;
+  }
+
+  private OPConnectClient(OPConnectClient base, Deadline deadline) {
+    this.client = base.client;
+    this.transport = base.transport;
+    this.scheduler = base.scheduler;
+    this.closeHooks = base.closeHooks;
+    this.names = base.names;
+    this.resolver = base.resolver;
+    this.warmUp = base.warmUp;
+    this.payloadMeter = base.payloadMeter;
+    this.deadline = deadline;
+    this.streams = base.streams;
+  }
+
+  /**
+   * Get a client that makes every call with the given options, such as a deadline. The
+   * returned client shares its connections, caches and configuration with this client, so
+   * it is cheap to create one per upstream request, and closing either client closes both.
+   *
+   * @param options the options to make calls with
+   * @return a client that makes every call with the given options
+   */
+  public OPConnectClient withCallOptions(CallOptions options) {
+    Objects.requireNonNull(options, "The call options must not be null.");
+
+    return new OPConnectClient(this, new Deadline(options, scheduler));
   }
 
   /**
@@ -33,7 +94,7 @@ public class OPConnectClient {
    *         the list of available vault objects
    */
   public CompletableFuture<List<Vault>> listVaults() {
-    return client.listVaults();
+    return call(() -> client.listVaults());
   }
 
   /**
@@ -44,7 +105,7 @@ public class OPConnectClient {
    *         the list of available vault objects
    */
   public CompletableFuture<List<Vault>> listVaults(String filter) {
-    return client.listVaults(filter);
+    return call(() -> client.listVaults(filter));
   }
 
   /**
@@ -58,6 +119,42 @@ public class OPConnectClient {
     return listVaults(filter.getFilter());
   }
 
+  /**
+   * List the available vaults in 1Password as a stream that parses each vault as it is
+   * consumed, instead of reading the whole response into memory first. The stream holds the
+   * HTTP response open, so close it if it is not consumed to the end.
+   *
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of the available vault objects
+   */
+  public CompletableFuture<Stream<Vault>> streamVaults() {
+    return streamVaults((String) null);
+  }
+
+  /**
+   * List the available vaults in 1Password as a stream, filtering based on the filter. See
+   * {@link #streamVaults()} for details.
+   *
+   * @param filter an SCM-style filter to filter the results server-side
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of the available vault objects
+   */
+  public CompletableFuture<Stream<Vault>> streamVaults(String filter) {
+    return stream(() -> client.streamVaults(filter), Vault.class);
+  }
+
+  /**
+   * List the available vaults in 1Password as a stream, filtering based on the filter. See
+   * {@link #streamVaults()} for details.
+   *
+   * @param filter the {@link Filter} to filter the results server-side
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of the available vault objects
+   */
+  public CompletableFuture<Stream<Vault>> streamVaults(Filter filter) {
+    return streamVaults(filter.getFilter());
+  }
+
   /**
    * Get the details of a specific vault.
    *
@@ -66,7 +163,21 @@ public class OPConnectClient {
    *         the vault object
    */
   public CompletableFuture<Vault> getVault(String vaultUUID) {
-    return client.getVault(vaultUUID);
+    return call(() -> client.getVault(vaultUUID));
+  }
+
+  /**
+   * Get the details of a specific vault by its name. The name to UUID mapping is cached, so
+   * that after the first lookup this only makes the request for the vault itself.
+   *
+   * @param name the exact name of the vault to retrieve
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the vault object, or completed exceptionally with a
+   *         {@link java.util.NoSuchElementException} if no vault has the name or an
+   *         {@link IllegalStateException} if more than one does
+   */
+  public CompletableFuture<Vault> getVaultByName(String name) {
+    return call(() -> names.withVaultId(name, client::getVault));
   }
 
   /**
@@ -77,7 +188,7 @@ public class OPConnectClient {
    *         a list of items that exist in the vault, without sections or fields
    */
   public CompletableFuture<List<Item>> listItems(String vaultUUID) {
-    return client.listItems(vaultUUID);
+    return call(() -> client.listItems(vaultUUID));
   }
 
   /**
@@ -89,7 +200,7 @@ public class OPConnectClient {
    *         list of items that exist in the vault and match the filter, without sections or fields
    */
   public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
-    return client.listItems(vaultUUID, filter);
+    return call(() -> client.listItems(vaultUUID, filter));
   }
 
 
@@ -105,6 +216,48 @@ public class OPConnectClient {
     return listItems(vaultUUID, filter.getFilter());
   }
 
+  /**
+   * List the items from the given vault as a stream that parses each item as it is consumed,
+   * instead of reading the whole response into memory first, so that memory use does not grow
+   * with the size of the vault. The stream holds the HTTP response open, so close it if it is
+   * not consumed to the end.
+   *
+   * @param vaultUUID the id of the vault
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of the items that exist in the vault, without sections or fields
+   */
+  public CompletableFuture<Stream<Item>> streamItems(String vaultUUID) {
+    return streamItems(vaultUUID, (String) null);
+  }
+
+  /**
+   * List the items from the given vault as a stream, filtering based on the filter. See
+   * {@link #streamItems(String)} for details.
+   *
+   * @param vaultUUID the id of the vault
+   * @param filter an SCM-style filter to filter the results server-side
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with a
+   *         stream of the items that exist in the vault and match the filter, without sections
+   *         or fields
+   */
+  public CompletableFuture<Stream<Item>> streamItems(String vaultUUID, String filter) {
+    return stream(() -> client.streamItems(vaultUUID, filter), Item.class);
+  }
+
+  /**
+   * List the items from the given vault as a stream, filtering based on the filter. See
+   * {@link #streamItems(String)} for details.
+   *
+   * @param vaultUUID the id of the vault
+   * @param filter the {@link Filter} to filter the results server-side
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with a
+   *         stream of the items that exist in the vault and match the filter, without sections
+   *         or fields
+   */
+  public CompletableFuture<Stream<Item>> streamItems(String vaultUUID, Filter filter) {
+    return streamItems(vaultUUID, filter.getFilter());
+  }
+
   /**
    * Get a full item from the given vault.
    *
@@ -114,7 +267,22 @@ public class OPConnectClient {
    *         the item
    */
   public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
-    return client.getItem(vaultUUID, itemUUID);
+    return call(() -> client.getItem(vaultUUID, itemUUID));
+  }
+
+  /**
+   * Get a full item from the given vault by its title. The title to UUID mapping is cached, so
+   * that after the first lookup this only makes the request for the item itself.
+   *
+   * @param vaultUUID the id of the vault
+   * @param title the exact title of the item
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the item, or completed exceptionally with a {@link java.util.NoSuchElementException}
+   *         if no item has the title or an {@link IllegalStateException} if more than one does
+   */
+  public CompletableFuture<Item> getItemByTitle(String vaultUUID, String title) {
+    return call(() -> names.withItemId(vaultUUID, title,
+        itemUUID -> client.getItem(vaultUUID, itemUUID)));
   }
 
   /**
@@ -126,7 +294,7 @@ public class OPConnectClient {
    *         the newly created item
    */
   public CompletableFuture<Item> createItem(String vaultUUID, Item item) {
-    return client.createItem(vaultUUID, item);
+    return record(vaultUUID, call(() -> client.createItem(vaultUUID, item)));
   }
 
   /**
@@ -139,7 +307,7 @@ public class OPConnectClient {
    *         the newly replaced item
    */
   public CompletableFuture<Item> replaceItem(String vaultUUID, String itemUUID, Item item) {
-    return client.replaceItem(vaultUUID, itemUUID, item);
+    return record(vaultUUID, call(() -> client.replaceItem(vaultUUID, itemUUID, item)));
   }
 
   /**
@@ -154,7 +322,7 @@ public class OPConnectClient {
    *         the updated item
    */
   public CompletableFuture<Item> patchItem(String vaultUUID, String itemUUID, List<Patch> patches) {
-    return client.patchItem(vaultUUID, itemUUID, patches);
+    return record(vaultUUID, call(() -> client.patchItem(vaultUUID, itemUUID, patches)));
   }
 
   /**
@@ -181,7 +349,10 @@ public class OPConnectClient {
    *         operation is complete
    */
   public CompletableFuture<Void> deleteItem(String vaultUUID, String itemUUID) {
-    return client.deleteItem(vaultUUID, itemUUID);
+    CompletableFuture<Void> deleted = call(() -> client.deleteItem(vaultUUID, itemUUID));
+    deleted.thenRun(() -> names.forgetItem(vaultUUID, itemUUID));
+
+    return deleted;
   }
 
 
@@ -199,7 +370,7 @@ public class OPConnectClient {
   public CompletableFuture<List<File>> listFiles(String vaultUUID,
                                                  String itemUUID,
                                                  boolean inlineContent) {
-    return client.listFiles(vaultUUID, itemUUID, inlineContent);
+    return call(() -> client.listFiles(vaultUUID, itemUUID, inlineContent));
   }
 
   /**
@@ -211,7 +382,7 @@ public class OPConnectClient {
    *         list of {@link File} objects
    */
   public CompletableFuture<List<File>> listFiles(String vaultUUID, String itemUUID) {
-    return client.listFiles(vaultUUID, itemUUID);
+    return call(() -> client.listFiles(vaultUUID, itemUUID));
   }
 
   /**
@@ -224,7 +395,7 @@ public class OPConnectClient {
    *         {@link File} details
    */
   public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
-    return client.getFile(vaultUUID, itemUUID, fileUUID);
+    return call(() -> client.getFile(vaultUUID, itemUUID, fileUUID));
   }
 
   /**
@@ -243,7 +414,7 @@ public class OPConnectClient {
                                          String itemUUID,
                                          String fileUUID,
                                          boolean inlineContent) {
-    return client.getFile(vaultUUID, itemUUID, fileUUID, inlineContent);
+    return call(() -> client.getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
   }
 
   /**
@@ -258,7 +429,98 @@ public class OPConnectClient {
   public CompletableFuture<String> getFileContent(String vaultUUID,
                                                   String itemUUID,
                                                   String fileUUID) {
-    return client.getFileContent(vaultUUID, itemUUID, fileUUID);
+    return call(() -> client.getFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  /**
+   * Get the content of a file as bytes, without decoding it as text. Use this instead of
+   * {@link #getFileContent(String, String, String)} for binary files such as keystores or
+   * images, which decoding would corrupt. The whole file is held in memory; use
+   * {@link #writeFileContent(String, String, String, OutputStream)} or
+   * {@link #getFileContentStream(String, String, String)} for large files.
+   *
+   * <p>When a file content cache is configured with
+   * {@link CacheConfig.Builder#withFileContentCacheSizeInBytes(long)}, this method shares the
+   * cached copy with {@code getFileContent}. Content larger than the cache size bypasses it.
+   *
+   * @param vaultUUID the id of the vault
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with the
+   *         raw file contents
+   */
+  public CompletableFuture<byte[]> getFileContentBytes(String vaultUUID,
+                                                       String itemUUID,
+                                                       String fileUUID) {
+    return download(vaultUUID, itemUUID, fileUUID, FileContents::bytes);
+  }
+
+  /**
+   * Get the content of a file as a stream that reads it from the response as it is consumed,
+   * without decoding it as text or holding it in memory. The stream holds the HTTP response
+   * open, so it must be closed.
+   *
+   * <p>When a file content cache is configured, content that fits in the cache is read from
+   * and stored in it, so it is held in memory. Content larger than the cache size bypasses the
+   * cache and is streamed.
+   *
+   * @param vaultUUID the id of the vault
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with a
+   *         stream of the raw file contents
+   */
+  public CompletableFuture<InputStream> getFileContentStream(String vaultUUID,
+                                                             String itemUUID,
+                                                             String fileUUID) {
+    return download(vaultUUID, itemUUID, fileUUID, ResponseBody::byteStream);
+  }
+
+  /**
+   * Copy the content of a file to a stream as it is received, without decoding it as text or
+   * holding it in memory. The stream is not closed.
+   *
+   * <p>When a file content cache is configured, content that fits in the cache is read from
+   * and stored in it. Content larger than the cache size bypasses the cache and is streamed.
+   *
+   * @param vaultUUID the id of the vault
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @param out the stream to write the file contents to
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with the
+   *         number of bytes written, once the whole file has been written
+   */
+  public CompletableFuture<Long> writeFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID,
+                                                  OutputStream out) {
+    Objects.requireNonNull(out, "The output stream must not be null.");
+
+    return download(vaultUUID, itemUUID, fileUUID, body -> FileContents.copy(body, out));
+  }
+
+  /**
+   * Write the content of a file to a path as it is received, without decoding it as text or
+   * holding it in memory. An existing file at the path is replaced once the whole content has
+   * been received, so it is never left partially written.
+   *
+   * <p>When a file content cache is configured, content that fits in the cache is read from
+   * and stored in it. Content larger than the cache size bypasses the cache and is streamed.
+   *
+   * @param vaultUUID the id of the vault
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @param path the file to write the file contents to
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with the
+   *         number of bytes written, once the whole file has been written
+   */
+  public CompletableFuture<Long> writeFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID,
+                                                  Path path) {
+    Objects.requireNonNull(path, "The path must not be null.");
+
+    return download(vaultUUID, itemUUID, fileUUID, body -> FileContents.write(body, path));
   }
 
   /**
@@ -268,7 +530,7 @@ public class OPConnectClient {
    *         a list of {@link APIRequest} objects that describe activity
    */
   public CompletableFuture<List<APIRequest>> listAPIActivity() {
-    return client.listAPIActivity();
+    return call(() -> client.listAPIActivity());
   }
 
   /**
@@ -279,7 +541,7 @@ public class OPConnectClient {
    *         a list of {@link APIRequest} objects that describe activity
    */
   public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit) {
-    return client.listAPIActivity(limit);
+    return call(() -> client.listAPIActivity(limit));
   }
 
   /**
@@ -292,7 +554,44 @@ public class OPConnectClient {
    *         a list of {@link APIRequest} objects that describe activity
    */
   public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit, Integer offset) {
-    return client.listAPIActivity(limit, offset);
+    return call(() -> client.listAPIActivity(limit, offset));
+  }
+
+  /**
+   * Provides recent API activity as a stream that parses each {@link APIRequest} as it is
+   * consumed, instead of reading the whole response into memory first. The stream holds the
+   * HTTP response open, so close it if it is not consumed to the end.
+   *
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of {@link APIRequest} objects that describe activity
+   */
+  public CompletableFuture<Stream<APIRequest>> streamAPIActivity() {
+    return streamAPIActivity(null, null);
+  }
+
+  /**
+   * Provides recent API activity as a stream, limiting the results based on the given limit.
+   * See {@link #streamAPIActivity()} for details.
+   *
+   * @param limit the maximum number of activity instances to retrieve
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of {@link APIRequest} objects that describe activity
+   */
+  public CompletableFuture<Stream<APIRequest>> streamAPIActivity(Integer limit) {
+    return streamAPIActivity(limit, null);
+  }
+
+  /**
+   * Provides recent API activity as a stream, starting at the given offset and limiting the
+   * results based on the given limit. See {@link #streamAPIActivity()} for details.
+   *
+   * @param limit the maximum number of activity instances to retrieve
+   * @param offset how far into the collection of API events the response should start
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of {@link APIRequest} objects that describe activity
+   */
+  public CompletableFuture<Stream<APIRequest>> streamAPIActivity(Integer limit, Integer offset) {
+    return stream(() -> client.streamAPIActivity(limit, offset), APIRequest.class);
   }
 
   /**
@@ -302,7 +601,7 @@ public class OPConnectClient {
    *         a {@link ConnectServer} object that describes the server and its health
    */
   public CompletableFuture<ConnectServer> health() {
-    return client.health();
+    return call(() -> client.health());
   }
 
   /**
@@ -314,7 +613,7 @@ public class OPConnectClient {
    *         otherwise
    */
   public CompletableFuture<Void> heartbeat() {
-    return client.heartbeat();
+    return call(() -> client.heartbeat());
   }
 
   /**
@@ -326,7 +625,39 @@ public class OPConnectClient {
    *         #text-based-format">Prometheus documentation</a> for specifics.
    */
   public CompletableFuture<String> metrics() {
-    return client.metrics();
+    return call(() -> client.metrics());
+  }
+
+  /**
+   * Resolve a secret reference of the form {@code op://<vault>/<item>/[<section>/]<field>} to
+   * the value of the field. The vault and item may be given by name or UUID, and the section
+   * and field may be given by label or id.
+   *
+   * @param reference the secret reference to resolve
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the value of the referenced field, or completed exceptionally if the reference
+   *         cannot be resolved
+   * @throws IllegalArgumentException if the reference is not a valid secret reference
+   */
+  public CompletableFuture<String> resolve(String reference) {
+    return Futures.thenApply(resolveAll(Collections.singletonList(reference)),
+        values -> values.get(reference));
+  }
+
+  /**
+   * Resolve a batch of secret references of the form
+   * {@code op://<vault>/<item>/[<section>/]<field>}. Vault names and item titles are resolved
+   * in bulk and their UUIDs are cached, and each distinct item is fetched only once, so
+   * resolving many references costs only a few requests.
+   *
+   * @param references the secret references to resolve
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a map from each reference to the value of its field, or completed exceptionally if
+   *         any reference cannot be resolved
+   * @throws IllegalArgumentException if a reference is not a valid secret reference
+   */
+  public CompletableFuture<Map<String, String>> resolveAll(Collection<String> references) {
+    return call(() -> resolver.resolveAll(references));
   }
 
   /**
@@ -350,11 +681,97 @@ public class OPConnectClient {
   }
 
   /**
-   * Cleanly close the client and any open connections.
+   * Wait for the cache warm-up declared with {@link OPConnectClientBuilder#withWarmUp(String)}
+   * to finish. The warm-up starts when the client is built; if no warm-up was declared, the
+   * returned future is already complete. Failed targets do not fail the future, check
+   * {@link WarmUpStatus#isSuccessful()} instead.
+   *
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the final status of the warm-up
+   */
+  public CompletableFuture<WarmUpStatus> warmUp() {
+    return warmUp.start();
+  }
+
+  /**
+   * Get the current progress and timing of the cache warm-up.
+   *
+   * @return the current warm-up status
+   */
+  public WarmUpStatus getWarmUpStatus() {
+    return warmUp.status();
+  }
+
+  /**
+   * Get the number of bytes sent and received for each endpoint, such as {@code listItems},
+   * before and after compression. Bytes are only counted when compression is enabled with
+   * {@link OPConnectClientBuilder#withCompression(CompressionConfig)}; otherwise the map is
+   * empty.
+   *
+   * @return the payload metrics by endpoint name, sorted by name
+   */
+  public Map<String, PayloadMetrics> getPayloadMetrics() {
+    return payloadMeter.snapshot();
+  }
+
+  /**
+   * Cleanly close the client and any open connections. If a cache snapshot is configured,
+   * it is written before the client is closed.
+   *
+   * @throws java.io.UncheckedIOException if the cache snapshot could not be written
    */
   public void close() {
-    httpClient.dispatcher().executorService().shutdown();
-    httpClient.connectionPool().evictAll();
+    try {
+      scheduler.shutdownNow();
+      closeHooks.forEach(Runnable::run);
+    } finally {
+      transport.close();
+    }
+  }
+
+  /**
+   * Makes a call, bounded by the deadline of the call options if there are any.
+   */
+  private <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call) {
+    return deadline == null ? call.get() : deadline.execute(call);
+  }
+
+  /**
+   * Makes a call for a response body that is read after the call completes. The deadline of the
+   * call options bounds both the time until the response starts and the time spent reading it.
+   */
+  private CompletableFuture<ResponseBody> read(Supplier<CompletableFuture<ResponseBody>> call) {
+    return deadline == null ? call.get() : deadline.executeReading(call);
+  }
+
+  /**
+   * Makes a call for a JSON array without reading its response, and streams the elements of
+   * the array.
+   */
+  private <T> CompletableFuture<Stream<T>> stream(Supplier<CompletableFuture<ResponseBody>> call,
+                                                  Class<T> type) {
+    return Futures.thenApply(read(call), body -> streams.stream(body, type));
+  }
+
+  /**
+   * Makes a call for the raw content of a file, and reads it from the response.
+   */
+  private <T> CompletableFuture<T> download(String vaultUUID,
+                                            String itemUUID,
+                                            String fileUUID,
+                                            Function<ResponseBody, T> read) {
+    return Futures.thenApply(read(() -> client.streamFileContent(vaultUUID, itemUUID, fileUUID)),
+        read);
+  }
+
+  /**
+   * Keeps the title index up to date with an item write, without changing the returned future
+   * so that cancelling it still cancels the request.
+   */
+  private CompletableFuture<Item> record(String vaultUUID, CompletableFuture<Item> write) {
+    write.thenAccept(item -> names.recordItem(vaultUUID, item));
+
+    return write;
   }
 
   /**
@@ -5,10 +5,28 @@ import com.fasterxml.jackson.annotation.Nulls;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sanctionco.opconnect.model.Filter;
 
+import java.net.Proxy;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import javax.crypto.SecretKey;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 
@@ -20,9 +38,29 @@ import retrofit2.converter.scalars.ScalarsConverterFactory;
  * A builder class for {@link OPConnectClient}.
  */
 public class OPConnectClientBuilder {
+  private static final String UNIX_SCHEME = "unix:";
+
   private String endpoint = null;
+  private List<String> endpoints = null;
+  private Path socketPath = null;
   private String accessToken = null;
   private Long timeout = null;
+  private CacheConfig cacheConfig = null;
+  private boolean coalesceRequests = false;
+  private Path snapshotPath = null;
+  private SecretKey snapshotKey = null;
+  private final List<CacheKey> warmUpTargets = new ArrayList<>();
+  private HttpTransport transport = null;
+  private ConcurrencyLimitConfig concurrencyLimitConfig = null;
+  private RateLimitConfig rateLimitConfig = null;
+  private RetryPolicy retryPolicy = null;
+  private CircuitBreakerConfig circuitBreakerConfig = null;
+  private HedgingPolicy hedgingPolicy = null;
+  private LoadBalancerConfig loadBalancerConfig = null;
+  private CompressionConfig compressionConfig = null;
+  private ConnectionPoolConfig connectionPoolConfig = null;
+  private DnsConfig dnsConfig = null;
+  private TlsSessionConfig tlsSessionConfig = null;
 
   private OPConnectClientBuilder() {
   }
@@ -39,13 +77,78 @@ public class OPConnectClientBuilder {
   /**
    * Set the endpoint to use when connecting to 1Password Connect.
    *
+   * <p>An endpoint of the form {@code unix:///path/to/connect.sock} connects to a Connect server
+   * listening on a Unix domain socket, such as a sidecar in the same pod, instead of going
+   * through the TCP loopback. The path must be absolute. Unix domain sockets require Java 16 or
+   * later at runtime and are only supported by the default OkHttp transport.
+   *
    * @param endpoint the endpoint in URL format
    * @return this
    */
   public OPConnectClientBuilder withEndpoint(String endpoint) {
     Objects.requireNonNull(endpoint, "The endpoint must not be null.");
 
-    this.endpoint = ensureTrailingSlashExists(endpoint);
+    if (isUnixSocket(endpoint)) {
+      this.socketPath = parseSocketPath(endpoint);
+      this.endpoint = "http://localhost/";
+    } else {
+      this.socketPath = null;
+      this.endpoint = ensureTrailingSlashExists(endpoint);
+    }
+
+    this.endpoints = null;
+
+    return this;
+  }
+
+  /**
+   * Set several endpoints to use when connecting to 1Password Connect, such as the replicas of
+   * a Connect server. Requests are balanced across the endpoints, endpoints that keep failing
+   * are ejected until a {@code heartbeat} request succeeds again, and a request that cannot
+   * connect to one endpoint is sent to another. See {@link LoadBalancerConfig} for details,
+   * and {@link #withLoadBalancer(LoadBalancerConfig)} to change the default configuration.
+   *
+   * @param endpoints the endpoints in URL format
+   * @return this
+   */
+  public OPConnectClientBuilder withEndpoints(List<String> endpoints) {
+    Objects.requireNonNull(endpoints, "The endpoints must not be null.");
+
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("At least one endpoint must be given.");
+    }
+
+    List<String> withSlashes = new ArrayList<>();
+
+    for (String url : endpoints) {
+      Objects.requireNonNull(url, "The endpoints must not be null.");
+
+      if (isUnixSocket(url)) {
+        throw new IllegalArgumentException(
+            "Unix domain socket endpoints cannot be balanced. Use withEndpoint() instead.");
+      }
+
+      withSlashes.add(ensureTrailingSlashExists(url));
+    }
+
+    this.socketPath = null;
+    this.endpoint = withSlashes.get(0);
+    this.endpoints = withSlashes;
+
+    return this;
+  }
+
+  /**
+   * Set how requests are balanced across the endpoints given to {@link #withEndpoints(List)}.
+   * Has no effect with a single endpoint. Defaults to {@link LoadBalancerConfig#builder()}
+   * without changes.
+   *
+   * @param config the configuration of the load balancer
+   * @return this
+   */
+  public OPConnectClientBuilder withLoadBalancer(LoadBalancerConfig config) {
+    this.loadBalancerConfig = Objects.requireNonNull(config,
+        "The load balancer config must not be null.");
 
     return this;
   }
@@ -74,6 +177,262 @@ public class OPConnectClientBuilder {
     return this;
   }
 
+  /**
+   * Enable the client-side cache. When enabled, {@link OPConnectClient#getItem(String, String)}
+   * and {@link OPConnectClient#listItems(String)} serve results from memory until they expire,
+   * and item writes made through the client keep the cache up to date. The cache is disabled
+   * by default.
+   *
+   * @param cacheConfig the configuration of the cache
+   * @return this
+   */
+  public OPConnectClientBuilder withCache(CacheConfig cacheConfig) {
+    this.cacheConfig = Objects.requireNonNull(cacheConfig, "The cache config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Persist the cached vaults and items to an encrypted snapshot file, so that new client
+   * instances can serve reads immediately instead of downloading vault contents first. When
+   * the client is built, an existing snapshot is loaded into the cache and each vault's content
+   * version is checked in the background with a single request, evicting the vaults that changed
+   * since the snapshot was taken. The snapshot is written when the client is closed.
+   *
+   * <p>The snapshot is encrypted with AES-GCM using the given key, which must be a 128, 192, or
+   * 256-bit AES key. A snapshot that cannot be decrypted with the key is ignored. Enabling a
+   * snapshot enables the cache with its default configuration if
+   * {@link #withCache(CacheConfig)} was not called.
+   *
+   * @param path the path of the snapshot file
+   * @param key the AES key used to encrypt the snapshot
+   * @return this
+   */
+  public OPConnectClientBuilder withSnapshot(Path path, SecretKey key) {
+    this.snapshotPath = Objects.requireNonNull(path, "The snapshot path must not be null.");
+    this.snapshotKey = Objects.requireNonNull(key, "The snapshot key must not be null.");
+
+    if (!"AES".equalsIgnoreCase(key.getAlgorithm())) {
+      throw new IllegalArgumentException("The snapshot key must be an AES key.");
+    }
+
+    return this;
+  }
+
+  /**
+   * Preload the items of a vault into the cache. When the client is built, the items of every
+   * declared vault are listed and then fetched in parallel. Use
+   * {@link OPConnectClient#warmUp()} to wait for the warm-up to finish, for example before a
+   * service reports that it is ready, and {@link OPConnectClient#getWarmUpStatus()} to observe
+   * its progress. Declaring a warm-up enables the cache with its default configuration if
+   * {@link #withCache(CacheConfig)} was not called.
+   *
+   * @param vaultUUID the id of the vault to preload
+   * @return this
+   */
+  public OPConnectClientBuilder withWarmUp(String vaultUUID) {
+    warmUpTargets.add(new CacheKey(
+        Objects.requireNonNull(vaultUUID, "The warm-up vault must not be null."), null));
+
+    return this;
+  }
+
+  /**
+   * Preload the items of a vault that match a filter into the cache. See
+   * {@link #withWarmUp(String)} for details.
+   *
+   * @param vaultUUID the id of the vault to preload
+   * @param filter the {@link Filter} that selects the items to preload
+   * @return this
+   */
+  public OPConnectClientBuilder withWarmUp(String vaultUUID, Filter filter) {
+    warmUpTargets.add(new CacheKey(
+        Objects.requireNonNull(vaultUUID, "The warm-up vault must not be null."),
+        Objects.requireNonNull(filter, "The warm-up filter must not be null.").getFilter()));
+
+    return this;
+  }
+
+  /**
+   * Send requests with the given {@link HttpTransport} instead of the default OkHttp client.
+   * For example, on Java 11+ {@code JdkHttpTransport} sends requests with the JDK
+   * {@code java.net.http.HttpClient}, which supports HTTP/2. The transport is closed when the
+   * client is closed. The timeout set with {@link #withTimeoutInMilliseconds(long)} only
+   * applies to the default transport; configure timeouts on the given transport instead.
+   *
+   * @param transport the transport used to send requests
+   * @return this
+   */
+  public OPConnectClientBuilder withTransport(HttpTransport transport) {
+    this.transport = Objects.requireNonNull(transport, "The transport must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Configure the connection pool, and optionally open warm connections when the client is
+   * built and keep them alive with periodic {@code heartbeat} requests. See
+   * {@link ConnectionPoolConfig} for details. Defaults to an OkHttp pool of 5 idle connections
+   * kept alive for 5 minutes, without warm connections.
+   *
+   * @param config the configuration of the connection pool
+   * @return this
+   */
+  public OPConnectClientBuilder withConnectionPool(ConnectionPoolConfig config) {
+    this.connectionPoolConfig = Objects.requireNonNull(config,
+        "The connection pool config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Configure how host names are resolved, and optionally cache the resolved addresses in the
+   * client so that new connections do not wait for DNS lookups. See {@link DnsConfig} for
+   * details. Only applies to the default OkHttp transport, and has no effect on Unix domain
+   * socket endpoints. Defaults to the system resolver without an in-process cache.
+   *
+   * @param config the configuration of DNS resolution
+   * @return this
+   */
+  public OPConnectClientBuilder withDns(DnsConfig config) {
+    this.dnsConfig = Objects.requireNonNull(config, "The DNS config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Give the client its own TLS session cache, so that new connections to a server resume an
+   * earlier TLS session instead of performing a full handshake. See {@link TlsSessionConfig}
+   * for details. Only applies to {@code https} endpoints with the default OkHttp transport.
+   * Defaults to the session cache of the JVM.
+   *
+   * @param config the configuration of TLS sessions
+   * @return this
+   */
+  public OPConnectClientBuilder withTlsSessions(TlsSessionConfig config) {
+    this.tlsSessionConfig = Objects.requireNonNull(config,
+        "The TLS session config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Enable HTTP compression. Responses are requested with the accepted encodings of the given
+   * configuration, and large request bodies can optionally be sent compressed. The bytes sent
+   * and received for each endpoint, before and after compression, are available from
+   * {@link OPConnectClient#getPayloadMetrics()}. The default OkHttp transport already accepts
+   * {@code gzip} responses without this setting, but does not report their compressed size.
+   * Disabled by default.
+   *
+   * @param config the configuration of compression
+   * @return this
+   */
+  public OPConnectClientBuilder withCompression(CompressionConfig config) {
+    this.compressionConfig = Objects.requireNonNull(config,
+        "The compression config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Enable adaptive concurrency limiting. The number of requests in flight at once is limited,
+   * and the limit adapts to the latency observed from 1Password Connect: it grows while response
+   * times stay steady and shrinks when they rise or the server reports that it is overloaded.
+   * Requests over the limit wait in a bounded queue. When the default OkHttp transport is used,
+   * its per-host limit of 5 concurrent requests is raised to the maximum limit of the given
+   * configuration. Disabled by default.
+   *
+   * @param config the configuration of the concurrency limit
+   * @return this
+   */
+  public OPConnectClientBuilder withConcurrencyLimit(ConcurrencyLimitConfig config) {
+    this.concurrencyLimitConfig = Objects.requireNonNull(config,
+        "The concurrency limit config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Enable a client-side rate limit, so that the client sends no more than a given number of
+   * requests per second on average, optionally with separate limits for reads and writes.
+   * Requests over the limit wait in a bounded queue. Retried and hedged requests count against
+   * the limit, while requests served from the cache do not. See {@link RateLimitConfig} for
+   * details. Disabled by default.
+   *
+   * @param config the configuration of the rate limit
+   * @return this
+   */
+  public OPConnectClientBuilder withRateLimit(RateLimitConfig config) {
+    this.rateLimitConfig = Objects.requireNonNull(config,
+        "The rate limit config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Retry requests that fail with a transient error: a connection error or timeout, a
+   * {@code 429 Too Many Requests} response, or a {@code 5xx} response. See {@link RetryPolicy}
+   * for how the delay between attempts and the number of retries are chosen. When a
+   * concurrency limit is enabled, every attempt counts against it. Disabled by default.
+   *
+   * @param retryPolicy the retry policy
+   * @return this
+   */
+  public OPConnectClientBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+    this.retryPolicy = Objects.requireNonNull(retryPolicy, "The retry policy must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Enable a circuit breaker. When too many recent requests failed or were slow, the breaker
+   * opens and requests fail immediately with a {@link CircuitBreakerOpenException} instead of
+   * waiting for the timeout. While it is open, a {@code heartbeat} request periodically checks
+   * whether the Connect server has recovered, and the breaker closes once it succeeds. See
+   * {@link CircuitBreakerConfig} for when the breaker opens. When retries are enabled, each
+   * request is recorded once, after its last attempt. Disabled by default.
+   *
+   * @param config the configuration of the circuit breaker
+   * @return this
+   */
+  public OPConnectClientBuilder withCircuitBreaker(CircuitBreakerConfig config) {
+    this.circuitBreakerConfig = Objects.requireNonNull(config,
+        "The circuit breaker config must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Enable request hedging for vault, item, and file reads. A read that has not completed after
+   * a percentile of recent response times is sent a second time, the first response to arrive
+   * is used, and the other request is cancelled. See {@link HedgingPolicy} for how the delay
+   * and the number of hedged requests are chosen. When a concurrency limit is enabled, hedged
+   * requests count against it. Disabled by default.
+   *
+   * @param hedgingPolicy the hedging policy
+   * @return this
+   */
+  public OPConnectClientBuilder withHedging(HedgingPolicy hedgingPolicy) {
+    this.hedgingPolicy = Objects.requireNonNull(hedgingPolicy,
+        "The hedging policy must not be null.");
+
+    return this;
+  }
+
+  /**
+   * Set whether concurrent identical read requests ({@code listVaults}, {@code getVault},
+   * {@code listItems}, {@code getItem}, and {@code getFile}) should share a single HTTP request.
+   * Callers that join an in-flight request receive the same result objects. Disabled by default.
+   *
+   * @param coalesceRequests true to coalesce identical in-flight requests
+   * @return this
+   */
+  public OPConnectClientBuilder withRequestCoalescing(boolean coalesceRequests) {
+    this.coalesceRequests = coalesceRequests;
+
+    return this;
+  }
+
   /**
    * Builds a new instance of {@link OPConnectClient}.
    *
@@ -87,6 +446,11 @@ public class OPConnectClientBuilder {
         "You must provide an access token with the"
             + " builder.withAccessToken() method in order to build a OPConnectClient.");
 
+    if (socketPath != null && transport != null) {
+      throw new IllegalArgumentException(
+          "Unix domain socket endpoints are only supported by the default transport.");
+    }
+
     ObjectMapper mapper = new ObjectMapper();
     mapper.registerModule(new JavaTimeModule());
     mapper.enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE);
@@ -94,21 +458,185 @@ public class OPConnectClientBuilder {
     mapper.configOverride(String.class)
         .setSetterInfo(JsonSetter.Value.forValueNulls(Nulls.AS_EMPTY));
 
-    OkHttpClient httpClient = buildHttpClient(this.accessToken);
-
-    Retrofit retrofit = new Retrofit.Builder()
+    final Retrofit.Builder retrofit = new Retrofit.Builder()
         .baseUrl(this.endpoint)
         .addConverterFactory(ScalarsConverterFactory.create())
-        .addConverterFactory(JacksonConverterFactory.create(mapper))
-        .client(httpClient)
-        .build();
+        .addConverterFactory(JacksonConverterFactory.create(mapper));
+    final List<Runnable> closeHooks = new ArrayList<>();
+    HttpTransport httpTransport;
+    Call.Factory callFactory;
+
+    if (transport == null) {
+      OkHttpTransport okHttpTransport = new OkHttpTransport(
+          buildHttpClient(this.accessToken, closeHooks));
+
+      callFactory = okHttpTransport.client();
+      httpTransport = okHttpTransport;
+    } else {
+      callFactory = new TransportCallFactory(transport, this.accessToken);
+      httpTransport = transport;
+    }
+
+    ScheduledExecutorService scheduler = newScheduler();
+
+    if (connectionPoolConfig != null) {
+      new ConnectionWarmer(connectionPoolConfig, callFactory, endpointUrls(), scheduler).start();
+    }
+
+    if (endpoints != null && endpoints.size() > 1) {
+      callFactory = buildBalancingCallFactory(callFactory, scheduler);
+    }
+
+    PayloadMeter payloadMeter = new PayloadMeter();
+
+    if (compressionConfig != null) {
+      callFactory = new CompressingCallFactory(callFactory, compressionConfig, payloadMeter);
+    }
+
+    RetrofitOPConnectClient retrofitClient = retrofit.callFactory(callFactory).build()
+        .create(RetrofitOPConnectClient.class);
+
+    if (concurrencyLimitConfig != null) {
+      retrofitClient = new LimitingConnectClient(retrofitClient,
+          new ConcurrencyLimiter(concurrencyLimitConfig, scheduler));
+    }
+
+    if (rateLimitConfig != null) {
+      retrofitClient = new RateLimitingConnectClient(retrofitClient,
+          new RateLimiter(rateLimitConfig, scheduler));
+    }
+
+    if (hedgingPolicy != null) {
+      retrofitClient = new HedgingConnectClient(retrofitClient,
+          new Hedger(hedgingPolicy, scheduler));
+    }
+
+    if (retryPolicy != null) {
+      retrofitClient = new RetryingConnectClient(retrofitClient,
+          new Retrier(retryPolicy, scheduler));
+    }
+
+    if (circuitBreakerConfig != null) {
+      RetrofitOPConnectClient probeClient = retrofitClient;
+
+      retrofitClient = new CircuitBreakingConnectClient(retrofitClient,
+          new CircuitBreaker(circuitBreakerConfig, scheduler, probeClient::heartbeat));
+    }
+
+    if (coalesceRequests) {
+      retrofitClient = new CoalescingConnectClient(retrofitClient);
+    }
+
+    if (cacheConfig == null && (snapshotPath != null || !warmUpTargets.isEmpty())) {
+      cacheConfig = CacheConfig.builder().build();
+    }
+
+    if (cacheConfig != null) {
+      CachingConnectClient cachingClient = new CachingConnectClient(retrofitClient, cacheConfig);
+      long interval = cacheConfig.getVaultPollingIntervalInMilliseconds();
+
+      if (circuitBreakerConfig != null && circuitBreakerConfig.isServeFromCacheWhenOpen()) {
+        cachingClient.serveExpiredOn(CircuitBreakerOpenException.class::isInstance);
+      }
+
+      if (snapshotPath != null) {
+        SnapshotStore snapshots = new SnapshotStore(snapshotPath, snapshotKey, mapper);
 
-    RetrofitOPConnectClient retrofitClient = retrofit.create(RetrofitOPConnectClient.class);
+        snapshots.load().ifPresent(snapshot -> {
+          cachingClient.restore(snapshot);
 
-    return new OPConnectClient(retrofitClient, httpClient);
+          // Revalidate right away, unless polling is about to do it anyway
+          if (interval <= 0) {
+            scheduler.execute(cachingClient::checkVaultVersions);
+          }
+        });
+
+        closeHooks.add(() -> snapshots.save(cachingClient.snapshot()));
+      }
+
+      if (interval > 0) {
+        scheduler.execute(() -> cachingClient.pollVaultVersions(scheduler, interval));
+      }
+
+      retrofitClient = cachingClient;
+    }
+
+    CacheConfig nameConfig = cacheConfig == null ? CacheConfig.builder().build() : cacheConfig;
+    NameIndex names = new NameIndex(retrofitClient,
+        nameConfig.getTtlInMilliseconds(), nameConfig.getMaximumSize());
+
+    WarmUp warmUp = new WarmUp(retrofitClient, new ArrayList<>(warmUpTargets));
+    warmUp.start();
+
+    return new OPConnectClient(retrofitClient, httpTransport, scheduler, closeHooks, names,
+        warmUp, payloadMeter, new ResponseStreams(mapper));
+  }
+
+  private static ScheduledExecutorService newScheduler() {
+    return Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "opconnect-scheduler");
+      thread.setDaemon(true);
+
+      return thread;
+    });
+  }
+
+  private static ExecutorService newDnsExecutor() {
+    return Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "opconnect-dns");
+      thread.setDaemon(true);
+
+      return thread;
+    });
   }
 
-  private OkHttpClient buildHttpClient(String accessToken) {
+  private BalancingCallFactory buildBalancingCallFactory(Call.Factory delegate,
+                                                          ScheduledExecutorService scheduler) {
+    List<HttpUrl> urls = endpointUrls();
+
+    LoadBalancer balancer = new LoadBalancer(
+        loadBalancerConfig == null ? LoadBalancerConfig.builder().build() : loadBalancerConfig,
+        urls, scheduler, url -> BalancingCallFactory.heartbeat(delegate, url));
+    balancer.start();
+
+    return new BalancingCallFactory(delegate, urls.get(0), balancer);
+  }
+
+  private List<HttpUrl> endpointUrls() {
+    List<HttpUrl> urls = new ArrayList<>();
+
+    for (String url : endpoints == null ? Collections.singletonList(endpoint) : endpoints) {
+      urls.add(HttpUrl.get(url));
+    }
+
+    return urls;
+  }
+
+  /**
+   * Build the dispatcher of the OkHttp client. A concurrency limit caps the requests in flight
+   * at its maximum limit, but never below the number of warm connections, because warm
+   * connections are opened by concurrent requests that the dispatcher must allow.
+   */
+  Dispatcher buildDispatcher() {
+    Dispatcher dispatcher = new Dispatcher();
+
+    if (concurrencyLimitConfig != null) {
+      dispatcher.setMaxRequests(concurrencyLimitConfig.getMaximumLimit());
+      dispatcher.setMaxRequestsPerHost(concurrencyLimitConfig.getMaximumLimit());
+    }
+
+    if (connectionPoolConfig != null) {
+      int warmConnections = connectionPoolConfig.getWarmConnections();
+
+      dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), warmConnections));
+      dispatcher.setMaxRequestsPerHost(
+          Math.max(dispatcher.getMaxRequestsPerHost(), warmConnections));
+    }
+
+    return dispatcher;
+  }
+
+  private OkHttpClient buildHttpClient(String accessToken, List<Runnable> closeHooks) {
     String authorization = "Bearer " + accessToken;
 
     OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
@@ -125,6 +653,45 @@ public class OPConnectClientBuilder {
       return chain.proceed(request);
     });
 
+    if (concurrencyLimitConfig != null || connectionPoolConfig != null) {
+      httpClient.dispatcher(buildDispatcher());
+    }
+
+    if (connectionPoolConfig != null) {
+      httpClient.connectionPool(new ConnectionPool(
+          connectionPoolConfig.getMaximumIdleConnections(),
+          connectionPoolConfig.getKeepAliveDurationInMilliseconds(), TimeUnit.MILLISECONDS));
+    }
+
+    if (dnsConfig != null) {
+      Executor executor = Runnable::run;
+
+      // Refreshes of stale addresses run in the background, so they need threads of their own
+      if (dnsConfig.getCacheTtlInMilliseconds() > 0
+          && dnsConfig.getStaleWhileRevalidateInMilliseconds() > 0) {
+        ExecutorService lookups = newDnsExecutor();
+
+        closeHooks.add(lookups::shutdown);
+        executor = lookups;
+      }
+
+      httpClient.dns(new CachingDns(dnsConfig, executor));
+    }
+
+    if (tlsSessionConfig != null) {
+      TlsSessions sessions = TlsSessions.create(tlsSessionConfig);
+
+      httpClient.sslSocketFactory(sessions.context().getSocketFactory(),
+          sessions.trustManager());
+    }
+
+    if (socketPath != null) {
+      httpClient
+          .socketFactory(new UnixDomainSocketFactory(socketPath))
+          .dns(UnixDomainSocketFactory.LOOPBACK_DNS)
+          .proxy(Proxy.NO_PROXY);
+    }
+
     if (timeout != null) {
       httpClient
           .connectTimeout(timeout, TimeUnit.MILLISECONDS)
@@ -135,6 +702,33 @@ public class OPConnectClientBuilder {
     return httpClient.build();
   }
 
+  private static boolean isUnixSocket(String url) {
+    return url.regionMatches(true, 0, UNIX_SCHEME, 0, UNIX_SCHEME.length());
+  }
+
+  /**
+   * Get the path of the socket file from a {@code unix:///path} endpoint.
+   *
+   * @param url the endpoint
+   * @return the absolute path to the socket
+   */
+  static Path parseSocketPath(String url) {
+    URI uri;
+
+    try {
+      uri = URI.create(url);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid Unix domain socket endpoint: " + url, e);
+    }
+
+    if (uri.getAuthority() != null || uri.getPath() == null || !uri.getPath().startsWith("/")) {
+      throw new IllegalArgumentException("A Unix domain socket endpoint must use an absolute"
+          + " path, such as unix:///var/run/connect.sock, but was " + url);
+    }
+
+    return Paths.get(uri.getPath());
+  }
+
   /**
    * Ensures that the given URL ends with a trailing slash ('/').
    *
@@ -6,8 +6,12 @@ import com.sanctionco.opconnect.model.Item;
 import com.sanctionco.opconnect.model.Patch;
 import com.sanctionco.opconnect.model.Vault;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * The {@code OPConnectVaultClient} is a convenient wrapper that provides access to
@@ -70,6 +74,43 @@ public class OPConnectVaultClient {
     return client.listItems(vaultUUID, filter.getFilter());
   }
 
+  /**
+   * List the items from the vault as a stream that parses each item as it is consumed. See
+   * {@link OPConnectClient#streamItems(String)} for details.
+   *
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         a stream of the items that exist in the vault, without sections or fields
+   */
+  public CompletableFuture<Stream<Item>> streamItems() {
+    return client.streamItems(vaultUUID);
+  }
+
+  /**
+   * List the items from the vault as a stream, filtering based on the filter. See
+   * {@link OPConnectClient#streamItems(String)} for details.
+   *
+   * @param filter an SCM-style filter to filter the results server-side
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with a
+   *         stream of the items that exist in the vault and match the filter, without sections
+   *         or fields
+   */
+  public CompletableFuture<Stream<Item>> streamItems(String filter) {
+    return client.streamItems(vaultUUID, filter);
+  }
+
+  /**
+   * List the items from the vault as a stream, filtering based on the filter. See
+   * {@link OPConnectClient#streamItems(String)} for details.
+   *
+   * @param filter the {@link Filter} to filter the results server-side
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with a
+   *         stream of the items that exist in the vault and match the filter, without sections
+   *         or fields
+   */
+  public CompletableFuture<Stream<Item>> streamItems(Filter filter) {
+    return client.streamItems(vaultUUID, filter.getFilter());
+  }
+
   /**
    * Get a full item from the vault.
    *
@@ -81,6 +122,17 @@ public class OPConnectVaultClient {
     return client.getItem(vaultUUID, itemUUID);
   }
 
+  /**
+   * Get a full item from the vault by its title.
+   *
+   * @param title the exact title of the item
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the item
+   */
+  public CompletableFuture<Item> getItemByTitle(String title) {
+    return client.getItemByTitle(vaultUUID, title);
+  }
+
   /**
    * Create a new item in the vault.
    *
@@ -207,4 +259,60 @@ public class OPConnectVaultClient {
   public CompletableFuture<String> getFileContent(String itemUUID, String fileUUID) {
     return client.getFileContent(vaultUUID, itemUUID, fileUUID);
   }
+
+  /**
+   * Get the content of a file as bytes, without decoding it as text. See
+   * {@link OPConnectClient#getFileContentBytes(String, String, String)} for details.
+   *
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with the
+   *         raw file contents
+   */
+  public CompletableFuture<byte[]> getFileContentBytes(String itemUUID, String fileUUID) {
+    return client.getFileContentBytes(vaultUUID, itemUUID, fileUUID);
+  }
+
+  /**
+   * Get the content of a file as a stream. See
+   * {@link OPConnectClient#getFileContentStream(String, String, String)} for details.
+   *
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with a
+   *         stream of the raw file contents, which must be closed
+   */
+  public CompletableFuture<InputStream> getFileContentStream(String itemUUID, String fileUUID) {
+    return client.getFileContentStream(vaultUUID, itemUUID, fileUUID);
+  }
+
+  /**
+   * Copy the content of a file to a stream as it is received. See
+   * {@link OPConnectClient#writeFileContent(String, String, String, OutputStream)} for details.
+   *
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @param out the stream to write the file contents to
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with the
+   *         number of bytes written
+   */
+  public CompletableFuture<Long> writeFileContent(String itemUUID,
+                                                  String fileUUID,
+                                                  OutputStream out) {
+    return client.writeFileContent(vaultUUID, itemUUID, fileUUID, out);
+  }
+
+  /**
+   * Write the content of a file to a path as it is received. See
+   * {@link OPConnectClient#writeFileContent(String, String, String, Path)} for details.
+   *
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @param path the file to write the file contents to
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with the
+   *         number of bytes written
+   */
+  public CompletableFuture<Long> writeFileContent(String itemUUID, String fileUUID, Path path) {
+    return client.writeFileContent(vaultUUID, itemUUID, fileUUID, path);
+  }
 }
@@ -0,0 +1,83 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * The default {@link HttpTransport}, backed by an {@link OkHttpClient}. The client builder hands
+ * the {@link OkHttpClient} straight to Retrofit, so this class mainly owns its lifecycle.
+ */
+final class OkHttpTransport implements HttpTransport {
+  private final OkHttpClient client;
+
+  OkHttpTransport(OkHttpClient client) {
+    this.client = client;
+  }
+
+  OkHttpClient client() {
+    return client;
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> send(TransportRequest request) {
+    String contentType = request.getHeaders().get("Content-Type");
+    RequestBody body = request.getBody() == null
+        ? null
+        : RequestBody.create(request.getBody(),
+            contentType == null ? null : MediaType.parse(contentType));
+
+    Request.Builder builder = new Request.Builder()
+        .url(request.getUrl())
+        .method(request.getMethod(), body);
+    request.getHeaders().forEach(builder::header);
+
+    Call call = client.newCall(builder.build());
+    CompletableFuture<TransportResponse> future = new CompletableFuture<TransportResponse>() {
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning) {
+        call.cancel();
+
+        return super.cancel(mayInterruptIfRunning);
+      }
+    };
+
+    call.enqueue(new Callback() {
+      @Override
+      public void onResponse(Call call, Response response) {
+        ResponseBody responseBody = response.body();
+        TransportResponse.Builder result = TransportResponse.builder().withCode(response.code());
+
+        response.headers()
+            .forEach(header -> result.withHeader(header.getFirst(), header.getSecond()));
+
+        if (responseBody != null) {
+          result.withBody(responseBody.byteStream());
+        }
+
+        future.complete(result.build());
+      }
+
+      @Override
+      public void onFailure(Call call, IOException e) {
+        future.completeExceptionally(e);
+      }
+    });
+
+    return future;
+  }
+
+  @Override
+  public void close() {
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+  }
+}
@@ -0,0 +1,45 @@
+package com.sanctionco.opconnect;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytes sent and received per endpoint, before and after compression.
+ */
+final class PayloadMeter {
+  private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+  Counters forEndpoint(String endpoint) {
+    return counters.computeIfAbsent(endpoint, unused -> new Counters());
+  }
+
+  /**
+   * Get the current counts of every endpoint that was called.
+   *
+   * @return the metrics by endpoint name, sorted by name
+   */
+  Map<String, PayloadMetrics> snapshot() {
+    Map<String, PayloadMetrics> snapshot = new TreeMap<>();
+
+    counters.forEach((endpoint, counts) -> snapshot.put(endpoint, new PayloadMetrics(
+        counts.requests.sum(),
+        counts.uncompressedRequestBytes.sum(),
+        counts.compressedRequestBytes.sum(),
+        counts.compressedResponseBytes.sum(),
+        counts.uncompressedResponseBytes.sum())));
+
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  static final class Counters {
+    final LongAdder requests = new LongAdder();
+    final LongAdder uncompressedRequestBytes = new LongAdder();
+    final LongAdder compressedRequestBytes = new LongAdder();
+    final LongAdder compressedResponseBytes = new LongAdder();
+    final LongAdder uncompressedResponseBytes = new LongAdder();
+  }
+}
@@ -0,0 +1,88 @@
+package com.sanctionco.opconnect;
+
+import java.util.StringJoiner;
+
+/**
+ * The number of bytes that an {@link OPConnectClient} sent and received for one endpoint, such
+ * as {@code listItems}, before and after compression. Returned by
+ * {@link OPConnectClient#getPayloadMetrics()} when compression is enabled with
+ * {@link OPConnectClientBuilder#withCompression(CompressionConfig)}.
+ *
+ * <p>Response bytes are counted as the response bodies are read, so a request that is still
+ * being read may be partly counted.
+ */
+public class PayloadMetrics {
+  private final long requests;
+  private final long uncompressedRequestBytes;
+  private final long compressedRequestBytes;
+  private final long compressedResponseBytes;
+  private final long uncompressedResponseBytes;
+
+  PayloadMetrics(long requests,
+                 long uncompressedRequestBytes,
+                 long compressedRequestBytes,
+                 long compressedResponseBytes,
+                 long uncompressedResponseBytes) {
+    this.requests = requests;
+    this.uncompressedRequestBytes = uncompressedRequestBytes;
+    this.compressedRequestBytes = compressedRequestBytes;
+    this.compressedResponseBytes = compressedResponseBytes;
+    this.uncompressedResponseBytes = uncompressedResponseBytes;
+  }
+
+  /**
+   * Get the number of requests sent to the endpoint.
+   *
+   * @return the number of requests
+   */
+  public long getRequests() {
+    return requests;
+  }
+
+  /**
+   * Get the size of the request bodies before compression.
+   *
+   * @return the uncompressed request bytes
+   */
+  public long getUncompressedRequestBytes() {
+    return uncompressedRequestBytes;
+  }
+
+  /**
+   * Get the size of the request bodies as sent, after compression where it was applied.
+   *
+   * @return the compressed request bytes
+   */
+  public long getCompressedRequestBytes() {
+    return compressedRequestBytes;
+  }
+
+  /**
+   * Get the size of the response bodies as received, before decompression.
+   *
+   * @return the compressed response bytes
+   */
+  public long getCompressedResponseBytes() {
+    return compressedResponseBytes;
+  }
+
+  /**
+   * Get the size of the response bodies after decompression.
+   *
+   * @return the uncompressed response bytes
+   */
+  public long getUncompressedResponseBytes() {
+    return uncompressedResponseBytes;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", PayloadMetrics.class.getSimpleName() + "[", "]")
+        .add("requests=" + requests)
+        .add("uncompressedRequestBytes=" + uncompressedRequestBytes)
+        .add("compressedRequestBytes=" + compressedRequestBytes)
+        .add("compressedResponseBytes=" + compressedResponseBytes)
+        .add("uncompressedResponseBytes=" + uncompressedResponseBytes)
+        .toString();
+  }
+}
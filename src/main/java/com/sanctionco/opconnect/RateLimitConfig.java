@@ -0,0 +1,237 @@
+package com.sanctionco.opconnect;
+
+import java.util.StringJoiner;
+
+/**
+ * Configures the client-side rate limit of an {@link OPConnectClient}. Build an instance with
+ * {@link #builder()} and pass it to {@link OPConnectClientBuilder#withRateLimit(RateLimitConfig)}.
+ *
+ * <p>The rate limit is a token bucket: requests are sent at up to the configured rate on
+ * average, and up to the burst size at once after a quiet period. Reads and writes can have
+ * their own, lower, limits in addition to the limit for the whole client. Item creates,
+ * replaces, patches, and deletes count as writes; every other request counts as a read.
+ *
+ * <p>Requests over the limit wait in a bounded queue, in the order they were made. A request
+ * fails with a {@link java.util.concurrent.RejectedExecutionException} when the queue is full,
+ * or as soon as it is known that it would wait longer than the maximum queue wait.
+ */
+public class RateLimitConfig {
+  private final double requestsPerSecond;
+  private final int burst;
+  private final double readRequestsPerSecond;
+  private final int readBurst;
+  private final double writeRequestsPerSecond;
+  private final int writeBurst;
+  private final int maximumQueueSize;
+  private final long maximumQueueWaitInMilliseconds;
+
+  private RateLimitConfig(Builder builder) {
+    this.requestsPerSecond = builder.requestsPerSecond;
+    this.burst = builder.burst;
+    this.readRequestsPerSecond = builder.readRequestsPerSecond;
+    this.readBurst = builder.readBurst;
+    this.writeRequestsPerSecond = builder.writeRequestsPerSecond;
+    this.writeBurst = builder.writeBurst;
+    this.maximumQueueSize = builder.maximumQueueSize;
+    this.maximumQueueWaitInMilliseconds = builder.maximumQueueWaitInMilliseconds;
+  }
+
+  /**
+   * Get the average number of requests per second that the client sends.
+   *
+   * @return the rate limit in requests per second
+   */
+  public double getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * Get the number of requests that the client can send at once after a quiet period.
+   *
+   * @return the burst size
+   */
+  public int getBurst() {
+    return burst;
+  }
+
+  /**
+   * Get the average number of read requests per second, or 0 if reads are only limited by the
+   * limit for the whole client.
+   *
+   * @return the read rate limit in requests per second
+   */
+  public double getReadRequestsPerSecond() {
+    return readRequestsPerSecond;
+  }
+
+  /**
+   * Get the number of read requests that can be sent at once after a quiet period.
+   *
+   * @return the read burst size
+   */
+  public int getReadBurst() {
+    return readBurst;
+  }
+
+  /**
+   * Get the average number of write requests per second, or 0 if writes are only limited by
+   * the limit for the whole client.
+   *
+   * @return the write rate limit in requests per second
+   */
+  public double getWriteRequestsPerSecond() {
+    return writeRequestsPerSecond;
+  }
+
+  /**
+   * Get the number of write requests that can be sent at once after a quiet period.
+   *
+   * @return the write burst size
+   */
+  public int getWriteBurst() {
+    return writeBurst;
+  }
+
+  /**
+   * Get the maximum number of requests that can wait for the rate limit. Requests beyond this
+   * are rejected immediately.
+   *
+   * @return the maximum queue size
+   */
+  public int getMaximumQueueSize() {
+    return maximumQueueSize;
+  }
+
+  /**
+   * Get the maximum amount of time in milliseconds that a request waits for the rate limit.
+   *
+   * @return the maximum queue wait in milliseconds
+   */
+  public long getMaximumQueueWaitInMilliseconds() {
+    return maximumQueueWaitInMilliseconds;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", RateLimitConfig.class.getSimpleName() + "[", "]")
+        .add("requestsPerSecond=" + requestsPerSecond)
+        .add("burst=" + burst)
+        .add("readRequestsPerSecond=" + readRequestsPerSecond)
+        .add("readBurst=" + readBurst)
+        .add("writeRequestsPerSecond=" + writeRequestsPerSecond)
+        .add("writeBurst=" + writeBurst)
+        .add("maximumQueueSize=" + maximumQueueSize)
+        .add("maximumQueueWaitInMilliseconds=" + maximumQueueWaitInMilliseconds)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private double requestsPerSecond = 50;
+    private int burst = 50;
+    private double readRequestsPerSecond = 0;
+    private int readBurst = 0;
+    private double writeRequestsPerSecond = 0;
+    private int writeBurst = 0;
+    private int maximumQueueSize = 1000;
+    private long maximumQueueWaitInMilliseconds = 5000L;
+
+    /**
+     * Set the rate limit for the whole client. Default is 50 requests per second with a burst
+     * of 50.
+     *
+     * @param requestsPerSecond the average number of requests per second
+     * @param burst the number of requests that can be sent at once after a quiet period
+     * @return this
+     */
+    public Builder withRate(double requestsPerSecond, int burst) {
+      validate(requestsPerSecond, burst, "rate");
+
+      this.requestsPerSecond = requestsPerSecond;
+      this.burst = burst;
+      return this;
+    }
+
+    /**
+     * Set a separate rate limit for read requests. Reads must also fit within the limit for
+     * the whole client. By default reads have no separate limit.
+     *
+     * @param requestsPerSecond the average number of read requests per second
+     * @param burst the number of read requests that can be sent at once after a quiet period
+     * @return this
+     */
+    public Builder withReadRate(double requestsPerSecond, int burst) {
+      validate(requestsPerSecond, burst, "read rate");
+
+      this.readRequestsPerSecond = requestsPerSecond;
+      this.readBurst = burst;
+      return this;
+    }
+
+    /**
+     * Set a separate rate limit for write requests. Writes must also fit within the limit for
+     * the whole client. By default writes have no separate limit.
+     *
+     * @param requestsPerSecond the average number of write requests per second
+     * @param burst the number of write requests that can be sent at once after a quiet period
+     * @return this
+     */
+    public Builder withWriteRate(double requestsPerSecond, int burst) {
+      validate(requestsPerSecond, burst, "write rate");
+
+      this.writeRequestsPerSecond = requestsPerSecond;
+      this.writeBurst = burst;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of requests that can wait for the rate limit. Default is 1000.
+     *
+     * @param maximumQueueSize the maximum queue size, or zero to reject requests over the limit
+     *                         immediately
+     * @return this
+     */
+    public Builder withMaximumQueueSize(int maximumQueueSize) {
+      if (maximumQueueSize < 0) {
+        throw new IllegalArgumentException("The maximum queue size must not be negative.");
+      }
+
+      this.maximumQueueSize = maximumQueueSize;
+      return this;
+    }
+
+    /**
+     * Set the maximum amount of time that a request waits for the rate limit. Default is 5000
+     * milliseconds (5 seconds).
+     *
+     * @param maximumQueueWaitInMilliseconds the maximum queue wait in milliseconds
+     * @return this
+     */
+    public Builder withMaximumQueueWaitInMilliseconds(long maximumQueueWaitInMilliseconds) {
+      if (maximumQueueWaitInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The maximum queue wait must be greater than zero.");
+      }
+
+      this.maximumQueueWaitInMilliseconds = maximumQueueWaitInMilliseconds;
+      return this;
+    }
+
+    public RateLimitConfig build() {
+      return new RateLimitConfig(this);
+    }
+
+    private static void validate(double requestsPerSecond, int burst, String name) {
+      if (!(requestsPerSecond > 0) || Double.isInfinite(requestsPerSecond)) {
+        throw new IllegalArgumentException("The " + name + " must be greater than zero.");
+      }
+
+      if (burst <= 0) {
+        throw new IllegalArgumentException(
+            "The burst of the " + name + " must be greater than zero.");
+      }
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Paces calls according to a {@link RateLimitConfig}, with a token bucket for the whole client
+ * and optional buckets for reads and writes. A call that finds no token reserves the next one
+ * instead, which may take a bucket below zero, and is scheduled to start when that token
+ * becomes available. Reservations are made in the order that calls are made, so waiting calls
+ * start in order, and a call whose start time is past the maximum queue wait is rejected
+ * without waiting.
+ */
+final class RateLimiter {
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final RateLimitConfig config;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier ticker;
+  private final TokenBucket all;
+  private final TokenBucket reads;
+  private final TokenBucket writes;
+
+  private int queued;
+
+  RateLimiter(RateLimitConfig config, ScheduledExecutorService scheduler, LongSupplier ticker) {
+    this.config = config;
+    this.scheduler = scheduler;
+    this.ticker = ticker;
+
+    long now = ticker.getAsLong();
+    this.all = new TokenBucket(config.getRequestsPerSecond(), config.getBurst(), now);
+    this.reads = config.getReadRequestsPerSecond() > 0
+        ? new TokenBucket(config.getReadRequestsPerSecond(), config.getReadBurst(), now)
+        : null;
+    this.writes = config.getWriteRequestsPerSecond() > 0
+        ? new TokenBucket(config.getWriteRequestsPerSecond(), config.getWriteBurst(), now)
+        : null;
+  }
+
+  RateLimiter(RateLimitConfig config, ScheduledExecutorService scheduler) {
+    this(config, scheduler, System::nanoTime);
+  }
+
+  /**
+   * Make a call once the rate limit allows it.
+   *
+   * @param write true if the call is a write, false if it is a read
+   * @param call the call to make
+   * @param <T> the type of the call result
+   * @return a future that is completed with the result of the call, or completed exceptionally
+   *         with a {@link RejectedExecutionException} if the call could not be started in time
+   */
+  <T> CompletableFuture<T> execute(boolean write, Supplier<CompletableFuture<T>> call) {
+    TokenBucket own = write ? writes : reads;
+    long wait;
+
+    synchronized (this) {
+      long now = ticker.getAsLong();
+      wait = Math.max(all.waitInNanos(now), own == null ? 0L : own.waitInNanos(now));
+
+      if (wait > 0 && queued >= config.getMaximumQueueSize()) {
+        return rejected(new RejectedExecutionException(
+            "The request was rejected because " + queued + " requests are already"
+                + " waiting for the rate limit."));
+      }
+
+      if (wait > TimeUnit.MILLISECONDS.toNanos(config.getMaximumQueueWaitInMilliseconds())) {
+        return rejected(new RejectedExecutionException(
+            "The request was rejected because it would wait more than "
+                + config.getMaximumQueueWaitInMilliseconds() + " milliseconds for the rate"
+                + " limit."));
+      }
+
+      all.take();
+
+      if (own != null) {
+        own.take();
+      }
+
+      if (wait > 0) {
+        queued++;
+      }
+    }
+
+    if (wait == 0) {
+      return call.get();
+    }
+
+    Waiting<T> waiting = new Waiting<>(own, call);
+
+    try {
+      waiting.timer = scheduler.schedule(waiting::start, wait, TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      waiting.cancel(false);
+      return rejected(e);
+    }
+
+    return waiting;
+  }
+
+  /**
+   * Get the number of calls waiting for the rate limit.
+   *
+   * @return the number of waiting calls
+   */
+  synchronized int getQueueSize() {
+    return queued;
+  }
+
+  private static <T> CompletableFuture<T> rejected(RejectedExecutionException e) {
+    CompletableFuture<T> rejected = new CompletableFuture<>();
+    rejected.completeExceptionally(e);
+
+    return rejected;
+  }
+
+  /**
+   * A token bucket that refills continuously. Must only be used while holding the lock of the
+   * rate limiter.
+   */
+  private static final class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long updated;
+
+    TokenBucket(double requestsPerSecond, int burst, long now) {
+      this.tokensPerNano = requestsPerSecond / NANOS_PER_SECOND;
+      this.capacity = burst;
+      this.tokens = burst;
+      this.updated = now;
+    }
+
+    long waitInNanos(long now) {
+      tokens = Math.min(capacity, tokens + (now - updated) * tokensPerNano);
+      updated = now;
+
+      return tokens >= 1 ? 0L : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    void take() {
+      tokens -= 1;
+    }
+
+    void refund() {
+      tokens = Math.min(capacity, tokens + 1);
+    }
+  }
+
+  /**
+   * A call waiting for its reserved token. Cancelling it before it starts returns the token,
+   * and cancelling it afterwards cancels the call.
+   */
+  private final class Waiting<T> extends CompletableFuture<T> {
+    private final TokenBucket own;
+    private final Supplier<CompletableFuture<T>> call;
+    private volatile ScheduledFuture<?> timer;
+    private volatile CompletableFuture<T> started;
+    private boolean leftQueue;
+
+    Waiting(TokenBucket own, Supplier<CompletableFuture<T>> call) {
+      this.own = own;
+      this.call = call;
+    }
+
+    void start() {
+      synchronized (RateLimiter.this) {
+        if (leftQueue) {
+          return;
+        }
+
+        leftQueue = true;
+        queued--;
+      }
+
+      try {
+        started = call.get();
+      } catch (RuntimeException e) {
+        completeExceptionally(e);
+        return;
+      }
+
+      // A cancel that raced with starting the call must still reach it
+      if (isCancelled()) {
+        started.cancel(true);
+      }
+
+      started.whenComplete((result, throwable) -> {
+        if (throwable == null) {
+          complete(result);
+        } else {
+          completeExceptionally(throwable instanceof CancellationException
+              ? throwable
+              : Responses.unwrap(throwable));
+        }
+      });
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean removed;
+
+      synchronized (RateLimiter.this) {
+        removed = !leftQueue;
+
+        if (removed) {
+          leftQueue = true;
+          queued--;
+          all.refund();
+
+          if (own != null) {
+            own.refund();
+          }
+        }
+      }
+
+      ScheduledFuture<?> scheduled = timer;
+
+      if (removed && scheduled != null) {
+        scheduled.cancel(false);
+      }
+
+      CompletableFuture<T> call = started;
+
+      if (call != null) {
+        call.cancel(mayInterruptIfRunning);
+      }
+
+      return super.cancel(mayInterruptIfRunning);
+    }
+  }
+}
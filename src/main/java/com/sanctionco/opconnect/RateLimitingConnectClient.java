@@ -0,0 +1,169 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Patch;
+import com.sanctionco.opconnect.model.Vault;
+import com.sanctionco.opconnect.model.apiactivity.APIRequest;
+import com.sanctionco.opconnect.model.health.ConnectServer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import okhttp3.ResponseBody;
+
+/**
+ * A {@link RetrofitOPConnectClient} that paces calls with a {@link RateLimiter}. Item
+ * creates, replaces, patches, and deletes count as writes; every other call counts as a read.
+ */
+final class RateLimitingConnectClient extends ForwardingConnectClient {
+  private final RateLimiter rateLimiter;
+
+  RateLimitingConnectClient(RetrofitOPConnectClient delegate, RateLimiter rateLimiter) {
+    super(delegate);
+    this.rateLimiter = rateLimiter;
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return read(() -> delegate().listVaults());
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return read(() -> delegate().listVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return read(() -> delegate().getVault(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return read(() -> delegate().listItems(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    return read(() -> delegate().listItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    return read(() -> delegate().getItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<Item> createItem(String vaultUUID, Item item) {
+    return write(() -> delegate().createItem(vaultUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> replaceItem(String vaultUUID, String itemUUID, Item item) {
+    return write(() -> delegate().replaceItem(vaultUUID, itemUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> patchItem(String vaultUUID, String itemUUID, List<Patch> patches) {
+    return write(() -> delegate().patchItem(vaultUUID, itemUUID, patches));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteItem(String vaultUUID, String itemUUID) {
+    return write(() -> delegate().deleteItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID,
+                                                 String itemUUID,
+                                                 boolean inlineContent) {
+    return read(() -> delegate().listFiles(vaultUUID, itemUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID, String itemUUID) {
+    return read(() -> delegate().listFiles(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return read(() -> delegate().getFile(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return read(() -> delegate().getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<String> getFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID) {
+    return read(() -> delegate().getFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity() {
+    return read(() -> delegate().listAPIActivity());
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit) {
+    return read(() -> delegate().listAPIActivity(limit));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit, Integer offset) {
+    return read(() -> delegate().listAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ConnectServer> health() {
+    return read(() -> delegate().health());
+  }
+
+  @Override
+  public CompletableFuture<Void> heartbeat() {
+    return read(() -> delegate().heartbeat());
+  }
+
+  @Override
+  public CompletableFuture<String> metrics() {
+    return read(() -> delegate().metrics());
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamVaults(String filter) {
+    return read(() -> delegate().streamVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamItems(String vaultUUID, String filter) {
+    return read(() -> delegate().streamItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamAPIActivity(Integer limit, Integer offset) {
+    return read(() -> delegate().streamAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamFileContent(String vaultUUID,
+                                                           String itemUUID,
+                                                           String fileUUID) {
+    return read(() -> delegate().streamFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  private <T> CompletableFuture<T> read(Supplier<CompletableFuture<T>> call) {
+    return rateLimiter.execute(false, call);
+  }
+
+  private <T> CompletableFuture<T> write(Supplier<CompletableFuture<T>> call) {
+    return rateLimiter.execute(true, call);
+  }
+}
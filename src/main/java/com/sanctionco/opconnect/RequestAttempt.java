@@ -0,0 +1,104 @@
+package com.sanctionco.opconnect;
+
+import java.time.Duration;
+import java.util.StringJoiner;
+
+/**
+ * Describes a single attempt of a request made by an {@link OPConnectClient} with a
+ * {@link RetryPolicy}. Register a listener with
+ * {@link RetryPolicy.Builder#withAttemptListener(java.util.function.Consumer)} to receive one
+ * for every attempt.
+ */
+public class RequestAttempt {
+  private final String operation;
+  private final int attempt;
+  private final Duration latency;
+  private final Throwable failure;
+  private final Duration backoff;
+
+  RequestAttempt(String operation,
+                 int attempt,
+                 Duration latency,
+                 Throwable failure,
+                 Duration backoff) {
+    this.operation = operation;
+    this.attempt = attempt;
+    this.latency = latency;
+    this.failure = failure;
+    this.backoff = backoff;
+  }
+
+  /**
+   * Get the name of the client method that made the request, such as {@code getItem}.
+   *
+   * @return the name of the operation
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * Get the number of this attempt, starting at 1 for the first attempt.
+   *
+   * @return the attempt number
+   */
+  public int getAttempt() {
+    return attempt;
+  }
+
+  /**
+   * Get the time from the start of this attempt until it completed.
+   *
+   * @return the latency of the attempt
+   */
+  public Duration getLatency() {
+    return latency;
+  }
+
+  /**
+   * Get the failure of this attempt.
+   *
+   * @return the failure, or null if the attempt succeeded
+   */
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  /**
+   * Determine whether this attempt succeeded.
+   *
+   * @return true if the attempt succeeded, false otherwise
+   */
+  public boolean isSuccessful() {
+    return failure == null;
+  }
+
+  /**
+   * Determine whether the request will be attempted again.
+   *
+   * @return true if another attempt follows, false otherwise
+   */
+  public boolean willRetry() {
+    return backoff != null;
+  }
+
+  /**
+   * Get the delay before the next attempt.
+   *
+   * @return the delay before the next attempt, or {@link Duration#ZERO} if there is none
+   */
+  public Duration getBackoff() {
+    return backoff == null ? Duration.ZERO : backoff;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", RequestAttempt.class.getSimpleName() + "[", "]")
+        .add("operation=" + operation)
+        .add("attempt=" + attempt)
+        .add("latency=" + latency)
+        .add("failure=" + failure)
+        .add("backoff=" + backoff)
+        .toString();
+  }
+}
@@ -0,0 +1,106 @@
+package com.sanctionco.opconnect;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Reads the JSON array in a response body as a {@link Stream} of its elements. The body is
+ * parsed with the Jackson streaming API as the stream is consumed, so only one element is held
+ * in memory at a time no matter how long the array is.
+ */
+final class ResponseStreams {
+  private final ObjectMapper mapper;
+
+  ResponseStreams(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  /**
+   * Stream the elements of the JSON array in a response body. The body is not read until the
+   * stream is consumed, and it is closed when the stream is exhausted, fails, or is closed.
+   *
+   * @param body the unread response body
+   * @param type the type of the array elements
+   * @param <T> the type of the array elements
+   * @return a sequential stream of the array elements, which must be closed if it is not
+   *         consumed to the end
+   */
+  <T> Stream<T> stream(ResponseBody body, Class<T> type) {
+    ElementIterator<T> iterator = new ElementIterator<>(mapper.readerFor(type), body);
+
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(iterator::close);
+  }
+
+  private static final class ElementIterator<T> implements Iterator<T> {
+    private final ObjectReader reader;
+    private final ResponseBody body;
+    private MappingIterator<T> elements;
+    private boolean closed;
+
+    ElementIterator(ObjectReader reader, ResponseBody body) {
+      this.reader = reader;
+      this.body = body;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (closed) {
+        return false;
+      }
+
+      try {
+        // Parsing starts here rather than when the response arrives, so that it does not block
+        // the thread that completes the call
+        if (elements == null) {
+          elements = reader.readValues(body.byteStream());
+        }
+
+        if (elements.hasNextValue()) {
+          return true;
+        }
+      } catch (IOException e) {
+        close();
+        throw new UncheckedIOException("Unable to read the response body.", e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+
+      close();
+      return false;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      try {
+        return elements.nextValue();
+      } catch (IOException e) {
+        close();
+        throw new UncheckedIOException("Unable to read the response body.", e);
+      }
+    }
+
+    void close() {
+      closed = true;
+      body.close();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import retrofit2.HttpException;
+
+/**
+ * Helpers for inspecting the failures of completed requests.
+ */
+final class Responses {
+
+  private Responses() {
+  }
+
+  /**
+   * Get the underlying cause of a failure that was wrapped by a {@link CompletionException} or
+   * an {@link ExecutionException}.
+   *
+   * @param throwable the failure
+   * @return the underlying cause
+   */
+  static Throwable unwrap(Throwable throwable) {
+    Throwable cause = throwable;
+
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+
+    return cause;
+  }
+
+  /**
+   * Determine whether a failure is likely to be transient: a connection error or timeout, a
+   * {@code 429 Too Many Requests} response, or a {@code 5xx} response.
+   *
+   * @param throwable the failure
+   * @return true if the failure is transient, false otherwise
+   */
+  static boolean isTransient(Throwable throwable) {
+    Throwable cause = unwrap(throwable);
+
+    if (cause instanceof HttpException) {
+      int code = ((HttpException) cause).code();
+
+      return code == 429 || code >= 500;
+    }
+
+    return cause instanceof IOException;
+  }
+
+  /**
+   * Determine whether a failure is a {@code 404 Not Found} response.
+   *
+   * @param throwable the failure
+   * @return true if the failure is a not found response, false otherwise
+   */
+  static boolean isNotFound(Throwable throwable) {
+    Throwable cause = unwrap(throwable);
+
+    return cause instanceof HttpException && ((HttpException) cause).code() == 404;
+  }
+}
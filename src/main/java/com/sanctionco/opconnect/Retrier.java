@@ -0,0 +1,221 @@
+package com.sanctionco.opconnect;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Retries failed calls according to a {@link RetryPolicy}. Retries are scheduled on the
+ * client's scheduler, so no thread waits during a backoff.
+ */
+final class Retrier {
+  private final RetryPolicy policy;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier ticker;
+  private final LongSupplier clock;
+  private final DoubleSupplier random;
+  private final TokenBudget budget;
+
+  Retrier(RetryPolicy policy,
+          ScheduledExecutorService scheduler,
+          LongSupplier ticker,
+          LongSupplier clock,
+          DoubleSupplier random) {
+    this.policy = policy;
+    this.scheduler = scheduler;
+    this.ticker = ticker;
+    this.clock = clock;
+    this.random = random;
+    this.budget = new TokenBudget(policy.getRetryBudgetCapacity(), policy.getRetryBudgetRatio());
+  }
+
+  Retrier(RetryPolicy policy, ScheduledExecutorService scheduler) {
+    this(policy, scheduler, System::nanoTime, System::currentTimeMillis,
+        () -> ThreadLocalRandom.current().nextDouble());
+  }
+
+  /**
+   * Make a call, and retry it if it fails with a transient error.
+   *
+   * @param operation the name of the operation, reported to the attempt listener
+   * @param idempotent whether the call can safely be made more than once
+   * @param call the call to make
+   * @param <T> the type of the call result
+   * @return a future that is completed with the result of the first successful attempt, or with
+   *         the failure of the last attempt
+   */
+  <T> CompletableFuture<T> execute(String operation,
+                                   boolean idempotent,
+                                   Supplier<CompletableFuture<T>> call) {
+    budget.deposit();
+
+    Execution<T> execution = new Execution<>(operation,
+        idempotent || policy.isRetryNonIdempotentRequests(), call);
+    execution.attempt(1);
+
+    return execution;
+  }
+
+  /**
+   * Get the number of retries that the budget currently allows.
+   *
+   * @return the number of tokens in the retry budget
+   */
+  double getRetryBudget() {
+    return budget.tokens();
+  }
+
+  /**
+   * Get the delay before the given retry, or -1 if the failure should not be retried.
+   */
+  long backoff(int retry, Throwable failure) {
+    if (!Responses.isTransient(failure)) {
+      return -1;
+    }
+
+    if (failure instanceof HttpException) {
+      Response<?> response = ((HttpException) failure).response();
+      String retryAfter = response == null ? null : response.headers().get("Retry-After");
+
+      if (retryAfter != null) {
+        long delay = parseRetryAfter(retryAfter.trim());
+
+        if (delay >= 0) {
+          return delay <= policy.getMaximumBackoffInMilliseconds() ? delay : -1;
+        }
+      }
+    }
+
+    double bound = Math.min(policy.getMaximumBackoffInMilliseconds(),
+        policy.getInitialBackoffInMilliseconds()
+            * Math.pow(policy.getBackoffMultiplier(), retry - 1));
+
+    return (long) (random.getAsDouble() * bound);
+  }
+
+  private long parseRetryAfter(String value) {
+    try {
+      return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      // Not a number of seconds, so try an HTTP date
+    }
+
+    try {
+      long date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+          .toInstant()
+          .toEpochMilli();
+
+      return Math.max(0L, date - clock.getAsLong());
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  private void report(RequestAttempt attempt) {
+    try {
+      policy.getAttemptListener().accept(attempt);
+    } catch (RuntimeException e) {
+      // A failing listener must not affect the request
+    }
+  }
+
+  /**
+   * The result of a call across all of its attempts. Cancelling it cancels the current attempt
+   * and any scheduled retry.
+   */
+  private final class Execution<T> extends CompletableFuture<T> {
+    private final String operation;
+    private final boolean retryable;
+    private final Supplier<CompletableFuture<T>> call;
+    private volatile CompletableFuture<T> current;
+    private volatile ScheduledFuture<?> scheduled;
+
+    Execution(String operation, boolean retryable, Supplier<CompletableFuture<T>> call) {
+      this.operation = operation;
+      this.retryable = retryable;
+      this.call = call;
+    }
+
+    void attempt(int number) {
+      if (isDone()) {
+        return;
+      }
+
+      final long start = ticker.getAsLong();
+      CompletableFuture<T> future;
+
+      try {
+        future = call.get();
+      } catch (RuntimeException e) {
+        completeExceptionally(e);
+        return;
+      }
+
+      current = future;
+
+      if (isCancelled()) {
+        future.cancel(true);
+      }
+
+      future.whenComplete((result, throwable) -> {
+        Duration latency = Duration.ofNanos(ticker.getAsLong() - start);
+
+        if (throwable == null) {
+          report(new RequestAttempt(operation, number, latency, null, null));
+          complete(result);
+          return;
+        }
+
+        Throwable failure = Responses.unwrap(throwable);
+        long delay = retryable && number < policy.getMaximumAttempts() && !isDone()
+            ? backoff(number, failure)
+            : -1;
+
+        if (delay < 0 || !budget.withdraw()) {
+          report(new RequestAttempt(operation, number, latency, failure, null));
+          completeExceptionally(failure);
+          return;
+        }
+
+        report(new RequestAttempt(operation, number, latency, failure, Duration.ofMillis(delay)));
+
+        try {
+          scheduled = scheduler.schedule(() -> attempt(number + 1),
+              delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+          completeExceptionally(failure);
+        }
+      });
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      ScheduledFuture<?> retry = scheduled;
+      CompletableFuture<T> attempt = current;
+
+      if (retry != null) {
+        retry.cancel(false);
+      }
+
+      if (attempt != null) {
+        attempt.cancel(mayInterruptIfRunning);
+      }
+
+      return cancelled;
+    }
+  }
+}
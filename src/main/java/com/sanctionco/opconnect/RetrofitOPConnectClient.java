@@ -10,6 +10,8 @@ import com.sanctionco.opconnect.model.health.ConnectServer;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import okhttp3.ResponseBody;
+
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
@@ -18,6 +20,7 @@ import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 interface RetrofitOPConnectClient {
 
@@ -275,4 +278,61 @@ interface RetrofitOPConnectClient {
    */
   @GET("metrics")
   CompletableFuture<String> metrics();
+
+  /**
+   * List the available vaults in 1Password without buffering the response, optionally
+   * filtering based on the filter.
+   *
+   * @param filter an SCM-style filter to filter the results server-side, or null for all vaults
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the unread response body, which is a JSON array of vault objects
+   */
+  @Streaming
+  @GET("v1/vaults")
+  CompletableFuture<ResponseBody> streamVaults(@Query("filter") String filter);
+
+  /**
+   * List the items from the given vault without buffering the response, optionally filtering
+   * based on the filter.
+   *
+   * @param vaultUUID the id of the vault
+   * @param filter an SCM-style filter to filter the results server-side, or null for all items
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the unread response body, which is a JSON array of items without sections or fields
+   */
+  @Streaming
+  @GET("v1/vaults/{id}/items")
+  CompletableFuture<ResponseBody> streamItems(@Path("id") String vaultUUID,
+                                              @Query("filter") String filter);
+
+  /**
+   * Provides recent API activity without buffering the response, optionally starting at the
+   * given offset and limiting the results based on the given limit.
+   *
+   * @param limit the maximum number of activity instances to retrieve, or null for the default
+   * @param offset how far into the collection of API events the response should start, or null
+   *               to start at the beginning
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the unread response body, which is a JSON array of {@link APIRequest} objects
+   */
+  @Streaming
+  @GET("v1/activity")
+  CompletableFuture<ResponseBody> streamAPIActivity(@Query("limit") Integer limit,
+                                                    @Query("offset") Integer offset);
+
+  /**
+   * Get the content of a file without buffering or decoding the response, so that binary
+   * content is not corrupted.
+   *
+   * @param vaultUUID the id of the vault
+   * @param itemUUID the id of the item that the file is attached to
+   * @param fileUUID the id of the file
+   * @return a {@link CompletableFuture} is returned immediately and eventually completed with
+   *         the unread response body, which is the raw file content
+   */
+  @Streaming
+  @GET("v1/vaults/{vaultId}/items/{itemId}/files/{fileId}/content")
+  CompletableFuture<ResponseBody> streamFileContent(@Path("vaultId") String vaultUUID,
+                                                    @Path("itemId") String itemUUID,
+                                                    @Path("fileId") String fileUUID);
 }
@@ -0,0 +1,263 @@
+package com.sanctionco.opconnect;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+/**
+ * Configures how an {@link OPConnectClient} retries failed requests. Build an instance with
+ * {@link #builder()} and pass it to {@link OPConnectClientBuilder#withRetryPolicy(RetryPolicy)}.
+ *
+ * <p>A request is retried when it fails with a connection error or timeout, a
+ * {@code 429 Too Many Requests} response, or a {@code 5xx} response. The delay before each
+ * retry grows exponentially with full jitter, unless the response carries a
+ * {@code Retry-After} header, in which case that delay is used instead. By default only
+ * idempotent requests ({@code GET}, {@code PUT} through {@code replaceItem}, and {@code DELETE})
+ * are retried.
+ *
+ * <p>Retries are limited by a retry budget, so that they cannot multiply the load on a Connect
+ * server that is already failing. The budget holds up to {@link #getRetryBudgetCapacity()}
+ * tokens and starts full. Each request adds {@link #getRetryBudgetRatio()} tokens and each retry
+ * takes one, so over time retries add at most that fraction of extra requests.
+ */
+public class RetryPolicy {
+  private static final Consumer<RequestAttempt> NO_LISTENER = attempt -> { };
+
+  private final int maximumAttempts;
+  private final long initialBackoffInMilliseconds;
+  private final long maximumBackoffInMilliseconds;
+  private final double backoffMultiplier;
+  private final boolean retryNonIdempotentRequests;
+  private final int retryBudgetCapacity;
+  private final double retryBudgetRatio;
+  private final Consumer<RequestAttempt> attemptListener;
+
+  private RetryPolicy(Builder builder) {
+    this.maximumAttempts = builder.maximumAttempts;
+    this.initialBackoffInMilliseconds = builder.initialBackoffInMilliseconds;
+    this.maximumBackoffInMilliseconds = builder.maximumBackoffInMilliseconds;
+    this.backoffMultiplier = builder.backoffMultiplier;
+    this.retryNonIdempotentRequests = builder.retryNonIdempotentRequests;
+    this.retryBudgetCapacity = builder.retryBudgetCapacity;
+    this.retryBudgetRatio = builder.retryBudgetRatio;
+    this.attemptListener = builder.attemptListener;
+  }
+
+  /**
+   * Get the maximum number of attempts for a single request, including the first one.
+   *
+   * @return the maximum number of attempts
+   */
+  public int getMaximumAttempts() {
+    return maximumAttempts;
+  }
+
+  /**
+   * Get the upper bound of the delay before the first retry, in milliseconds.
+   *
+   * @return the initial backoff in milliseconds
+   */
+  public long getInitialBackoffInMilliseconds() {
+    return initialBackoffInMilliseconds;
+  }
+
+  /**
+   * Get the maximum delay before a retry, in milliseconds. A {@code Retry-After} header that
+   * asks for a longer delay is not honored, and the request fails instead.
+   *
+   * @return the maximum backoff in milliseconds
+   */
+  public long getMaximumBackoffInMilliseconds() {
+    return maximumBackoffInMilliseconds;
+  }
+
+  /**
+   * Get the factor by which the backoff grows with each retry.
+   *
+   * @return the backoff multiplier
+   */
+  public double getBackoffMultiplier() {
+    return backoffMultiplier;
+  }
+
+  /**
+   * Get whether {@code createItem} and {@code patchItem} requests are retried as well.
+   *
+   * @return true if non-idempotent requests are retried, false otherwise
+   */
+  public boolean isRetryNonIdempotentRequests() {
+    return retryNonIdempotentRequests;
+  }
+
+  /**
+   * Get the maximum number of tokens in the retry budget.
+   *
+   * @return the retry budget capacity
+   */
+  public int getRetryBudgetCapacity() {
+    return retryBudgetCapacity;
+  }
+
+  /**
+   * Get the number of tokens that each request adds to the retry budget.
+   *
+   * @return the retry budget ratio
+   */
+  public double getRetryBudgetRatio() {
+    return retryBudgetRatio;
+  }
+
+  /**
+   * Get the listener that is notified of every attempt.
+   *
+   * @return the attempt listener
+   */
+  public Consumer<RequestAttempt> getAttemptListener() {
+    return attemptListener;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", RetryPolicy.class.getSimpleName() + "[", "]")
+        .add("maximumAttempts=" + maximumAttempts)
+        .add("initialBackoffInMilliseconds=" + initialBackoffInMilliseconds)
+        .add("maximumBackoffInMilliseconds=" + maximumBackoffInMilliseconds)
+        .add("backoffMultiplier=" + backoffMultiplier)
+        .add("retryNonIdempotentRequests=" + retryNonIdempotentRequests)
+        .add("retryBudgetCapacity=" + retryBudgetCapacity)
+        .add("retryBudgetRatio=" + retryBudgetRatio)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private int maximumAttempts = 3;
+    private long initialBackoffInMilliseconds = 100L;
+    private long maximumBackoffInMilliseconds = 5000L;
+    private double backoffMultiplier = 2.0;
+    private boolean retryNonIdempotentRequests = false;
+    private int retryBudgetCapacity = 10;
+    private double retryBudgetRatio = 0.1;
+    private Consumer<RequestAttempt> attemptListener = NO_LISTENER;
+
+    /**
+     * Set the maximum number of attempts for a single request, including the first one.
+     * Default is 3.
+     *
+     * @param maximumAttempts the maximum number of attempts
+     * @return this
+     */
+    public Builder withMaximumAttempts(int maximumAttempts) {
+      if (maximumAttempts <= 0) {
+        throw new IllegalArgumentException("The maximum attempts must be greater than zero.");
+      }
+
+      this.maximumAttempts = maximumAttempts;
+      return this;
+    }
+
+    /**
+     * Set the upper bound of the delay before the first retry. The actual delay is chosen at
+     * random between zero and this bound, and the bound grows with each retry. Default is 100
+     * milliseconds.
+     *
+     * @param initialBackoffInMilliseconds the initial backoff in milliseconds
+     * @return this
+     */
+    public Builder withInitialBackoffInMilliseconds(long initialBackoffInMilliseconds) {
+      if (initialBackoffInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The initial backoff must be greater than zero.");
+      }
+
+      this.initialBackoffInMilliseconds = initialBackoffInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the maximum delay before a retry. Default is 5000 milliseconds (5 seconds).
+     *
+     * @param maximumBackoffInMilliseconds the maximum backoff in milliseconds
+     * @return this
+     */
+    public Builder withMaximumBackoffInMilliseconds(long maximumBackoffInMilliseconds) {
+      if (maximumBackoffInMilliseconds <= 0) {
+        throw new IllegalArgumentException("The maximum backoff must be greater than zero.");
+      }
+
+      this.maximumBackoffInMilliseconds = maximumBackoffInMilliseconds;
+      return this;
+    }
+
+    /**
+     * Set the factor by which the backoff grows with each retry. Default is 2.
+     *
+     * @param backoffMultiplier the backoff multiplier
+     * @return this
+     */
+    public Builder withBackoffMultiplier(double backoffMultiplier) {
+      if (backoffMultiplier < 1) {
+        throw new IllegalArgumentException("The backoff multiplier must be at least one.");
+      }
+
+      this.backoffMultiplier = backoffMultiplier;
+      return this;
+    }
+
+    /**
+     * Set whether {@code createItem} and {@code patchItem} requests are retried as well. A
+     * retried request that actually reached the server before failing may be applied twice.
+     * Disabled by default.
+     *
+     * @param retryNonIdempotentRequests true to retry non-idempotent requests
+     * @return this
+     */
+    public Builder withRetryNonIdempotentRequests(boolean retryNonIdempotentRequests) {
+      this.retryNonIdempotentRequests = retryNonIdempotentRequests;
+      return this;
+    }
+
+    /**
+     * Set the retry budget. Each request adds {@code ratio} tokens to the budget, up to
+     * {@code capacity} tokens, and each retry takes one token. A request is not retried when
+     * the budget has less than one token. Default is a capacity of 10 tokens and a ratio of 0.1,
+     * which allows bursts of up to 10 retries and at most one retry per 10 requests after that.
+     *
+     * @param capacity the maximum number of tokens in the budget
+     * @param ratio the number of tokens that each request adds
+     * @return this
+     */
+    public Builder withRetryBudget(int capacity, double ratio) {
+      if (capacity < 0) {
+        throw new IllegalArgumentException("The retry budget capacity must not be negative.");
+      }
+
+      if (ratio < 0) {
+        throw new IllegalArgumentException("The retry budget ratio must not be negative.");
+      }
+
+      this.retryBudgetCapacity = capacity;
+      this.retryBudgetRatio = ratio;
+      return this;
+    }
+
+    /**
+     * Set a listener that is notified after every attempt, for example to record metrics. The
+     * listener is called on the thread that completed the attempt, so it should return quickly.
+     *
+     * @param attemptListener the listener
+     * @return this
+     */
+    public Builder withAttemptListener(Consumer<RequestAttempt> attemptListener) {
+      this.attemptListener = Objects.requireNonNull(attemptListener,
+          "The attempt listener must not be null.");
+      return this;
+    }
+
+    public RetryPolicy build() {
+      return new RetryPolicy(this);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.File;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Patch;
+import com.sanctionco.opconnect.model.Vault;
+import com.sanctionco.opconnect.model.apiactivity.APIRequest;
+import com.sanctionco.opconnect.model.health.ConnectServer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import okhttp3.ResponseBody;
+
+/**
+ * A {@link RetrofitOPConnectClient} that retries failed calls with a {@link Retrier}. Every
+ * call is idempotent except {@code createItem} ({@code POST}) and {@code patchItem}
+ * ({@code PATCH}).
+ */
+final class RetryingConnectClient extends ForwardingConnectClient {
+  private final Retrier retrier;
+
+  RetryingConnectClient(RetrofitOPConnectClient delegate, Retrier retrier) {
+    super(delegate);
+    this.retrier = retrier;
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults() {
+    return idempotent("listVaults", () -> delegate().listVaults());
+  }
+
+  @Override
+  public CompletableFuture<List<Vault>> listVaults(String filter) {
+    return idempotent("listVaults", () -> delegate().listVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<Vault> getVault(String vaultUUID) {
+    return idempotent("getVault", () -> delegate().getVault(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID) {
+    return idempotent("listItems", () -> delegate().listItems(vaultUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<Item>> listItems(String vaultUUID, String filter) {
+    return idempotent("listItems", () -> delegate().listItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<Item> getItem(String vaultUUID, String itemUUID) {
+    return idempotent("getItem", () -> delegate().getItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<Item> createItem(String vaultUUID, Item item) {
+    return nonIdempotent("createItem", () -> delegate().createItem(vaultUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> replaceItem(String vaultUUID, String itemUUID, Item item) {
+    return idempotent("replaceItem", () -> delegate().replaceItem(vaultUUID, itemUUID, item));
+  }
+
+  @Override
+  public CompletableFuture<Item> patchItem(String vaultUUID, String itemUUID, List<Patch> patches) {
+    return nonIdempotent("patchItem", () -> delegate().patchItem(vaultUUID, itemUUID, patches));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteItem(String vaultUUID, String itemUUID) {
+    return idempotent("deleteItem", () -> delegate().deleteItem(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID,
+                                                 String itemUUID,
+                                                 boolean inlineContent) {
+    return idempotent("listFiles", () -> delegate().listFiles(vaultUUID, itemUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<List<File>> listFiles(String vaultUUID, String itemUUID) {
+    return idempotent("listFiles", () -> delegate().listFiles(vaultUUID, itemUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID, String itemUUID, String fileUUID) {
+    return idempotent("getFile", () -> delegate().getFile(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<File> getFile(String vaultUUID,
+                                         String itemUUID,
+                                         String fileUUID,
+                                         boolean inlineContent) {
+    return idempotent("getFile",
+        () -> delegate().getFile(vaultUUID, itemUUID, fileUUID, inlineContent));
+  }
+
+  @Override
+  public CompletableFuture<String> getFileContent(String vaultUUID,
+                                                  String itemUUID,
+                                                  String fileUUID) {
+    return idempotent("getFileContent",
+        () -> delegate().getFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity() {
+    return idempotent("listAPIActivity", () -> delegate().listAPIActivity());
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit) {
+    return idempotent("listAPIActivity", () -> delegate().listAPIActivity(limit));
+  }
+
+  @Override
+  public CompletableFuture<List<APIRequest>> listAPIActivity(Integer limit, Integer offset) {
+    return idempotent("listAPIActivity", () -> delegate().listAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ConnectServer> health() {
+    return idempotent("health", () -> delegate().health());
+  }
+
+  @Override
+  public CompletableFuture<Void> heartbeat() {
+    return idempotent("heartbeat", () -> delegate().heartbeat());
+  }
+
+  @Override
+  public CompletableFuture<String> metrics() {
+    return idempotent("metrics", () -> delegate().metrics());
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamVaults(String filter) {
+    return idempotent("streamVaults", () -> delegate().streamVaults(filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamItems(String vaultUUID, String filter) {
+    return idempotent("streamItems", () -> delegate().streamItems(vaultUUID, filter));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamAPIActivity(Integer limit, Integer offset) {
+    return idempotent("streamAPIActivity", () -> delegate().streamAPIActivity(limit, offset));
+  }
+
+  @Override
+  public CompletableFuture<ResponseBody> streamFileContent(String vaultUUID,
+                                                           String itemUUID,
+                                                           String fileUUID) {
+    return idempotent("streamFileContent",
+        () -> delegate().streamFileContent(vaultUUID, itemUUID, fileUUID));
+  }
+
+  private <T> CompletableFuture<T> idempotent(String operation,
+                                              Supplier<CompletableFuture<T>> call) {
+    return retrier.execute(operation, true, call);
+  }
+
+  private <T> CompletableFuture<T> nonIdempotent(String operation,
+                                                 Supplier<CompletableFuture<T>> call) {
+    return retrier.execute(operation, false, call);
+  }
+}
@@ -0,0 +1,118 @@
+package com.sanctionco.opconnect;
+
+import java.util.Objects;
+
+/**
+ * A parsed secret reference of the form {@code op://<vault>/<item>/[<section>/]<field>}.
+ * The vault and item may be given by name or by UUID, and the section and field may be given
+ * by label or by id.
+ */
+public final class SecretReference {
+  private static final String SCHEME = "op://";
+
+  private final String vault;
+  private final String item;
+  private final String section;
+  private final String field;
+
+  private SecretReference(String vault, String item, String section, String field) {
+    this.vault = vault;
+    this.item = item;
+    this.section = section;
+    this.field = field;
+  }
+
+  /**
+   * Parse a secret reference.
+   *
+   * @param reference the reference, such as {@code op://Production/Database/password}
+   * @return the parsed reference
+   * @throws NullPointerException if the reference is null
+   * @throws IllegalArgumentException if the reference is not a valid secret reference
+   */
+  public static SecretReference parse(String reference) {
+    Objects.requireNonNull(reference, "The secret reference must not be null.");
+
+    if (!reference.startsWith(SCHEME)) {
+      throw new IllegalArgumentException(
+          "The secret reference " + reference + " must start with " + SCHEME);
+    }
+
+    String[] segments = reference.substring(SCHEME.length()).split("/", -1);
+
+    if (segments.length < 3 || segments.length > 4) {
+      throw new IllegalArgumentException("The secret reference " + reference
+          + " must have the form op://<vault>/<item>/[<section>/]<field>");
+    }
+
+    for (String segment : segments) {
+      if (segment.isEmpty()) {
+        throw new IllegalArgumentException(
+            "The secret reference " + reference + " must not contain empty segments");
+      }
+    }
+
+    return segments.length == 3
+        ? new SecretReference(segments[0], segments[1], null, segments[2])
+        : new SecretReference(segments[0], segments[1], segments[2], segments[3]);
+  }
+
+  /**
+   * Get the name or UUID of the vault.
+   *
+   * @return the vault name or UUID
+   */
+  public String getVault() {
+    return vault;
+  }
+
+  /**
+   * Get the title or UUID of the item.
+   *
+   * @return the item title or UUID
+   */
+  public String getItem() {
+    return item;
+  }
+
+  /**
+   * Get the label or id of the section that contains the field, if present.
+   *
+   * @return the section label or id, or null if the reference does not name a section
+   */
+  public String getSection() {
+    return section;
+  }
+
+  /**
+   * Get the label or id of the field.
+   *
+   * @return the field label or id
+   */
+  public String getField() {
+    return field;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SecretReference that = (SecretReference) o;
+    return vault.equals(that.vault)
+        && item.equals(that.item)
+        && Objects.equals(section, that.section)
+        && field.equals(that.field);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(vault, item, section, field);
+  }
+
+  @Override
+  public String toString() {
+    return section == null
+        ? SCHEME + vault + "/" + item + "/" + field
+        : SCHEME + vault + "/" + item + "/" + section + "/" + field;
+  }
+}
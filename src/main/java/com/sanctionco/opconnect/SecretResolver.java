@@ -0,0 +1,177 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Field;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Section;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves {@link SecretReference secret references} to field values. A batch of references is
+ * resolved with as few requests as possible: vault names and item titles are resolved in bulk
+ * through a {@link NameIndex}, and each distinct item is fetched only once no matter how many
+ * references point into it.
+ */
+final class SecretResolver {
+  private static final int MAXIMUM_COMPILED = 10000;
+
+  private final RetrofitOPConnectClient client;
+  private final NameIndex names;
+  private final ConcurrentMap<String, SecretReference> compiled = new ConcurrentHashMap<>();
+
+  SecretResolver(RetrofitOPConnectClient client, NameIndex names) {
+    this.client = client;
+    this.names = names;
+  }
+
+  /**
+   * Resolve a batch of secret references.
+   *
+   * @param references the references to resolve
+   * @return a future that is completed with a map from each reference to its value, or
+   *         completed exceptionally if any reference cannot be resolved
+   * @throws IllegalArgumentException if a reference is not a valid secret reference
+   */
+  CompletableFuture<Map<String, String>> resolveAll(Collection<String> references) {
+    Map<String, SecretReference> parsed = new LinkedHashMap<>();
+    references.forEach(reference -> parsed.put(reference, compile(reference)));
+
+    Set<String> vaults = parsed.values().stream()
+        .map(SecretReference::getVault)
+        .collect(Collectors.toSet());
+
+    return Futures.thenCompose(names.vaultIds(vaults), vaultIds -> {
+      CompletableFuture<Map<CacheKey, Item>> fetched = Futures.thenCompose(
+          resolveItemIds(parsed.values(), vaultIds),
+          itemIds -> fetchItems(parsed.values(), vaultIds, itemIds));
+
+      return Futures.thenApply(fetched, items -> {
+        Map<String, String> values = new LinkedHashMap<>();
+
+        parsed.forEach((reference, secret) -> {
+          String vaultUUID = vaultIds.get(secret.getVault());
+          CacheKey key = new CacheKey(vaultUUID, secret.getItem());
+
+          values.put(reference, extract(secret, items.get(key)));
+        });
+
+        return values;
+      });
+    });
+  }
+
+  private SecretReference compile(String reference) {
+    SecretReference cached = compiled.get(reference);
+
+    if (cached != null) {
+      return cached;
+    }
+
+    SecretReference secret = SecretReference.parse(reference);
+
+    if (compiled.size() >= MAXIMUM_COMPILED) {
+      compiled.clear();
+    }
+
+    compiled.put(reference, secret);
+    return secret;
+  }
+
+  /**
+   * Resolves item titles with one lookup per vault. The result is keyed by the vault UUID and
+   * the item title (or UUID) as written in the reference.
+   */
+  private CompletableFuture<Map<CacheKey, String>> resolveItemIds(
+      Collection<SecretReference> secrets, Map<String, String> vaultIds) {
+    Map<String, Set<String>> titlesByVault = secrets.stream()
+        .collect(Collectors.groupingBy(secret -> vaultIds.get(secret.getVault()),
+            Collectors.mapping(SecretReference::getItem, Collectors.toSet())));
+
+    Map<String, CompletableFuture<Map<String, String>>> lookups = new HashMap<>();
+    titlesByVault.forEach((vaultUUID, titles) -> lookups.put(vaultUUID,
+        names.itemIds(vaultUUID, titles)));
+
+    return Futures.thenApply(all(lookups), resolved -> {
+      Map<CacheKey, String> itemIds = new HashMap<>();
+
+      resolved.forEach((vaultUUID, ids) -> ids.forEach((title, itemUUID) ->
+          itemIds.put(new CacheKey(vaultUUID, title), itemUUID)));
+
+      return itemIds;
+    });
+  }
+
+  /**
+   * Fetches each distinct item once. The result is keyed the same way as the item ids.
+   */
+  private CompletableFuture<Map<CacheKey, Item>> fetchItems(Collection<SecretReference> secrets,
+                                                            Map<String, String> vaultIds,
+                                                            Map<CacheKey, String> itemIds) {
+    Map<CacheKey, CompletableFuture<Item>> fetches = new HashMap<>();
+    Map<CacheKey, CompletableFuture<Item>> byId = new HashMap<>();
+
+    for (SecretReference secret : secrets) {
+      String vaultUUID = vaultIds.get(secret.getVault());
+      CacheKey key = new CacheKey(vaultUUID, secret.getItem());
+      String itemUUID = itemIds.get(key);
+
+      fetches.computeIfAbsent(key, unused -> byId.computeIfAbsent(
+          new CacheKey(vaultUUID, itemUUID), unusedId -> {
+            CompletableFuture<Item> fetch = client.getItem(vaultUUID, itemUUID);
+
+            return Futures.cancelling(fetch.whenComplete((item, throwable) -> {
+              if (throwable != null && !itemUUID.equals(secret.getItem())) {
+                names.invalidateItem(vaultUUID, secret.getItem());
+              }
+            }), fetch);
+          }));
+    }
+
+    return all(fetches);
+  }
+
+  static String extract(SecretReference secret, Item item) {
+    String sectionId = secret.getSection() == null
+        ? null
+        : item.getSections().stream()
+            .filter(section -> matches(secret.getSection(), section.getId(), section.getLabel()))
+            .map(Section::getId)
+            .findFirst()
+            .orElseThrow(() -> new NoSuchElementException(
+                "No section '" + secret.getSection() + "' was found for " + secret));
+
+    return item.getFields().stream()
+        .filter(field -> sectionId == null
+            || (field.getSection() != null && sectionId.equals(field.getSection().getId())))
+        .filter(field -> matches(secret.getField(), field.getId(), field.getLabel()))
+        .map(Field::getValue)
+        .findFirst()
+        .orElseThrow(() -> new NoSuchElementException(
+            "No field '" + secret.getField() + "' was found for " + secret));
+  }
+
+  private static boolean matches(String segment, String id, String label) {
+    return segment.equals(id) || segment.equals(label);
+  }
+
+  /**
+   * Wait for every future. Cancelling the result cancels every future that is still running.
+   */
+  private static <K, V> CompletableFuture<Map<K, V>> all(Map<K, CompletableFuture<V>> futures) {
+    CompletableFuture<?>[] pending = futures.values().toArray(new CompletableFuture<?>[0]);
+
+    return Futures.cancelling(CompletableFuture.allOf(pending)
+        .thenApply(unused -> futures.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().join()))),
+        pending);
+  }
+}
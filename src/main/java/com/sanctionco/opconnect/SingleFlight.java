@@ -0,0 +1,131 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight call between every caller that asks for the same key at the same time.
+ * Once the call completes, the next caller for the key starts a new call. If every caller
+ * cancels, the call itself is cancelled, since nobody is waiting for it anymore.
+ *
+ * @param <K> the type of the keys that identify identical calls
+ */
+final class SingleFlight<K> {
+  private final ConcurrentMap<K, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Join the in-flight call for the key, or start a new call if there is none.
+   *
+   * @param key the key that identifies the call
+   * @param call starts the call when no identical call is in flight
+   * @param <V> the type of the result of the call
+   * @return a future for this caller that completes with the result of the shared call.
+   *         Cancelling it does not affect the other callers.
+   */
+  @SuppressWarnings("unchecked")
+  <V> CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+    Flight<V> flight;
+
+    while (true) {
+      Flight<V> created = new Flight<>();
+      flight = (Flight<V>) inFlight.putIfAbsent(key, created);
+
+      if (flight == null) {
+        flight = created;
+        flight.enter();
+        start(key, flight, call);
+        break;
+      }
+
+      if (flight.enter()) {
+        break;
+      }
+
+      // Every caller of that flight cancelled, so it is being torn down
+      inFlight.remove(key, flight);
+    }
+
+    Flight<V> joined = flight;
+    CompletableFuture<V> caller = new CompletableFuture<>();
+    joined.whenComplete((result, throwable) -> complete(caller, result, throwable));
+    caller.whenComplete((result, throwable) -> {
+      if (caller.isCancelled() && joined.leave()) {
+        inFlight.remove(key, joined);
+        joined.cancel(true);
+      }
+    });
+
+    return caller;
+  }
+
+  int size() {
+    return inFlight.size();
+  }
+
+  private <V> void start(K key, Flight<V> flight, Supplier<CompletableFuture<V>> call) {
+    try {
+      CompletableFuture<V> future = call.get();
+      flight.call = future;
+
+      // The only caller may have cancelled while the call was being started
+      if (flight.isCancelled()) {
+        future.cancel(true);
+      }
+
+      future.whenComplete((result, throwable) -> {
+        inFlight.remove(key, flight);
+        complete(flight, result, throwable);
+      });
+    } catch (RuntimeException e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+    }
+  }
+
+  private static <V> void complete(CompletableFuture<V> future, V result, Throwable throwable) {
+    if (throwable != null) {
+      future.completeExceptionally(throwable);
+    } else {
+      future.complete(result);
+    }
+  }
+
+  /**
+   * A shared call and the number of callers that are still waiting for it.
+   */
+  private static final class Flight<V> extends CompletableFuture<V> {
+    private volatile CompletableFuture<V> call;
+    private int waiters;
+    private boolean abandoned;
+
+    synchronized boolean enter() {
+      if (abandoned) {
+        return false;
+      }
+
+      waiters++;
+      return true;
+    }
+
+    synchronized boolean leave() {
+      waiters--;
+      abandoned = waiters == 0;
+
+      return abandoned;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      CompletableFuture<V> started = call;
+
+      if (started != null) {
+        started.cancel(mayInterruptIfRunning);
+      }
+
+      return cancelled;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.sanctionco.opconnect;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The vaults and items from a client cache that are persisted by a {@link SnapshotStore}, along
+ * with the content version of each vault that the items were checked against.
+ */
+final class Snapshot {
+  private final List<Vault> vaults;
+  private final List<Item> items;
+  private final Map<String, Integer> contentVersions;
+
+  @JsonCreator
+  Snapshot(@JsonProperty("vaults") List<Vault> vaults,
+           @JsonProperty("items") List<Item> items,
+           @JsonProperty("contentVersions") Map<String, Integer> contentVersions) {
+    this.vaults = vaults == null ? new ArrayList<>() : vaults;
+    this.items = items == null ? new ArrayList<>() : items;
+
+    // Snapshots written before the content versions were stored only have the vaults
+    if (contentVersions == null) {
+      this.contentVersions = new HashMap<>();
+      this.vaults.forEach(vault -> this.contentVersions.put(vault.getId(),
+          vault.getContentVersion()));
+    } else {
+      this.contentVersions = contentVersions;
+    }
+  }
+
+  Snapshot(List<Vault> vaults, List<Item> items) {
+    this(vaults, items, null);
+  }
+
+  @JsonProperty("vaults")
+  List<Vault> getVaults() {
+    return vaults;
+  }
+
+  @JsonProperty("items")
+  List<Item> getItems() {
+    return items;
+  }
+
+  /**
+   * Get the content version of each vault that the items of the snapshot are known to be at
+   * least as new as.
+   *
+   * @return the content versions by vault id
+   */
+  @JsonProperty("contentVersions")
+  Map<String, Integer> getContentVersions() {
+    return contentVersions;
+  }
+}
@@ -0,0 +1,150 @@
+package com.sanctionco.opconnect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Reads and writes an encrypted {@link Snapshot} file. The file starts with a short header
+ * (the magic bytes {@code OPCS}, a format version, and a random nonce), followed by the
+ * gzip-compressed JSON of the snapshot encrypted with AES-GCM. The header is authenticated
+ * along with the contents, so a file that was tampered with or encrypted with a different key
+ * is rejected.
+ */
+final class SnapshotStore {
+  private static final byte[] MAGIC = "OPCS".getBytes(StandardCharsets.US_ASCII);
+  private static final byte FORMAT_VERSION = 1;
+  private static final int NONCE_LENGTH = 12;
+  private static final int HEADER_LENGTH = MAGIC.length + 1 + NONCE_LENGTH;
+  private static final int TAG_LENGTH_BITS = 128;
+
+  private final Path path;
+  private final SecretKey key;
+  private final ObjectMapper mapper;
+  private final SecureRandom random = new SecureRandom();
+
+  SnapshotStore(Path path, SecretKey key, ObjectMapper mapper) {
+    this.path = path;
+    this.key = key;
+    this.mapper = mapper;
+  }
+
+  /**
+   * Load the snapshot by memory-mapping the file.
+   *
+   * @return the snapshot, or an empty optional if the file does not exist or cannot be
+   *         decrypted with the key
+   */
+  Optional<Snapshot> load() {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      if (file.remaining() < HEADER_LENGTH) {
+        return Optional.empty();
+      }
+
+      byte[] header = new byte[HEADER_LENGTH];
+      file.get(header);
+
+      if (!Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC)
+          || header[MAGIC.length] != FORMAT_VERSION) {
+        return Optional.empty();
+      }
+
+      Cipher cipher = cipher(Cipher.DECRYPT_MODE,
+          Arrays.copyOfRange(header, MAGIC.length + 1, HEADER_LENGTH));
+      cipher.updateAAD(header);
+
+      ByteBuffer plaintext = ByteBuffer.allocate(cipher.getOutputSize(file.remaining()));
+      cipher.doFinal(file, plaintext);
+
+      try (InputStream json = new GZIPInputStream(
+          new ByteArrayInputStream(plaintext.array(), 0, plaintext.position()))) {
+        return Optional.of(mapper.readValue(json, Snapshot.class));
+      }
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (GeneralSecurityException | IOException e) {
+      // A corrupt or foreign snapshot is not fatal, the client just starts with an empty cache
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Encrypt and write the snapshot. The file is replaced atomically so that concurrent readers
+   * never see a partially written snapshot.
+   *
+   * @param snapshot the snapshot to write
+   * @throws UncheckedIOException if the snapshot could not be written
+   */
+  void save(Snapshot snapshot) {
+    byte[] header = new byte[HEADER_LENGTH];
+    System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+    header[MAGIC.length] = FORMAT_VERSION;
+
+    byte[] nonce = new byte[NONCE_LENGTH];
+    random.nextBytes(nonce);
+    System.arraycopy(nonce, 0, header, MAGIC.length + 1, NONCE_LENGTH);
+
+    try {
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+      try (OutputStream json = new GZIPOutputStream(compressed)) {
+        mapper.writeValue(json, snapshot);
+      }
+
+      Cipher cipher = cipher(Cipher.ENCRYPT_MODE, nonce);
+      cipher.updateAAD(header);
+      byte[] ciphertext = cipher.doFinal(compressed.toByteArray());
+
+      Path parent = path.toAbsolutePath().getParent();
+      Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+      try {
+        try (OutputStream out = Files.newOutputStream(temp)) {
+          out.write(header);
+          out.write(ciphertext);
+        }
+
+        Files.move(temp, path,
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to write the cache snapshot to " + path, e);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to encrypt the cache snapshot.", e);
+    }
+  }
+
+  private Cipher cipher(int mode, byte[] nonce) throws GeneralSecurityException {
+    Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(mode, key, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+
+    return cipher;
+  }
+}
@@ -0,0 +1,101 @@
+package com.sanctionco.opconnect;
+
+import java.util.StringJoiner;
+
+/**
+ * Configures the TLS session cache of an {@link OPConnectClient}. Build an instance with
+ * {@link #builder()} and pass it to
+ * {@link OPConnectClientBuilder#withTlsSessions(TlsSessionConfig)}.
+ *
+ * <p>When a new connection is opened to a server that the client already has a cached TLS
+ * session for, the session is resumed with an abbreviated handshake that skips the certificate
+ * exchange and key agreement. The client gets its own session cache, sized and timed out as
+ * configured, instead of sharing the default cache of the JVM.
+ *
+ * <p>TLS session settings only apply to {@code https} endpoints with the default OkHttp
+ * transport.
+ */
+public class TlsSessionConfig {
+  private final int sessionCacheSize;
+  private final long sessionTimeoutInMilliseconds;
+
+  private TlsSessionConfig(Builder builder) {
+    this.sessionCacheSize = builder.sessionCacheSize;
+    this.sessionTimeoutInMilliseconds = builder.sessionTimeoutInMilliseconds;
+  }
+
+  /**
+   * Get the maximum number of TLS sessions that are cached for resumption, or 0 if there is
+   * no limit.
+   *
+   * @return the maximum number of cached sessions
+   */
+  public int getSessionCacheSize() {
+    return sessionCacheSize;
+  }
+
+  /**
+   * Get the amount of time that a cached TLS session can be resumed, or 0 if there is no limit.
+   *
+   * @return the session timeout in milliseconds
+   */
+  public long getSessionTimeoutInMilliseconds() {
+    return sessionTimeoutInMilliseconds;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", TlsSessionConfig.class.getSimpleName() + "[", "]")
+        .add("sessionCacheSize=" + sessionCacheSize)
+        .add("sessionTimeoutInMilliseconds=" + sessionTimeoutInMilliseconds)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private int sessionCacheSize = 100;
+    private long sessionTimeoutInMilliseconds = 86400000L;
+
+    /**
+     * Set the maximum number of TLS sessions that are cached for resumption. One session is
+     * kept for each server, so a small cache is enough for a client that talks to a few Connect
+     * servers. Set it to 0 for no limit. Default is 100.
+     *
+     * @param sessionCacheSize the maximum number of cached sessions
+     * @return this
+     */
+    public Builder withSessionCacheSize(int sessionCacheSize) {
+      if (sessionCacheSize < 0) {
+        throw new IllegalArgumentException("The TLS session cache size must not be negative.");
+      }
+
+      this.sessionCacheSize = sessionCacheSize;
+      return this;
+    }
+
+    /**
+     * Set the amount of time that a cached TLS session can be resumed. The server may expire
+     * sessions sooner, in which case the client falls back to a full handshake. The timeout is
+     * applied with a precision of one second. Set it to 0 for no limit. Default is 86400000
+     * milliseconds (24 hours).
+     *
+     * @param sessionTimeoutInMilliseconds the session timeout in milliseconds
+     * @return this
+     */
+    public Builder withSessionTimeoutInMilliseconds(long sessionTimeoutInMilliseconds) {
+      if (sessionTimeoutInMilliseconds < 0) {
+        throw new IllegalArgumentException("The TLS session timeout must not be negative.");
+      }
+
+      this.sessionTimeoutInMilliseconds = sessionTimeoutInMilliseconds;
+      return this;
+    }
+
+    public TlsSessionConfig build() {
+      return new TlsSessionConfig(this);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.sanctionco.opconnect;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * Creates the TLS context of a client with its own session cache, configured by a
+ * {@link TlsSessionConfig}. Certificates are verified with the default trust store of the JVM,
+ * as they are without a TLS session configuration.
+ */
+final class TlsSessions {
+  private final SSLContext context;
+  private final X509TrustManager trustManager;
+
+  private TlsSessions(SSLContext context, X509TrustManager trustManager) {
+    this.context = context;
+    this.trustManager = trustManager;
+  }
+
+  static TlsSessions create(TlsSessionConfig config) {
+    try {
+      TrustManagerFactory factory = TrustManagerFactory.getInstance(
+          TrustManagerFactory.getDefaultAlgorithm());
+      factory.init((KeyStore) null);
+
+      X509TrustManager trustManager = null;
+
+      for (TrustManager candidate : factory.getTrustManagers()) {
+        if (candidate instanceof X509TrustManager) {
+          trustManager = (X509TrustManager) candidate;
+          break;
+        }
+      }
+
+      if (trustManager == null) {
+        throw new IllegalStateException("The JVM does not provide an X.509 trust manager.");
+      }
+
+      SSLContext context = SSLContext.getInstance("TLS");
+      context.init(null, new TrustManager[] { trustManager }, null);
+
+      SSLSessionContext sessions = context.getClientSessionContext();
+      sessions.setSessionCacheSize(config.getSessionCacheSize());
+      // Round up, since a timeout of 0 seconds would not expire sessions at all
+      long timeout = config.getSessionTimeoutInMilliseconds();
+      sessions.setSessionTimeout((int) Math.min(Integer.MAX_VALUE,
+          TimeUnit.MILLISECONDS.toSeconds(timeout) + (timeout % 1000L == 0 ? 0L : 1L)));
+
+      return new TlsSessions(context, trustManager);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to create the TLS context.", e);
+    }
+  }
+
+  SSLContext context() {
+    return context;
+  }
+
+  X509TrustManager trustManager() {
+    return trustManager;
+  }
+}
@@ -0,0 +1,49 @@
+package com.sanctionco.opconnect;
+
+/**
+ * A budget for extra requests, such as retries or hedged requests, that keeps them to a fraction
+ * of all requests. Every request adds {@code ratio} tokens, up to {@code capacity} tokens, and
+ * every extra request takes one token. The budget starts full, so short bursts are allowed.
+ */
+final class TokenBudget {
+  private final double capacity;
+  private final double ratio;
+
+  private double tokens;
+
+  TokenBudget(int capacity, double ratio) {
+    this.capacity = capacity;
+    this.ratio = ratio;
+    this.tokens = capacity;
+  }
+
+  /**
+   * Record a request, adding {@code ratio} tokens to the budget.
+   */
+  synchronized void deposit() {
+    tokens = Math.min(capacity, tokens + ratio);
+  }
+
+  /**
+   * Take a token for an extra request, if there is one.
+   *
+   * @return true if a token was taken, false if the budget is exhausted
+   */
+  synchronized boolean withdraw() {
+    if (tokens < 1) {
+      return false;
+    }
+
+    tokens--;
+    return true;
+  }
+
+  /**
+   * Get the number of tokens in the budget.
+   *
+   * @return the number of tokens
+   */
+  synchronized double tokens() {
+    return tokens;
+  }
+}
@@ -0,0 +1,217 @@
+package com.sanctionco.opconnect;
+
+import okio.AsyncTimeout;
+import okio.Buffer;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Lets Retrofit send its requests through an {@link HttpTransport} instead of OkHttp. Retrofit
+ * still builds the requests and parses the responses; each call is converted to a
+ * {@link TransportRequest}, with the same {@code Authorization} header that the default OkHttp
+ * client adds. The {@code Content-Type} header is only set on requests that have a body.
+ */
+final class TransportCallFactory implements Call.Factory {
+  private final HttpTransport transport;
+  private final String authorization;
+
+  TransportCallFactory(HttpTransport transport, String accessToken) {
+    this.transport = transport;
+    this.authorization = "Bearer " + accessToken;
+  }
+
+  @Override
+  public Call newCall(Request request) {
+    return new TransportCall(request);
+  }
+
+  TransportRequest convert(Request request) throws IOException {
+    TransportRequest.Builder builder = TransportRequest.builder()
+        .withMethod(request.method())
+        .withUrl(request.url().toString());
+
+    request.headers().forEach(header -> builder.withHeader(header.getFirst(), header.getSecond()));
+    builder.withHeader("Authorization", authorization);
+
+    RequestBody body = request.body();
+
+    if (body != null) {
+      MediaType contentType = body.contentType();
+
+      builder.withHeader("Content-Type",
+          contentType == null ? "application/json" : contentType.toString());
+
+      Buffer buffer = new Buffer();
+      body.writeTo(buffer);
+      builder.withBody(buffer.readByteArray());
+    }
+
+    return builder.build();
+  }
+
+  static Response convert(Request request, TransportResponse response) {
+    String contentType = response.getHeaders().get("Content-Type");
+    String contentLength = response.getHeaders().get("Content-Length");
+
+    Response.Builder builder = new Response.Builder()
+        .request(request)
+        .protocol(Protocol.HTTP_1_1)
+        .code(response.getCode())
+        .message("")
+        .body(ResponseBody.create(Okio.buffer(source(response.getBody())),
+            contentType == null ? null : MediaType.parse(contentType),
+            contentLength == null ? -1L : Long.parseLong(contentLength)));
+
+    response.getHeaders().forEach(builder::addHeader);
+
+    return builder.build();
+  }
+
+  /**
+   * Read a transport response body through a timeout that closes the stream when it passes, so
+   * that a deadline set on the body's source also stops a read that is blocked on the network.
+   */
+  private static Source source(InputStream body) {
+    AsyncTimeout timeout = new AsyncTimeout() {
+      @Override
+      protected void timedOut() {
+        try {
+          body.close();
+        } catch (IOException e) {
+          // The blocked read fails with a timeout either way
+        }
+      }
+    };
+
+    return timeout.source(Okio.source(body));
+  }
+
+  private final class TransportCall implements Call {
+    private final Request request;
+    private volatile CompletableFuture<TransportResponse> pending;
+    private volatile boolean executed;
+    private volatile boolean canceled;
+
+    TransportCall(Request request) {
+      this.request = request;
+    }
+
+    @Override
+    public Request request() {
+      return request;
+    }
+
+    @Override
+    public Response execute() throws IOException {
+      try {
+        return convert(request, start().get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("The request was interrupted.");
+      } catch (ExecutionException | CancellationException e) {
+        throw failure(e);
+      }
+    }
+
+    @Override
+    public void enqueue(Callback callback) {
+      CompletableFuture<TransportResponse> future;
+
+      try {
+        future = start();
+      } catch (IOException e) {
+        callback.onFailure(this, e);
+        return;
+      }
+
+      future.whenComplete((response, throwable) -> {
+        if (throwable != null) {
+          callback.onFailure(this, failure(throwable));
+          return;
+        }
+
+        try {
+          callback.onResponse(this, convert(request, response));
+        } catch (IOException e) {
+          callback.onFailure(this, e);
+        }
+      });
+    }
+
+    @Override
+    public void cancel() {
+      canceled = true;
+
+      CompletableFuture<TransportResponse> future = pending;
+
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+
+    @Override
+    public boolean isExecuted() {
+      return executed;
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return canceled;
+    }
+
+    @Override
+    public Timeout timeout() {
+      return Timeout.NONE;
+    }
+
+    @Override
+    public Call clone() {
+      return new TransportCall(request);
+    }
+
+    private synchronized CompletableFuture<TransportResponse> start() throws IOException {
+      if (executed) {
+        throw new IllegalStateException("The call was already executed.");
+      }
+
+      executed = true;
+
+      if (canceled) {
+        throw new IOException("Canceled");
+      }
+
+      pending = transport.send(convert(request));
+
+      return pending;
+    }
+
+    private IOException failure(Throwable throwable) {
+      Throwable cause = Responses.unwrap(throwable);
+
+      if (cause instanceof IOException) {
+        return (IOException) cause;
+      }
+
+      return cause instanceof CancellationException
+          ? new IOException("Canceled", cause)
+          : new IOException(cause);
+    }
+  }
+}
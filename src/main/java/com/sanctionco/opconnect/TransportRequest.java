@@ -0,0 +1,114 @@
+package com.sanctionco.opconnect;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * An HTTP request to be sent by an {@link HttpTransport}.
+ */
+public class TransportRequest {
+  private final String method;
+  private final String url;
+  private final Map<String, String> headers;
+  private final byte[] body;
+
+  private TransportRequest(Builder builder) {
+    this.method = builder.method;
+    this.url = builder.url;
+    this.headers = Collections.unmodifiableMap(headers(builder.headers));
+    this.body = builder.body;
+  }
+
+  /**
+   * Get the HTTP method of the request, such as {@code GET} or {@code PATCH}.
+   *
+   * @return the request method
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  /**
+   * Get the full URL of the request, including the query string.
+   *
+   * @return the request URL
+   */
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * Get the request headers. Header names are case-insensitive, so each header appears once
+   * no matter how its name was capitalized.
+   *
+   * @return an unmodifiable map of header names to values
+   */
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Get the request body. The returned array must not be modified.
+   *
+   * @return the request body, or null if the request has no body
+   */
+  public byte[] getBody() {
+    return body;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", TransportRequest.class.getSimpleName() + "[", "]")
+        .add("method='" + method + "'")
+        .add("url='" + url + "'")
+        .add("bodyLength=" + (body == null ? 0 : body.length))
+        .toString();
+  }
+
+  private static Map<String, String> headers(Map<String, String> headers) {
+    Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    copy.putAll(headers);
+
+    return copy;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private String method = "GET";
+    private String url;
+    private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private byte[] body;
+
+    public Builder withMethod(String method) {
+      this.method = method;
+      return this;
+    }
+
+    public Builder withUrl(String url) {
+      this.url = url;
+      return this;
+    }
+
+    public Builder withHeader(String name, String value) {
+      this.headers.put(name, value);
+      return this;
+    }
+
+    public Builder withBody(byte[] body) {
+      this.body = body;
+      return this;
+    }
+
+    public TransportRequest build() {
+      Objects.requireNonNull(url, "The request URL must not be null.");
+
+      return new TransportRequest(this);
+    }
+  }
+}
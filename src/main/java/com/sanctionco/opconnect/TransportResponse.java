@@ -0,0 +1,100 @@
+package com.sanctionco.opconnect;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * An HTTP response received by an {@link HttpTransport}. The body is read as a stream, and the
+ * response must be closed once the body has been consumed.
+ */
+public class TransportResponse implements Closeable {
+  private final int code;
+  private final Map<String, String> headers;
+  private final InputStream body;
+
+  private TransportResponse(Builder builder) {
+    this.code = builder.code;
+    this.headers = Collections.unmodifiableMap(builder.headers);
+    this.body = builder.body;
+  }
+
+  /**
+   * Get the HTTP status code of the response.
+   *
+   * @return the status code
+   */
+  public int getCode() {
+    return code;
+  }
+
+  /**
+   * Get the response headers. Header names are case-insensitive.
+   *
+   * @return an unmodifiable map of header names to values
+   */
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Get the response body.
+   *
+   * @return a stream of the response body
+   */
+  public InputStream getBody() {
+    return body;
+  }
+
+  @Override
+  public void close() throws IOException {
+    body.close();
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", TransportResponse.class.getSimpleName() + "[", "]")
+        .add("code=" + code)
+        .add("headers=" + headers)
+        .toString();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private int code;
+    private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private InputStream body = new ByteArrayInputStream(new byte[0]);
+
+    public Builder withCode(int code) {
+      this.code = code;
+      return this;
+    }
+
+    public Builder withHeader(String name, String value) {
+      this.headers.put(name, value);
+      return this;
+    }
+
+    public Builder withBody(InputStream body) {
+      this.body = body;
+      return this;
+    }
+
+    public Builder withBody(byte[] body) {
+      this.body = new ByteArrayInputStream(body);
+      return this;
+    }
+
+    public TransportResponse build() {
+      return new TransportResponse(this);
+    }
+  }
+}
@@ -0,0 +1,404 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import javax.net.SocketFactory;
+
+import okhttp3.Dns;
+
+/**
+ * Creates sockets that connect to a Unix domain socket instead of a TCP address, so that OkHttp
+ * can talk to a Connect server on the same host without going through the loopback network.
+ * Whatever address OkHttp connects to, every socket connects to the same socket file.
+ *
+ * <p>Unix domain socket channels were added in Java 16. Since the library targets Java 8, they
+ * are opened through reflection, and {@link #isSupported()} reports whether the running JVM
+ * provides them.
+ */
+final class UnixDomainSocketFactory extends SocketFactory {
+  private static final Method OPEN_CHANNEL;
+  private static final Method ADDRESS_OF;
+  private static final ProtocolFamily UNIX;
+
+  static {
+    Method open = null;
+    Method of = null;
+    ProtocolFamily unix = null;
+
+    try {
+      unix = StandardProtocolFamily.valueOf("UNIX");
+      open = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+      of = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class);
+    } catch (IllegalArgumentException | ReflectiveOperationException e) {
+      // Running on Java 15 or earlier
+    }
+
+    OPEN_CHANNEL = open;
+    ADDRESS_OF = of;
+    UNIX = unix;
+  }
+
+  /**
+   * Resolves every host name to the loopback address without a DNS lookup, since the address is
+   * ignored when connecting anyway.
+   */
+  static final Dns LOOPBACK_DNS =
+      hostname -> Collections.singletonList(InetAddress.getLoopbackAddress());
+
+  private final Path path;
+
+  UnixDomainSocketFactory(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Check whether the running JVM supports Unix domain socket channels.
+   *
+   * @return true on Java 16 or later, false otherwise
+   */
+  static boolean isSupported() {
+    return OPEN_CHANNEL != null && ADDRESS_OF != null;
+  }
+
+  @Override
+  public Socket createSocket() {
+    return new UnixDomainSocket(path);
+  }
+
+  @Override
+  public Socket createSocket(String host, int port) throws IOException {
+    return connected();
+  }
+
+  @Override
+  public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+      throws IOException {
+    return connected();
+  }
+
+  @Override
+  public Socket createSocket(InetAddress host, int port) throws IOException {
+    return connected();
+  }
+
+  @Override
+  public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+                             int localPort) throws IOException {
+    return connected();
+  }
+
+  private Socket connected() throws IOException {
+    Socket socket = createSocket();
+    socket.connect(null);
+
+    return socket;
+  }
+
+  static SocketChannel open(Path path) throws IOException {
+    if (!isSupported()) {
+      throw new SocketException("Unix domain sockets require Java 16 or later.");
+    }
+
+    try {
+      SocketChannel channel = (SocketChannel) OPEN_CHANNEL.invoke(null, UNIX);
+
+      try {
+        channel.connect((SocketAddress) ADDRESS_OF.invoke(null, path));
+      } catch (IOException | RuntimeException | ReflectiveOperationException e) {
+        channel.close();
+        throw e;
+      }
+
+      return channel;
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+
+      throw new SocketException("Could not connect to " + path + ": " + e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new SocketException("Could not connect to " + path + ": " + e);
+    }
+  }
+
+  /**
+   * A {@link Socket} backed by a Unix domain {@link SocketChannel}. The channel is non-blocking,
+   * and reads and writes wait on their own {@link Selector}, so that the read timeout set with
+   * {@link #setSoTimeout(int)} is honored (OkHttp relies on it to check idle connections) and a
+   * read does not block a concurrent write.
+   */
+  private static final class UnixDomainSocket extends Socket {
+    private final Path path;
+    private volatile SocketChannel channel;
+    private volatile Selector readSelector;
+    private volatile Selector writeSelector;
+    private volatile int timeout;
+    private volatile boolean closed;
+    private volatile boolean inputShutdown;
+    private volatile boolean outputShutdown;
+
+    UnixDomainSocket(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    public void connect(SocketAddress endpoint) throws IOException {
+      connect(endpoint, 0);
+    }
+
+    @Override
+    public synchronized void connect(SocketAddress endpoint, int connectTimeout)
+        throws IOException {
+      if (closed) {
+        throw new SocketException("Socket is closed");
+      }
+
+      if (channel != null) {
+        throw new SocketException("Already connected");
+      }
+
+      SocketChannel opened = open(path);
+
+      try {
+        opened.configureBlocking(false);
+        readSelector = Selector.open();
+        writeSelector = Selector.open();
+        opened.register(readSelector, SelectionKey.OP_READ);
+        opened.register(writeSelector, SelectionKey.OP_WRITE);
+      } catch (IOException e) {
+        opened.close();
+        closeSelectors();
+        throw e;
+      }
+
+      channel = opened;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      checkConnected();
+
+      return new InputStream() {
+        @Override
+        public int read() throws IOException {
+          byte[] single = new byte[1];
+          int read = read(single, 0, 1);
+
+          return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+          if (length == 0) {
+            return 0;
+          }
+
+          ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+
+          while (true) {
+            int read = channel.read(target);
+
+            if (read != 0) {
+              return read;
+            }
+
+            if (await(readSelector, timeout) == 0 && !closed) {
+              throw new SocketTimeoutException("Read timed out");
+            }
+
+            checkOpen();
+          }
+        }
+
+        @Override
+        public void close() throws IOException {
+          UnixDomainSocket.this.close();
+        }
+      };
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+      checkConnected();
+
+      return new OutputStream() {
+        @Override
+        public void write(int value) throws IOException {
+          write(new byte[] {(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+          ByteBuffer source = ByteBuffer.wrap(buffer, offset, length);
+
+          while (source.hasRemaining()) {
+            if (channel.write(source) == 0) {
+              await(writeSelector, 0);
+              checkOpen();
+            }
+          }
+        }
+
+        @Override
+        public void close() throws IOException {
+          UnixDomainSocket.this.close();
+        }
+      };
+    }
+
+    @Override
+    public void setSoTimeout(int timeout) throws SocketException {
+      if (timeout < 0) {
+        throw new IllegalArgumentException("The timeout must not be negative.");
+      }
+
+      this.timeout = timeout;
+    }
+
+    @Override
+    public int getSoTimeout() {
+      return timeout;
+    }
+
+    @Override
+    public void setTcpNoDelay(boolean on) {
+      // There is no Nagle's algorithm to disable on a Unix domain socket
+    }
+
+    @Override
+    public InetAddress getInetAddress() {
+      return InetAddress.getLoopbackAddress();
+    }
+
+    @Override
+    public InetAddress getLocalAddress() {
+      return InetAddress.getLoopbackAddress();
+    }
+
+    @Override
+    public boolean isConnected() {
+      return channel != null;
+    }
+
+    @Override
+    public boolean isBound() {
+      return channel != null;
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public boolean isInputShutdown() {
+      return inputShutdown;
+    }
+
+    @Override
+    public boolean isOutputShutdown() {
+      return outputShutdown;
+    }
+
+    @Override
+    public void shutdownInput() throws IOException {
+      checkConnected();
+      channel.shutdownInput();
+      inputShutdown = true;
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+      checkConnected();
+      channel.shutdownOutput();
+      outputShutdown = true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      if (closed) {
+        return;
+      }
+
+      closed = true;
+
+      try {
+        if (channel != null) {
+          channel.close();
+        }
+      } finally {
+        closeSelectors();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "UnixDomainSocket[path=" + path + "]";
+    }
+
+    private void closeSelectors() throws IOException {
+      // Closing a selector wakes up a read or write that is waiting on it
+      try {
+        if (readSelector != null) {
+          readSelector.close();
+        }
+      } finally {
+        if (writeSelector != null) {
+          writeSelector.close();
+        }
+      }
+    }
+
+    /**
+     * Wait until the channel is ready on the given selector, or until the timeout passes.
+     * Closing the socket closes the selector, which a waiting read or write reports as a closed
+     * socket rather than the unchecked {@link ClosedSelectorException}.
+     *
+     * @return the number of ready keys, which is zero if the wait timed out
+     */
+    private int await(Selector selector, int timeout) throws IOException {
+      checkOpen();
+
+      try {
+        int selected = selector.select(timeout);
+        selector.selectedKeys().clear();
+
+        return selected;
+      } catch (ClosedSelectorException e) {
+        throw new SocketException("Socket closed");
+      }
+    }
+
+    private void checkConnected() throws SocketException {
+      if (channel == null) {
+        throw new SocketException("Socket is not connected");
+      }
+
+      checkOpen();
+    }
+
+    private void checkOpen() throws SocketException {
+      if (closed) {
+        throw new SocketException("Socket closed");
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Vault;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Remembers the last seen {@link Vault#getContentVersion() content version} of each vault so
+ * that successive vault listings can be compared to find the vaults whose contents changed.
+ * A vault that has not been seen before has nothing to be compared against, so it counts as
+ * changed: anything cached for it may be older than its first listing.
+ */
+final class VaultVersions {
+  private final Map<String, Integer> contentVersions = new HashMap<>();
+
+  /**
+   * Record the content versions from a complete vault listing.
+   *
+   * @param vaults every vault visible to the client
+   * @return the ids of the vaults whose content changed, that disappeared, or that were seen
+   *         for the first time since the last listing
+   */
+  synchronized Set<String> update(List<Vault> vaults) {
+    Set<String> changed = new HashSet<>(contentVersions.keySet());
+    Map<String, Integer> latest = new HashMap<>();
+
+    for (Vault vault : vaults) {
+      latest.put(vault.getId(), vault.getContentVersion());
+
+      if (contentVersions.containsKey(vault.getId())
+          && Objects.equals(contentVersions.get(vault.getId()), vault.getContentVersion())) {
+        changed.remove(vault.getId());
+      } else {
+        changed.add(vault.getId());
+      }
+    }
+
+    contentVersions.clear();
+    contentVersions.putAll(latest);
+
+    return changed;
+  }
+
+  /**
+   * Use the given content versions as the baseline for the next listing.
+   *
+   * @param versions the content versions by vault id
+   */
+  synchronized void restore(Map<String, Integer> versions) {
+    contentVersions.clear();
+    contentVersions.putAll(versions);
+  }
+
+  /**
+   * Get the content versions from the last listing.
+   *
+   * @return a copy of the content versions by vault id
+   */
+  synchronized Map<String, Integer> asMap() {
+    return new HashMap<>(contentVersions);
+  }
+}
@@ -0,0 +1,185 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Item;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Loads the items of a set of vaults into the cache in parallel. Each target is a
+ * {@link CacheKey} of a vault UUID and an optional item filter. A target is loaded by listing its
+ * items and then getting every listed item, so that later {@code getItem} calls are served from
+ * the cache.
+ *
+ * <p>At most a small, fixed number of items are fetched at a time across all targets, so that
+ * warming up a large vault does not flood the Connect server when the client starts, before the
+ * concurrency and rate limiters have seen any responses.
+ */
+final class WarmUp {
+  static final int DEFAULT_MAXIMUM_CONCURRENT_FETCHES = 8;
+
+  private final RetrofitOPConnectClient client;
+  private final List<CacheKey> targets;
+  private final int maximumConcurrentFetches;
+  private final LongSupplier ticker;
+  private final Queue<Runnable> pendingFetches = new ArrayDeque<>();
+  private final AtomicInteger completedTargets = new AtomicInteger();
+  private final AtomicInteger failedTargets = new AtomicInteger();
+  private final AtomicInteger loadedItems = new AtomicInteger();
+  private final CompletableFuture<WarmUpStatus> result = new CompletableFuture<>();
+
+  private volatile long startedAt;
+  private volatile long finishedAt;
+  private volatile boolean started;
+  private int runningFetches;
+  private boolean draining;
+
+  WarmUp(RetrofitOPConnectClient client,
+         List<CacheKey> targets,
+         int maximumConcurrentFetches,
+         LongSupplier ticker) {
+    this.client = client;
+    this.targets = targets;
+    this.maximumConcurrentFetches = maximumConcurrentFetches;
+    this.ticker = ticker;
+  }
+
+  WarmUp(RetrofitOPConnectClient client, List<CacheKey> targets, LongSupplier ticker) {
+    this(client, targets, DEFAULT_MAXIMUM_CONCURRENT_FETCHES, ticker);
+  }
+
+  WarmUp(RetrofitOPConnectClient client, List<CacheKey> targets) {
+    this(client, targets, System::nanoTime);
+  }
+
+  /**
+   * Start loading the targets, unless the warm-up was already started.
+   *
+   * @return a future that is completed with the final status once every target has finished
+   */
+  synchronized CompletableFuture<WarmUpStatus> start() {
+    if (!started) {
+      startedAt = ticker.getAsLong();
+      started = true;
+
+      CompletableFuture<?>[] loads = targets.stream()
+          .map(this::load)
+          .toArray(CompletableFuture<?>[]::new);
+
+      CompletableFuture.allOf(loads).whenComplete((unused, throwable) -> {
+        finishedAt = ticker.getAsLong();
+        result.complete(status());
+      });
+    }
+
+    // Callers get their own future, so cancelling it does not affect the warm-up
+    return result.thenApply(status -> status);
+  }
+
+  /**
+   * Get the current progress of the warm-up.
+   *
+   * @return the current status
+   */
+  WarmUpStatus status() {
+    long end = result.isDone() ? finishedAt : ticker.getAsLong();
+    long elapsed = started ? end - startedAt : 0L;
+
+    return new WarmUpStatus(targets.size(), completedTargets.get(), failedTargets.get(),
+        loadedItems.get(), Duration.ofNanos(elapsed));
+  }
+
+  private CompletableFuture<Void> load(CacheKey target) {
+    String vaultUUID = target.getVaultUUID();
+    CompletableFuture<List<Item>> listing = target.getId() == null
+        ? client.listItems(vaultUUID)
+        : client.listItems(vaultUUID, target.getId());
+
+    return listing
+        .thenCompose(summaries -> CompletableFuture.allOf(summaries.stream()
+            .map(summary -> fetch(vaultUUID, summary.getId())
+                .thenRun(loadedItems::incrementAndGet))
+            .toArray(CompletableFuture<?>[]::new)))
+        .handle((unused, throwable) -> {
+          if (throwable != null) {
+            failedTargets.incrementAndGet();
+          }
+
+          completedTargets.incrementAndGet();
+          return null;
+        });
+  }
+
+  /**
+   * Get an item once fewer than the maximum number of fetches are running.
+   */
+  private CompletableFuture<Item> fetch(String vaultUUID, String itemUUID) {
+    CompletableFuture<Item> fetched = new CompletableFuture<>();
+
+    synchronized (this) {
+      pendingFetches.add(() -> {
+        try {
+          client.getItem(vaultUUID, itemUUID).whenComplete((item, throwable) -> {
+            release();
+
+            if (throwable != null) {
+              fetched.completeExceptionally(throwable);
+            } else {
+              fetched.complete(item);
+            }
+          });
+        } catch (RuntimeException e) {
+          release();
+          fetched.completeExceptionally(e);
+        }
+      });
+    }
+
+    drain();
+    return fetched;
+  }
+
+  private void release() {
+    synchronized (this) {
+      runningFetches--;
+    }
+
+    drain();
+  }
+
+  /**
+   * Start pending fetches while there is room. Fetches that complete immediately, such as cache
+   * hits, call back into this method; the draining flag turns that into another turn of the loop
+   * that is already running, rather than a recursive call for every item.
+   */
+  private void drain() {
+    synchronized (this) {
+      if (draining) {
+        return;
+      }
+
+      draining = true;
+    }
+
+    while (true) {
+      Runnable next;
+
+      synchronized (this) {
+        if (runningFetches >= maximumConcurrentFetches || pendingFetches.isEmpty()) {
+          draining = false;
+          return;
+        }
+
+        runningFetches++;
+        next = pendingFetches.poll();
+      }
+
+      next.run();
+    }
+  }
+}
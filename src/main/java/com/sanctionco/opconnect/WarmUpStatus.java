@@ -0,0 +1,104 @@
+package com.sanctionco.opconnect;
+
+import java.time.Duration;
+import java.util.StringJoiner;
+
+/**
+ * The progress of a cache warm-up that was declared with
+ * {@link OPConnectClientBuilder#withWarmUp(String)}. Each declared vault (or vault and filter)
+ * is a target. A target is complete once its item listing and every item in the listing have
+ * been loaded into the cache, or once any of those requests failed.
+ */
+public class WarmUpStatus {
+  private final int totalTargets;
+  private final int completedTargets;
+  private final int failedTargets;
+  private final int loadedItems;
+  private final Duration elapsed;
+
+  WarmUpStatus(int totalTargets,
+               int completedTargets,
+               int failedTargets,
+               int loadedItems,
+               Duration elapsed) {
+    this.totalTargets = totalTargets;
+    this.completedTargets = completedTargets;
+    this.failedTargets = failedTargets;
+    this.loadedItems = loadedItems;
+    this.elapsed = elapsed;
+  }
+
+  /**
+   * Get the number of declared warm-up targets.
+   *
+   * @return the total number of targets
+   */
+  public int getTotalTargets() {
+    return totalTargets;
+  }
+
+  /**
+   * Get the number of targets that have finished, whether they succeeded or failed.
+   *
+   * @return the number of completed targets
+   */
+  public int getCompletedTargets() {
+    return completedTargets;
+  }
+
+  /**
+   * Get the number of targets that could not be fully loaded.
+   *
+   * @return the number of failed targets
+   */
+  public int getFailedTargets() {
+    return failedTargets;
+  }
+
+  /**
+   * Get the number of items that have been loaded into the cache so far.
+   *
+   * @return the number of loaded items
+   */
+  public int getLoadedItems() {
+    return loadedItems;
+  }
+
+  /**
+   * Get the time spent warming up so far, or the total time taken if the warm-up is done.
+   *
+   * @return the elapsed time of the warm-up
+   */
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * Determine whether every target has finished.
+   *
+   * @return true if the warm-up is done, false otherwise
+   */
+  public boolean isDone() {
+    return completedTargets == totalTargets;
+  }
+
+  /**
+   * Determine whether every target has finished without failing.
+   *
+   * @return true if the warm-up is done and no target failed, false otherwise
+   */
+  public boolean isSuccessful() {
+    return isDone() && failedTargets == 0;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", WarmUpStatus.class.getSimpleName() + "[", "]")
+        .add("totalTargets=" + totalTargets)
+        .add("completedTargets=" + completedTargets)
+        .add("failedTargets=" + failedTargets)
+        .add("loadedItems=" + loadedItems)
+        .add("elapsed=" + elapsed)
+        .toString();
+  }
+}
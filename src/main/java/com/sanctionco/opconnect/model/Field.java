@@ -142,6 +142,17 @@ public class Field {
     return totp;
   }
 
+  /**
+   * Estimate the amount of heap memory used by this field in bytes.
+   *
+   * @return the estimated size of this field in memory, in bytes
+   */
+  public long estimateWeight() {
+    return Weights.object(11) + Weights.of(id) + Weights.of(label) + Weights.of(value)
+        + Weights.of(generate) + Weights.of(recipe) + Weights.of(section) + Weights.of(entropy)
+        + Weights.of(passwordDetails) + Weights.of(totp);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
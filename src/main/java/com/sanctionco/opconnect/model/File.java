@@ -98,6 +98,17 @@ public class File {
     return section;
   }
 
+  /**
+   * Estimate the amount of heap memory used by this file in bytes. Files that were fetched
+   * with inline content are dominated by the size of their Base64-encoded content.
+   *
+   * @return the estimated size of this file in memory, in bytes
+   */
+  public long estimateWeight() {
+    return Weights.object(6) + Weights.of(id) + Weights.of(name) + Weights.of(contentPath)
+        + Weights.of(content) + Weights.of(section);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -200,6 +200,22 @@ public class Item {
     return additionalInformation;
   }
 
+  /**
+   * Estimate the amount of heap memory used by this item in bytes, including its fields and
+   * files. This can be used to size a cache to a memory budget, see
+   * {@code CacheConfig.Builder#withMaximumWeightInBytes(long)}.
+   *
+   * @return the estimated size of this item in memory, in bytes
+   */
+  public long estimateWeight() {
+    return Weights.object(16) + Weights.of(id) + Weights.of(title) + Weights.of(vaultId)
+        + Weights.of(urls, Weights::of) + Weights.of(favorite) + Weights.of(tags, Weights::of)
+        + Weights.of(version) + Weights.of(trashed) + Weights.of(createdAt)
+        + Weights.of(updatedAt) + Weights.of(lastEditedBy)
+        + Weights.of(sections, Weights::of) + Weights.of(fields, Field::estimateWeight)
+        + Weights.of(files, File::estimateWeight) + Weights.of(additionalInformation);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -0,0 +1,83 @@
+package com.sanctionco.opconnect.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Rough estimates of the heap space used by model objects, assuming a 64-bit JVM with
+ * compressed object pointers. The estimates are meant for sizing caches, not for exact
+ * accounting.
+ */
+final class Weights {
+  private static final long HEADER = 12L;
+  private static final long REFERENCE = 4L;
+  private static final long BOXED = 16L;
+  private static final long INSTANT = 24L;
+
+  private Weights() {
+  }
+
+  static long object(int fields) {
+    return align(HEADER + REFERENCE * fields);
+  }
+
+  static long of(String value) {
+    // The String object plus its backing array, which holds up to two bytes per character
+    return value == null ? 0L : object(3) + align(16L + 2L * value.length());
+  }
+
+  static <T> long of(List<T> values, ToLongFunction<? super T> weigher) {
+    if (values == null) {
+      return 0L;
+    }
+
+    long weight = object(3) + align(16L + REFERENCE * values.size());
+
+    for (T value : values) {
+      weight += weigher.applyAsLong(value);
+    }
+
+    return weight;
+  }
+
+  static long of(Object boxed) {
+    return boxed == null ? 0L : BOXED;
+  }
+
+  static long of(Instant instant) {
+    return instant == null ? 0L : INSTANT;
+  }
+
+  static long of(Section section) {
+    return section == null ? 0L : object(2) + of(section.getId()) + of(section.getLabel());
+  }
+
+  static long of(Id id) {
+    return id == null ? 0L : object(2) + of(id.getId());
+  }
+
+  static long of(URL url) {
+    return url == null
+        ? 0L
+        : object(3) + of(url.getLabel()) + of(url.getUrl()) + of(url.getPrimary());
+  }
+
+  static long of(GeneratorRecipe recipe) {
+    return recipe == null
+        ? 0L
+        : object(2) + of(recipe.getLength())
+            + of(recipe.getCharacterSets(), characterSet -> 0L);
+  }
+
+  static long of(PasswordDetails details) {
+    return details == null
+        ? 0L
+        : object(4) + of(details.getEntropy()) + of(details.getGenerated())
+            + of(details.getStrength()) + of(details.getHistory(), Weights::of);
+  }
+
+  private static long align(long size) {
+    return (size + 7L) & ~7L;
+  }
+}
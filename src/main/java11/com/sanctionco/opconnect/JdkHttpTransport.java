@@ -0,0 +1,150 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link HttpTransport} that sends requests with the JDK {@link HttpClient}. Requests are
+ * sent over HTTP/2 when the server supports it, so concurrent requests share a single connection.
+ * Requires Java 11 or later.
+ *
+ * <pre>{@code
+ * OPConnectClient client = OPConnectClient.builder()
+ *     .withEndpoint("https://connect.example.com")
+ *     .withAccessToken("OP_ACCESS_TOKEN")
+ *     .withTransport(JdkHttpTransport.builder()
+ *         .withRequestTimeout(Duration.ofSeconds(5))
+ *         .build())
+ *     .build();
+ * }</pre>
+ */
+public class JdkHttpTransport implements HttpTransport {
+  // Headers that the JDK client sets itself and does not allow to be set on a request
+  private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+      "connection", "content-length", "expect", "host", "upgrade"));
+
+  private final HttpClient client;
+  private final Duration requestTimeout;
+
+  private JdkHttpTransport(Builder builder) {
+    this.client = builder.client != null
+        ? builder.client
+        : HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(builder.connectTimeout)
+            .build();
+    this.requestTimeout = builder.requestTimeout;
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> send(TransportRequest request) {
+    HttpRequest.BodyPublisher body = request.getBody() == null
+        ? HttpRequest.BodyPublishers.noBody()
+        : HttpRequest.BodyPublishers.ofByteArray(request.getBody());
+
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()))
+        .method(request.getMethod(), body);
+
+    if (requestTimeout != null) {
+      builder.timeout(requestTimeout);
+    }
+
+    request.getHeaders().forEach((name, value) -> {
+      if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+        builder.header(name, value);
+      }
+    });
+
+    CompletableFuture<HttpResponse<InputStream>> sent =
+        client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+    // Since Java 16, cancelling the future returned by sendAsync also aborts the exchange
+    CompletableFuture<TransportResponse> converted = Futures.thenApply(sent, response -> {
+      TransportResponse.Builder result = TransportResponse.builder()
+          .withCode(response.statusCode())
+          .withBody(response.body());
+
+      response.headers().map().forEach((name, values) -> {
+        if (!values.isEmpty()) {
+          result.withHeader(name, values.get(0));
+        }
+      });
+
+      return result.build();
+    });
+
+    // A response that arrives after the call was cancelled is discarded, freeing its connection
+    sent.thenAccept(response -> {
+      if (converted.isCancelled()) {
+        try {
+          response.body().close();
+        } catch (IOException e) {
+          // Nothing is waiting for the response anyway
+        }
+      }
+    });
+
+    return converted;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private HttpClient client;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration requestTimeout;
+
+    /**
+     * Use an existing {@link HttpClient} instead of creating a new one. The connect timeout of
+     * this builder is ignored when a client is given.
+     *
+     * @param client the client used to send requests
+     * @return this
+     */
+    public Builder withHttpClient(HttpClient client) {
+      this.client = Objects.requireNonNull(client, "The HTTP client must not be null.");
+      return this;
+    }
+
+    /**
+     * Set the timeout for opening a connection. Default is 10 seconds.
+     *
+     * @param connectTimeout the connect timeout
+     * @return this
+     */
+    public Builder withConnectTimeout(Duration connectTimeout) {
+      this.connectTimeout = Objects.requireNonNull(connectTimeout,
+          "The connect timeout must not be null.");
+      return this;
+    }
+
+    /**
+     * Set the timeout for receiving the response headers of each request. No timeout by default.
+     *
+     * @param requestTimeout the request timeout
+     * @return this
+     */
+    public Builder withRequestTimeout(Duration requestTimeout) {
+      this.requestTimeout = Objects.requireNonNull(requestTimeout,
+          "The request timeout must not be null.");
+      return this;
+    }
+
+    public JdkHttpTransport build() {
+      return new JdkHttpTransport(this);
+    }
+  }
+}
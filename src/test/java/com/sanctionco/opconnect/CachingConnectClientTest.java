@@ -0,0 +1,444 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import org.junit.jupiter.api.Test;
+
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingConnectClientTest {
+  private static final Item ITEM = Item.builder().withId("item").withVersion(1).build();
+  private static final Item UPDATED = Item.builder().withId("item").withVersion(2).build();
+
+  private final RetrofitOPConnectClient delegate = mock(RetrofitOPConnectClient.class);
+  private final CachingConnectClient client = new CachingConnectClient(delegate,
+      CacheConfig.builder().build());
+
+  @Test
+  void getItemShouldReadThrough() {
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    assertSame(ITEM, client.getItem("vault", "item").join());
+    assertSame(ITEM, client.getItem("vault", "item").join());
+
+    verify(delegate, times(1)).getItem("vault", "item");
+  }
+
+  @Test
+  void writesShouldUpdateCache() {
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.replaceItem("vault", "item", UPDATED))
+        .thenReturn(CompletableFuture.completedFuture(UPDATED));
+
+    client.getItem("vault", "item").join();
+    client.replaceItem("vault", "item", UPDATED).join();
+
+    assertSame(UPDATED, client.getItem("vault", "item").join());
+    verify(delegate, times(1)).getItem("vault", "item");
+  }
+
+  @Test
+  void olderVersionShouldNotReplaceNewerVersion() {
+    when(delegate.createItem("vault", UPDATED))
+        .thenReturn(CompletableFuture.completedFuture(UPDATED));
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    client.createItem("vault", UPDATED).join();
+
+    assertEquals(2, CachingConnectClient.newest(UPDATED, ITEM).getVersion());
+    assertSame(UPDATED, client.getItem("vault", "item").join());
+  }
+
+  @Test
+  void deleteShouldInvalidateCache() {
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.deleteItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(null));
+
+    client.getItem("vault", "item").join();
+    client.deleteItem("vault", "item").join();
+    client.getItem("vault", "item").join();
+
+    verify(delegate, times(2)).getItem("vault", "item");
+  }
+
+  @Test
+  void listItemsShouldReadThroughUntilVaultWrite() {
+    when(delegate.listItems("vault", "title pr"))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(ITEM)));
+    when(delegate.createItem("vault", UPDATED))
+        .thenReturn(CompletableFuture.completedFuture(UPDATED));
+
+    assertEquals(Collections.singletonList(ITEM), client.listItems("vault", "title pr").join());
+    client.listItems("vault", "title pr").join();
+    verify(delegate, times(1)).listItems("vault", "title pr");
+
+    client.createItem("vault", UPDATED).join();
+    client.listItems("vault", "title pr").join();
+    verify(delegate, times(2)).listItems("vault", "title pr");
+  }
+
+  @Test
+  void listVaultsShouldRefreshCachedVaults() {
+    Vault vault = Vault.builder().withId("vault").withContentVersion(1).build();
+
+    when(delegate.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(vault)));
+
+    assertEquals(Collections.singletonList(vault), client.listVaults().join());
+    assertSame(vault, client.getVault("vault").join());
+    client.listVaults().join();
+
+    verify(delegate, times(1)).listVaults();
+    verify(delegate, times(0)).getVault("vault");
+  }
+
+  @Test
+  void vaultPollingShouldWaitForThePreviousCheck() {
+    ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    CompletableFuture<List<Vault>> listing = new CompletableFuture<>();
+    when(delegate.listVaults()).thenReturn(listing);
+
+    client.pollVaultVersions(scheduler, 1000);
+
+    verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+    listing.complete(Collections.emptyList());
+
+    verify(scheduler).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void firstVaultCheckShouldEvictEntriesCachedBeforeIt() {
+    Vault vault = Vault.builder().withId("vault").withContentVersion(3).build();
+
+    when(delegate.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(vault)));
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.listItems("vault"))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(ITEM)));
+
+    client.getItem("vault", "item").join();
+    client.listItems("vault").join();
+
+    client.checkVaultVersions().join();
+    client.getItem("vault", "item").join();
+    client.listItems("vault").join();
+
+    client.checkVaultVersions().join();
+    client.getItem("vault", "item").join();
+    client.listItems("vault").join();
+
+    verify(delegate, times(2)).getItem("vault", "item");
+    verify(delegate, times(2)).listItems("vault");
+  }
+
+  @Test
+  void vaultCheckShouldOnlyEvictChangedVaults() {
+    Vault first = Vault.builder().withId("vault").withContentVersion(1).build();
+    Vault other = Vault.builder().withId("other").withContentVersion(1).build();
+    Vault changed = Vault.builder().withId("vault").withContentVersion(2).build();
+
+    when(delegate.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Arrays.asList(first, other)))
+        .thenReturn(CompletableFuture.completedFuture(Arrays.asList(changed, other)));
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.getItem("other", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    client.checkVaultVersions().join();
+    client.getItem("vault", "item").join();
+    client.getItem("other", "item").join();
+
+    client.checkVaultVersions().join();
+    client.getItem("vault", "item").join();
+    client.getItem("other", "item").join();
+
+    verify(delegate, times(2)).getItem("vault", "item");
+    verify(delegate, times(1)).getItem("other", "item");
+  }
+
+  @Test
+  void listingShouldEvictChangedAndMissingItems() {
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.listItems("vault", "title pr"))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(UPDATED)));
+    when(delegate.listItems("vault"))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+    client.getItem("vault", "item").join();
+    client.listItems("vault", "title pr").join();
+    client.getItem("vault", "item").join();
+    client.listItems("vault").join();
+    client.getItem("vault", "item").join();
+
+    verify(delegate, times(3)).getItem("vault", "item");
+  }
+
+  @Test
+  void notFoundShouldBeCachedUntilItemCreated() {
+    final CachingConnectClient negativeClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withNegativeTtlInMilliseconds(1000L).build());
+    CompletableFuture<Item> missing = new CompletableFuture<>();
+    missing.completeExceptionally(
+        new HttpException(Response.error(404, ResponseBody.create("", null))));
+
+    when(delegate.getItem("vault", "item")).thenReturn(missing);
+    when(delegate.createItem("vault", ITEM)).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    CompletionException first = assertThrows(CompletionException.class,
+        () -> negativeClient.getItem("vault", "item").join());
+    CompletionException second = assertThrows(CompletionException.class,
+        () -> negativeClient.getItem("vault", "item").join());
+
+    assertSame(first.getCause(), second.getCause());
+    verify(delegate, times(1)).getItem("vault", "item");
+
+    negativeClient.createItem("vault", ITEM).join();
+    assertSame(ITEM, negativeClient.getItem("vault", "item").join());
+  }
+
+  @Test
+  void fileContentShouldBeCachedUntilItemVersionChanges() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(1024L).build());
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file"))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("first", null)))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("second", null)));
+    when(delegate.replaceItem("vault", "item", UPDATED))
+        .thenReturn(CompletableFuture.completedFuture(UPDATED));
+
+    assertEquals("first", contentClient.getFileContent("vault", "item", "file").join());
+    assertEquals("first", contentClient.getFileContent("vault", "item", "file").join());
+    verify(delegate, times(1)).streamFileContent("vault", "item", "file");
+
+    contentClient.replaceItem("vault", "item", UPDATED).join();
+
+    assertEquals("second", contentClient.getFileContent("vault", "item", "file").join());
+    verify(delegate, times(2)).streamFileContent("vault", "item", "file");
+    verify(delegate, never()).getFileContent("vault", "item", "file");
+  }
+
+  @Test
+  void binaryFileContentShouldShareTheCachedCopy() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(1024L).build());
+    byte[] content = new byte[] {(byte) 0xff, 0x00, (byte) 0xfe, 'k', 'e', 'y'};
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file"))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create(content, null)));
+
+    assertArrayEquals(content, FileContents.bytes(
+        contentClient.streamFileContent("vault", "item", "file").join()));
+    assertArrayEquals(content, FileContents.bytes(
+        contentClient.streamFileContent("vault", "item", "file").join()));
+    assertEquals(new String(content, StandardCharsets.UTF_8),
+        contentClient.getFileContent("vault", "item", "file").join());
+    verify(delegate, times(1)).streamFileContent("vault", "item", "file");
+  }
+
+  @Test
+  void concurrentFileContentRequestsShouldShareOneDownload() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(1024L).build());
+    CompletableFuture<ResponseBody> download = new CompletableFuture<>();
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file")).thenReturn(download);
+
+    CompletableFuture<String> first = contentClient.getFileContent("vault", "item", "file");
+    CompletableFuture<String> second = contentClient.getFileContent("vault", "item", "file");
+    download.complete(ResponseBody.create("content", null));
+
+    assertEquals("content", first.join());
+    assertEquals("content", second.join());
+    verify(delegate, times(1)).streamFileContent("vault", "item", "file");
+  }
+
+  @Test
+  void concurrentRequestsForContentLargerThanTheCacheShouldEachGetAResponse() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(4L).build());
+    CompletableFuture<ResponseBody> download = new CompletableFuture<>();
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file"))
+        .thenReturn(download)
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("too large", null)));
+
+    CompletableFuture<String> first = contentClient.getFileContent("vault", "item", "file");
+    CompletableFuture<String> second = contentClient.getFileContent("vault", "item", "file");
+    download.complete(ResponseBody.create("too large", null));
+
+    assertEquals("too large", first.join());
+    assertEquals("too large", second.join());
+    verify(delegate, times(2)).streamFileContent("vault", "item", "file");
+  }
+
+  @Test
+  void cachedFileContentShouldKeepItsContentType() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(1024L).build());
+    MediaType png = MediaType.get("image/png");
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file")).thenReturn(
+        CompletableFuture.completedFuture(ResponseBody.create(new byte[] {1, 2, 3}, png)));
+
+    contentClient.streamFileContent("vault", "item", "file").join().close();
+
+    try (ResponseBody cached = contentClient.streamFileContent("vault", "item", "file").join()) {
+      assertEquals(png, cached.contentType());
+    }
+
+    verify(delegate, times(1)).streamFileContent("vault", "item", "file");
+  }
+
+  @Test
+  void fileContentLargerThanTheCacheShouldBypassIt() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(4L).build());
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file"))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("too large", null)))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("too large", null)));
+
+    assertEquals("too large", contentClient.getFileContent("vault", "item", "file").join());
+    assertEquals("too large", contentClient.getFileContent("vault", "item", "file").join());
+    verify(delegate, times(2)).streamFileContent("vault", "item", "file");
+  }
+
+  @Test
+  void fileContentShouldBeWeighedWithItsEntryOverhead() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(21L).build());
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.getItem("vault", "other")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file"))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("fits!", null)));
+    when(delegate.streamFileContent("vault", "other", "file"))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("larger", null)))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create("larger", null)));
+
+    for (int i = 0; i < 2; i++) {
+      assertEquals("fits!", contentClient.getFileContent("vault", "item", "file").join());
+      assertEquals("larger", contentClient.getFileContent("vault", "other", "file").join());
+    }
+
+    verify(delegate, times(1)).streamFileContent("vault", "item", "file");
+    verify(delegate, times(2)).streamFileContent("vault", "other", "file");
+  }
+
+  @Test
+  void fileContentShouldBeDecodedWithTheResponseCharset() {
+    final CachingConnectClient contentClient = new CachingConnectClient(delegate,
+        CacheConfig.builder().withFileContentCacheSizeInBytes(1024L).build());
+    byte[] latin = new byte[] {'c', 'a', 'f', (byte) 0xe9};
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+    when(delegate.streamFileContent("vault", "item", "file"))
+        .thenReturn(CompletableFuture.completedFuture(ResponseBody.create(latin,
+            MediaType.get("text/plain; charset=ISO-8859-1"))));
+
+    assertEquals("café", contentClient.getFileContent("vault", "item", "file").join());
+  }
+
+  @Test
+  void restoredSnapshotShouldServeReadsUntilVaultChanges() {
+    Item item = Item.builder().withId("item").withVaultId("vault").withVersion(1).build();
+    Vault vault = Vault.builder().withId("vault").withContentVersion(1).build();
+    final Vault changed = Vault.builder().withId("vault").withContentVersion(2).build();
+
+    client.restore(new Snapshot(Collections.singletonList(vault),
+        Collections.singletonList(item)));
+
+    assertSame(item, client.getItem("vault", "item").join());
+    assertEquals(Collections.singletonList(item), client.snapshot().getItems());
+    verify(delegate, times(0)).getItem("vault", "item");
+
+    when(delegate.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(changed)));
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    client.checkVaultVersions().join();
+    assertSame(ITEM, client.getItem("vault", "item").join());
+  }
+
+  @Test
+  void snapshotShouldKeepVaultVersionAfterVaultEntryExpires() {
+    Item item = Item.builder().withId("item").withVaultId("vault").withVersion(1).build();
+    Vault vault = Vault.builder().withId("vault").withContentVersion(1).build();
+    Vault changed = Vault.builder().withId("vault").withContentVersion(2).build();
+    AtomicLong now = new AtomicLong();
+    CachingConnectClient ticking = new CachingConnectClient(delegate,
+        CacheConfig.builder().withTtlInMilliseconds(1000L).build(), now::get);
+
+    when(delegate.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(vault)))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(changed)));
+    when(delegate.getItem("vault", "item"))
+        .thenReturn(CompletableFuture.completedFuture(item))
+        .thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    ticking.checkVaultVersions().join();
+    now.set(TimeUnit.MILLISECONDS.toNanos(900L));
+    ticking.getItem("vault", "item").join();
+
+    // The vault entry has expired, but the item has not
+    now.set(TimeUnit.MILLISECONDS.toNanos(1500L));
+    Snapshot snapshot = ticking.snapshot();
+
+    assertTrue(snapshot.getVaults().isEmpty());
+    assertEquals(Collections.singletonList(item), snapshot.getItems());
+    assertEquals(1, snapshot.getContentVersions().get("vault"));
+
+    client.restore(snapshot);
+    assertSame(item, client.getItem("vault", "item").join());
+
+    client.checkVaultVersions().join();
+    assertSame(ITEM, client.getItem("vault", "item").join());
+  }
+
+  @Test
+  void restoreShouldDropItemsOfVaultsWithoutVersion() {
+    Item item = Item.builder().withId("item").withVaultId("vault").withVersion(1).build();
+
+    when(delegate.getItem("vault", "item")).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    client.restore(new Snapshot(Collections.emptyList(), Collections.singletonList(item)));
+
+    assertSame(ITEM, client.getItem("vault", "item").join());
+  }
+}
@@ -0,0 +1,133 @@
+package com.sanctionco.opconnect;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingDnsTest {
+  private final AtomicLong ticker = new AtomicLong();
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final List<Runnable> background = new ArrayList<>();
+  private boolean failing = false;
+  private boolean deferred = false;
+
+  private final DnsResolver resolver = hostname -> {
+    lookups.incrementAndGet();
+
+    if (failing) {
+      throw new UnknownHostException(hostname);
+    }
+
+    return Collections.singletonList(
+        InetAddress.getByAddress(hostname, new byte[] { 10, 0, 0, (byte) lookups.get() }));
+  };
+
+  @Test
+  void shouldResolveEveryTimeWithoutCacheTtl() throws Exception {
+    CachingDns dns = dns(DnsConfig.builder(), Runnable::run);
+
+    dns.lookup("connect");
+    dns.lookup("connect");
+
+    assertEquals(2, lookups.get());
+  }
+
+  @Test
+  void shouldCacheAddressesForTheTtl() throws Exception {
+    CachingDns dns = dns(DnsConfig.builder().withCacheTtlInMilliseconds(1000), Runnable::run);
+
+    List<InetAddress> first = dns.lookup("connect");
+    advance(999);
+    List<InetAddress> second = dns.lookup("connect");
+
+    assertEquals(first, second);
+    assertEquals(1, lookups.get());
+
+    advance(1);
+    List<InetAddress> third = dns.lookup("connect");
+
+    assertEquals(address(2), third.get(0));
+    assertEquals(2, lookups.get());
+  }
+
+  @Test
+  void shouldServeStaleAddressesWhileTheyAreResolvedInTheBackground() throws Exception {
+    CachingDns dns = dns(DnsConfig.builder()
+        .withCacheTtlInMilliseconds(1000)
+        .withStaleWhileRevalidateInMilliseconds(5000), this::execute);
+
+    dns.lookup("connect");
+    advance(2000);
+    deferred = true;
+
+    assertEquals(address(1), dns.lookup("connect").get(0));
+    assertEquals(1, lookups.get());
+    assertEquals(1, background.size());
+
+    background.get(0).run();
+
+    assertEquals(address(2), dns.lookup("connect").get(0));
+    assertEquals(2, lookups.get());
+  }
+
+  @Test
+  void shouldServeExpiredAddressesWhenTheLookupFails() throws Exception {
+    CachingDns dns = dns(DnsConfig.builder().withCacheTtlInMilliseconds(1000), Runnable::run);
+
+    dns.lookup("connect");
+    advance(1000);
+    failing = true;
+
+    assertEquals(address(1), dns.lookup("connect").get(0));
+    assertEquals(address(1), dns.lookup("connect").get(0));
+    assertEquals(3, lookups.get());
+  }
+
+  @Test
+  void shouldThrowWhenTheHostCannotBeResolved() {
+    CachingDns dns = dns(DnsConfig.builder().withCacheTtlInMilliseconds(1000), Runnable::run);
+    failing = true;
+
+    assertThrows(UnknownHostException.class, () -> dns.lookup("connect"));
+  }
+
+  @Test
+  void shouldRejectEmptyResults() {
+    CachingDns dns = new CachingDns(DnsConfig.builder()
+        .withResolver(hostname -> Collections.emptyList())
+        .build(), Runnable::run);
+
+    assertThrows(UnknownHostException.class, () -> dns.lookup("connect"));
+  }
+
+  private CachingDns dns(DnsConfig.Builder config, Executor executor) {
+    return new CachingDns(config.withResolver(resolver).build(), executor, ticker::get);
+  }
+
+  private void execute(Runnable task) {
+    if (deferred) {
+      background.add(task);
+    } else {
+      task.run();
+    }
+  }
+
+  private void advance(long milliseconds) {
+    ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(milliseconds));
+  }
+
+  private static InetAddress address(int last) throws UnknownHostException {
+    return InetAddress.getByAddress("connect", new byte[] { 10, 0, 0, (byte) last });
+  }
+}
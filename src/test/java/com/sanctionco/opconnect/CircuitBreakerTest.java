@@ -0,0 +1,217 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class CircuitBreakerTest {
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final AtomicLong time = new AtomicLong();
+  private final AtomicInteger probes = new AtomicInteger();
+  private final List<String> transitions = new ArrayList<>();
+  private CompletableFuture<Void> heartbeat = new CompletableFuture<>();
+
+  @Test
+  void shouldOpenOnFailureRate() {
+    CircuitBreaker breaker = breaker(config());
+
+    for (int i = 0; i < 5; i++) {
+      call(breaker, "value");
+    }
+
+    for (int i = 0; i < 4; i++) {
+      call(breaker, new IOException("Connection reset"));
+    }
+
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+
+    call(breaker, error(503));
+
+    assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    assertEquals(List.of("CLOSED->OPEN"), transitions);
+  }
+
+  @Test
+  void shouldOpenOnSlowCallRate() {
+    CircuitBreaker breaker = breaker(config()
+        .withSlowCallRateThreshold(0.8)
+        .withSlowCallDurationInMilliseconds(100));
+
+    for (int i = 0; i < 10; i++) {
+      CompletableFuture<String> response = new CompletableFuture<>();
+      breaker.execute(() -> response);
+
+      time.addAndGet(TimeUnit.MILLISECONDS.toNanos(i < 2 ? 10 : 100));
+      response.complete("value");
+    }
+
+    assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+  }
+
+  @Test
+  void shouldNotOpenBeforeMinimumNumberOfCalls() {
+    CircuitBreaker breaker = breaker(config());
+
+    for (int i = 0; i < 9; i++) {
+      call(breaker, error(500));
+    }
+
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void clientErrorsShouldNotCountAsFailures() {
+    CircuitBreaker breaker = breaker(config());
+
+    for (int i = 0; i < 20; i++) {
+      call(breaker, error(404));
+    }
+
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void oldOutcomesShouldLeaveTheWindow() {
+    CircuitBreaker breaker = breaker(config());
+
+    for (int i = 0; i < 4; i++) {
+      call(breaker, error(500));
+    }
+
+    for (int i = 0; i < 20; i++) {
+      call(breaker, "value");
+    }
+
+    for (int i = 0; i < 4; i++) {
+      call(breaker, error(500));
+    }
+
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void shouldFailFastWhileOpen() {
+    CircuitBreaker breaker = breaker(config());
+    trip(breaker);
+
+    AtomicInteger calls = new AtomicInteger();
+    CompletableFuture<String> result = breaker.execute(() -> {
+      calls.incrementAndGet();
+      return CompletableFuture.completedFuture("value");
+    });
+
+    CompletionException e = assertThrows(CompletionException.class, result::join);
+    assertInstanceOf(CircuitBreakerOpenException.class, e.getCause());
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void successfulProbeShouldClose() {
+    CircuitBreaker breaker = breaker(config());
+    trip(breaker);
+
+    Runnable probe = scheduledProbe();
+    probe.run();
+
+    assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+    assertEquals(1, probes.get());
+
+    heartbeat.complete(null);
+
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+    assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    assertEquals("value", call(breaker, "value").join());
+  }
+
+  @Test
+  void failedProbeShouldReopen() {
+    CircuitBreaker breaker = breaker(config());
+    trip(breaker);
+
+    scheduledProbe().run();
+    heartbeat.completeExceptionally(new IOException("Connection refused"));
+
+    assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN"), transitions);
+
+    heartbeat = new CompletableFuture<>();
+    scheduledProbe().run();
+    heartbeat.complete(null);
+
+    assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+  }
+
+  private CircuitBreaker breaker(CircuitBreakerConfig.Builder config) {
+    return new CircuitBreaker(config
+        .withStateListener((from, to) -> transitions.add(from + "->" + to))
+        .build(), scheduler, () -> {
+          probes.incrementAndGet();
+          return heartbeat;
+        }, time::get);
+  }
+
+  private static CircuitBreakerConfig.Builder config() {
+    return CircuitBreakerConfig.builder()
+        .withSlidingWindow(20, 10)
+        .withOpenDurationInMilliseconds(1000);
+  }
+
+  private void trip(CircuitBreaker breaker) {
+    for (int i = 0; i < 10; i++) {
+      call(breaker, error(500));
+    }
+  }
+
+  /**
+   * Get the probe that was scheduled by the most recent opening of the breaker.
+   */
+  private Runnable scheduledProbe() {
+    ArgumentCaptor<Runnable> probe = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler, atLeastOnce())
+        .schedule(probe.capture(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+
+    return probe.getValue();
+  }
+
+  private static CompletableFuture<String> call(CircuitBreaker breaker, Object outcome) {
+    return breaker.execute(() -> {
+      CompletableFuture<String> response = new CompletableFuture<>();
+
+      if (outcome instanceof Throwable) {
+        response.completeExceptionally((Throwable) outcome);
+      } else {
+        response.complete((String) outcome);
+      }
+
+      return response;
+    });
+  }
+
+  private static HttpException error(int code) {
+    return new HttpException(Response.error(code,
+        ResponseBody.create("", MediaType.get("application/json"))));
+  }
+}
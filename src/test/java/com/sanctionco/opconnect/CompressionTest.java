@@ -0,0 +1,139 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Item;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+  private static final String ITEMS = IntStream.range(0, 50)
+      .mapToObj(i -> "{\"id\":\"item" + i + "\",\"title\":\"Database\",\"version\":3}")
+      .collect(Collectors.joining(",", "[", "]"));
+  private static final String LARGE_TITLE = String.join("", Collections.nCopies(2000, "a"));
+
+  private final StubServer server = new StubServer();
+
+  @AfterEach
+  void stopServer() {
+    server.close();
+  }
+
+  @ParameterizedTest
+  @MethodSource("com.sanctionco.opconnect.TransportTest#transports")
+  void shouldDecompressGzipResponses(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    shouldDecompressResponses(transport, "gzip");
+  }
+
+  @ParameterizedTest
+  @MethodSource("com.sanctionco.opconnect.TransportTest#transports")
+  void shouldDecompressDeflateResponses(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    shouldDecompressResponses(transport, "deflate");
+  }
+
+  @ParameterizedTest
+  @MethodSource("com.sanctionco.opconnect.TransportTest#transports")
+  void shouldCompressLargeRequestBodies(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    OPConnectClient client = client(transport, CompressionConfig.builder()
+        .withRequestCompression(true)
+        .withRequestCompressionThresholdInBytes(1024));
+
+    client.createItem("vault", Item.builder().withTitle(LARGE_TITLE).build()).join();
+    client.createItem("vault", Item.builder().withTitle("Small").build()).join();
+    PayloadMetrics metrics = client.getPayloadMetrics().get("createItem");
+    client.close();
+
+    assertAll("The large request is compressed",
+        () -> assertEquals("gzip", server.requests().get(0).contentEncoding),
+        () -> assertTrue(server.requests().get(0).body.contains(LARGE_TITLE)),
+        () -> assertNull(server.requests().get(1).contentEncoding),
+        () -> assertTrue(server.requests().get(1).body.contains("Small")),
+        () -> assertEquals(2, metrics.getRequests()),
+        () -> assertTrue(
+            metrics.getCompressedRequestBytes() < metrics.getUncompressedRequestBytes() / 2));
+  }
+
+  @ParameterizedTest
+  @MethodSource("com.sanctionco.opconnect.TransportTest#transports")
+  void shouldStopCompressingRequestsThatTheServerRejects(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    OPConnectClient client = client(transport, CompressionConfig.builder()
+        .withRequestCompression(true)
+        .withRequestCompressionThresholdInBytes(0));
+
+    server.rejectCompressedRequests();
+    client.createItem("vault", Item.builder().withTitle("First").build()).join();
+    client.createItem("vault", Item.builder().withTitle("Second").build()).join();
+    PayloadMetrics metrics = client.getPayloadMetrics().get("createItem");
+    client.close();
+
+    assertAll("The rejected request is resent uncompressed and counted once",
+        () -> assertEquals(3, server.requests().size()),
+        () -> assertEquals("gzip", server.requests().get(0).contentEncoding),
+        () -> assertNull(server.requests().get(1).contentEncoding),
+        () -> assertTrue(server.requests().get(1).body.contains("First")),
+        () -> assertNull(server.requests().get(2).contentEncoding),
+        () -> assertEquals(2, metrics.getRequests()),
+        () -> assertEquals(server.requests().get(1).body.length()
+            + server.requests().get(2).body.length(), metrics.getUncompressedRequestBytes()),
+        () -> assertEquals(
+            metrics.getUncompressedRequestBytes(), metrics.getCompressedRequestBytes()));
+  }
+
+  @Test
+  void shouldNotCountBytesWithoutCompression() {
+    OPConnectClient client = OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token")
+        .build();
+
+    server.respond(200, ITEMS);
+    client.listItems("vault").join();
+    client.close();
+
+    assertTrue(client.getPayloadMetrics().isEmpty());
+  }
+
+  private void shouldDecompressResponses(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport, String encoding) {
+    OPConnectClient client = client(transport, CompressionConfig.builder()
+        .withAcceptedEncodings("gzip", "deflate"));
+
+    server.respond(200, ITEMS).compressResponses(encoding);
+    List<Item> items = client.listItems("vault").join();
+    PayloadMetrics metrics = client.getPayloadMetrics().get("listItems");
+    client.close();
+
+    assertAll("The response is decompressed and counted",
+        () -> assertEquals(50, items.size()),
+        () -> assertEquals("gzip, deflate", server.requests().get(0).acceptEncoding),
+        () -> assertEquals(1, metrics.getRequests()),
+        () -> assertEquals(ITEMS.length(), metrics.getUncompressedResponseBytes()),
+        () -> assertTrue(
+            metrics.getCompressedResponseBytes() < metrics.getUncompressedResponseBytes() / 4));
+  }
+
+  private OPConnectClient client(Function<OPConnectClientBuilder, OPConnectClientBuilder> transport,
+                                 CompressionConfig.Builder compression) {
+    return transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token")
+        .withCompression(compression.build()))
+        .build();
+  }
+}
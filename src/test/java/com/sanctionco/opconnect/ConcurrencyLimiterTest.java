@@ -0,0 +1,276 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimiterTest {
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final AtomicLong time = new AtomicLong();
+  private final List<CompletableFuture<String>> calls = new ArrayList<>();
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void shouldQueueCallsOverTheLimit() {
+    ConcurrencyLimiter limiter = limiter(config(2).withMaximumQueueSize(10));
+
+    final CompletableFuture<String> first = limiter.execute(this::call);
+    limiter.execute(this::call);
+    final CompletableFuture<String> third = limiter.execute(this::call);
+
+    assertEquals(2, calls.size());
+    assertEquals(1, limiter.getQueueSize());
+
+    calls.get(0).complete("first");
+
+    assertEquals("first", first.join());
+    assertEquals(3, calls.size());
+    assertEquals(0, limiter.getQueueSize());
+
+    calls.get(2).complete("third");
+
+    assertEquals("third", third.join());
+  }
+
+  @Test
+  void shouldRejectWhenQueueIsFull() {
+    ConcurrencyLimiter limiter = limiter(config(1).withMaximumQueueSize(1));
+
+    limiter.execute(this::call);
+    limiter.execute(this::call);
+    CompletableFuture<String> rejected = limiter.execute(this::call);
+
+    CompletionException e = assertThrows(CompletionException.class, rejected::join);
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    assertEquals(1, calls.size());
+  }
+
+  @Test
+  void shouldRejectAfterMaximumQueueWait() {
+    ConcurrencyLimiter limiter = limiter(config(1).withMaximumQueueWaitInMilliseconds(10));
+
+    limiter.execute(this::call);
+    CompletableFuture<String> waiting = limiter.execute(this::call);
+
+    CompletionException e = assertThrows(CompletionException.class, waiting::join);
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    assertEquals(0, limiter.getQueueSize());
+
+    calls.get(0).complete("first");
+
+    assertEquals(1, calls.size());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void cancellingQueuedCallShouldRemoveIt() {
+    ConcurrencyLimiter limiter = limiter(config(1));
+
+    limiter.execute(this::call);
+    CompletableFuture<String> waiting = limiter.execute(this::call);
+
+    assertTrue(waiting.cancel(true));
+    assertEquals(0, limiter.getQueueSize());
+
+    calls.get(0).complete("first");
+
+    assertEquals(1, calls.size());
+  }
+
+  @Test
+  void cancellingStartedCallShouldCancelTheRequest() {
+    ConcurrencyLimiter limiter = limiter(config(1));
+
+    limiter.execute(this::call);
+    CompletableFuture<String> waiting = limiter.execute(this::call);
+    calls.get(0).complete("first");
+
+    waiting.cancel(true);
+
+    assertTrue(calls.get(1).isCancelled());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void limitShouldGrowWhileLatencyIsSteady() {
+    ConcurrencyLimiter limiter = limiter(config(4));
+
+    for (int i = 0; i < 20; i++) {
+      saturate(limiter, 10);
+    }
+
+    assertTrue(limiter.getLimit() > 4, "limit was " + limiter.getLimit());
+  }
+
+  @Test
+  void limitShouldNotGrowWhenUnused() {
+    ConcurrencyLimiter limiter = limiter(config(10));
+
+    for (int i = 0; i < 20; i++) {
+      CompletableFuture<String> response = new CompletableFuture<>();
+      limiter.execute(() -> response);
+
+      time.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+      response.complete("value");
+    }
+
+    assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  void limitShouldShrinkWhenLatencyRises() {
+    ConcurrencyLimiter limiter = limiter(config(40));
+
+    for (int i = 0; i < 20; i++) {
+      saturate(limiter, 10);
+    }
+
+    int steady = limiter.getLimit();
+
+    for (int i = 0; i < 20; i++) {
+      saturate(limiter, 100);
+    }
+
+    assertTrue(limiter.getLimit() < steady,
+        "limit was " + limiter.getLimit() + ", steady limit was " + steady);
+  }
+
+  @Test
+  void limitShouldShrinkOnOverloadResponses() {
+    ConcurrencyLimiter limiter = limiter(config(20));
+
+    CompletableFuture<String> response = new CompletableFuture<>();
+    limiter.execute(() -> response);
+    response.completeExceptionally(new HttpException(Response.error(503,
+        ResponseBody.create("", MediaType.get("application/json")))));
+
+    assertEquals(18, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void otherFailuresShouldNotChangeTheLimit() {
+    ConcurrencyLimiter limiter = limiter(config(20));
+
+    CompletableFuture<String> response = new CompletableFuture<>();
+    limiter.execute(() -> response);
+    response.completeExceptionally(new HttpException(Response.error(404,
+        ResponseBody.create("", MediaType.get("application/json")))));
+
+    assertEquals(20, limiter.getLimit());
+    assertFalse(limiter.getInFlight() > 0);
+  }
+
+  @Test
+  void heldCallShouldKeepItsSlotUntilReleased() {
+    ConcurrencyLimiter limiter = limiter(config(1));
+    List<Runnable> releases = new ArrayList<>();
+
+    CompletableFuture<String> held = limiter.executeHeld(release -> {
+      releases.add(release);
+      return CompletableFuture.completedFuture("stream");
+    });
+    final CompletableFuture<String> next = limiter.execute(this::call);
+
+    assertEquals("stream", held.join());
+    assertEquals(1, limiter.getInFlight());
+    assertEquals(1, limiter.getQueueSize());
+
+    releases.get(0).run();
+    releases.get(0).run();
+
+    assertEquals(1, calls.size());
+    calls.get(0).complete("next");
+
+    assertEquals("next", next.join());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void streamedBodyShouldHoldItsSlotUntilClosed() throws IOException {
+    RetrofitOPConnectClient delegate = mock(RetrofitOPConnectClient.class);
+    ConcurrencyLimiter limiter = limiter(config(1));
+    LimitingConnectClient client = new LimitingConnectClient(delegate, limiter);
+
+    when(delegate.streamItems("vault", null)).thenReturn(CompletableFuture.completedFuture(
+        ResponseBody.create("[]", MediaType.get("application/json"))));
+
+    ResponseBody body = client.streamItems("vault", null).join();
+
+    assertEquals(1, limiter.getInFlight());
+    assertEquals("[]", body.string());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void configShouldValidateLimits() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ConcurrencyLimitConfig.builder().withInitialLimit(0));
+    assertThrows(IllegalArgumentException.class,
+        () -> ConcurrencyLimitConfig.builder().withMaximumQueueSize(-1));
+    assertThrows(IllegalArgumentException.class,
+        () -> ConcurrencyLimitConfig.builder().withInitialLimit(10).withMaximumLimit(5).build());
+  }
+
+  /**
+   * Start as many calls as the limit allows, then complete them all with the given latency.
+   */
+  private void saturate(ConcurrencyLimiter limiter, long latencyInMilliseconds) {
+    List<CompletableFuture<String>> responses = new ArrayList<>();
+    int limit = limiter.getLimit();
+
+    for (int i = 0; i < limit; i++) {
+      CompletableFuture<String> response = new CompletableFuture<>();
+      responses.add(response);
+      limiter.execute(() -> response);
+    }
+
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyInMilliseconds));
+    responses.forEach(response -> response.complete("value"));
+  }
+
+  private ConcurrencyLimiter limiter(ConcurrencyLimitConfig.Builder config) {
+    return new ConcurrencyLimiter(config.build(), scheduler, time::get);
+  }
+
+  private static ConcurrencyLimitConfig.Builder config(int initialLimit) {
+    return ConcurrencyLimitConfig.builder()
+        .withInitialLimit(initialLimit)
+        .withMaximumLimit(100);
+  }
+
+  private CompletableFuture<String> call() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+    calls.add(response);
+
+    return response;
+  }
+}
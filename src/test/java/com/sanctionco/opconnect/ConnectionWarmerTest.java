@@ -0,0 +1,97 @@
+package com.sanctionco.opconnect;
+
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ConnectionWarmerTest {
+  private final StubServer server = new StubServer();
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+
+  @AfterEach
+  void stopServer() {
+    server.close();
+  }
+
+  @Test
+  void shouldOpenWarmConnections() {
+    OkHttpClient client = new OkHttpClient();
+    ConnectionWarmer warmer = warmer(client, ConnectionPoolConfig.builder()
+        .withWarmConnections(3));
+
+    // Slow responses make sure that no heartbeat can reuse the connection of another
+    server.delayResponses(200);
+    warmer.warm().join();
+
+    assertEquals(3, client.connectionPool().connectionCount());
+    assertEquals(3, server.requests().size());
+    assertTrue(server.requests().stream().allMatch(request -> "/heartbeat".equals(request.path)));
+  }
+
+  @Test
+  void shouldKeepConnectionsWarmEveryHalfKeepAliveDuration() {
+    ConnectionWarmer warmer = warmer(new OkHttpClient(), ConnectionPoolConfig.builder()
+        .withWarmConnections(1)
+        .withKeepAliveDurationInMilliseconds(60000)
+        .withKeepWarm(true));
+
+    warmer.start();
+
+    verify(scheduler).scheduleWithFixedDelay(any(Runnable.class),
+        eq(30000L), eq(30000L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void shouldNotKeepConnectionsWarmByDefault() {
+    ConnectionWarmer warmer = warmer(new OkHttpClient(), ConnectionPoolConfig.builder()
+        .withWarmConnections(1));
+
+    warmer.start();
+
+    verify(scheduler, never()).scheduleWithFixedDelay(any(Runnable.class),
+        anyLong(), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  void shouldNotSendRequestsWithoutWarmConnections() {
+    Call.Factory factory = mock(Call.Factory.class);
+    ConnectionWarmer warmer = new ConnectionWarmer(
+        ConnectionPoolConfig.builder().withKeepWarm(true).build(), factory,
+        Collections.singletonList(HttpUrl.get(server.endpoint())), scheduler);
+
+    warmer.start();
+
+    verifyNoInteractions(factory, scheduler);
+  }
+
+  @Test
+  void shouldRejectMoreWarmConnectionsThanThePoolKeeps() {
+    assertThrows(IllegalArgumentException.class, () -> ConnectionPoolConfig.builder()
+        .withMaximumIdleConnections(2)
+        .withWarmConnections(3)
+        .build());
+  }
+
+  private ConnectionWarmer warmer(OkHttpClient client, ConnectionPoolConfig.Builder config) {
+    return new ConnectionWarmer(config.build(), client,
+        Collections.singletonList(HttpUrl.get(server.endpoint() + "/")), scheduler);
+  }
+}
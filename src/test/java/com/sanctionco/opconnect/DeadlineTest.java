@@ -0,0 +1,155 @@
+package com.sanctionco.opconnect;
+
+import okio.Okio;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.ResponseBody;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DeadlineTest {
+  private static final long NOW = 1_000_000L;
+
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final ScheduledFuture<?> timer = mock(ScheduledFuture.class);
+  private final CompletableFuture<String> call = new CompletableFuture<>();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @BeforeEach
+  void setup() {
+    doReturn(timer).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  void shouldCompleteWithTheResultBeforeTheDeadline() {
+    Deadline deadline = deadline(CallOptions.builder().withTimeoutInMilliseconds(500));
+
+    CompletableFuture<String> result = deadline.execute(this::call);
+    call.complete("value");
+
+    assertEquals("value", result.join());
+    verify(scheduler).schedule(any(Runnable.class), eq(500L), eq(TimeUnit.MILLISECONDS));
+    verify(timer).cancel(false);
+  }
+
+  @Test
+  void shouldFailAndCancelTheCallWhenTheDeadlinePasses() {
+    Deadline deadline = deadline(CallOptions.builder().withTimeoutInMilliseconds(500));
+
+    CompletableFuture<String> result = deadline.execute(this::call);
+    timer().run();
+
+    CompletionException e = assertThrows(CompletionException.class, result::join);
+    assertTrue(e.getCause() instanceof DeadlineExceededException);
+    assertTrue(call.isCancelled());
+  }
+
+  @Test
+  void cancellingShouldCancelTheCallAndTheTimer() {
+    Deadline deadline = deadline(CallOptions.builder().withTimeoutInMilliseconds(500));
+
+    CompletableFuture<String> result = deadline.execute(this::call);
+    result.cancel(true);
+
+    assertTrue(call.isCancelled());
+    verify(timer, atLeastOnce()).cancel(false);
+  }
+
+  @Test
+  void shouldUseWhicheverDeadlineComesFirst() {
+    Deadline deadline = deadline(CallOptions.builder()
+        .withTimeoutInMilliseconds(500)
+        .withDeadline(Instant.ofEpochMilli(NOW + 200)));
+
+    deadline.execute(this::call);
+
+    verify(scheduler).schedule(any(Runnable.class), eq(200L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void shouldNotStartCallsAfterTheDeadline() {
+    Deadline deadline = deadline(CallOptions.builder()
+        .withDeadline(Instant.ofEpochMilli(NOW - 1)));
+
+    CompletableFuture<String> result = deadline.execute(this::call);
+
+    CompletionException e = assertThrows(CompletionException.class, result::join);
+    assertTrue(e.getCause() instanceof DeadlineExceededException);
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void shouldNotScheduleTimerWithoutDeadline() {
+    Deadline deadline = deadline(CallOptions.builder());
+
+    CompletableFuture<String> result = deadline.execute(this::call);
+
+    assertFalse(result.isDone());
+    verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  void shouldBoundReadingTheBodyByTheTimeLeft() {
+    AtomicLong now = new AtomicLong(NOW);
+    Deadline deadline = new Deadline(
+        CallOptions.builder().withTimeoutInMilliseconds(500).build(), scheduler, now::get);
+    CompletableFuture<ResponseBody> response = new CompletableFuture<>();
+
+    CompletableFuture<ResponseBody> result = deadline.executeReading(() -> response);
+    now.addAndGet(200);
+    response.complete(ResponseBody.create(
+        Okio.buffer(Okio.source(new ByteArrayInputStream(new byte[0]))), null, 0L));
+
+    long left = result.join().source().timeout().deadlineNanoTime() - System.nanoTime();
+
+    assertTrue(left > 0 && left <= TimeUnit.MILLISECONDS.toNanos(300),
+        "The body deadline is " + left + " nanoseconds away");
+  }
+
+  @Test
+  void shouldRejectNegativeTimeout() {
+    assertThrows(IllegalArgumentException.class,
+        () -> CallOptions.builder().withTimeoutInMilliseconds(-1));
+  }
+
+  private Deadline deadline(CallOptions.Builder options) {
+    return new Deadline(options.build(), scheduler, () -> NOW);
+  }
+
+  private CompletableFuture<String> call() {
+    calls.incrementAndGet();
+
+    return call;
+  }
+
+  private Runnable timer() {
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(captor.capture(), anyLong(), any(TimeUnit.class));
+
+    return captor.getValue();
+  }
+}
@@ -0,0 +1,191 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class HedgerTest {
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final AtomicLong time = new AtomicLong();
+  private final List<CompletableFuture<String>> requests = new ArrayList<>();
+
+  @Test
+  void shouldHedgeSlowRequestAndCancelTheLoser() {
+    Hedger hedger = hedger(HedgingPolicy.builder());
+
+    final CompletableFuture<String> result = hedger.execute("getItem", this::request);
+    timer().run();
+
+    assertEquals(2, requests.size());
+
+    requests.get(1).complete("hedged");
+
+    assertEquals("hedged", result.join());
+    assertTrue(requests.get(0).isCancelled());
+  }
+
+  @Test
+  void fastRequestShouldNotBeHedged() {
+    Hedger hedger = hedger(HedgingPolicy.builder());
+
+    CompletableFuture<String> result = hedger.execute("getItem", this::request);
+    requests.get(0).complete("value");
+    timer().run();
+
+    assertEquals("value", result.join());
+    assertEquals(1, requests.size());
+  }
+
+  @Test
+  void shouldWaitForTheOtherRequestAfterAFailure() {
+    Hedger hedger = hedger(HedgingPolicy.builder());
+
+    CompletableFuture<String> result = hedger.execute("getItem", this::request);
+    timer().run();
+    requests.get(0).completeExceptionally(new IOException("Connection reset"));
+
+    assertFalse(result.isDone());
+
+    requests.get(1).complete("hedged");
+
+    assertEquals("hedged", result.join());
+  }
+
+  @Test
+  void shouldFailOnceEveryRequestFailed() {
+    Hedger hedger = hedger(HedgingPolicy.builder());
+    IOException failure = new IOException("Connection reset");
+
+    CompletableFuture<String> result = hedger.execute("getItem", this::request);
+    timer().run();
+    requests.get(0).completeExceptionally(new IOException("Connection refused"));
+    requests.get(1).completeExceptionally(failure);
+
+    CompletionException e = assertThrows(CompletionException.class, result::join);
+    assertEquals(failure, e.getCause());
+  }
+
+  @Test
+  void shouldNotHedgeWhenBudgetIsExhausted() {
+    Hedger hedger = hedger(HedgingPolicy.builder().withHedgingBudget(1, 0));
+
+    hedger.execute("getItem", this::request);
+    timer().run();
+    hedger.execute("getItem", this::request);
+    timer().run();
+
+    assertEquals(3, requests.size());
+  }
+
+  @Test
+  void cancellingShouldCancelEveryRequest() {
+    Hedger hedger = hedger(HedgingPolicy.builder());
+
+    CompletableFuture<String> result = hedger.execute("getItem", this::request);
+    timer().run();
+    result.cancel(true);
+
+    assertTrue(requests.get(0).isCancelled());
+    assertTrue(requests.get(1).isCancelled());
+  }
+
+  @Test
+  void delayShouldFollowThePercentileOfRecentResponseTimes() {
+    Hedger hedger = hedger(HedgingPolicy.builder()
+        .withPercentile(0.9)
+        .withInitialDelayInMilliseconds(250));
+
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(250), hedger.delayInNanos("getItem"));
+
+    for (int i = 1; i <= 100; i++) {
+      final CompletableFuture<String> result = hedger.execute("getItem", this::request);
+      time.addAndGet(TimeUnit.MILLISECONDS.toNanos(i));
+      requests.get(requests.size() - 1).complete("value");
+      time.set(0);
+
+      assertEquals("value", result.join());
+    }
+
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(90), hedger.delayInNanos("getItem"));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(250), hedger.delayInNanos("listItems"));
+  }
+
+  @Test
+  void delayShouldStayStableUnderASteadySlowTail() {
+    Hedger hedger = hedger(HedgingPolicy.builder()
+        .withPercentile(0.9)
+        .withInitialDelayInMilliseconds(250)
+        .withHedgingBudget(1000, 1.0));
+    long fast = TimeUnit.MILLISECONDS.toNanos(10);
+    long slow = TimeUnit.MILLISECONDS.toNanos(300);
+
+    // Every fifth first request takes 300ms, and a hedge answers 10ms after it is sent
+    for (int i = 0; i < 200; i++) {
+      long delay = hedger.delayInNanos("getItem");
+      time.set(0);
+
+      int first = requests.size();
+      final CompletableFuture<String> result = hedger.execute("getItem", this::request);
+
+      if (i % 5 != 0) {
+        time.set(fast);
+        requests.get(first).complete("value");
+      } else if (delay + fast < slow) {
+        time.set(delay);
+        timer().run();
+        time.addAndGet(fast);
+        requests.get(first + 1).complete("hedged");
+      } else {
+        time.set(slow);
+        requests.get(first).complete("value");
+      }
+
+      result.join();
+    }
+
+    long delay = hedger.delayInNanos("getItem");
+
+    assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(250), "The delay fell to " + delay);
+    assertTrue(delay <= slow, "The delay rose to " + delay);
+  }
+
+  private Hedger hedger(HedgingPolicy.Builder policy) {
+    return new Hedger(policy.build(), scheduler, time::get);
+  }
+
+  /**
+   * Get the hedging timer that was scheduled most recently.
+   */
+  private Runnable timer() {
+    ArgumentCaptor<Runnable> timer = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler, atLeastOnce())
+        .schedule(timer.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+
+    return timer.getValue();
+  }
+
+  private CompletableFuture<String> request() {
+    CompletableFuture<String> request = new CompletableFuture<>();
+    requests.add(request);
+
+    return request;
+  }
+}
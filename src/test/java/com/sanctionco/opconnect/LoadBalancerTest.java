@@ -0,0 +1,245 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoadBalancerTest {
+  private static final List<HttpUrl> URLS = Arrays.asList(
+      HttpUrl.get("http://first:8080/"),
+      HttpUrl.get("http://second:8080/"),
+      HttpUrl.get("http://third:8080/"));
+
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final List<HttpUrl> probed = new ArrayList<>();
+  private CompletableFuture<Void> probeResult = CompletableFuture.completedFuture(null);
+
+  @Test
+  void powerOfTwoChoicesShouldPreferTheEndpointWithFewerRequests() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder(), URLS.subList(0, 2));
+
+    LoadBalancer.Endpoint first = balancer.select(Collections.emptySet());
+    LoadBalancer.Endpoint second = balancer.select(Collections.emptySet());
+
+    assertNotEquals(first, second);
+
+    balancer.record(first, false);
+
+    assertEquals(first, balancer.select(Collections.emptySet()));
+  }
+
+  @Test
+  void leastOutstandingRequestsShouldSpreadRequests() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder()
+        .withStrategy(LoadBalancingStrategy.LEAST_OUTSTANDING_REQUESTS), URLS);
+
+    Set<LoadBalancer.Endpoint> chosen = new HashSet<>();
+
+    for (int i = 0; i < 3; i++) {
+      chosen.add(balancer.select(Collections.emptySet()));
+    }
+
+    assertEquals(3, chosen.size());
+    balancer.getEndpoints().forEach(endpoint -> assertEquals(1, endpoint.getOutstanding()));
+  }
+
+  @Test
+  void shouldEjectEndpointAfterConsecutiveFailures() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder()
+        .withConsecutiveFailuresToEject(2), URLS.subList(0, 2));
+    LoadBalancer.Endpoint failing = balancer.getEndpoints().get(0);
+
+    fail(balancer, failing, 2);
+
+    assertTrue(failing.isEjected());
+    verify(scheduler).schedule(any(Runnable.class), eq(10000L), eq(TimeUnit.MILLISECONDS));
+
+    for (int i = 0; i < 10; i++) {
+      LoadBalancer.Endpoint endpoint = balancer.select(Collections.emptySet());
+
+      assertEquals(balancer.getEndpoints().get(1), endpoint);
+      balancer.record(endpoint, false);
+    }
+  }
+
+  @Test
+  void successShouldResetConsecutiveFailures() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder()
+        .withConsecutiveFailuresToEject(2), URLS.subList(0, 1));
+    LoadBalancer.Endpoint endpoint = balancer.getEndpoints().get(0);
+
+    fail(balancer, endpoint, 1);
+    balancer.record(balancer.select(Collections.emptySet()), false);
+    fail(balancer, endpoint, 1);
+
+    assertFalse(endpoint.isEjected());
+  }
+
+  @Test
+  void shouldReadmitEndpointOnceHeartbeatSucceeds() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder()
+        .withConsecutiveFailuresToEject(1), URLS.subList(0, 2));
+    LoadBalancer.Endpoint endpoint = balancer.getEndpoints().get(0);
+
+    fail(balancer, endpoint, 1);
+    probeResult = failed();
+    scheduledProbes(1).get(0).run();
+
+    assertTrue(endpoint.isEjected());
+
+    probeResult = CompletableFuture.completedFuture(null);
+    scheduledProbes(2).get(1).run();
+
+    assertFalse(endpoint.isEjected());
+    assertEquals(Arrays.asList(URLS.get(0), URLS.get(0)), probed);
+  }
+
+  @Test
+  void shouldUseEjectedEndpointsWhenEveryEndpointIsEjected() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder()
+        .withConsecutiveFailuresToEject(1), URLS.subList(0, 2));
+
+    balancer.getEndpoints().forEach(endpoint -> fail(balancer, endpoint, 1));
+
+    assertTrue(balancer.getEndpoints().stream().allMatch(LoadBalancer.Endpoint::isEjected));
+    assertNotNull(balancer.select(Collections.emptySet()));
+  }
+
+  @Test
+  void shouldNotSelectExcludedEndpoints() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder(), URLS.subList(0, 2));
+    LoadBalancer.Endpoint first = balancer.getEndpoints().get(0);
+    LoadBalancer.Endpoint second = balancer.getEndpoints().get(1);
+
+    assertEquals(second, balancer.select(Collections.singleton(first)));
+    assertNull(balancer.select(new HashSet<>(balancer.getEndpoints())));
+  }
+
+  @Test
+  void healthCheckShouldEjectEndpointWhoseHeartbeatFails() {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder()
+        .withHealthCheckIntervalInMilliseconds(1000), URLS.subList(0, 2));
+
+    balancer.start();
+
+    ArgumentCaptor<Runnable> check = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).scheduleWithFixedDelay(check.capture(),
+        eq(1000L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+
+    probeResult = failed();
+    check.getValue().run();
+
+    assertEquals(URLS.subList(0, 2), probed);
+    assertTrue(balancer.getEndpoints().stream().allMatch(LoadBalancer.Endpoint::isEjected));
+  }
+
+  @Test
+  void healthCheckShouldBeDisabledByDefault() {
+    balancer(LoadBalancerConfig.builder(), URLS).start();
+
+    verify(scheduler, never()).scheduleWithFixedDelay(any(Runnable.class),
+        anyLong(), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  void canceledCallsShouldNotEjectEndpoints() throws Exception {
+    LoadBalancer balancer = balancer(LoadBalancerConfig.builder()
+        .withConsecutiveFailuresToEject(1), URLS.subList(0, 2));
+    Call.Factory delegate = mock(Call.Factory.class);
+    Call attempt = mock(Call.class);
+    when(delegate.newCall(any(Request.class))).thenReturn(attempt);
+
+    BalancingCallFactory factory = new BalancingCallFactory(delegate, URLS.get(0), balancer);
+    Request request = new Request.Builder().url(URLS.get(0).resolve("v1/vaults")).build();
+
+    // A call that is canceled while it is enqueued, such as a hedge that lost
+    Call enqueued = factory.newCall(request);
+    enqueued.enqueue(mock(Callback.class));
+
+    ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+    verify(attempt).enqueue(callback.capture());
+
+    enqueued.cancel();
+    callback.getValue().onFailure(attempt, new IOException("Canceled"));
+
+    // A call that is canceled while it is executing, such as one that ran out of time
+    Call executed = factory.newCall(request);
+    when(attempt.execute()).then(invocation -> {
+      executed.cancel();
+      throw new IOException("Canceled");
+    });
+
+    assertThrows(IOException.class, executed::execute);
+
+    balancer.getEndpoints().forEach(endpoint -> {
+      assertFalse(endpoint.isEjected());
+      assertEquals(0, endpoint.getOutstanding());
+    });
+  }
+
+  private LoadBalancer balancer(LoadBalancerConfig.Builder config, List<HttpUrl> urls) {
+    return new LoadBalancer(config.build(), urls, scheduler, url -> {
+      probed.add(url);
+      return probeResult;
+    }, new Random(42));
+  }
+
+  /**
+   * Fail requests on the given endpoint by excluding every other endpoint.
+   */
+  private static void fail(LoadBalancer balancer, LoadBalancer.Endpoint endpoint, int times) {
+    Set<LoadBalancer.Endpoint> others = new HashSet<>(balancer.getEndpoints());
+    others.remove(endpoint);
+
+    for (int i = 0; i < times; i++) {
+      balancer.record(balancer.select(others), true);
+    }
+  }
+
+  private List<Runnable> scheduledProbes(int count) {
+    ArgumentCaptor<Runnable> probes = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler, times(count))
+        .schedule(probes.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+    return probes.getAllValues();
+  }
+
+  private static CompletableFuture<Void> failed() {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    future.completeExceptionally(new IOException("Connection refused"));
+
+    return future;
+  }
+}
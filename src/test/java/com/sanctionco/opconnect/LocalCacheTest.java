@@ -0,0 +1,184 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalCacheTest {
+  private final AtomicLong time = new AtomicLong();
+  private final LocalCache<String, String> cache = new LocalCache<>(1000L, 2L, time::get);
+
+  @Test
+  void shouldReturnValueUntilExpired() {
+    cache.put("key", "value");
+
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(999L));
+    assertEquals("value", cache.getIfPresent("key"));
+
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(1L));
+    assertNull(cache.getIfPresent("key"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void getShouldServeStaleValueAndRefreshOnce() {
+    LocalCache<String, String> swr = new LocalCache<>(1000L, 1000L, 10L, time::get);
+    final AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<String> refresh = new CompletableFuture<>();
+
+    swr.put("key", "old");
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500L));
+
+    assertEquals("old", swr.get("key", () -> load(loads, refresh)).join());
+    assertEquals("old", swr.get("key", () -> load(loads, refresh)).join());
+    assertEquals(1, loads.get());
+
+    swr.put("key", "new");
+    refresh.complete("new");
+    assertEquals("new", swr.get("key", () -> load(loads, refresh)).join());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void getShouldWaitForLoadOnceExpired() {
+    LocalCache<String, String> swr = new LocalCache<>(1000L, 1000L, 10L, time::get);
+    final AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<String> load = new CompletableFuture<>();
+
+    swr.put("key", "old");
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(2000L));
+
+    CompletableFuture<String> result = swr.get("key", () -> load(loads, load));
+
+    assertFalse(result.isDone());
+    load.complete("new");
+    assertEquals("new", result.join());
+  }
+
+  @Test
+  void failedRefreshShouldBeRetried() {
+    LocalCache<String, String> swr = new LocalCache<>(1000L, 1000L, 10L, time::get);
+    final AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<String> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException());
+
+    swr.put("key", "old");
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500L));
+
+    assertEquals("old", swr.get("key", () -> load(loads, failed)).join());
+    assertEquals("old", swr.get("key", () -> load(loads, failed)).join());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void getShouldServeExpiredValueOnEveryMatchingFailure() {
+    CompletableFuture<String> unavailable = new CompletableFuture<>();
+    unavailable.completeExceptionally(new IllegalStateException("unavailable"));
+    CompletableFuture<String> failing = new CompletableFuture<>();
+    failing.completeExceptionally(new IllegalArgumentException("failing"));
+
+    cache.serveExpiredOn(IllegalStateException.class::isInstance);
+    cache.put("key", "old");
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(2000L));
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals("old", cache.get("key", () -> unavailable).join());
+    }
+
+    assertNull(cache.getIfPresent("key"));
+    assertEquals("old", cache.get("key", () -> unavailable).join());
+    assertTrue(cache.get("key", () -> failing).isCompletedExceptionally());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsed() {
+    cache.put("first", "1");
+    cache.put("second", "2");
+    cache.getIfPresent("first");
+    cache.put("third", "3");
+
+    assertEquals("1", cache.getIfPresent("first"));
+    assertNull(cache.getIfPresent("second"));
+    assertEquals("3", cache.getIfPresent("third"));
+  }
+
+  @Test
+  void shouldMergeWithExistingValue() {
+    cache.merge("key", "a", (existing, value) -> existing + value);
+    cache.merge("key", "b", (existing, value) -> existing + value);
+
+    assertEquals("ab", cache.getIfPresent("key"));
+  }
+
+  @Test
+  void shouldInvalidateMatchingEntries() {
+    cache.put("first", "1");
+    cache.put("second", "2");
+
+    cache.invalidate("first", value -> value.equals("2"));
+    assertEquals("1", cache.getIfPresent("first"));
+
+    cache.invalidateIf(key -> key.startsWith("f"));
+    assertNull(cache.getIfPresent("first"));
+    assertEquals("2", cache.getIfPresent("second"));
+  }
+
+  @Test
+  void shouldEvictByWeight() {
+    LocalCache<String, String> weighted
+        = new LocalCache<>(1000L, 0L, 10L, String::length, time::get);
+
+    weighted.put("first", "12345");
+    weighted.put("second", "1234");
+    assertEquals(9, weighted.weightedSize());
+
+    weighted.getIfPresent("second");
+    weighted.put("third", "123");
+    assertTrue(weighted.weightedSize() <= 10);
+    assertEquals("1234", weighted.getIfPresent("second"));
+
+    weighted.put("huge", "12345678901");
+    assertNull(weighted.getIfPresent("huge"));
+    assertTrue(weighted.weightedSize() <= 10);
+  }
+
+  @Test
+  void frequentlyUsedEntriesShouldSurviveScan() {
+    LocalCache<String, String> scanned = new LocalCache<>(1000L, 100L, time::get);
+
+    for (int i = 0; i < 50; i++) {
+      scanned.put("hot" + i, "value");
+    }
+
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 50; j++) {
+        scanned.getIfPresent("hot" + j);
+      }
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      scanned.put("scan" + i, "value");
+    }
+
+    for (int i = 0; i < 50; i++) {
+      assertEquals("value", scanned.getIfPresent("hot" + i));
+    }
+
+    assertEquals(100, scanned.size());
+  }
+
+  private static CompletableFuture<String> load(AtomicInteger loads,
+                                                CompletableFuture<String> result) {
+    loads.incrementAndGet();
+
+    return result;
+  }
+}
@@ -0,0 +1,116 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import okhttp3.ResponseBody;
+
+import org.junit.jupiter.api.Test;
+
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NameIndexTest {
+  private static final String TITLE_FILTER = "title eq \"Database\"";
+  private static final Item ITEM = Item.builder().withId("item").withTitle("Database").build();
+  private static final Item MOVED = Item.builder().withId("moved").withTitle("Database").build();
+
+  private final RetrofitOPConnectClient client = mock(RetrofitOPConnectClient.class);
+  private final NameIndex names = new NameIndex(client, 60000L, 100L);
+
+  @Test
+  void itemIdShouldUseFilteredListingOnce() {
+    when(client.listItems("vault", TITLE_FILTER))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(ITEM)));
+
+    assertEquals("item", names.itemId("vault", "Database").join());
+    assertEquals("item", names.itemId("vault", "Database").join());
+
+    verify(client, times(1)).listItems("vault", TITLE_FILTER);
+  }
+
+  @Test
+  void cancellingWithItemIdShouldCancelTheRunningStage() {
+    CompletableFuture<List<Item>> listing = new CompletableFuture<>();
+    CompletableFuture<Item> fetch = new CompletableFuture<>();
+
+    when(client.listItems("vault", TITLE_FILTER)).thenReturn(listing);
+
+    CompletableFuture<Item> lookup = names.withItemId("vault", "Database", id -> fetch);
+    lookup.cancel(true);
+
+    assertTrue(listing.isCancelled());
+    assertFalse(fetch.isCancelled());
+
+    when(client.listItems("vault", TITLE_FILTER))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(ITEM)));
+
+    CompletableFuture<Item> call = names.withItemId("vault", "Database", id -> fetch);
+    call.cancel(true);
+
+    assertTrue(fetch.isCancelled());
+  }
+
+  @Test
+  void vaultIdShouldRejectDuplicateNames() {
+    Vault first = Vault.builder().withId("first").withName("Prod").build();
+    Vault second = Vault.builder().withId("second").withName("Prod").build();
+
+    when(client.listVaults("name eq \"Prod\""))
+        .thenReturn(CompletableFuture.completedFuture(Arrays.asList(first, second)));
+
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> names.vaultId("Prod").join());
+
+    assertTrue(e.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  void withItemIdShouldRetryOnceWhenCachedIdIsGone() {
+    CompletableFuture<Item> notFound = new CompletableFuture<>();
+    notFound.completeExceptionally(
+        new HttpException(Response.error(404, ResponseBody.create("", null))));
+
+    when(client.listItems("vault", TITLE_FILTER))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(MOVED)));
+    when(client.getItem("vault", "item")).thenReturn(notFound);
+    when(client.getItem("vault", "moved")).thenReturn(CompletableFuture.completedFuture(MOVED));
+
+    names.recordItem("vault", ITEM);
+
+    assertEquals(MOVED,
+        names.withItemId("vault", "Database", id -> client.getItem("vault", id)).join());
+    verify(client, times(1)).getItem("vault", "item");
+  }
+
+  @Test
+  void writesShouldUpdateIndex() {
+    when(client.listItems("vault", TITLE_FILTER))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+    names.recordItem("vault", ITEM);
+    assertEquals("item", names.itemId("vault", "Database").join());
+
+    names.forgetItem("vault", "item");
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> names.itemId("vault", "Database").join());
+
+    assertTrue(e.getCause() instanceof NoSuchElementException);
+  }
+}
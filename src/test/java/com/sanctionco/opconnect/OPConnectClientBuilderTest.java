@@ -1,11 +1,41 @@
 package com.sanctionco.opconnect;
 
+import com.sanctionco.opconnect.model.Filter;
+import com.sanctionco.opconnect.model.Item;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
+import javax.net.ssl.SSLSessionContext;
+
+import okhttp3.Dispatcher;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 
 class OPConnectClientBuilderTest {
 
@@ -42,6 +72,297 @@ class OPConnectClientBuilderTest {
         .build();
   }
 
+  @Test
+  void shouldBuildWithCache() {
+    OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withRequestCoalescing(true)
+        .withCache(CacheConfig.builder()
+            .withTtlInMilliseconds(1000L)
+            .withVaultPollingIntervalInMilliseconds(60000L)
+            .build())
+        .build()
+        .close();
+  }
+
+  @Test
+  void shouldBuildWithWarmUp() {
+    OPConnectClient client = OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withWarmUp("vault")
+        .withWarmUp("other", Filter.title().contains("db"))
+        .build();
+
+    assertEquals(2, client.getWarmUpStatus().getTotalTargets());
+    client.close();
+  }
+
+  @Test
+  void shouldBuildWithConcurrencyLimit() {
+    OPConnectClient client = OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withConcurrencyLimit(ConcurrencyLimitConfig.builder().withMaximumLimit(50).build())
+        .build();
+
+    client.close();
+  }
+
+  @Test
+  void shouldBuildWithRateLimit() {
+    OPConnectClient client = OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withRateLimit(RateLimitConfig.builder().withRate(20, 5).withWriteRate(2, 1).build())
+        .build();
+
+    client.close();
+  }
+
+  @Test
+  void shouldBuildWithRetryPolicy() {
+    OPConnectClient client = OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withRetryPolicy(RetryPolicy.builder().withMaximumAttempts(5).build())
+        .build();
+
+    client.close();
+  }
+
+  @Test
+  void shouldBuildWithCircuitBreaker() {
+    OPConnectClient client = OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withCache(CacheConfig.builder().build())
+        .withCircuitBreaker(CircuitBreakerConfig.builder().withServeFromCacheWhenOpen(true).build())
+        .build();
+
+    client.close();
+  }
+
+  @Test
+  void shouldBuildWithHedging() {
+    OPConnectClient client = OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withHedging(HedgingPolicy.builder().withPercentile(0.99).build())
+        .withRetryPolicy(RetryPolicy.builder().build())
+        .build();
+
+    client.close();
+  }
+
+  @Test
+  void shouldBuildWithConnectionPool() {
+    OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withConnectionPool(ConnectionPoolConfig.builder()
+            .withMaximumIdleConnections(10)
+            .withKeepAliveDurationInMilliseconds(30000)
+            .withWarmConnections(8)
+            .withKeepWarm(true)
+            .build())
+        .build()
+        .close();
+  }
+
+  @Test
+  void dispatcherShouldAllowEveryWarmConnection() {
+    Dispatcher dispatcher = OPConnectClientBuilder.builder()
+        .withConcurrencyLimit(ConcurrencyLimitConfig.builder()
+            .withInitialLimit(2)
+            .withMaximumLimit(4)
+            .build())
+        .withConnectionPool(ConnectionPoolConfig.builder()
+            .withMaximumIdleConnections(10)
+            .withWarmConnections(8)
+            .build())
+        .buildDispatcher();
+
+    assertEquals(8, dispatcher.getMaxRequests());
+    assertEquals(8, dispatcher.getMaxRequestsPerHost());
+  }
+
+  @Test
+  void shouldResolveHostsWithTheDnsResolver() {
+    try (StubServer server = new StubServer()) {
+      List<String> lookups = new ArrayList<>();
+      String port = server.endpoint().substring(server.endpoint().lastIndexOf(':'));
+
+      OPConnectClient client = OPConnectClientBuilder.builder()
+          .withEndpoint("http://connect.internal" + port)
+          .withAccessToken("token")
+          .withDns(DnsConfig.builder()
+              .withResolver(hostname -> {
+                lookups.add(hostname);
+                return Collections.singletonList(InetAddress.getLoopbackAddress());
+              })
+              .withCacheTtlInMilliseconds(60000)
+              .build())
+          .build();
+
+      server.respond(200, "{\"id\":\"item\",\"title\":\"Database\"}");
+      Item item = client.getItem("vault", "item").join();
+      client.close();
+
+      assertEquals("Database", item.getTitle());
+      assertEquals(Collections.singletonList("connect.internal"), lookups);
+    }
+  }
+
+  @Test
+  void shouldBuildWithTlsSessions() {
+    OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withTlsSessions(TlsSessionConfig.builder()
+            .withSessionCacheSize(10)
+            .withSessionTimeoutInMilliseconds(3600000)
+            .build())
+        .build()
+        .close();
+  }
+
+  @Test
+  void shouldConfigureTheTlsSessionCache() {
+    SSLSessionContext sessions = TlsSessions.create(TlsSessionConfig.builder()
+        .withSessionCacheSize(10)
+        .withSessionTimeoutInMilliseconds(1500)
+        .build()).context().getClientSessionContext();
+
+    assertEquals(10, sessions.getSessionCacheSize());
+    assertEquals(2, sessions.getSessionTimeout());
+  }
+
+  @Test
+  void shouldBuildWithEndpoints() {
+    OPConnectClient client = OPConnectClientBuilder.builder()
+        .withEndpoints(Arrays.asList("https://first", "https://second/connect"))
+        .withAccessToken("token")
+        .withLoadBalancer(LoadBalancerConfig.builder()
+            .withStrategy(LoadBalancingStrategy.LEAST_OUTSTANDING_REQUESTS)
+            .withHealthCheckIntervalInMilliseconds(1000)
+            .build())
+        .build();
+
+    client.close();
+  }
+
+  @Test
+  void shouldRequireAtLeastOneEndpoint() {
+    assertThrows(IllegalArgumentException.class,
+        () -> OPConnectClientBuilder.builder().withEndpoints(Collections.emptyList()));
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_16)
+  void shouldConnectOverUnixDomainSocket(@TempDir Path directory) {
+    Path socket = directory.resolve("connect.sock");
+
+    try (StubServer server = new StubServer();
+         UnixSocketRelay relay = new UnixSocketRelay(socket, server)) {
+      OPConnectClient client = OPConnectClientBuilder.builder()
+          .withEndpoint("unix://" + socket)
+          .withAccessToken("token")
+          .build();
+
+      server.respond(200, "{\"id\":\"item\",\"title\":\"Database\"}");
+      Item first = client.getItem("vault", "item").join();
+      Item second = client.getItem("vault", "item").join();
+      client.close();
+
+      assertEquals("Database", first.getTitle());
+      assertEquals("Database", second.getTitle());
+      assertEquals(2, server.requests().size());
+      assertTrue(relay.connections() > 0);
+      assertEquals("/v1/vaults/vault/items/item", server.requests().get(0).path);
+      assertEquals("Bearer token", server.requests().get(0).authorization);
+    }
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_16)
+  void closingUnixDomainSocketShouldFailABlockedRead(@TempDir Path directory) throws Exception {
+    Path socket = directory.resolve("connect.sock");
+
+    try (StubServer server = new StubServer();
+         UnixSocketRelay relay = new UnixSocketRelay(socket, server)) {
+      Socket connection = new UnixDomainSocketFactory(socket).createSocket("localhost", 80);
+      InputStream in = connection.getInputStream();
+      CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() -> {
+        try {
+          return in.read();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+
+      // Nothing is sent, so the read blocks until the socket is closed
+      Thread.sleep(200L);
+      connection.close();
+
+      ExecutionException e = assertThrows(ExecutionException.class,
+          () -> read.get(5, TimeUnit.SECONDS));
+
+      assertInstanceOf(UncheckedIOException.class, e.getCause());
+      assertInstanceOf(SocketException.class, e.getCause().getCause());
+      assertEquals(1, relay.connections());
+    }
+  }
+
+  @Test
+  void shouldParseUnixSocketPath() {
+    assertEquals(Paths.get("/var/run/connect.sock"),
+        OPConnectClientBuilder.parseSocketPath("unix:///var/run/connect.sock"));
+  }
+
+  @Test
+  void shouldRejectRelativeUnixSocketPath() {
+    assertThrows(IllegalArgumentException.class,
+        () -> OPConnectClientBuilder.builder().withEndpoint("unix://run/connect.sock"));
+  }
+
+  @Test
+  void shouldRejectUnixSocketWithCustomTransport() {
+    OPConnectClientBuilder builder = OPConnectClientBuilder.builder()
+        .withEndpoint("unix:///var/run/connect.sock")
+        .withAccessToken("token")
+        .withTransport(mock(HttpTransport.class));
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  void shouldRejectUnixSocketInEndpoints() {
+    assertThrows(IllegalArgumentException.class, () -> OPConnectClientBuilder.builder()
+        .withEndpoints(Arrays.asList("https://first", "unix:///var/run/connect.sock")));
+  }
+
+  @Test
+  void shouldWriteSnapshotOnClose(@TempDir Path directory) {
+    Path snapshot = directory.resolve("snapshot");
+
+    OPConnectClientBuilder.builder()
+        .withEndpoint("https://endpoint")
+        .withAccessToken("token")
+        .withSnapshot(snapshot, new SecretKeySpec(new byte[16], "AES"))
+        .build()
+        .close();
+
+    assertTrue(Files.exists(snapshot));
+  }
+
+  @Test
+  void withSnapshotShouldRequireAesKey(@TempDir Path directory) {
+    assertThrows(IllegalArgumentException.class, () -> OPConnectClientBuilder.builder()
+        .withSnapshot(directory.resolve("snapshot"), new SecretKeySpec(new byte[16], "DES")));
+  }
+
   @Test
   void testEnsureTrailingSlashExistsNoChange() {
     String url = "https://www.sanctionco.com/";
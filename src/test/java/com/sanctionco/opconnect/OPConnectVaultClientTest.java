@@ -4,6 +4,10 @@ import com.sanctionco.opconnect.model.Filter;
 import com.sanctionco.opconnect.model.Item;
 import com.sanctionco.opconnect.model.Patch;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 
 import org.junit.jupiter.api.Test;
@@ -20,6 +24,8 @@ class OPConnectVaultClientTest {
     final OPConnectClient client = mock(OPConnectClient.class);
     final Item item = Item.builder().build();
     final Patch patch = Patch.builder().build();
+    final OutputStream out = new ByteArrayOutputStream();
+    final Path path = Paths.get("file");
 
     OPConnectVaultClient vaultClient = new OPConnectVaultClient(client, "testId");
 
@@ -35,9 +41,21 @@ class OPConnectVaultClientTest {
     vaultClient.listItems(Filter.title().present());
     verify(client).listItems(eq("testId"), eq("title pr"));
 
+    vaultClient.streamItems();
+    verify(client).streamItems(eq("testId"));
+
+    vaultClient.streamItems("filter");
+    verify(client).streamItems(eq("testId"), eq("filter"));
+
+    vaultClient.streamItems(Filter.title().present());
+    verify(client).streamItems(eq("testId"), eq("title pr"));
+
     vaultClient.getItem("testItemId");
     verify(client).getItem(eq("testId"), eq("testItemId"));
 
+    vaultClient.getItemByTitle("title");
+    verify(client).getItemByTitle(eq("testId"), eq("title"));
+
     vaultClient.createItem(item);
     verify(client).createItem(eq("testId"), same(item));
 
@@ -68,5 +86,17 @@ class OPConnectVaultClientTest {
 
     vaultClient.getFileContent("itemId", "fileId");
     verify(client).getFileContent(eq("testId"), eq("itemId"), eq("fileId"));
+
+    vaultClient.getFileContentBytes("itemId", "fileId");
+    verify(client).getFileContentBytes(eq("testId"), eq("itemId"), eq("fileId"));
+
+    vaultClient.getFileContentStream("itemId", "fileId");
+    verify(client).getFileContentStream(eq("testId"), eq("itemId"), eq("fileId"));
+
+    vaultClient.writeFileContent("itemId", "fileId", out);
+    verify(client).writeFileContent(eq("testId"), eq("itemId"), eq("fileId"), same(out));
+
+    vaultClient.writeFileContent("itemId", "fileId", path);
+    verify(client).writeFileContent(eq("testId"), eq("itemId"), eq("fileId"), same(path));
   }
 }
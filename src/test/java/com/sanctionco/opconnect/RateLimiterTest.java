@@ -0,0 +1,168 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RateLimiterTest {
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final ScheduledFuture<?> timer = mock(ScheduledFuture.class);
+  private final AtomicLong time = new AtomicLong();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  RateLimiterTest() {
+    doReturn(timer).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  void shouldSendBurstAndDelayTheRest() {
+    RateLimiter limiter = limiter(RateLimitConfig.builder().withRate(10, 3));
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals("value", limiter.execute(false, this::call).join());
+    }
+
+    CompletableFuture<String> waiting = limiter.execute(false, this::call);
+
+    assertFalse(waiting.isDone());
+    assertEquals(3, calls.get());
+    assertEquals(1, limiter.getQueueSize());
+    verify(scheduler).schedule(any(Runnable.class),
+        eq(TimeUnit.MILLISECONDS.toNanos(100)), eq(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  void waitingCallShouldStartWhenItsTokenIsAvailable() {
+    RateLimiter limiter = limiter(RateLimitConfig.builder().withRate(10, 1));
+
+    limiter.execute(false, this::call).join();
+    CompletableFuture<String> waiting = limiter.execute(false, this::call);
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    scheduled(1).run();
+
+    assertEquals("value", waiting.join());
+    assertEquals(2, calls.get());
+    assertEquals(0, limiter.getQueueSize());
+  }
+
+  @Test
+  void tokensShouldRefillOverTime() {
+    RateLimiter limiter = limiter(RateLimitConfig.builder().withRate(10, 2));
+
+    limiter.execute(false, this::call).join();
+    limiter.execute(false, this::call).join();
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+    limiter.execute(false, this::call).join();
+    limiter.execute(false, this::call).join();
+
+    assertEquals(4, calls.get());
+    verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  void shouldRejectCallThatWouldWaitPastTheDeadline() {
+    RateLimiter limiter = limiter(RateLimitConfig.builder()
+        .withRate(1, 1)
+        .withMaximumQueueWaitInMilliseconds(1500));
+
+    limiter.execute(false, this::call).join();
+    limiter.execute(false, this::call);
+    CompletableFuture<String> rejected = limiter.execute(false, this::call);
+
+    CompletionException e = assertThrows(CompletionException.class, rejected::join);
+    assertTrue(e.getCause() instanceof RejectedExecutionException);
+    assertEquals(1, limiter.getQueueSize());
+  }
+
+  @Test
+  void shouldRejectCallWhenQueueIsFull() {
+    RateLimiter limiter = limiter(RateLimitConfig.builder()
+        .withRate(100, 1)
+        .withMaximumQueueSize(1));
+
+    limiter.execute(false, this::call).join();
+    limiter.execute(false, this::call);
+    CompletableFuture<String> rejected = limiter.execute(false, this::call);
+
+    CompletionException e = assertThrows(CompletionException.class, rejected::join);
+    assertTrue(e.getCause() instanceof RejectedExecutionException);
+  }
+
+  @Test
+  void writeLimitShouldNotDelayReads() {
+    RateLimiter limiter = limiter(RateLimitConfig.builder()
+        .withRate(100, 100)
+        .withWriteRate(1, 1));
+
+    limiter.execute(true, this::call).join();
+    CompletableFuture<String> write = limiter.execute(true, this::call);
+    CompletableFuture<String> read = limiter.execute(false, this::call);
+
+    assertFalse(write.isDone());
+    assertEquals("value", read.join());
+    verify(scheduler).schedule(any(Runnable.class),
+        eq(TimeUnit.SECONDS.toNanos(1)), eq(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  void cancellingWaitingCallShouldReturnItsToken() {
+    RateLimiter limiter = limiter(RateLimitConfig.builder()
+        .withRate(1, 1)
+        .withMaximumQueueWaitInMilliseconds(1500));
+
+    limiter.execute(false, this::call).join();
+    limiter.execute(false, this::call).cancel(true);
+
+    verify(timer).cancel(false);
+    assertEquals(0, limiter.getQueueSize());
+
+    // Without the returned token this call would have to wait two seconds
+    CompletableFuture<String> waiting = limiter.execute(false, this::call);
+    scheduled(2).run();
+
+    assertEquals("value", waiting.join());
+    assertEquals(2, calls.get());
+  }
+
+  private RateLimiter limiter(RateLimitConfig.Builder config) {
+    return new RateLimiter(config.build(), scheduler, time::get);
+  }
+
+  /**
+   * Get the call start that was scheduled most recently.
+   */
+  private Runnable scheduled(int count) {
+    ArgumentCaptor<Runnable> start = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler, times(count))
+        .schedule(start.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+
+    return start.getValue();
+  }
+
+  private CompletableFuture<String> call() {
+    calls.incrementAndGet();
+
+    return CompletableFuture.completedFuture("value");
+  }
+}
@@ -0,0 +1,137 @@
+package com.sanctionco.opconnect;
+
+import okio.Okio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sanctionco.opconnect.model.Item;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import okhttp3.ResponseBody;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseStreamsTest {
+  private final ResponseStreams streams = new ResponseStreams(new ObjectMapper());
+
+  @Test
+  void shouldStreamTheElementsOfTheArray() {
+    TrackingStream body = new TrackingStream(
+        "[{\"id\":\"1\",\"title\":\"First\"},{\"id\":\"2\",\"title\":\"Second\"}]");
+
+    List<String> titles = streams.stream(body(body), Item.class)
+        .map(Item::getTitle)
+        .collect(Collectors.toList());
+
+    assertEquals(Arrays.asList("First", "Second"), titles);
+    assertTrue(body.closed);
+  }
+
+  @Test
+  void shouldStreamAnEmptyArray() {
+    TrackingStream body = new TrackingStream("[]");
+
+    assertEquals(0, streams.stream(body(body), Item.class).count());
+    assertTrue(body.closed);
+  }
+
+  @Test
+  void shouldNotReadTheBodyUntilTheStreamIsConsumed() {
+    TrackingStream body = new TrackingStream("[{\"id\":\"1\"}]");
+
+    streams.stream(body(body), Item.class);
+
+    assertFalse(body.read);
+  }
+
+  @Test
+  void shouldParseElementsAsTheyAreConsumed() {
+    InputStream body = new SequenceInputStream(
+        new ByteArrayInputStream(
+            "[{\"id\":\"1\",\"title\":\"First\"},".getBytes(StandardCharsets.UTF_8)),
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("The rest of the response has not arrived");
+          }
+        });
+
+    try (Stream<Item> items = streams.stream(body(body), Item.class)) {
+      assertEquals("First", items.findFirst().map(Item::getTitle).orElse(null));
+    }
+  }
+
+  @Test
+  void shouldCloseTheBodyWhenTheStreamIsClosedEarly() {
+    TrackingStream body = new TrackingStream("[{\"id\":\"1\"},{\"id\":\"2\"}]");
+
+    try (Stream<Item> items = streams.stream(body(body), Item.class)) {
+      assertEquals("1", items.findFirst().map(Item::getId).orElse(null));
+    }
+
+    assertTrue(body.closed);
+  }
+
+  @Test
+  void shouldCloseTheBodyWhenParsingFails() {
+    TrackingStream body = new TrackingStream("[{\"id\":\"1\"},{\"id\":");
+
+    Stream<Item> items = streams.stream(body(body), Item.class);
+
+    assertThrows(RuntimeException.class, () -> items.collect(Collectors.toList()));
+    assertTrue(body.closed);
+  }
+
+  @Test
+  void shouldWrapReadFailures() {
+    InputStream body = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Connection reset");
+      }
+    };
+
+    Stream<Item> items = streams.stream(body(body), Item.class);
+
+    assertThrows(UncheckedIOException.class, items::count);
+  }
+
+  private static ResponseBody body(InputStream stream) {
+    return ResponseBody.create(Okio.buffer(Okio.source(stream)), null, -1L);
+  }
+
+  private static final class TrackingStream extends ByteArrayInputStream {
+    private boolean read;
+    private boolean closed;
+
+    TrackingStream(String content) {
+      super(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      read = true;
+      return super.read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetrierTest {
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final List<RequestAttempt> attempts = new CopyOnWriteArrayList<>();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void shouldRetryTransientFailures() {
+    Retrier retrier = retrier(policy(), 0);
+
+    CompletableFuture<String> result = retrier.execute("getItem", true,
+        () -> respond(failure(503), failure(429), "value"));
+
+    assertEquals("value", result.join());
+    assertEquals(3, calls.get());
+    assertEquals(3, attempts.size());
+    assertTrue(attempts.get(0).willRetry());
+    assertEquals("getItem", attempts.get(2).getOperation());
+    assertEquals(3, attempts.get(2).getAttempt());
+    assertTrue(attempts.get(2).isSuccessful());
+  }
+
+  @Test
+  void shouldRetryConnectionErrors() {
+    Retrier retrier = retrier(policy(), 0);
+
+    CompletableFuture<String> result = retrier.execute("getItem", true,
+        () -> respond(new IOException("Connection reset"), "value"));
+
+    assertEquals("value", result.join());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void shouldStopAfterMaximumAttempts() {
+    Retrier retrier = retrier(policy().withMaximumAttempts(2), 0);
+    HttpException error = failure(500);
+
+    CompletableFuture<String> result = retrier.execute("getItem", true,
+        () -> respond(error, error, "value"));
+
+    CompletionException e = assertThrows(CompletionException.class, result::join);
+    assertSame(error, e.getCause());
+    assertEquals(2, calls.get());
+    assertFalse(attempts.get(1).willRetry());
+  }
+
+  @Test
+  void shouldNotRetryClientErrors() {
+    Retrier retrier = retrier(policy(), 0);
+
+    CompletableFuture<String> result = retrier.execute("getItem", true,
+        () -> respond(failure(404), "value"));
+
+    assertThrows(CompletionException.class, result::join);
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void shouldNotRetryNonIdempotentRequestsByDefault() {
+    Retrier retrier = retrier(policy(), 0);
+
+    CompletableFuture<String> result = retrier.execute("createItem", false,
+        () -> respond(failure(503), "value"));
+
+    assertThrows(CompletionException.class, result::join);
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void shouldRetryNonIdempotentRequestsWhenEnabled() {
+    Retrier retrier = retrier(policy().withRetryNonIdempotentRequests(true), 0);
+
+    CompletableFuture<String> result = retrier.execute("createItem", false,
+        () -> respond(failure(503), "value"));
+
+    assertEquals("value", result.join());
+  }
+
+  @Test
+  void shouldStopRetryingWhenBudgetIsExhausted() {
+    Retrier retrier = retrier(policy().withRetryBudget(1, 0), 0);
+
+    CompletableFuture<String> first = retrier.execute("getItem", true,
+        () -> respond(failure(503), "value"));
+    assertEquals("value", first.join());
+
+    calls.set(0);
+    CompletableFuture<String> second = retrier.execute("getItem", true,
+        () -> respond(failure(503), "value"));
+
+    assertThrows(CompletionException.class, second::join);
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void retriesShouldBeLimitedToTheBudget() {
+    Retrier retrier = retrier(policy().withRetryBudget(10, 0.5), 0);
+    int total = 0;
+
+    for (int i = 0; i < 30; i++) {
+      calls.set(0);
+      retrier.execute("getItem", true, () -> respond(failure(503), "value"))
+          .handle((result, throwable) -> result)
+          .join();
+      total += calls.get();
+    }
+
+    // 30 requests, plus at most the 10 tokens that the budget starts with and half a token each
+    assertTrue(total > 30 + 10 && total <= 30 + 10 + 15, "made " + total + " calls");
+    assertTrue(retrier.getRetryBudget() < 1);
+  }
+
+  @Test
+  void backoffShouldGrowExponentiallyUpToTheMaximum() {
+    Retrier retrier = retrier(policy()
+        .withInitialBackoffInMilliseconds(100)
+        .withMaximumBackoffInMilliseconds(300), 1);
+
+    assertEquals(100, retrier.backoff(1, failure(503)));
+    assertEquals(200, retrier.backoff(2, failure(503)));
+    assertEquals(300, retrier.backoff(3, failure(503)));
+  }
+
+  @Test
+  void backoffShouldBeJittered() {
+    Retrier retrier = retrier(policy().withInitialBackoffInMilliseconds(100), 0.25);
+
+    assertEquals(25, retrier.backoff(1, new IOException()));
+  }
+
+  @Test
+  void backoffShouldHonorRetryAfter() {
+    Retrier retrier = new Retrier(policy().build(), scheduler, System::nanoTime,
+        () -> 784111777000L, () -> 0);
+
+    assertEquals(2000, retrier.backoff(1, failure(429, "2")));
+    assertEquals(3000, retrier.backoff(1, failure(503, "Sun, 06 Nov 1994 08:49:40 GMT")));
+    assertEquals(-1, retrier.backoff(1, failure(503, "60")));
+  }
+
+  @Test
+  void cancellingShouldStopRetries() {
+    Retrier retrier = retrier(policy().withInitialBackoffInMilliseconds(60000), 1);
+    List<CompletableFuture<String>> responses = new ArrayList<>();
+
+    CompletableFuture<String> result = retrier.execute("getItem", true, () -> {
+      CompletableFuture<String> response = new CompletableFuture<>();
+      responses.add(response);
+      return response;
+    });
+
+    responses.get(0).completeExceptionally(failure(503));
+    result.cancel(true);
+
+    assertTrue(result.isCancelled());
+    assertEquals(1, responses.size());
+  }
+
+  @Test
+  void cancellingShouldCancelTheCurrentAttempt() {
+    Retrier retrier = retrier(policy(), 0);
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    retrier.execute("getItem", true, () -> response).cancel(true);
+
+    assertTrue(response.isCancelled());
+  }
+
+  private Retrier retrier(RetryPolicy.Builder policy, double random) {
+    return new Retrier(policy.withAttemptListener(attempts::add).build(), scheduler,
+        System::nanoTime, System::currentTimeMillis, () -> random);
+  }
+
+  private static RetryPolicy.Builder policy() {
+    return RetryPolicy.builder().withRetryBudget(100, 1);
+  }
+
+  /**
+   * Complete each call with the next outcome, failing with the outcomes that are exceptions.
+   */
+  private CompletableFuture<String> respond(Object... outcomes) {
+    Object outcome = outcomes[Math.min(calls.getAndIncrement(), outcomes.length - 1)];
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    if (outcome instanceof Throwable) {
+      response.completeExceptionally((Throwable) outcome);
+    } else {
+      response.complete((String) outcome);
+    }
+
+    return response;
+  }
+
+  private static HttpException failure(int code) {
+    return failure(code, null);
+  }
+
+  private static HttpException failure(int code, String retryAfter) {
+    Headers headers = retryAfter == null
+        ? Headers.of()
+        : Headers.of("Retry-After", retryAfter);
+
+    return new HttpException(Response.error(
+        ResponseBody.create("", MediaType.get("application/json")),
+        new okhttp3.Response.Builder()
+            .code(code)
+            .message("Error")
+            .protocol(Protocol.HTTP_1_1)
+            .headers(headers)
+            .request(new Request.Builder().url("http://localhost/").build())
+            .build()));
+  }
+}
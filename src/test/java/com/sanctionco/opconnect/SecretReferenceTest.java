@@ -0,0 +1,45 @@
+package com.sanctionco.opconnect;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SecretReferenceTest {
+
+  @Test
+  void shouldParseReferenceWithoutSection() {
+    SecretReference reference = SecretReference.parse("op://Production/Database/password");
+
+    assertAll("The reference segments are correct",
+        () -> assertEquals("Production", reference.getVault()),
+        () -> assertEquals("Database", reference.getItem()),
+        () -> assertNull(reference.getSection()),
+        () -> assertEquals("password", reference.getField()),
+        () -> assertEquals("op://Production/Database/password", reference.toString()));
+  }
+
+  @Test
+  void shouldParseReferenceWithSection() {
+    SecretReference reference = SecretReference.parse("op://Production/Database/admin/password");
+
+    assertAll("The reference segments are correct",
+        () -> assertEquals("admin", reference.getSection()),
+        () -> assertEquals("password", reference.getField()),
+        () -> assertEquals("op://Production/Database/admin/password", reference.toString()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Production/Database/password",
+      "op://Production/Database",
+      "op://Production/Database/a/b/c",
+      "op://Production//password"})
+  void shouldRejectInvalidReferences(String reference) {
+    assertThrows(IllegalArgumentException.class, () -> SecretReference.parse(reference));
+  }
+}
@@ -0,0 +1,100 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Field;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Section;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SecretResolverTest {
+  private static final String VAULT_ID = "5ve5wfpdu2kxxhj2jdozmes5re";
+  private static final String ITEM_ID = "piy7k3izsuzafhypw6iddpwhqe";
+  private static final Vault VAULT = Vault.builder().withId(VAULT_ID).withName("Prod").build();
+  private static final Item SUMMARY = Item.builder().withId(ITEM_ID).withTitle("Database").build();
+  private static final Item ITEM = Item.builder()
+      .withId(ITEM_ID)
+      .withTitle("Database")
+      .withSection(new Section("admin", "Admin"))
+      .withField(Field.username("user").withId("username").withLabel("username").build())
+      .withField(Field.password("secret").withId("password").withLabel("password").build())
+      .withField(Field.password("root").withId("root").withLabel("password")
+          .withSection(new Section("admin", null)).build())
+      .build();
+
+  private final RetrofitOPConnectClient client = mock(RetrofitOPConnectClient.class);
+  private final SecretResolver resolver = new SecretResolver(client,
+      new NameIndex(client, 60000L, 100L));
+
+  @Test
+  void shouldResolveBatchWithFewRequests() {
+    when(client.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(VAULT)));
+    when(client.listItems(VAULT_ID))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(SUMMARY)));
+    when(client.getItem(VAULT_ID, ITEM_ID)).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    Map<String, String> values = resolver.resolveAll(Arrays.asList(
+        "op://Prod/Database/username",
+        "op://Prod/Database/password",
+        "op://Prod/Database/Admin/password",
+        "op://" + VAULT_ID + "/" + ITEM_ID + "/password")).join();
+
+    assertEquals("user", values.get("op://Prod/Database/username"));
+    assertEquals("secret", values.get("op://Prod/Database/password"));
+    assertEquals("root", values.get("op://Prod/Database/Admin/password"));
+    assertEquals("secret", values.get("op://" + VAULT_ID + "/" + ITEM_ID + "/password"));
+
+    verify(client, times(1)).listVaults();
+    verify(client, times(1)).listItems(VAULT_ID);
+    verify(client, times(1)).getItem(VAULT_ID, ITEM_ID);
+  }
+
+  @Test
+  void shouldCacheNameMappings() {
+    when(client.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(VAULT)));
+    when(client.listItems(VAULT_ID))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(SUMMARY)));
+    when(client.getItem(VAULT_ID, ITEM_ID)).thenReturn(CompletableFuture.completedFuture(ITEM));
+
+    resolver.resolveAll(Collections.singletonList("op://Prod/Database/username")).join();
+    resolver.resolveAll(Collections.singletonList("op://Prod/Database/password")).join();
+
+    verify(client, times(1)).listVaults();
+    verify(client, times(1)).listItems(VAULT_ID);
+    verify(client, times(2)).getItem(VAULT_ID, ITEM_ID);
+  }
+
+  @Test
+  void shouldFailForUnknownVault() {
+    when(client.listVaults())
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(VAULT)));
+
+    CompletionException e = assertThrows(CompletionException.class, () -> resolver
+        .resolveAll(Collections.singletonList("op://Missing/Database/username")).join());
+
+    assertTrue(e.getCause() instanceof NoSuchElementException);
+  }
+
+  @Test
+  void shouldFailForUnknownField() {
+    assertThrows(NoSuchElementException.class, () -> SecretResolver.extract(
+        SecretReference.parse("op://Prod/Database/missing"), ITEM));
+  }
+}
@@ -0,0 +1,103 @@
+package com.sanctionco.opconnect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+  private final SingleFlight<String> singleFlight = new SingleFlight<>();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  void shouldShareInFlightCall() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.execute("key", () -> call(response));
+    final CompletableFuture<String> second = singleFlight.execute("key", () -> call(response));
+
+    assertEquals(1, calls.get());
+    assertFalse(first.isDone());
+
+    response.complete("value");
+
+    assertEquals("value", first.join());
+    assertEquals("value", second.join());
+    assertEquals(0, singleFlight.size());
+  }
+
+  @Test
+  void shouldStartNewCallAfterCompletion() {
+    singleFlight.execute("key", () -> call(CompletableFuture.completedFuture("value"))).join();
+    singleFlight.execute("key", () -> call(CompletableFuture.completedFuture("value"))).join();
+
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void cancellingOneCallerShouldNotAffectOthers() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.execute("key", () -> call(response));
+    final CompletableFuture<String> second = singleFlight.execute("key", () -> call(response));
+
+    first.cancel(true);
+    response.complete("value");
+
+    assertTrue(first.isCancelled());
+    assertEquals("value", second.join());
+  }
+
+  @Test
+  void cancellingEveryCallerShouldCancelTheCall() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.execute("key", () -> call(response));
+    final CompletableFuture<String> second = singleFlight.execute("key", () -> call(response));
+
+    first.cancel(true);
+
+    assertFalse(response.isCancelled());
+
+    second.cancel(true);
+
+    assertTrue(response.isCancelled());
+    assertEquals(0, singleFlight.size());
+  }
+
+  @Test
+  void shouldStartNewCallAfterEveryCallerCancelled() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    singleFlight.execute("key", () -> call(response)).cancel(true);
+    CompletableFuture<String> next = singleFlight.execute("key",
+        () -> call(CompletableFuture.completedFuture("value")));
+
+    assertEquals("value", next.join());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void shouldShareFailures() {
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.execute("key", () -> call(response));
+    final CompletableFuture<String> second = singleFlight.execute("key", () -> call(response));
+
+    response.completeExceptionally(new IllegalStateException());
+
+    assertTrue(first.isCompletedExceptionally());
+    assertTrue(second.isCompletedExceptionally());
+    assertEquals(1, calls.get());
+  }
+
+  private CompletableFuture<String> call(CompletableFuture<String> response) {
+    calls.incrementAndGet();
+
+    return response;
+  }
+}
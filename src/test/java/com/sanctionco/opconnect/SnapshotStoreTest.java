@@ -0,0 +1,93 @@
+package com.sanctionco.opconnect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sanctionco.opconnect.model.Field;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Vault;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotStoreTest {
+  private static final SecretKeySpec KEY = new SecretKeySpec(new byte[32], "AES");
+  private static final ObjectMapper MAPPER = new ObjectMapper()
+      .registerModule(new JavaTimeModule());
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void shouldRoundTripSnapshot() {
+    Vault vault = Vault.builder().withId("vault").withContentVersion(3).build();
+    Item item = Item.login()
+        .withId("item")
+        .withVaultId("vault")
+        .withVersion(2)
+        .withCreatedAt(Instant.ofEpochSecond(1000L))
+        .withField(Field.username("user").build())
+        .build();
+    SnapshotStore store = new SnapshotStore(directory.resolve("snapshot"), KEY, MAPPER);
+
+    store.save(new Snapshot(Collections.singletonList(vault), Collections.singletonList(item)));
+    Optional<Snapshot> loaded = store.load();
+
+    assertTrue(loaded.isPresent());
+    Vault loadedVault = loaded.get().getVaults().get(0);
+    Item loadedItem = loaded.get().getItems().get(0);
+
+    assertAll("The snapshot contents are as expected",
+        () -> assertEquals(3, loadedVault.getContentVersion()),
+        () -> assertEquals(3, loaded.get().getContentVersions().get("vault")),
+        () -> assertEquals("item", loadedItem.getId()),
+        () -> assertEquals("vault", loadedItem.getVaultId().getId()),
+        () -> assertEquals(2, loadedItem.getVersion()),
+        () -> assertEquals(Instant.ofEpochSecond(1000L), loadedItem.getCreatedAt()),
+        () -> assertEquals("user", loadedItem.getFields().get(0).getValue()));
+  }
+
+  @Test
+  void shouldIgnoreMissingSnapshot() {
+    SnapshotStore store = new SnapshotStore(directory.resolve("missing"), KEY, MAPPER);
+
+    assertFalse(store.load().isPresent());
+  }
+
+  @Test
+  void shouldIgnoreSnapshotWithDifferentKey() {
+    Path path = directory.resolve("snapshot");
+    SecretKeySpec otherKey = new SecretKeySpec(new byte[16], "AES");
+
+    new SnapshotStore(path, KEY, MAPPER)
+        .save(new Snapshot(Collections.emptyList(), Collections.emptyList()));
+
+    assertFalse(new SnapshotStore(path, otherKey, MAPPER).load().isPresent());
+  }
+
+  @Test
+  void shouldIgnoreTamperedSnapshot() throws IOException {
+    Path path = directory.resolve("snapshot");
+    SnapshotStore store = new SnapshotStore(path, KEY, MAPPER);
+    store.save(new Snapshot(Collections.emptyList(), Collections.emptyList()));
+
+    byte[] contents = Files.readAllBytes(path);
+    contents[contents.length - 1] ^= 1;
+    Files.write(path, contents);
+
+    assertFalse(store.load().isPresent());
+  }
+}
@@ -0,0 +1,192 @@
+package com.sanctionco.opconnect;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local HTTP server for tests that answers every request with a fixed response and records
+ * the requests that it received.
+ */
+final class StubServer implements AutoCloseable {
+  static {
+    // Without this the server's small writes wait for delayed acknowledgements
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final HttpServer server;
+  private final List<Recorded> requests = new CopyOnWriteArrayList<>();
+  private volatile int code = 200;
+  private volatile byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+  private volatile String encoding = null;
+  private volatile boolean rejectCompressedRequests = false;
+  private volatile long delayInMilliseconds = 0;
+  private volatile long bodyDelayInMilliseconds = 0;
+
+  StubServer() {
+    try {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  StubServer respond(int code, String body) {
+    return respond(code, body.getBytes(StandardCharsets.UTF_8));
+  }
+
+  StubServer respond(int code, byte[] body) {
+    this.code = code;
+    this.body = body;
+    return this;
+  }
+
+  /**
+   * Compress response bodies with the given encoding, {@code gzip} or {@code deflate}.
+   */
+  StubServer compressResponses(String encoding) {
+    this.encoding = encoding;
+    return this;
+  }
+
+  /**
+   * Answer requests with a compressed body with {@code 415 Unsupported Media Type}.
+   */
+  StubServer rejectCompressedRequests() {
+    this.rejectCompressedRequests = true;
+    return this;
+  }
+
+  /**
+   * Wait before answering each request.
+   */
+  StubServer delayResponses(long delayInMilliseconds) {
+    this.delayInMilliseconds = delayInMilliseconds;
+    return this;
+  }
+
+  /**
+   * Wait between sending the headers and the body of each response.
+   */
+  StubServer delayBodies(long delayInMilliseconds) {
+    this.bodyDelayInMilliseconds = delayInMilliseconds;
+    return this;
+  }
+
+  String endpoint() {
+    return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+  }
+
+  List<Recorded> requests() {
+    return requests;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+
+    try (InputStream in = "gzip".equals(contentEncoding)
+        ? new GZIPInputStream(exchange.getRequestBody())
+        : exchange.getRequestBody()) {
+      requests.add(new Recorded(exchange.getRequestMethod(),
+          exchange.getRequestURI().toString(),
+          exchange.getRequestHeaders().getFirst("Authorization"),
+          new String(in.readAllBytes(), StandardCharsets.UTF_8),
+          exchange.getRequestHeaders().getFirst("Accept-Encoding"),
+          contentEncoding));
+    }
+
+    sleep(delayInMilliseconds);
+
+    if (contentEncoding != null && rejectCompressedRequests) {
+      exchange.sendResponseHeaders(415, -1);
+      exchange.close();
+      return;
+    }
+
+    byte[] response = encode(body);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+
+    if (encoding != null) {
+      exchange.getResponseHeaders().add("Content-Encoding", encoding);
+    }
+
+    exchange.sendResponseHeaders(code, response.length);
+    sleep(bodyDelayInMilliseconds);
+
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(response);
+    }
+  }
+
+  private static void sleep(long delayInMilliseconds) {
+    if (delayInMilliseconds > 0) {
+      try {
+        Thread.sleep(delayInMilliseconds);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private byte[] encode(byte[] response) throws IOException {
+    if (encoding == null) {
+      return response;
+    }
+
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+    try (OutputStream out = "gzip".equals(encoding)
+        ? new GZIPOutputStream(encoded)
+        : new DeflaterOutputStream(encoded)) {
+      out.write(response);
+    }
+
+    return encoded.toByteArray();
+  }
+
+  static final class Recorded {
+    final String method;
+    final String path;
+    final String authorization;
+    final String body;
+    final String acceptEncoding;
+    final String contentEncoding;
+
+    Recorded(String method,
+             String path,
+             String authorization,
+             String body,
+             String acceptEncoding,
+             String contentEncoding) {
+      this.method = method;
+      this.path = path;
+      this.authorization = authorization;
+      this.body = body;
+      this.acceptEncoding = acceptEncoding;
+      this.contentEncoding = contentEncoding;
+    }
+  }
+}
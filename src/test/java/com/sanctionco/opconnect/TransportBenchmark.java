@@ -0,0 +1,100 @@
+package com.sanctionco.opconnect;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Compares the throughput and latency of the default OkHttp transport and the JDK
+ * {@code HttpClient} transport against a local server. Disabled by default; run it with
+ * {@code mvn test -Dtest=TransportBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransportBenchmark {
+  private static final String ITEM = "{\"id\":\"item\",\"title\":\"Database\",\"version\":3,"
+      + "\"fields\":[{\"id\":\"password\",\"label\":\"password\",\"value\":\"secret\"}]}";
+  private static final int WARM_UP_REQUESTS = 200;
+  private static final int REQUESTS = 2000;
+  private static final int CONCURRENCY = 32;
+
+  @Test
+  void compareTransports() {
+    try (StubServer server = new StubServer().respond(200, ITEM)) {
+      run("okhttp", server, builder -> builder);
+      run("jdk", server, builder -> builder.withTransport(JdkHttpTransport.builder().build()));
+    }
+  }
+
+  private static void run(String name,
+                          StubServer server,
+                          Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token"))
+        .build();
+
+    try {
+      measure(client, WARM_UP_REQUESTS, 1);
+
+      report(name, "sequential", measure(client, REQUESTS / 10, 1));
+      report(name, "concurrent", measure(client, REQUESTS, CONCURRENCY));
+    } finally {
+      client.close();
+    }
+  }
+
+  /**
+   * Sends {@code requests} requests keeping {@code concurrency} of them in flight, and returns
+   * the latency of each request in nanoseconds followed by the total elapsed time.
+   */
+  private static long[] measure(OPConnectClient client, int requests, int concurrency) {
+    long[] latencies = new long[requests + 1];
+    long start = System.nanoTime();
+
+    CompletableFuture<?>[] lanes = new CompletableFuture<?>[concurrency];
+    for (int lane = 0; lane < concurrency; lane++) {
+      lanes[lane] = next(client, latencies, lane, concurrency);
+    }
+
+    CompletableFuture.allOf(lanes).join();
+    latencies[requests] = System.nanoTime() - start;
+
+    return latencies;
+  }
+
+  private static CompletableFuture<Void> next(OPConnectClient client,
+                                              long[] latencies,
+                                              int index,
+                                              int concurrency) {
+    if (index >= latencies.length - 1) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    long start = System.nanoTime();
+
+    return client.getItem("vault", "item").thenCompose(item -> {
+      latencies[index] = System.nanoTime() - start;
+
+      return next(client, latencies, index + concurrency, concurrency);
+    });
+  }
+
+  private static void report(String transport, String mode, long[] results) {
+    int requests = results.length - 1;
+    long elapsed = results[requests];
+    long[] latencies = Arrays.copyOf(results, requests);
+    Arrays.sort(latencies);
+
+    System.out.println(String.format(Locale.ROOT,
+        "%-6s %-10s %8.0f req/s  p50 %6.3f ms  p99 %6.3f ms",
+        transport, mode,
+        requests / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)),
+        latencies[requests / 2] / 1e6,
+        latencies[(int) (requests * 0.99)] / 1e6));
+  }
+}
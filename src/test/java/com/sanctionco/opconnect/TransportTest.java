@@ -0,0 +1,256 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Filter;
+import com.sanctionco.opconnect.model.Item;
+import com.sanctionco.opconnect.model.Patch;
+import com.sanctionco.opconnect.model.PatchOperation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import retrofit2.HttpException;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransportTest {
+  private static final String ITEM = "{\"id\":\"item\",\"title\":\"Database\",\"version\":3}";
+
+  private final StubServer server = new StubServer();
+
+  @AfterEach
+  void stopServer() {
+    server.close();
+  }
+
+  static Stream<Function<OPConnectClientBuilder, OPConnectClientBuilder>> transports() {
+    return Stream.of(
+        builder -> builder,
+        builder -> builder.withTransport(JdkHttpTransport.builder().build()));
+  }
+
+  @ParameterizedTest
+  @MethodSource("transports")
+  void shouldSendRequests(Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token"))
+        .build();
+
+    server.respond(200, ITEM);
+    Item item = client.getItem("vault", "item").join();
+    client.patchItem("vault", "item", Patch.builder()
+        .withOp(PatchOperation.REPLACE).withPath("/title").withValue("New").build()).join();
+    client.close();
+
+    assertAll("The requests are correct",
+        () -> assertEquals("Database", item.getTitle()),
+        () -> assertEquals(3, item.getVersion()),
+        () -> assertEquals("GET", server.requests().get(0).method),
+        () -> assertEquals("/v1/vaults/vault/items/item", server.requests().get(0).path),
+        () -> assertEquals("Bearer token", server.requests().get(0).authorization),
+        () -> assertEquals("PATCH", server.requests().get(1).method),
+        () -> assertTrue(server.requests().get(1).body.contains("\"/title\"")));
+  }
+
+  @Test
+  void shouldOnlySetContentTypeOnRequestsWithBody() throws IOException {
+    TransportCallFactory factory = new TransportCallFactory(
+        request -> new CompletableFuture<>(), "token");
+
+    TransportRequest get = factory.convert(new Request.Builder()
+        .url(server.endpoint() + "/v1/vaults")
+        .build());
+    TransportRequest post = factory.convert(new Request.Builder()
+        .url(server.endpoint() + "/v1/vaults/vault/items")
+        .header("Content-type", "text/plain")
+        .post(RequestBody.create("{}", MediaType.get("application/json")))
+        .build());
+
+    assertAll("The content type is set once, and only with a body",
+        () -> assertNull(get.getHeaders().get("Content-Type")),
+        () -> assertEquals("Bearer token", get.getHeaders().get("authorization")),
+        () -> assertEquals(2, post.getHeaders().size()),
+        () -> assertEquals("application/json; charset=utf-8",
+            post.getHeaders().get("Content-Type")));
+  }
+
+  @ParameterizedTest
+  @MethodSource("transports")
+  void shouldFailOverToAnotherEndpoint(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    StubServer down = new StubServer();
+    down.close();
+
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoints(List.of(down.endpoint(), server.endpoint()))
+        .withAccessToken("token"))
+        .build();
+
+    server.respond(200, ITEM);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals("Database", client.getItem("vault", "item").join().getTitle());
+    }
+
+    client.close();
+
+    assertEquals(5, server.requests().size());
+    assertEquals("/v1/vaults/vault/items/item", server.requests().get(4).path);
+  }
+
+  @ParameterizedTest
+  @MethodSource("transports")
+  void shouldFailWithHttpException(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token"))
+        .build();
+
+    server.respond(404, "{\"status\":404,\"message\":\"Not found\"}");
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> client.getItem("vault", "missing").join());
+    client.close();
+
+    assertTrue(e.getCause() instanceof HttpException);
+    assertEquals(404, ((HttpException) e.getCause()).code());
+  }
+
+  @ParameterizedTest
+  @MethodSource("transports")
+  void shouldStreamItems(Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token")
+        .withRetryPolicy(RetryPolicy.builder().build()))
+        .build();
+
+    server.respond(200, "[" + ITEM + ",{\"id\":\"other\",\"title\":\"Website\"}]");
+    Filter filter = Filter.title().equals("Database");
+    List<String> titles;
+
+    try (Stream<Item> items = client.streamItems("vault", filter).join()) {
+      titles = items.map(Item::getTitle).collect(Collectors.toList());
+    }
+
+    client.close();
+
+    assertEquals(List.of("Database", "Website"), titles);
+    assertEquals("/v1/vaults/vault/items?filter=title%20eq%20%22Database%22",
+        server.requests().get(0).path);
+  }
+
+  @ParameterizedTest
+  @MethodSource("transports")
+  void shouldDownloadBinaryFileContent(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport,
+      @TempDir Path directory) throws IOException {
+    // Every byte value, including sequences that are not valid UTF-8
+    byte[] content = new byte[1 << 20];
+    new Random(42).nextBytes(content);
+    server.respond(200, content);
+
+    Path path = directory.resolve("keystore.p12");
+    Files.write(path, new byte[] { 1, 2, 3 });
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token"))
+        .build();
+    byte[] bytes = client.getFileContentBytes("vault", "item", "file").join();
+    byte[] streamed;
+
+    try (InputStream in = client.getFileContentStream("vault", "item", "file").join()) {
+      streamed = in.readAllBytes();
+    }
+
+    long copied = client.writeFileContent("vault", "item", "file", out).join();
+    long written = client.writeFileContent("vault", "item", "file", path).join();
+    client.close();
+
+    assertAll("The content is not altered",
+        () -> assertArrayEquals(content, bytes),
+        () -> assertArrayEquals(content, streamed),
+        () -> assertArrayEquals(content, out.toByteArray()),
+        () -> assertArrayEquals(content, Files.readAllBytes(path)),
+        () -> assertEquals(content.length, copied),
+        () -> assertEquals(content.length, written),
+        () -> assertEquals(List.of(path), Files.list(directory).collect(Collectors.toList())),
+        () -> assertEquals("/v1/vaults/vault/items/item/files/file/content",
+            server.requests().get(0).path));
+  }
+
+  @ParameterizedTest
+  @MethodSource("transports")
+  void shouldAbortCallsPastTheirDeadline(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) {
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token")
+        .withRetryPolicy(RetryPolicy.builder().build())
+        .withRequestCoalescing(true))
+        .build();
+
+    server.respond(200, ITEM).delayResponses(5000);
+    long start = System.nanoTime();
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> client.withCallOptions(CallOptions.builder().withTimeoutInMilliseconds(200).build())
+            .getItem("vault", "item").join());
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    client.close();
+
+    assertTrue(e.getCause() instanceof DeadlineExceededException);
+    assertTrue(elapsed < 2000, "The call took " + elapsed + " milliseconds");
+  }
+
+  @ParameterizedTest
+  @MethodSource("transports")
+  void shouldAbortStalledDownloadsPastTheirDeadline(
+      Function<OPConnectClientBuilder, OPConnectClientBuilder> transport) throws IOException {
+    OPConnectClient client = transport.apply(OPConnectClient.builder()
+        .withEndpoint(server.endpoint())
+        .withAccessToken("token"))
+        .build();
+
+    server.respond(200, ITEM).delayBodies(5000);
+    long start = System.nanoTime();
+
+    try (InputStream in = client
+        .withCallOptions(CallOptions.builder().withTimeoutInMilliseconds(300).build())
+        .getFileContentStream("vault", "item", "file").join()) {
+      assertThrows(IOException.class, in::read);
+    }
+
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    client.close();
+
+    assertTrue(elapsed < 2000, "The download took " + elapsed + " milliseconds");
+  }
+}
@@ -0,0 +1,116 @@
+package com.sanctionco.opconnect;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listens on a Unix domain socket and relays every connection to a {@link StubServer}, so that
+ * tests can talk to the stub over a socket file. Requires Java 16 or later.
+ */
+final class UnixSocketRelay implements AutoCloseable {
+  private final ServerSocketChannel server;
+  private final InetSocketAddress target;
+  private final AtomicInteger connections = new AtomicInteger();
+  private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "unix-socket-relay");
+    thread.setDaemon(true);
+
+    return thread;
+  });
+
+  UnixSocketRelay(Path socket, StubServer stub) {
+    String endpoint = stub.endpoint();
+    String hostAndPort = endpoint.substring(endpoint.indexOf("//") + 2);
+    int colon = hostAndPort.lastIndexOf(':');
+
+    target = new InetSocketAddress(hostAndPort.substring(0, colon),
+        Integer.parseInt(hostAndPort.substring(colon + 1)));
+
+    try {
+      ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+      SocketAddress address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+          .getMethod("of", Path.class).invoke(null, socket);
+
+      server = (ServerSocketChannel) ServerSocketChannel.class
+          .getMethod("open", ProtocolFamily.class).invoke(null, unix);
+      server.bind(address);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Unix domain sockets are not supported", e);
+    }
+
+    executor.execute(this::accept);
+  }
+
+  /**
+   * Get the number of connections that have been relayed to the stub.
+   *
+   * @return the number of accepted connections
+   */
+  int connections() {
+    return connections.get();
+  }
+
+  @Override
+  public void close() {
+    try {
+      server.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void accept() {
+    while (server.isOpen()) {
+      try {
+        SocketChannel client = server.accept();
+        SocketChannel upstream = SocketChannel.open(target);
+        connections.incrementAndGet();
+
+        executor.execute(() -> pump(client, upstream));
+        executor.execute(() -> pump(upstream, client));
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private static void pump(SocketChannel from, SocketChannel to) {
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+    try {
+      while (from.read(buffer) >= 0) {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+          to.write(buffer);
+        }
+
+        buffer.clear();
+      }
+    } catch (IOException e) {
+      // The other side closed the connection
+    } finally {
+      try {
+        from.close();
+        to.close();
+      } catch (IOException e) {
+        // Already closed
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.sanctionco.opconnect;
+
+import com.sanctionco.opconnect.model.Item;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WarmUpTest {
+  private static final Item FIRST = Item.builder().withId("first").build();
+  private static final Item SECOND = Item.builder().withId("second").build();
+
+  private final RetrofitOPConnectClient client = mock(RetrofitOPConnectClient.class);
+  private final AtomicLong time = new AtomicLong();
+
+  @Test
+  void shouldLoadEveryListedItem() {
+    CompletableFuture<List<Item>> listing = new CompletableFuture<>();
+    when(client.listItems("vault")).thenReturn(listing);
+    when(client.listItems("other", "title eq \"first\""))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(FIRST)));
+    when(client.getItem("vault", "first")).thenReturn(CompletableFuture.completedFuture(FIRST));
+    when(client.getItem("vault", "second")).thenReturn(CompletableFuture.completedFuture(SECOND));
+    when(client.getItem("other", "first")).thenReturn(CompletableFuture.completedFuture(FIRST));
+
+    WarmUp warmUp = new WarmUp(client, Arrays.asList(
+        new CacheKey("vault", null), new CacheKey("other", "title eq \"first\"")), time::get);
+    CompletableFuture<WarmUpStatus> result = warmUp.start();
+
+    time.addAndGet(Duration.ofMillis(10).toNanos());
+    assertFalse(result.isDone());
+    assertEquals(1, warmUp.status().getCompletedTargets());
+    assertEquals(Duration.ofMillis(10), warmUp.status().getElapsed());
+
+    listing.complete(Arrays.asList(FIRST, SECOND));
+    time.addAndGet(Duration.ofMillis(10).toNanos());
+    WarmUpStatus status = result.join();
+
+    assertAll("The warm-up status is correct",
+        () -> assertTrue(status.isSuccessful()),
+        () -> assertEquals(2, status.getTotalTargets()),
+        () -> assertEquals(3, status.getLoadedItems()),
+        () -> assertEquals(Duration.ofMillis(10), status.getElapsed()),
+        () -> assertEquals(Duration.ofMillis(10), warmUp.status().getElapsed()));
+
+    verify(client, times(1)).getItem("vault", "second");
+  }
+
+  @Test
+  void failedTargetShouldBeCounted() {
+    CompletableFuture<List<Item>> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException());
+    when(client.listItems("vault")).thenReturn(failed);
+
+    WarmUp warmUp = new WarmUp(client, Collections.singletonList(new CacheKey("vault", null)));
+    WarmUpStatus status = warmUp.start().join();
+
+    assertAll("The warm-up status is correct",
+        () -> assertTrue(status.isDone()),
+        () -> assertFalse(status.isSuccessful()),
+        () -> assertEquals(1, status.getFailedTargets()));
+  }
+
+  @Test
+  void shouldStartOnce() {
+    when(client.listItems("vault"))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+    WarmUp warmUp = new WarmUp(client, Collections.singletonList(new CacheKey("vault", null)));
+    warmUp.start().join();
+    warmUp.start().join();
+
+    verify(client, times(1)).listItems("vault");
+  }
+
+  @Test
+  void shouldLimitConcurrentFetches() {
+    List<Item> summaries = new ArrayList<>();
+    List<CompletableFuture<Item>> fetches = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      CompletableFuture<Item> fetch = new CompletableFuture<>();
+      summaries.add(Item.builder().withId("item" + i).build());
+      fetches.add(fetch);
+      when(client.getItem("vault", "item" + i)).thenReturn(fetch);
+    }
+
+    when(client.listItems("vault")).thenReturn(CompletableFuture.completedFuture(summaries));
+
+    WarmUp warmUp = new WarmUp(client,
+        Collections.singletonList(new CacheKey("vault", null)), 2, time::get);
+    final CompletableFuture<WarmUpStatus> result = warmUp.start();
+
+    verify(client, times(2)).getItem(eq("vault"), anyString());
+
+    fetches.get(0).complete(FIRST);
+    verify(client, times(3)).getItem(eq("vault"), anyString());
+    verify(client).getItem("vault", "item2");
+
+    fetches.forEach(fetch -> fetch.complete(FIRST));
+
+    assertEquals(5, result.join().getLoadedItems());
+    verify(client, times(5)).getItem(eq("vault"), anyString());
+  }
+
+  @Test
+  void shouldFetchManyCachedItemsWithoutRecursion() {
+    List<Item> summaries = new ArrayList<>();
+
+    for (int i = 0; i < 20000; i++) {
+      summaries.add(Item.builder().withId("item" + i).build());
+    }
+
+    when(client.listItems("vault")).thenReturn(CompletableFuture.completedFuture(summaries));
+    when(client.getItem(eq("vault"), anyString()))
+        .thenReturn(CompletableFuture.completedFuture(FIRST));
+
+    WarmUp warmUp = new WarmUp(client, Collections.singletonList(new CacheKey("vault", null)));
+
+    assertEquals(20000, warmUp.start().join().getLoadedItems());
+  }
+}
@@ -60,4 +60,18 @@ class FieldTest {
         () -> assertEquals("My Note Contents", field.getValue()),
         () -> assertEquals("note", field.getLabel()));
   }
+
+  @Test
+  void estimatedWeightShouldIncludeValues() {
+    Field small = Field.password("pass").build();
+    Field large = Field.password(new String(new char[1000]).replace('\0', 'a')).build();
+    File file = File.builder().withId("file").withContent(large.getValue()).build();
+    Item item = Item.builder().withField(small).withField(large).withFile(file).build();
+
+    assertAll("Weights are correct",
+        () -> assertTrue(large.estimateWeight() >= small.estimateWeight() + 1900),
+        () -> assertTrue(file.estimateWeight() >= 2000),
+        () -> assertTrue(item.estimateWeight()
+            > small.estimateWeight() + large.estimateWeight() + file.estimateWeight()));
+  }
 }